@@ -1,11 +1,14 @@
 package com.pharmacyhub.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration for asynchronous task execution
@@ -14,6 +17,8 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig implements AsyncConfigurer {
 
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
     /**
      * Configure the async task executor with appropriate thread pool settings
      */
@@ -28,6 +33,40 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Bounded executor for building detailed exam results after submission.
+     * Tasks beyond the queue are dropped; the details are then built when the result is first read.
+     */
+    @Bean(name = "examResultExecutor")
+    public Executor examResultExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("PharmacyHub-Result-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                logger.warn("Exam result executor is saturated; result details will be built on first read"));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded worker pool for bulk paper imports.
+     * When it is saturated the submitting import coordinator runs the paper itself, which
+     * throttles reading of the import source instead of queueing papers without limit.
+     */
+    @Bean(name = "bulkImportExecutor")
+    public Executor bulkImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(8);
+        executor.setThreadNamePrefix("PharmacyHub-Import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
     @Override
     public Executor getAsyncExecutor() {
         return taskExecutor();
@@ -0,0 +1,224 @@
+package com.pharmacyhub.config.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Small in-memory LRU cache with a maximum size and per-entry expiry.
+ * Used for hot-path lookups where the unbounded ConcurrentMapCache caches are not suitable.
+ * All operations are synchronized on the cache instance.
+ *
+ * Every invalidation advances a generation counter and stamps the invalidated key with it. A
+ * value loaded on a miss is only stored if its key was not invalidated since the miss, so a
+ * reader that loaded rows from before a change cannot put them back after the change evicted
+ * them, while loads of other keys are unaffected. Stamps are kept for a bounded number of keys;
+ * once the oldest is dropped, loads that started before it are treated as invalidated.
+ *
+ * A put beyond the size limit evicts only the least recently used entry. Expired entries are
+ * dropped when read and swept periodically by {@link BoundedTtlCacheSweeper}, so no put has to
+ * scan the whole cache.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedTtlCache<K, V> {
+
+    // Every live cache, held weakly so caches of discarded objects are not kept for the sweeper
+    private static final Set<BoundedTtlCache<?, ?>> INSTANCES =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // Generation at which each recently invalidated key was last invalidated, oldest first
+    private final LinkedHashMap<K, Long> invalidatedAt;
+
+    private long hits;
+    private long misses;
+    private long generation;
+    // Loads that read a generation below this may have missed an invalidation: invalidateAll, or a dropped stamp
+    private long invalidatedAllAt;
+
+    /**
+     * @param maxSize maximum number of entries kept; the least recently used entry is evicted beyond it
+     * @param ttlMillis default time to live of an entry in milliseconds
+     */
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedTtlCache.this.maxSize;
+            }
+        };
+        this.invalidatedAt = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                if (size() > BoundedTtlCache.this.maxSize) {
+                    invalidatedAllAt = Math.max(invalidatedAllAt, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        INSTANCES.add(this);
+    }
+
+    /**
+     * Drop expired entries from every live cache
+     *
+     * @return number of entries dropped
+     */
+    public static int purgeAllExpired() {
+        List<BoundedTtlCache<?, ?>> caches;
+        synchronized (INSTANCES) {
+            caches = new ArrayList<>(INSTANCES);
+        }
+        int purged = 0;
+        for (BoundedTtlCache<?, ?> cache : caches) {
+            purged += cache.purgeExpired();
+        }
+        return purged;
+    }
+
+    /**
+     * Get a value if it is present and not expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Get a value, loading and caching it on a miss.
+     * The loader runs outside the lock so slow loads do not block other keys. Its result is
+     * returned but not cached if the key was invalidated while it ran.
+     */
+    public V get(K key, Function<K, V> loader) {
+        long readGeneration;
+        synchronized (this) {
+            V value = get(key);
+            if (value != null) {
+                return value;
+            }
+            readGeneration = generation;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            putIfNotInvalidatedSince(key, value, readGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * Current invalidation generation, to be read before loading a value for putIfNotInvalidatedSince
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Store a value with the default time to live, unless the key was invalidated after the
+     * given generation was read
+     *
+     * @return whether the value was stored
+     */
+    public synchronized boolean putIfNotInvalidatedSince(K key, V value, long readGeneration) {
+        Long keyInvalidatedAt = invalidatedAt.get(key);
+        if (invalidatedAllAt > readGeneration || (keyInvalidatedAt != null && keyInvalidatedAt > readGeneration)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Store a value with the default time to live
+     */
+    public void put(K key, V value) {
+        putUntil(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    /**
+     * Store a value that expires at the given epoch millisecond
+     */
+    public synchronized void putUntil(K key, V value, long expiresAtMillis) {
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        // Re-inserted so the stamp map stays ordered by generation
+        invalidatedAt.remove(key);
+        invalidatedAt.put(key, generation);
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidatedAllAt = generation;
+        invalidatedAt.clear();
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Hit and miss counters plus current size, for diagnostics endpoints
+     */
+    public synchronized Map<String, Object> getStats() {
+        return Map.of(
+                "size", entries.size(),
+                "maxSize", maxSize,
+                "hits", hits,
+                "misses", misses);
+    }
+
+    /**
+     * Drop expired entries
+     *
+     * @return number of entries dropped
+     */
+    public synchronized int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        return before - entries.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtMillis;
+
+        private Entry(V value, long expiresAtMillis) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.pharmacyhub.config.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically drops expired entries from all BoundedTtlCache instances, so expired values do not
+ * hold memory until they are read again or pushed out by newer entries.
+ */
+@Component
+public class BoundedTtlCacheSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedTtlCacheSweeper.class);
+
+    @Scheduled(fixedDelayString = "${pharmacyhub.cache.expired-sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        int purged = BoundedTtlCache.purgeAllExpired();
+        if (purged > 0) {
+            logger.debug("Swept {} expired cache entries", purged);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.pharmacyhub.dto.response.ApiResponse;
 import com.pharmacyhub.dto.response.ExamAttemptResponseDTO;
 import com.pharmacyhub.dto.request.AnswerSubmissionDTO;
 import com.pharmacyhub.dto.response.FlaggedQuestionResponseDTO;
+import com.pharmacyhub.payment.entitlement.EntitlementService;
+import com.pharmacyhub.payment.entitlement.EntitlementSnapshot;
 import com.pharmacyhub.payment.manual.service.PaymentManualService;
 import com.pharmacyhub.payment.service.PaymentService;
 import com.pharmacyhub.service.ExamAttemptService;
@@ -36,16 +38,19 @@ public class ExamAttemptController {
     private final ExamService examService;
     private final PaymentService paymentService;
     private final PaymentManualService paymentManualService;
+    private final EntitlementService entitlementService;
 
     public ExamAttemptController(
             ExamAttemptService examAttemptService,
             ExamService examService,
             PaymentService paymentService,
-            PaymentManualService paymentManualService) {
+            PaymentManualService paymentManualService,
+            EntitlementService entitlementService) {
         this.examAttemptService = examAttemptService;
         this.examService = examService;
         this.paymentService = paymentService;
         this.paymentManualService = paymentManualService;
+        this.entitlementService = entitlementService;
     }
 
     @PostMapping("/{examId}/start")
@@ -65,12 +70,14 @@ public class ExamAttemptController {
             
             if (exam.isPremium()) {
                 // COMPREHENSIVE APPROACH: CHECK ALL PAYMENT METHODS
+                // Served from the cached entitlement snapshot, so this hot path rarely touches the database
+                EntitlementSnapshot entitlements = entitlementService.getSnapshot(userId);
                 
                 // 1. Check online payments: Has user purchased ANY premium exam? (pay once, access all)
-                boolean hasPurchasedAnyExam = paymentService.hasUserPurchasedAnyExam(userId);
+                boolean hasPurchasedAnyExam = entitlements.hasPurchasedAnyExam();
                 
                 // 2. Check manual payments: Has user had ANY manual payment request approved?
-                boolean hasApprovedAnyManualPayment = paymentManualService.hasUserApprovedRequest(userId, null);
+                boolean hasApprovedAnyManualPayment = entitlements.hasAnyApprovedManualRequest();
                 
                 // 3. If no universal access, check specific exam purchases
                 boolean hasPurchasedThisExam = false;
@@ -78,10 +85,10 @@ public class ExamAttemptController {
                 
                 if (!hasPurchasedAnyExam && !hasApprovedAnyManualPayment) {
                     // 3a. Check online payment for this specific exam
-                    hasPurchasedThisExam = paymentService.hasUserPurchasedExam(examId, userId);
+                    hasPurchasedThisExam = entitlements.hasPurchasedExam(examId);
                     
                     // 3b. Check manual payment for this specific exam
-                    hasApprovedThisExamManualPayment = paymentManualService.hasUserApprovedRequest(userId, examId);
+                    hasApprovedThisExamManualPayment = entitlements.hasApprovedManualRequest(examId);
                 }
                 
                 // Grant access if ANY of these conditions are true
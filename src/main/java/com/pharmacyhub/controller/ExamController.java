@@ -4,11 +4,17 @@ import com.pharmacyhub.domain.entity.Exam;
 import com.pharmacyhub.domain.entity.Option;
 import com.pharmacyhub.domain.entity.Question;
 import com.pharmacyhub.dto.response.ApiResponse;
+import com.pharmacyhub.dto.request.ExamFilterRequestDTO;
+import com.pharmacyhub.dto.request.ExamPageRequestDTO;
 import com.pharmacyhub.dto.request.ExamRequestDTO;
 import com.pharmacyhub.dto.request.JsonExamUploadRequestDTO;
+import com.pharmacyhub.dto.response.BulkImportStatusDTO;
+import com.pharmacyhub.dto.response.ExamPageResponseDTO;
 import com.pharmacyhub.dto.response.ExamResponseDTO;
 import com.pharmacyhub.dto.response.QuestionResponseDTO;
 import com.pharmacyhub.payment.dto.PremiumExamInfoDTO;
+import com.pharmacyhub.payment.entitlement.EntitlementService;
+import com.pharmacyhub.payment.entitlement.EntitlementSnapshot;
 import com.pharmacyhub.payment.manual.service.PaymentManualService;
 import com.pharmacyhub.payment.service.PaymentService;
 import com.pharmacyhub.security.annotation.RequiresPermission;
@@ -18,21 +24,33 @@ import com.pharmacyhub.security.domain.ResourceType;
 import com.pharmacyhub.service.ExamService;
 import com.pharmacyhub.service.JsonExamUploadService;
 import com.pharmacyhub.service.QuestionService;
+import com.pharmacyhub.service.catalog.ExamCatalogService;
+import com.pharmacyhub.service.catalog.ExamQuestionPayloadCache;
+import com.pharmacyhub.service.upload.BulkImportFormat;
+import com.pharmacyhub.service.upload.BulkImportService;
+import com.pharmacyhub.service.versioning.ExamVersionService;
+import com.pharmacyhub.service.versioning.FrozenExam;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
@@ -54,6 +72,11 @@ public class ExamController {
     private final JsonExamUploadService jsonExamUploadService;
     private final PaymentService paymentService;
     private final PaymentManualService paymentManualService;
+    private final EntitlementService entitlementService;
+    private final ExamCatalogService examCatalogService;
+    private final BulkImportService bulkImportService;
+    private final ExamQuestionPayloadCache questionPayloadCache;
+    private final ExamVersionService examVersionService;
 
     @Autowired
     public ExamController(
@@ -61,12 +84,22 @@ public class ExamController {
             QuestionService questionService, 
             JsonExamUploadService jsonExamUploadService,
             PaymentService paymentService,
-            PaymentManualService paymentManualService) {
+            PaymentManualService paymentManualService,
+            EntitlementService entitlementService,
+            ExamCatalogService examCatalogService,
+            BulkImportService bulkImportService,
+            ExamQuestionPayloadCache questionPayloadCache,
+            ExamVersionService examVersionService) {
         this.examService = examService;
         this.questionService = questionService;
         this.jsonExamUploadService = jsonExamUploadService;
         this.paymentService = paymentService;
         this.paymentManualService = paymentManualService;
+        this.entitlementService = entitlementService;
+        this.examCatalogService = examCatalogService;
+        this.bulkImportService = bulkImportService;
+        this.questionPayloadCache = questionPayloadCache;
+        this.examVersionService = examVersionService;
     }
 
     @GetMapping
@@ -76,12 +109,13 @@ public class ExamController {
     public ResponseEntity<ApiResponse<List<ExamResponseDTO>>> getAllExams(@AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching all exams");
         List<Exam> exams = examService.findAllActive();
+        EntitlementSnapshot entitlements = loadEntitlements(userDetails);
         
         // Process each exam separately to avoid lazy loading issues
         List<ExamResponseDTO> examResponseDTOs = new ArrayList<>();
         for (Exam exam : exams) {
             // Map basic exam info without accessing lazy collections
-            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, userDetails != null ? userDetails.getUsername() : null);
+            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, entitlements);
             examResponseDTOs.add(dto);
         }
         
@@ -90,19 +124,11 @@ public class ExamController {
 
     @GetMapping("/published")
     @Operation(summary = "Get all published exams - Public access")
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public ResponseEntity<ApiResponse<List<ExamResponseDTO>>> getAllPublishedExams(@AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching all published exams");
         try {
-            List<Exam> publishedExams = examService.findAllPublished();
-            
-            // Process each exam separately to avoid lazy loading issues
-            List<ExamResponseDTO> examResponseDTOs = new ArrayList<>();
-            for (Exam exam : publishedExams) {
-                // Map basic exam info without accessing lazy collections
-                ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, userDetails != null ? userDetails.getUsername() : null);
-                examResponseDTOs.add(dto);
-            }
+            // Served from the published exam catalog with the user's purchase state applied
+            List<ExamResponseDTO> examResponseDTOs = examCatalogService.getPublishedExams(loadEntitlements(userDetails));
             
             logger.info("Successfully fetched {} published exams", examResponseDTOs.size());
             return ResponseEntity.ok(ApiResponse.success(examResponseDTOs));
@@ -112,98 +138,124 @@ public class ExamController {
         }
     }
     
+    @GetMapping("/page")
+    @RequiresPermission(resource = ResourceType.PHARMACY, operation = OperationType.READ, permissionName = ExamPermissionConstants.VIEW_EXAMS)
+    @Operation(summary = "Get one page of exams with filters - Admin/Instructor only")
+    public ResponseEntity<ApiResponse<ExamPageResponseDTO>> getExamPage(
+            @RequestParam(required = false) Exam.ExamStatus status,
+            @RequestParam(required = false) Boolean premium,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false, defaultValue = "NEWEST") ExamPageRequestDTO.Sort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        ExamPageRequestDTO request = ExamPageRequestDTO.builder()
+                .status(status)
+                .premium(premium)
+                .tag(tag)
+                .titlePrefix(titlePrefix)
+                .sort(sort)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(findExamPage(request, userDetails)));
+    }
+    
+    @GetMapping("/published/page")
+    @Operation(summary = "Get one page of published exams with filters - Public access")
+    public ResponseEntity<ApiResponse<ExamPageResponseDTO>> getPublishedExamPage(
+            @RequestParam(required = false) Boolean premium,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String titlePrefix,
+            @RequestParam(required = false, defaultValue = "NEWEST") ExamPageRequestDTO.Sort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        ExamPageRequestDTO request = ExamPageRequestDTO.builder()
+                .status(Exam.ExamStatus.PUBLISHED)
+                .premium(premium)
+                .tag(tag)
+                .titlePrefix(titlePrefix)
+                .sort(sort)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(findExamPage(request, userDetails)));
+    }
+    
     @GetMapping("/papers/model")
     @Operation(summary = "Get model papers")
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public ResponseEntity<ApiResponse<List<ExamResponseDTO>>> getModelPapers(@AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching model papers");
         
         // Get all published exams with "MODEL" tag
-        List<Exam> exams = examService.findAllPublished().stream()
-                .filter(exam -> exam.getTags() != null && 
-                      exam.getTags().stream().anyMatch(tag -> tag.equalsIgnoreCase("MODEL")))
-                .collect(Collectors.toList());
-        
-        // Process each exam separately to avoid lazy loading issues
-        List<ExamResponseDTO> examDTOs = new ArrayList<>();
-        for (Exam exam : exams) {
-            // Map basic exam info without accessing lazy collections
-            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, userDetails != null ? userDetails.getUsername() : null);
-            examDTOs.add(dto);
-        }
+        List<ExamResponseDTO> examDTOs = examCatalogService.getPublishedExamsByTag("MODEL", loadEntitlements(userDetails));
                 
         return ResponseEntity.ok(ApiResponse.success(examDTOs));
     }
 
     @GetMapping("/papers/past")
     @Operation(summary = "Get past papers")
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public ResponseEntity<ApiResponse<List<ExamResponseDTO>>> getPastPapers(@AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching past papers");
         
         // Get all published exams with "PAST" tag
-        List<Exam> exams = examService.findAllPublished().stream()
-                .filter(exam -> exam.getTags() != null && 
-                      exam.getTags().stream().anyMatch(tag -> tag.equalsIgnoreCase("PAST")))
-                .collect(Collectors.toList());
-        
-        // Process each exam separately to avoid lazy loading issues
-        List<ExamResponseDTO> examDTOs = new ArrayList<>();
-        for (Exam exam : exams) {
-            // Map basic exam info without accessing lazy collections
-            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, userDetails != null ? userDetails.getUsername() : null);
-            examDTOs.add(dto);
-        }
+        List<ExamResponseDTO> examDTOs = examCatalogService.getPublishedExamsByTag("PAST", loadEntitlements(userDetails));
                 
         return ResponseEntity.ok(ApiResponse.success(examDTOs));
     }
     
     @GetMapping("/papers/subject")
     @Operation(summary = "Get subject papers")
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public ResponseEntity<ApiResponse<List<ExamResponseDTO>>> getSubjectPapers(@AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching subject papers");
         
         // Get all published exams with "SUBJECT" tag
-        List<Exam> exams = examService.findAllPublished().stream()
-                .filter(exam -> exam.getTags() != null && 
-                      exam.getTags().stream().anyMatch(tag -> tag.equalsIgnoreCase("SUBJECT")))
-                .collect(Collectors.toList());
-        
-        // Process each exam separately to avoid lazy loading issues
-        List<ExamResponseDTO> examDTOs = new ArrayList<>();
-        for (Exam exam : exams) {
-            // Map basic exam info without accessing lazy collections
-            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, userDetails != null ? userDetails.getUsername() : null);
-            examDTOs.add(dto);
-        }
+        List<ExamResponseDTO> examDTOs = examCatalogService.getPublishedExamsByTag("SUBJECT", loadEntitlements(userDetails));
                 
         return ResponseEntity.ok(ApiResponse.success(examDTOs));
     }
     
     @GetMapping("/papers/practice")
     @Operation(summary = "Get practice papers")
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
     public ResponseEntity<ApiResponse<List<ExamResponseDTO>>> getPracticePapers(@AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching practice papers");
         
         // Get all published exams with "PRACTICE" tag
-        List<Exam> exams = examService.findAllPublished().stream()
-                .filter(exam -> exam.getTags() != null && 
-                      exam.getTags().stream().anyMatch(tag -> tag.equalsIgnoreCase("PRACTICE")))
-                .collect(Collectors.toList());
-        
-        // Process each exam separately to avoid lazy loading issues
-        List<ExamResponseDTO> examDTOs = new ArrayList<>();
-        for (Exam exam : exams) {
-            // Map basic exam info without accessing lazy collections
-            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, userDetails != null ? userDetails.getUsername() : null);
-            examDTOs.add(dto);
-        }
+        List<ExamResponseDTO> examDTOs = examCatalogService.getPublishedExamsByTag("PRACTICE", loadEntitlements(userDetails));
                 
         return ResponseEntity.ok(ApiResponse.success(examDTOs));
     }
 
+    @GetMapping("/papers/filter")
+    @Operation(summary = "Filter published papers by type, difficulty and topic")
+    public ResponseEntity<ApiResponse<List<ExamResponseDTO>>> filterPapers(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String topic) {
+        ExamFilterRequestDTO filters = ExamFilterRequestDTO.builder()
+                .type(type)
+                .difficulty(difficulty)
+                .topic(topic)
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(examService.findPapersByFilter(filters)));
+    }
+    
+    @GetMapping("/papers/facets")
+    @Operation(summary = "Count published papers per type, difficulty, subject and topic")
+    public ResponseEntity<ApiResponse<Map<String, Map<String, Integer>>>> getPaperFacets(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String topic) {
+        ExamFilterRequestDTO filters = ExamFilterRequestDTO.builder()
+                .type(type)
+                .difficulty(difficulty)
+                .topic(topic)
+                .build();
+        return ResponseEntity.ok(ApiResponse.success(examService.getPaperFacets(filters)));
+    }
+
     @GetMapping("/stats")
     @Operation(summary = "Get exam statistics")
     @org.springframework.transaction.annotation.Transactional(readOnly = true)
@@ -224,15 +276,25 @@ public class ExamController {
             Exam exam = examService.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Exam not found with ID: " + id));
             
-            // Get the questions separately to avoid LazyInitializationException
-            List<Question> questions = questionService.findByExamId(id);
-            
             // First map basic exam info
             ExamResponseDTO examResponseDTO = mapToExamResponseDTOWithPurchaseCheck(
                 exam, 
-                userDetails != null ? userDetails.getUsername() : null
+                loadEntitlements(userDetails)
             );
             
+            // Published exams show the version students are served and scored against;
+            // drafts show the live questions, loaded with their options in one query
+            List<Question> questions;
+            if (exam.getStatus() == Exam.ExamStatus.PUBLISHED) {
+                FrozenExam version = examVersionService.getVersion(examVersionService.getLatestVersionId(id));
+                questions = version.getQuestions();
+                examResponseDTO.setTotalMarks(version.getExam().getTotalMarks());
+                examResponseDTO.setPassingMarks(version.getExam().getPassingMarks());
+                examResponseDTO.setQuestionCount(questions.size());
+            } else {
+                questions = questionService.getQuestionsWithOptionsByExamId(id);
+            }
+            
             // Then manually map the questions if needed
             if (questions != null && !questions.isEmpty()) {
                 List<ExamResponseDTO.QuestionDTO> questionDTOs = questions.stream()
@@ -267,14 +329,15 @@ public class ExamController {
             // Check if the user has already purchased this exam or any premium exam
             if (exam.isPremium() && userDetails != null) {
                 String userId = userDetails.getUsername();
+                EntitlementSnapshot entitlements = entitlementService.getSnapshot(userId);
                 
                 // 1. Check online payments
-                boolean hasPurchasedThisExam = paymentService.hasUserPurchasedExam(exam.getId(), userId);
-                boolean hasPurchasedAnyExam = paymentService.hasUserPurchasedAnyExam(userId);
+                boolean hasPurchasedThisExam = entitlements.hasPurchasedExam(exam.getId());
+                boolean hasPurchasedAnyExam = entitlements.hasPurchasedAnyExam();
                 
                 // 2. Check manual payments
-                boolean hasApprovedThisExamManualPayment = paymentManualService.hasUserApprovedRequest(userId, exam.getId());
-                boolean hasApprovedAnyManualPayment = paymentManualService.hasUserApprovedRequest(userId, null);
+                boolean hasApprovedThisExamManualPayment = entitlements.hasApprovedManualRequest(exam.getId());
+                boolean hasApprovedAnyManualPayment = entitlements.hasAnyApprovedManualRequest();
                 
                 // Determine overall access status
                 boolean hasDirectAccess = hasPurchasedThisExam || hasApprovedThisExamManualPayment;
@@ -312,10 +375,11 @@ public class ExamController {
 
     @GetMapping("/{examId}/questions")
     @Operation(summary = "Get questions for a specific exam")
-    @org.springframework.transaction.annotation.Transactional(readOnly = true)
-    public ResponseEntity<ApiResponse<List<QuestionResponseDTO>>> getExamQuestions(
+    public ResponseEntity<byte[]> getExamQuestions(
             @PathVariable Long examId,
             @RequestHeader(value = "X-Universal-Access", required = false) String universalAccess,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
             @AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching questions for exam with ID: {}", examId);
         try {
@@ -327,12 +391,14 @@ public class ExamController {
                 String userId = userDetails.getUsername();
                 
                 // COMPREHENSIVE APPROACH: CHECK ALL PAYMENT METHODS
+                // Served from the cached entitlement snapshot, so this hot path rarely touches the database
+                EntitlementSnapshot entitlements = entitlementService.getSnapshot(userId);
                 
                 // 1. Check online payments: Has user purchased ANY premium exam? (pay once, access all)
-                boolean hasPurchasedAnyExam = paymentService.hasUserPurchasedAnyExam(userId);
+                boolean hasPurchasedAnyExam = entitlements.hasPurchasedAnyExam();
                 
                 // 2. Check manual payments: Has user had ANY manual payment request approved?
-                boolean hasApprovedAnyManualPayment = paymentManualService.hasUserApprovedRequest(userId, null);
+                boolean hasApprovedAnyManualPayment = entitlements.hasAnyApprovedManualRequest();
                 
                 // 3. If no universal access, check specific exam purchases
                 boolean hasPurchasedThisExam = false;
@@ -340,10 +406,10 @@ public class ExamController {
                 
                 if (!hasPurchasedAnyExam && !hasApprovedAnyManualPayment) {
                     // 3a. Check online payment for this specific exam
-                    hasPurchasedThisExam = paymentService.hasUserPurchasedExam(examId, userId);
+                    hasPurchasedThisExam = entitlements.hasPurchasedExam(examId);
                     
                     // 3b. Check manual payment for this specific exam
-                    hasApprovedThisExamManualPayment = paymentManualService.hasUserApprovedRequest(userId, examId);
+                    hasApprovedThisExamManualPayment = entitlements.hasApprovedManualRequest(examId);
                 }
                 
                 // Grant access if ANY of these conditions are true
@@ -373,12 +439,25 @@ public class ExamController {
                 logger.info("User {} GRANTED premium access to exam {}.", userId, examId);
             }
             
-            List<Question> questions = questionService.getQuestionsByExamId(examId);
-            List<QuestionResponseDTO> questionDTOs = questions.stream()
-                    .map(this::mapToQuestionResponseDTO)
-                    .collect(Collectors.toList());
+            // Served as pre-serialized, pre-compressed bytes; the access check above still runs per request.
+            // No transaction is held here: a cached payload needs none and a miss opens its own
+            ExamQuestionPayloadCache.Payload payload = questionPayloadCache.get(exam);
+            if (payload.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(payload.getEtag())
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
+            }
             
-            return ResponseEntity.ok(ApiResponse.success(questionDTOs));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(payload.getEtag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(acceptEncoding)) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.getGzipped());
+            }
+            return response.body(payload.getJson());
         } catch (EntityNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (Exception e) {
@@ -406,7 +485,7 @@ public class ExamController {
             
             // Update the question
             Question updatedQuestion = questionService.updateQuestion(questionId, questionData);
-            QuestionResponseDTO responseDTO = mapToQuestionResponseDTO(updatedQuestion);
+            QuestionResponseDTO responseDTO = questionPayloadCache.render(updatedQuestion);
             
             return ResponseEntity.ok(ApiResponse.success(responseDTO));
         } catch (EntityNotFoundException e) {
@@ -532,6 +611,85 @@ public class ExamController {
         }
     }
 
+    @PostMapping(value = "/papers/upload/json/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @RequiresPermission(resource = ResourceType.PHARMACY, operation = OperationType.CREATE, permissionName = ExamPermissionConstants.CREATE_EXAM)
+    @Operation(summary = "Stream a paper from an uploaded JSON file of questions")
+    public ResponseEntity<ApiResponse<ExamResponseDTO>> streamJsonPaperFile(
+            @RequestPart("metadata") JsonExamUploadRequestDTO metadata,
+            @RequestPart("file") MultipartFile file) {
+        logger.info("Streaming JSON paper file: {} ({} bytes)", metadata.getTitle(), file.getSize());
+        try (InputStream questionsJson = file.getInputStream()) {
+            Exam createdExam = jsonExamUploadService.processJsonStreamAndCreateExam(metadata, questionsJson);
+            ExamResponseDTO responseDTO = mapToExamResponseDTO(createdExam);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success(responseDTO, 201));
+        } catch (Exception e) {
+            logger.error("Error streaming JSON paper file: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping(value = "/papers/upload/json/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @RequiresPermission(resource = ResourceType.PHARMACY, operation = OperationType.CREATE, permissionName = ExamPermissionConstants.CREATE_EXAM)
+    @Operation(summary = "Stream a paper from a JSON body with the exam fields followed by a questions array")
+    public ResponseEntity<ApiResponse<ExamResponseDTO>> streamJsonPaper(HttpServletRequest request) {
+        logger.info("Streaming JSON paper body ({} bytes)", request.getContentLengthLong());
+        try (InputStream paperJson = request.getInputStream()) {
+            Exam createdExam = jsonExamUploadService.processJsonStreamAndCreateExam(paperJson);
+            ExamResponseDTO responseDTO = mapToExamResponseDTO(createdExam);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success(responseDTO, 201));
+        } catch (Exception e) {
+            logger.error("Error streaming JSON paper: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping(value = "/papers/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @RequiresPermission(resource = ResourceType.PHARMACY, operation = OperationType.CREATE, permissionName = ExamPermissionConstants.CREATE_EXAM)
+    @Operation(summary = "Start a bulk import of papers from an uploaded ZIP archive or NDJSON file")
+    public ResponseEntity<ApiResponse<BulkImportStatusDTO>> startPaperImportFile(@RequestPart("file") MultipartFile file) {
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        BulkImportFormat format = fileName.endsWith(".zip") ? BulkImportFormat.ZIP : BulkImportFormat.NDJSON;
+        logger.info("Starting bulk paper import from file {} ({} bytes) as {}", fileName, file.getSize(), format);
+        try (InputStream source = file.getInputStream()) {
+            BulkImportStatusDTO status = bulkImportService.startImport(source, format);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success(status, 202));
+        } catch (Exception e) {
+            logger.error("Error starting bulk paper import: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @PostMapping(value = "/papers/import", consumes = {"application/x-ndjson", "application/zip"})
+    @RequiresPermission(resource = ResourceType.PHARMACY, operation = OperationType.CREATE, permissionName = ExamPermissionConstants.CREATE_EXAM)
+    @Operation(summary = "Start a bulk import of papers from an NDJSON or ZIP request body")
+    public ResponseEntity<ApiResponse<BulkImportStatusDTO>> startPaperImport(HttpServletRequest request) {
+        BulkImportFormat format = request.getContentType().startsWith("application/zip")
+                ? BulkImportFormat.ZIP : BulkImportFormat.NDJSON;
+        logger.info("Starting bulk paper import from request body as {}", format);
+        try (InputStream source = request.getInputStream()) {
+            BulkImportStatusDTO status = bulkImportService.startImport(source, format);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success(status, 202));
+        } catch (Exception e) {
+            logger.error("Error starting bulk paper import: {}", e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/papers/import/{jobId}")
+    @RequiresPermission(resource = ResourceType.PHARMACY, operation = OperationType.CREATE, permissionName = ExamPermissionConstants.CREATE_EXAM)
+    @Operation(summary = "Get the progress of a bulk paper import")
+    public ResponseEntity<ApiResponse<BulkImportStatusDTO>> getPaperImportStatus(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(bulkImportService.getStatus(jobId)));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
     @PutMapping("/{id}")
     @RequiresPermission(resource = ResourceType.PHARMACY, operation = OperationType.UPDATE, permissionName = ExamPermissionConstants.EDIT_EXAM)
     @Operation(summary = "Update an existing exam")
@@ -579,12 +737,13 @@ public class ExamController {
             @AuthenticationPrincipal UserDetails userDetails) {
         logger.info("Fetching exams with status: {}", status);
         List<Exam> exams = examService.findByStatus(status);
+        EntitlementSnapshot entitlements = loadEntitlements(userDetails);
         
         // Process each exam separately to avoid lazy loading issues
         List<ExamResponseDTO> examResponseDTOs = new ArrayList<>();
         for (Exam exam : exams) {
             // Map basic exam info without accessing lazy collections
-            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, userDetails != null ? userDetails.getUsername() : null);
+            ExamResponseDTO dto = mapToExamResponseDTOWithPurchaseCheck(exam, entitlements);
             examResponseDTOs.add(dto);
         }
         
@@ -633,54 +792,18 @@ public class ExamController {
 
     // Helper methods for mapping between DTO and entity
     private ExamResponseDTO mapToExamResponseDTO(Exam exam) {
-        ExamResponseDTO dto = new ExamResponseDTO();
-        dto.setId(exam.getId());
-        dto.setTitle(exam.getTitle());
-        dto.setDescription(exam.getDescription());
-        dto.setDuration(exam.getDuration());
-        dto.setTotalMarks(exam.getTotalMarks());
-        dto.setPassingMarks(exam.getPassingMarks());
-        dto.setStatus(exam.getStatus());
-        dto.setTags(exam.getTags());
-        
-        // Set premium fields
-        dto.setPremium(exam.isPremium());
-        dto.setPrice(exam.getPrice());
-        dto.setCustomPrice(exam.isCustomPrice());
-        dto.setPurchased(false); // Default value, will be updated in mapToExamResponseDTOWithPurchaseCheck
-        
-        // Set difficulty - derive from tags if possible, otherwise use default MEDIUM
-        if (exam.getTags() != null) {
-            // Look for a difficulty tag (easy, medium, hard)
-            for (String tag : exam.getTags()) {
-                String lowercaseTag = tag.toLowerCase();
-                if (lowercaseTag.equals("easy") || lowercaseTag.equals("medium") || lowercaseTag.equals("hard")) {
-                    dto.setDifficulty(lowercaseTag.toUpperCase());
-                    break;
-                }
-            }
-        }
-        
         // Get a count of questions directly from the question service rather than accessing the potentially
         // detached collection to avoid LazyInitializationException
         int questionCount = 0;
         try {
             questionCount = questionService.countQuestionsByExamId(exam.getId()).intValue();
-            
-            // Set some default values for additional fields
-            dto.setAttemptCount(0); // Replace with actual count when available
-            dto.setAverageScore(0.0); // Replace with actual average when available
-            dto.setQuestionCount(questionCount);
-            
-            // Explicitly don't try to access questions collection here to avoid LazyInitializationException
-            // Only set questions in dto when we explicitly load them separately
-            
         } catch (Exception e) {
             logger.warn("Error getting question count for exam {}: {}", exam.getId(), e.getMessage());
             // Default to 0 questions if we can't get the count
-            dto.setQuestionCount(0);
         }
         
+        ExamResponseDTO dto = examCatalogService.render(exam, questionCount);
+        
         // Log the data for debugging
         logger.debug("Mapped exam with ID {} to DTO: title={}, questions={}, duration={}", 
                 exam.getId(), exam.getTitle(), questionCount, exam.getDuration());
@@ -688,64 +811,39 @@ public class ExamController {
         return dto;
     }
     
-    private ExamResponseDTO mapToExamResponseDTOWithPurchaseCheck(Exam exam, String userId) {
+    /**
+     * Find a page of exams and overlay the user's purchase state on its items
+     */
+    private ExamPageResponseDTO findExamPage(ExamPageRequestDTO request, UserDetails userDetails) {
+        try {
+            ExamPageResponseDTO page = examService.findExamPage(request);
+            EntitlementSnapshot entitlements = loadEntitlements(userDetails);
+            for (ExamResponseDTO dto : page.getItems()) {
+                examCatalogService.applyEntitlements(dto, entitlements);
+            }
+            return page;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * Load the payment state of the current user once, so list endpoints can check
+     * every exam against it without further queries
+     */
+    private EntitlementSnapshot loadEntitlements(UserDetails userDetails) {
+        return entitlementService.getSnapshot(userDetails != null ? userDetails.getUsername() : null);
+    }
+    
+    private ExamResponseDTO mapToExamResponseDTOWithPurchaseCheck(Exam exam, EntitlementSnapshot entitlements) {
         // Create a basic DTO without accessing lazy collections to avoid LazyInitializationException
         ExamResponseDTO dto = mapToExamResponseDTO(exam);
         
-        // Handle premium exams with logged-in user
-        if (exam.isPremium() && userId != null) {
-            // ONLY use manual payment service - ignore online payments as requested
-            
-            // Check if ANY exam has been approved via manual payment (universal access)
-            boolean hasApprovedAnyManualRequest = paymentManualService.hasUserApprovedRequest(userId, null);
-            
-            // Check if THIS specific exam has been approved
-            boolean hasApprovedThisExamManualRequest = paymentManualService.hasUserApprovedRequest(userId, exam.getId());
-            
-            // Check if THIS exam has a pending manual payment
-            boolean hasPendingThisExamManualRequest = paymentManualService.hasUserPendingRequest(userId, exam.getId());
-            
-            // Check if ANY exam has a pending manual payment
-            boolean hasAnyPendingManualRequest = paymentManualService.hasUserAnyPendingRequest(userId);
-            
-            // Set purchase status (specific purchase or universal access)
-            boolean hasPurchased = hasApprovedThisExamManualRequest || hasApprovedAnyManualRequest;
-            boolean hasUniversalAccess = hasApprovedAnyManualRequest;
-            
-            dto.setPurchased(hasPurchased);
-            dto.setUniversalAccess(hasUniversalAccess);
-            
-            // Log purchase status
-            logger.debug("Purchase status for user {}, exam {}: manual specific={}, manual universal={}",
-                      userId, exam.getId(), hasApprovedThisExamManualRequest, hasApprovedAnyManualRequest);
-            
-            // Determine the overall payment status
-            String paymentStatus;
-            
-            // PAID takes precedence over PENDING over NOT_PAID
-            if (hasApprovedAnyManualRequest) {
-                // If ANY exam is paid, all exams should show as PAID
-                paymentStatus = "PAID";
-            } else if (hasAnyPendingManualRequest) {
-                // If ANY exam has a pending request, all exams should show as PENDING
-                paymentStatus = "PENDING";
-            } else {
-                paymentStatus = "NOT_PAID";
-            }
-            
-            // Log payment status details
-            logger.debug("Payment status for user {}, exam {}: manual this exam pending={}, any manual pending={}, manual approved={}, final status={}",
-                      userId, exam.getId(), hasPendingThisExamManualRequest, hasAnyPendingManualRequest, hasApprovedThisExamManualRequest, paymentStatus);
-            
-            dto.setPaymentStatus(paymentStatus);
-            
-            // Final debugging log 
-            logger.debug("FINAL STATUS - User {} exam {} - purchase: {}, universal access: {}, payment status: {}", 
-                      userId, exam.getId(), hasPurchased, hasUniversalAccess, paymentStatus);
-        } else {
-            // Set default payment status for non-premium exams
-            dto.setPaymentStatus("NOT_REQUIRED");
-        }
+        // Overlay the user's purchase state - ONLY manual payments count for listings
+        examCatalogService.applyEntitlements(dto, entitlements);
+        
+        logger.debug("FINAL STATUS - User {} exam {} - purchase: {}, universal access: {}, payment status: {}", 
+                  entitlements.getUserId(), exam.getId(), dto.isPurchased(), dto.isUniversalAccess(), dto.getPaymentStatus());
         
         return dto;
     }
@@ -790,45 +888,17 @@ public class ExamController {
         return dto;
     }
     
-    private QuestionResponseDTO mapToQuestionResponseDTO(Question question) {
-        QuestionResponseDTO dto = new QuestionResponseDTO();
-        dto.setId(question.getId());
-        dto.setQuestionNumber(question.getQuestionNumber());
-        dto.setText(question.getQuestionText()); // Map questionText to text for frontend compatibility
-        // Don't include the correct answer in the response for security
-        dto.setExplanation(question.getExplanation());
-        dto.setPoints(question.getMarks());
-        dto.setTopic(question.getTopic());
-        dto.setDifficulty(question.getDifficulty());
-        dto.setCorrectAnswer(question.getCorrectAnswer().replaceAll("\\([A-D]\\)\\s.*", "$1").replaceAll("[^A-D]", ""));
-        
-        // Map options without revealing which is correct - handle potential lazy loading issues
-        List<QuestionResponseDTO.OptionDTO> optionDTOs = new ArrayList<>();
-        
-        try {
-            if (question.getOptions() != null) {
-                for (var option : question.getOptions()) {
-                    if (!option.isDeleted()) {
-                        QuestionResponseDTO.OptionDTO optionDTO = new QuestionResponseDTO.OptionDTO();
-                        optionDTO.setId(option.getId());
-                        optionDTO.setLabel(option.getLabel()); // This matches frontend's expected 'label' property
-                        optionDTO.setText(option.getText()); // This matches frontend's expected 'text' property
-                        // Don't include isCorrect flag for security
-                        optionDTOs.add(optionDTO);
-                    }
-                }
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"));
             }
-        } catch (Exception e) {
-            // If we get a LazyInitializationException, log it and continue with an empty options list
-            logger.warn("Could not load options for question {}: {}", question.getId(), e.getMessage());
         }
-        
-        dto.setOptions(optionDTOs);
-        
-        // Log the mapping for debugging purposes
-        logger.debug("Mapped question ID {} with {} options", question.getId(), optionDTOs.size());
-        
-        return dto;
+        return false;
     }
 
     private Exam mapToExamEntity(ExamRequestDTO dto) {
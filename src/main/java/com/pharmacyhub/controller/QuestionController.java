@@ -41,7 +41,7 @@ public class QuestionController extends BaseController {
     public ResponseEntity<ApiResponse<List<QuestionResponseDTO>>> getQuestionsByExamId(@PathVariable Long examId) {
         try {
             logger.info("Fetching questions for exam ID: {}", examId);
-            List<Question> questions = questionService.findByExamId(examId);
+            List<Question> questions = questionService.getQuestionsWithOptionsByExamId(examId);
             List<QuestionResponseDTO> responseDTO = questions.stream()
                 .map(this::mapToQuestionResponseDTO)
                 .collect(Collectors.toList());
@@ -139,6 +139,30 @@ public class QuestionController extends BaseController {
         }
     }
     
+    @GetMapping("/practice")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'USER')")
+    @Operation(summary = "Generate a practice set around a target difficulty")
+    public ResponseEntity<ApiResponse<List<QuestionResponseDTO>>> getPracticeSet(
+            @RequestParam(defaultValue = "10") int count,
+            @RequestParam(required = false) String topic,
+            @RequestParam(required = false) String difficulty) {
+        try {
+            logger.info("Generating practice set of {} questions with topic: {}, difficulty: {}", count, topic, difficulty);
+            List<Question> questions = questionService.generatePracticeSet(count, topic, difficulty);
+            List<QuestionResponseDTO> responseDTO = questions.stream()
+                .map(this::mapToQuestionResponseDTO)
+                .collect(Collectors.toList());
+            logger.info("Successfully generated practice set of {} questions", questions.size());
+            return ResponseEntity.ok(ApiResponse.success(responseDTO));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid parameters for practice set: {}", e.getMessage());
+            throw new ResponseStatusException(org.springframework.http.HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Error generating practice set: {}", e.getMessage(), e);
+            throw new ResponseStatusException(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR, "Failed to generate practice set", e);
+        }
+    }
+    
     private QuestionResponseDTO mapToQuestionResponseDTO(Question question) {
         QuestionResponseDTO dto = new QuestionResponseDTO();
         dto.setId(question.getId());
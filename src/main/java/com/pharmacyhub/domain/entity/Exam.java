@@ -14,7 +14,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "exams")
+@Table(name = "exams", indexes = {
+        @Index(name = "idx_exams_status_id", columnList = "status, id"),
+        @Index(name = "idx_exams_status_premium_id", columnList = "status, premium, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -29,6 +29,13 @@ public class ExamAttempt {
     @Column(name = "user_id", nullable = false)
     private String userId;
     
+    /**
+     * Id of the ExamVersion the attempt is served and scored from;
+     * null for attempts started before exams were versioned, which use the live questions
+     */
+    @Column(name = "exam_version_id")
+    private Long examVersionId;
+    
     @Column(name = "start_time", nullable = false)
     private LocalDateTime startTime;
     
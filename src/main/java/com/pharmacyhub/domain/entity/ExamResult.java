@@ -55,6 +55,12 @@ public class ExamResult {
     @Column(name = "completed_at", nullable = false)
     private LocalDateTime completedAt = LocalDateTime.now();
     
+    /**
+     * ExamResultDTO as JSON, written at submission so results are read without re-scoring
+     */
+    @Column(name = "result_snapshot", columnDefinition = "TEXT")
+    private String resultSnapshot;
+    
     @Column(nullable = false)
     private boolean deleted = false;
 }
@@ -0,0 +1,59 @@
+package com.pharmacyhub.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Frozen content of an exam at publication.
+ * Versions are never updated: students are served the exam's latest version and attempts are
+ * scored against the version they started on, while question edits only change the live draft.
+ */
+@Entity
+@Immutable
+@Table(name = "exam_versions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"exam_id", "version_number"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamVersion {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+    
+    @Column(name = "version_number", nullable = false)
+    private Integer versionNumber;
+    
+    /**
+     * SHA-256 of the content, so publishing unchanged content reuses the version
+     */
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+    
+    /**
+     * ExamContent as JSON
+     */
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+    
+    /**
+     * Number of questions in the content, so listings need not read it;
+     * null for versions frozen before the count was stored
+     */
+    @Column(name = "question_count")
+    private Integer questionCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -1,5 +1,6 @@
 package com.pharmacyhub.domain.entity;
 
+import com.pharmacyhub.utils.QuestionFingerprint;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +9,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,7 +39,9 @@ public class Question
     @Column(name = "question_text", columnDefinition = "TEXT")
     private String questionText;
 
+    // Lazy loads of several questions' options are batched into one statement
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<Option> options = new ArrayList<>();
 
     @NotBlank(message = "Correct answer is required")
@@ -62,6 +67,40 @@ public class Question
     @Column(nullable = false)
     private boolean deleted = false;
 
+    // Content fingerprint for duplicate detection, see QuestionFingerprint
+    @Column(name = "content_hash")
+    private Long contentHash;
+
+    @Column(name = "sim_hash")
+    private Long simHash;
+
+    // Earlier question this one was flagged as a duplicate of on upload
+    @Column(name = "duplicate_of")
+    private Long duplicateOf;
+
+    // Recompute the content fingerprint from the question and option texts.
+    // Skipped while the options are not loaded, as they must not be loaded during a flush.
+    @PrePersist
+    @PreUpdate
+    public void updateFingerprint()
+    {
+        if (options == null || !Hibernate.isInitialized(options))
+        {
+            return;
+        }
+        List<String> optionTexts = new ArrayList<>(options.size());
+        for (Option option : options)
+        {
+            if (!option.isDeleted())
+            {
+                optionTexts.add(option.getText());
+            }
+        }
+        QuestionFingerprint fingerprint = QuestionFingerprint.of(questionText, optionTexts);
+        contentHash = fingerprint.getContentHash();
+        simHash = fingerprint.getSimHash();
+    }
+
     // Helper method to add option
     public void addOption(Option option)
     {
@@ -48,6 +48,20 @@ public interface ExamAttemptRepository extends JpaRepository<ExamAttempt, Long>
     @Query("SELECT COUNT(a) FROM ExamAttempt a WHERE a.exam.id = ?1 AND a.status = ?2 AND a.deleted = false")
     Long countByExamIdAndStatusAndDeletedFalse(Long examId, ExamAttempt.AttemptStatus status);
     
+    /**
+     * Attempt and result statistics for several exams at once.
+     * Each row is {examId, attempts with the given status, results, passed results}, counting
+     * non-deleted attempts and non-deleted results; exams without attempts are absent.
+     */
+    @Query("SELECT a.exam.id, " +
+           "COUNT(DISTINCT CASE WHEN a.status = :status AND a.deleted = false THEN a.id END), " +
+           "COUNT(r.id), " +
+           "SUM(CASE WHEN r.isPassed = true THEN 1 ELSE 0 END) " +
+           "FROM ExamAttempt a LEFT JOIN ExamResult r ON r.attempt = a AND r.deleted = false " +
+           "WHERE a.exam.id IN :examIds GROUP BY a.exam.id")
+    List<Object[]> getStatisticsByExamIds(@Param("examIds") List<Long> examIds,
+                                          @Param("status") ExamAttempt.AttemptStatus status);
+    
     /**
      * Calculate completion rate for a specific exam (percentage of completed attempts)
      */
@@ -71,4 +85,11 @@ public interface ExamAttemptRepository extends JpaRepository<ExamAttempt, Long>
      */
     @Query("SELECT COUNT(DISTINCT a.userId) FROM ExamAttempt a WHERE a.startTime >= :since AND a.deleted = false")
     long countUniqueUsersSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Ids of attempts with the given status that ended at or after the given time
+     */
+    @Query("SELECT a.id FROM ExamAttempt a WHERE a.status = :status AND a.endTime >= :since")
+    List<Long> findIdsByStatusEndedSince(@Param("status") ExamAttempt.AttemptStatus status,
+                                         @Param("since") LocalDateTime since);
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.pharmacyhub.domain.repository;
 
 import com.pharmacyhub.domain.entity.Exam;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -35,6 +37,19 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
     @Query("SELECT e FROM Exam e LEFT JOIN FETCH e.tags WHERE e.deleted = false AND e.id = ?1")
     Optional<Exam> findByIdAndNotDeleted(Long id);
     
+    /**
+     * Find non-deleted exams by id with their tags, in no particular order
+     */
+    @Query("SELECT DISTINCT e FROM Exam e LEFT JOIN FETCH e.tags WHERE e.deleted = false AND e.id IN ?1")
+    List<Exam> findByIdsWithTags(List<Long> ids);
+    
+    /**
+     * Find an exam and lock its row until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Exam e WHERE e.id = ?1")
+    Optional<Exam> findByIdForUpdate(Long id);
+    
     /**
      * Find all non-deleted exams by status
      */
@@ -77,6 +92,12 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
     @Query("SELECT e FROM Exam e JOIN e.tags t WHERE t IN ?1 AND e.deleted = false GROUP BY e HAVING COUNT(DISTINCT t) = ?2")
     List<Exam> findByTagsContainingAllAndDeletedFalse(List<String> tags, long tagCount);
     
+    /**
+     * Find all non-deleted exams with a given status, fetching tags in the same statement
+     */
+    @Query("SELECT DISTINCT e FROM Exam e LEFT JOIN FETCH e.tags WHERE e.deleted = false AND e.status = ?1 ORDER BY e.id")
+    List<Exam> findByStatusWithTags(Exam.ExamStatus status);
+    
     /**
      * Get active exams (all non-deleted)
      */
@@ -13,6 +13,12 @@ public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
     @Query("SELECT r FROM ExamResult r WHERE r.deleted = false AND r.attempt.id = :attemptId")
     Optional<ExamResult> findByAttemptId(Long attemptId);
     
+    /**
+     * Rendered result of an attempt, without loading the result entity or the attempt
+     */
+    @Query("SELECT r.resultSnapshot FROM ExamResult r WHERE r.deleted = false AND r.attempt.id = :attemptId")
+    Optional<String> findResultSnapshotByAttemptId(Long attemptId);
+    
     @Query("SELECT AVG(r.correctAnswers * 1.0 / r.totalQuestions) FROM ExamResult r WHERE r.deleted = false")
     Double getAverageCompletionRate();
     
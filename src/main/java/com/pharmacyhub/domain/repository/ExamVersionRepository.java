@@ -0,0 +1,39 @@
+package com.pharmacyhub.domain.repository;
+
+import com.pharmacyhub.domain.entity.ExamVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for accessing ExamVersion entities
+ */
+@Repository
+public interface ExamVersionRepository extends JpaRepository<ExamVersion, Long> {
+    
+    /**
+     * Find the latest version of an exam, which is the version served to students
+     */
+    @Query("SELECT v FROM ExamVersion v WHERE v.exam.id = ?1 AND v.versionNumber = " +
+           "(SELECT MAX(w.versionNumber) FROM ExamVersion w WHERE w.exam.id = ?1)")
+    Optional<ExamVersion> findLatestByExamId(Long examId);
+    
+    /**
+     * Id of the latest version of an exam
+     */
+    @Query("SELECT v.id FROM ExamVersion v WHERE v.exam.id = ?1 AND v.versionNumber = " +
+           "(SELECT MAX(w.versionNumber) FROM ExamVersion w WHERE w.exam.id = ?1)")
+    Optional<Long> findLatestIdByExamId(Long examId);
+    
+    /**
+     * Exam id, version id and question count of the latest version of each of the given exams
+     * that has one
+     */
+    @Query("SELECT v.exam.id, v.id, v.questionCount FROM ExamVersion v WHERE v.exam.id IN ?1 AND v.versionNumber = " +
+           "(SELECT MAX(w.versionNumber) FROM ExamVersion w WHERE w.exam.id = v.exam.id)")
+    List<Object[]> findLatestQuestionCountsByExamIds(Collection<Long> examIds);
+}
@@ -20,6 +20,14 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
      */
     @Query("SELECT q FROM Question q WHERE q.exam.id = :examId AND q.deleted = false ORDER BY q.questionNumber")
     List<Question> findByExamIdAndDeletedFalse(Long examId);
+    
+    /**
+     * Load the non-deleted questions of an exam together with their options in one statement,
+     * in question number order with options in id order
+     */
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options o " +
+           "WHERE q.exam.id = :examId AND q.deleted = false ORDER BY q.questionNumber, o.id")
+    List<Question> findByExamIdWithOptions(@Param("examId") Long examId);
 
     @Query("SELECT q FROM Question q WHERE q.deleted = false AND q.id = :id")
     Optional<Question> findByIdAndNotDeleted(Long id);
@@ -42,6 +50,19 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     @Query("SELECT COUNT(q) FROM Question q WHERE q.exam.id = :examId AND q.deleted = false")
     Integer countByExamIdAndDeletedFalse(Long examId);
     
+    /**
+     * Count non-deleted questions for several exams at once.
+     * Each row is {examId, count}; exams without questions are absent.
+     */
+    @Query("SELECT q.exam.id, COUNT(q) FROM Question q WHERE q.exam.id IN :examIds AND q.deleted = false GROUP BY q.exam.id")
+    List<Object[]> countByExamIds(@Param("examIds") List<Long> examIds);
+    
+    /**
+     * Ids of the non-deleted questions of an exam
+     */
+    @Query("SELECT q.id FROM Question q WHERE q.exam.id = :examId AND q.deleted = false")
+    List<Long> findIdsByExamId(@Param("examId") Long examId);
+    
     /**
      * Find questions by topic
      */
@@ -55,13 +76,27 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByDifficulty(@Param("difficulty") String difficulty);
     
     /**
-     * Find random questions with optional filters
+     * {id, topic, difficulty} of every non-deleted question, for building sampling pools
+     */
+    @Query("SELECT q.id, q.topic, q.difficulty FROM Question q WHERE q.deleted = false ORDER BY q.id")
+    List<Object[]> findSamplingAttributes();
+    
+    /**
+     * Load non-deleted questions by id together with their options
+     */
+    @Query("SELECT DISTINCT q FROM Question q LEFT JOIN FETCH q.options WHERE q.deleted = false AND q.id IN :ids")
+    List<Question> findByIdsWithOptions(@Param("ids") List<Long> ids);
+    
+    /**
+     * Ids of non-deleted questions that have no content fingerprint yet
+     */
+    @Query("SELECT q.id FROM Question q WHERE q.deleted = false AND q.contentHash IS NULL ORDER BY q.id")
+    List<Long> findIdsWithoutFingerprint();
+    
+    /**
+     * {id, contentHash, simHash} of every fingerprinted non-deleted question
      */
-    @Query("SELECT q FROM Question q WHERE q.deleted = false " +
-           "AND (:topic IS NULL OR LOWER(q.topic) = LOWER(:topic)) " +
-           "AND (:difficulty IS NULL OR LOWER(q.difficulty) = LOWER(:difficulty)) " +
-           "ORDER BY RAND() LIMIT :count")
-    List<Question> findRandom(@Param("count") int count, 
-                             @Param("topic") String topic, 
-                             @Param("difficulty") String difficulty);
+    @Query("SELECT q.id, q.contentHash, q.simHash FROM Question q " +
+           "WHERE q.deleted = false AND q.contentHash IS NOT NULL ORDER BY q.id")
+    List<Object[]> findFingerprints();
 }
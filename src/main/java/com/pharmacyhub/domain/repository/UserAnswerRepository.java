@@ -1,5 +1,6 @@
 package com.pharmacyhub.domain.repository;
 
+import com.pharmacyhub.domain.entity.ExamAttempt;
 import com.pharmacyhub.domain.entity.UserAnswer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -14,6 +15,12 @@ public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
     @Query("SELECT a FROM UserAnswer a WHERE a.deleted = false AND a.attempt.id = :attemptId")
     List<UserAnswer> findByAttemptId(Long attemptId);
     
+    /**
+     * Answer values of an attempt as {questionId, selectedOptionId, timeSpent} rows, for scoring
+     */
+    @Query("SELECT a.question.id, a.selectedOptionId, a.timeSpent FROM UserAnswer a WHERE a.deleted = false AND a.attempt.id = :attemptId")
+    List<Object[]> findAnswerValuesByAttemptId(Long attemptId);
+    
     @Query("SELECT a FROM UserAnswer a WHERE a.deleted = false AND a.attempt.id = :attemptId AND a.question.id = :questionId")
     Optional<UserAnswer> findByAttemptIdAndQuestionId(Long attemptId, Long questionId);
     
@@ -30,4 +37,14 @@ public interface UserAnswerRepository extends JpaRepository<UserAnswer, Long> {
     @Query("SELECT SUM(a.timeSpent) FROM UserAnswer a " +
            "WHERE a.deleted = false AND a.attempt.id = :attemptId")
     Integer sumTimeSpentByAttemptId(Long attemptId);
+    
+    /**
+     * Per-question answer totals over attempts with the given status, as
+     * {questionId, answerCount, correctCount, totalTimeSpent} rows; unanswered questions are not counted
+     */
+    @Query("SELECT q.id, COUNT(a), SUM(CASE WHEN a.selectedOptionId = q.correctAnswer THEN 1 ELSE 0 END), SUM(a.timeSpent) " +
+           "FROM UserAnswer a JOIN a.question q " +
+           "WHERE a.deleted = false AND a.attempt.status = :status AND a.selectedOptionId IS NOT NULL " +
+           "GROUP BY q.id")
+    List<Object[]> aggregateAnswerStatistics(ExamAttempt.AttemptStatus status);
 }
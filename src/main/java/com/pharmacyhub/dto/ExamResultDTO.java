@@ -33,7 +33,7 @@ public class ExamResultDTO {
         private String correctAnswerId;
         private Boolean isCorrect;
         private String explanation;
-        private Integer points;
-        private Integer earnedPoints;
+        private Double points;
+        private Double earnedPoints;
     }
 }
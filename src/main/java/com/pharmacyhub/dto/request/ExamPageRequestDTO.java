@@ -0,0 +1,36 @@
+package com.pharmacyhub.dto.request;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.dto.BaseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for one page of the exam list.
+ * Pages are keyset based: pass the nextCursor of the previous page, with the same sort, to continue.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamPageRequestDTO implements BaseDTO {
+    
+    private Exam.ExamStatus status;
+    private Boolean premium;
+    private String tag; // Matched case-insensitively
+    private String titlePrefix; // Matched case-insensitively
+    
+    @Builder.Default
+    private Sort sort = Sort.NEWEST;
+    
+    private String cursor;
+    private Integer limit;
+    
+    public enum Sort {
+        NEWEST,
+        OLDEST,
+        TITLE
+    }
+}
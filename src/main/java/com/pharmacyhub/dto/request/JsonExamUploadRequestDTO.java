@@ -37,7 +37,22 @@ public class JsonExamUploadRequestDTO {
     private Double price = 0.0;
     private Boolean isCustomPrice = false;
     
+    // Duplicate questions already in the question bank or earlier in the upload
+    private DuplicateHandling duplicateHandling = DuplicateHandling.FLAG;
+    
+    // Also treat near duplicates (nearly identical text and options) as duplicates
+    private Boolean nearDuplicates = false;
+    
     // The JSON content as a string (will be parsed by the service)
     @NotBlank(message = "JSON content is required")
     private String jsonContent;
+    
+    public enum DuplicateHandling {
+        // Save duplicates as they are
+        ALLOW,
+        // Save duplicates with duplicateOf set to the existing question
+        FLAG,
+        // Leave duplicates out of the exam
+        SKIP
+    }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.pharmacyhub.dto.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One question record of an uploaded JSON paper, bound from the field names accepted by the upload
+ */
+@Data
+public class JsonQuestionRecordDTO {
+    private Integer number;
+    private String text;
+    private String explanation;
+    private String answer;
+    
+    // Null when the record has no options
+    private List<OptionRecord> options;
+    
+    @Data
+    public static class OptionRecord {
+        // Null when options were given as a list and are labelled by position
+        private String label;
+        private String text;
+        
+        public OptionRecord() {
+        }
+        
+        public OptionRecord(String label, String text) {
+            this.label = label;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.pharmacyhub.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pharmacyhub.dto.BaseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for the progress of a bulk paper import job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkImportStatusDTO implements BaseDTO {
+
+    private String jobId;
+    private String status;
+    private String format;
+    private String startedAt;
+    private String finishedAt;
+    private Integer papersRead;
+    private Integer papersSucceeded;
+    private Integer papersFailed;
+    private Long questionsImported;
+    private Long elapsedMillis;
+    private Double papersPerSecond;
+    private Double questionsPerSecond;
+    private String failureReason;
+    private List<Long> createdExamIds;
+    private List<PaperErrorDTO> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PaperErrorDTO {
+        private Integer index;
+        private String source;
+        private String message;
+    }
+}
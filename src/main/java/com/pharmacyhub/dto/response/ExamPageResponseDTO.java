@@ -0,0 +1,31 @@
+package com.pharmacyhub.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response DTO for one page of the exam list
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExamPageResponseDTO {
+    
+    @Builder.Default
+    private List<ExamResponseDTO> items = new ArrayList<>();
+    
+    private boolean hasMore;
+    
+    /**
+     * Cursor of the next page; absent on the last page
+     */
+    private String nextCursor;
+}
@@ -1,17 +1,69 @@
 package com.pharmacyhub.engine;
 
 import com.pharmacyhub.entity.User;
+import com.pharmacyhub.repository.UserRepository;
+import com.pharmacyhub.security.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component
 public class PHEngine
 {
+  private static final String LOGGED_IN_USER_ATTRIBUTE = PHEngine.class.getName() + ".loggedInUser";
+
+  @Autowired
+  private UserRepository userRepository;
+
+  /**
+   * The logged in user entity.
+   * Requests authenticated from token claims carry a JwtPrincipal, so the user is loaded on
+   * first use and the same instance is returned for the rest of the request.
+   */
   public User getLoggedInUser()
   {
     UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-    return (User) userDetails;
+    if (!(userDetails instanceof JwtPrincipal))
+    {
+      return (User) userDetails;
+    }
+
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request != null)
+    {
+      User loaded = (User) request.getAttribute(LOGGED_IN_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+      if (loaded != null)
+      {
+        return loaded;
+      }
+    }
+
+    Long userId = ((JwtPrincipal) userDetails).getUserId();
+    User user = userRepository.findById(userId)
+                              .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userId));
+    if (request != null)
+    {
+      request.setAttribute(LOGGED_IN_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+    }
+    return user;
+  }
+
+  /**
+   * Id of the logged in user, without loading the user
+   */
+  public Long getLoggedInUserId()
+  {
+    Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+
+    if (principal instanceof JwtPrincipal)
+    {
+      return ((JwtPrincipal) principal).getUserId();
+    }
+    return ((User) principal).getId();
   }
 }
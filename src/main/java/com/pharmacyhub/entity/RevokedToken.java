@@ -0,0 +1,46 @@
+package com.pharmacyhub.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked JWT access token, or a cutoff revoking every token of a user issued before it.
+ * Rows are kept until the tokens they revoke have expired.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * Id of the revoked token; null for user cutoffs
+     */
+    @Column(length = 64)
+    private String jti;
+    
+    /**
+     * User whose tokens issued before issuedBefore are revoked; null for single tokens
+     */
+    @Column(nullable = true)
+    private Long userId;
+    
+    @Column(nullable = true)
+    private LocalDateTime issuedBefore;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
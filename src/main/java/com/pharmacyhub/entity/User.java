@@ -3,11 +3,15 @@ package com.pharmacyhub.entity;
 import com.pharmacyhub.security.domain.Group;
 import com.pharmacyhub.security.domain.Role;
 import com.pharmacyhub.security.domain.Permission;
+import com.pharmacyhub.security.UserAccessListener;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import com.pharmacyhub.entity.enums.UserType;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -21,6 +25,7 @@ import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserAccessListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -145,6 +150,27 @@ public class User implements UserDetails {
     @Version
     private Long version;
 
+    // Whether the account could sign in as last loaded or written, to detect updates that take that away
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient boolean hadAccess;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberAccess() {
+        // Runs after UserAccessListener, so an update is compared with the state before it
+        hadAccess = isEnabled() && isAccountNonLocked();
+    }
+
+    /**
+     * Whether the account was enabled and unlocked when loaded, and no longer is
+     */
+    public boolean lostAccessSinceLoad() {
+        return hadAccess && !(isEnabled() && isAccountNonLocked());
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         Set<GrantedAuthority> authorities = new HashSet<>();
@@ -1,10 +1,12 @@
 package com.pharmacyhub.payment.controller;
 
 import com.pharmacyhub.dto.response.ApiResponse;
+import com.pharmacyhub.payment.entitlement.EntitlementChangedEvent;
 import com.pharmacyhub.payment.entity.Payment;
 import com.pharmacyhub.payment.repository.PaymentRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -28,10 +30,12 @@ import java.util.Map;
 public class DevPaymentController {
 
     private final PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public DevPaymentController(PaymentRepository paymentRepository) {
+    public DevPaymentController(PaymentRepository paymentRepository, ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -64,6 +68,7 @@ public class DevPaymentController {
         payment.setPaymentResponse("{\"simulated\": true}");
         
         Payment savedPayment = paymentRepository.save(payment);
+        eventPublisher.publishEvent(new EntitlementChangedEvent(userId));
         
         Map<String, Object> response = Collections.singletonMap(
             "success", true
@@ -0,0 +1,18 @@
+package com.pharmacyhub.payment.entitlement;
+
+/**
+ * Published when a payment state change may alter a user's exam entitlements.
+ * Cached entitlements for the user are dropped once the publishing transaction commits.
+ */
+public class EntitlementChangedEvent {
+
+    private final String userId;
+
+    public EntitlementChangedEvent(String userId) {
+        this.userId = userId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.pharmacyhub.payment.entitlement;
+
+/**
+ * Service for resolving a user's premium exam entitlements
+ */
+public interface EntitlementService {
+    /**
+     * Get the complete payment state of a user.
+     * Served from a bounded per-user cache; on a miss it is loaded with one query against
+     * manual payment requests and one against online payments, regardless of how many
+     * exams are checked against the result.
+     * @param userId User ID, or null for anonymous requests
+     * @return Entitlement snapshot for the user
+     */
+    EntitlementSnapshot getSnapshot(String userId);
+    
+    /**
+     * Drop the cached entitlements of a user
+     * @param userId User ID
+     */
+    void evict(String userId);
+}
@@ -0,0 +1,94 @@
+package com.pharmacyhub.payment.entitlement;
+
+import com.pharmacyhub.config.cache.BoundedTtlCache;
+import com.pharmacyhub.payment.entity.Payment;
+import com.pharmacyhub.payment.manual.entity.PaymentManualRequest;
+import com.pharmacyhub.payment.manual.repository.PaymentManualRequestRepository;
+import com.pharmacyhub.payment.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Implementation of the EntitlementService interface
+ */
+@Service
+@Slf4j
+public class EntitlementServiceImpl implements EntitlementService {
+
+    private final PaymentManualRequestRepository manualRequestRepository;
+    private final PaymentRepository paymentRepository;
+    private final BoundedTtlCache<String, EntitlementSnapshot> snapshotCache;
+
+    public EntitlementServiceImpl(
+            PaymentManualRequestRepository manualRequestRepository,
+            PaymentRepository paymentRepository,
+            @Value("${pharmacyhub.payment.entitlement-cache.max-size:10000}") int cacheMaxSize,
+            @Value("${pharmacyhub.payment.entitlement-cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.manualRequestRepository = manualRequestRepository;
+        this.paymentRepository = paymentRepository;
+        this.snapshotCache = new BoundedTtlCache<>(cacheMaxSize, cacheTtlSeconds * 1000);
+    }
+
+    /**
+     * Not transactional: a cache hit must not acquire a connection.
+     * On a miss each projection query runs in the repository's own read-only transaction, and the
+     * loaded snapshot is only cached if no eviction happened while it was read (see BoundedTtlCache).
+     */
+    @Override
+    public EntitlementSnapshot getSnapshot(String userId) {
+        if (userId == null) {
+            return EntitlementSnapshot.anonymous();
+        }
+        return snapshotCache.get(userId, this::loadSnapshot);
+    }
+
+    @Override
+    public void evict(String userId) {
+        if (userId != null) {
+            snapshotCache.invalidate(userId);
+            log.debug("Evicted cached entitlements for user {}", userId);
+        }
+    }
+
+    /**
+     * Drop cached entitlements once the payment change is committed.
+     * The eviction advances the cache generation, so a concurrent request that read the rows
+     * before the commit returns its snapshot without caching it.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntitlementChanged(EntitlementChangedEvent event) {
+        evict(event.getUserId());
+    }
+
+    private EntitlementSnapshot loadSnapshot(String userId) {
+        Set<Long> approvedManualExamIds = new HashSet<>();
+        Set<Long> pendingManualExamIds = new HashSet<>();
+        for (Object[] row : manualRequestRepository.findExamIdAndStatusByUserId(userId)) {
+            Long examId = (Long) row[0];
+            PaymentManualRequest.PaymentStatus status = (PaymentManualRequest.PaymentStatus) row[1];
+            if (status == PaymentManualRequest.PaymentStatus.APPROVED) {
+                approvedManualExamIds.add(examId);
+            } else if (status == PaymentManualRequest.PaymentStatus.PENDING) {
+                pendingManualExamIds.add(examId);
+            }
+        }
+
+        Set<Long> completedOnlineExamIds = new HashSet<>();
+        for (Object[] row : paymentRepository.findItemIdAndStatusByUserIdAndItemType(userId, "EXAM")) {
+            if (row[1] == Payment.PaymentStatus.COMPLETED) {
+                completedOnlineExamIds.add((Long) row[0]);
+            }
+        }
+
+        log.debug("Loaded entitlements for user {}: approved manual={}, pending manual={}, completed online={}",
+                userId, approvedManualExamIds, pendingManualExamIds, completedOnlineExamIds);
+
+        return new EntitlementSnapshot(userId, approvedManualExamIds, pendingManualExamIds, completedOnlineExamIds);
+    }
+}
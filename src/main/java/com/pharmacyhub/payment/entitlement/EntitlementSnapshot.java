@@ -0,0 +1,116 @@
+package com.pharmacyhub.payment.entitlement;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable view of a user's payment state across manual and online payments.
+ * Loaded once per request so per-exam access checks can be answered from memory.
+ */
+public final class EntitlementSnapshot {
+
+    private static final EntitlementSnapshot ANONYMOUS = new EntitlementSnapshot(
+            null, Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+
+    private final String userId;
+    private final Set<Long> approvedManualExamIds;
+    private final Set<Long> pendingManualExamIds;
+    private final Set<Long> completedOnlineExamIds;
+
+    public EntitlementSnapshot(
+            String userId,
+            Set<Long> approvedManualExamIds,
+            Set<Long> pendingManualExamIds,
+            Set<Long> completedOnlineExamIds) {
+        this.userId = userId;
+        this.approvedManualExamIds = Collections.unmodifiableSet(new HashSet<>(approvedManualExamIds));
+        this.pendingManualExamIds = Collections.unmodifiableSet(new HashSet<>(pendingManualExamIds));
+        this.completedOnlineExamIds = Collections.unmodifiableSet(new HashSet<>(completedOnlineExamIds));
+    }
+
+    /**
+     * Snapshot for requests without a logged-in user
+     */
+    public static EntitlementSnapshot anonymous() {
+        return ANONYMOUS;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public boolean isAnonymous() {
+        return userId == null;
+    }
+
+    /**
+     * Equivalent of PaymentManualService.hasUserApprovedRequest(userId, null)
+     */
+    public boolean hasAnyApprovedManualRequest() {
+        return !approvedManualExamIds.isEmpty();
+    }
+
+    /**
+     * Equivalent of PaymentManualService.hasUserApprovedRequest(userId, examId)
+     */
+    public boolean hasApprovedManualRequest(Long examId) {
+        return approvedManualExamIds.contains(examId);
+    }
+
+    /**
+     * Equivalent of PaymentManualService.hasUserPendingRequest(userId, examId)
+     */
+    public boolean hasPendingManualRequest(Long examId) {
+        return pendingManualExamIds.contains(examId);
+    }
+
+    /**
+     * Equivalent of PaymentManualService.hasUserAnyPendingRequest(userId)
+     */
+    public boolean hasAnyPendingManualRequest() {
+        return !pendingManualExamIds.isEmpty();
+    }
+
+    /**
+     * Equivalent of PaymentService.hasUserPurchasedAnyExam(userId)
+     */
+    public boolean hasPurchasedAnyExam() {
+        return !completedOnlineExamIds.isEmpty();
+    }
+
+    /**
+     * Equivalent of PaymentService.hasUserPurchasedExam(examId, userId),
+     * including the "one payment unlocks all" rule
+     */
+    public boolean hasPurchasedExam(Long examId) {
+        return hasPurchasedAnyExam() || completedOnlineExamIds.contains(examId);
+    }
+
+    /**
+     * Universal access through either payment channel
+     */
+    public boolean hasUniversalAccess() {
+        return hasPurchasedAnyExam() || hasAnyApprovedManualRequest();
+    }
+
+    /**
+     * Whether the user may open the given premium exam through any payment channel
+     */
+    public boolean hasAccess(Long examId) {
+        return hasUniversalAccess() || hasPurchasedExam(examId) || hasApprovedManualRequest(examId);
+    }
+
+    /**
+     * Payment status shown on exam listings, based on manual payments only.
+     * PAID takes precedence over PENDING over NOT_PAID.
+     */
+    public String getManualPaymentStatus() {
+        if (hasAnyApprovedManualRequest()) {
+            return "PAID";
+        } else if (hasAnyPendingManualRequest()) {
+            return "PENDING";
+        }
+        return "NOT_PAID";
+    }
+}
@@ -2,6 +2,8 @@ package com.pharmacyhub.payment.manual.repository;
 
 import com.pharmacyhub.payment.manual.entity.PaymentManualRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -41,6 +43,18 @@ public interface PaymentManualRequestRepository extends JpaRepository<PaymentMan
         String userId, PaymentManualRequest.PaymentStatus status
     );
     
+    /**
+     * Check if a user has any request with the given status
+     */
+    boolean existsByUserIdAndStatus(String userId, PaymentManualRequest.PaymentStatus status);
+    
+    /**
+     * Check if a user has a request for an exam with the given status
+     */
+    boolean existsByUserIdAndExamIdAndStatus(
+        String userId, Long examId, PaymentManualRequest.PaymentStatus status
+    );
+    
     /**
      * Find all requests with a specific status
      */
@@ -50,4 +64,12 @@ public interface PaymentManualRequestRepository extends JpaRepository<PaymentMan
      * Find all requests with any of the given statuses
      */
     List<PaymentManualRequest> findByStatusIn(List<PaymentManualRequest.PaymentStatus> statuses);
-}
\ No newline at end of file
+    
+    /**
+     * Find the exam ID and status of every request for a user.
+     * Projects only the two columns so screenshot data is never loaded.
+     * Each row is {examId, status}.
+     */
+    @Query("SELECT r.examId, r.status FROM PaymentManualRequest r WHERE r.userId = :userId")
+    List<Object[]> findExamIdAndStatusByUserId(@Param("userId") String userId);
+}
@@ -1,6 +1,7 @@
 package com.pharmacyhub.payment.manual.service;
 
 import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.payment.entitlement.EntitlementChangedEvent;
 import com.pharmacyhub.payment.manual.dto.ManualPaymentProcessDTO;
 import com.pharmacyhub.payment.manual.dto.ManualPaymentResponseDTO;
 import com.pharmacyhub.payment.manual.dto.ManualPaymentSubmitDTO;
@@ -14,6 +15,7 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,6 +36,7 @@ public class PaymentManualServiceImpl implements PaymentManualService {
     private final PaymentManualRequestRepository repository;
     private final ExamService examService;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     @Transactional
@@ -56,6 +59,7 @@ public class PaymentManualServiceImpl implements PaymentManualService {
         
         PaymentManualRequest saved = repository.save(paymentRequest);
         log.info("Manual payment request submitted: {}", saved.getId());
+        eventPublisher.publishEvent(new EntitlementChangedEvent(saved.getUserId()));
         
         // Use a simple Map for the single exam title
         Map<Long, String> examTitles = new HashMap<>();
@@ -81,6 +85,7 @@ public class PaymentManualServiceImpl implements PaymentManualService {
         
         PaymentManualRequest saved = repository.save(request);
         log.info("Manual payment request approved: {}", saved.getId());
+        eventPublisher.publishEvent(new EntitlementChangedEvent(saved.getUserId()));
         
         // Use a simple Map for the single exam title
         Map<Long, String> examTitles = new HashMap<>();
@@ -106,6 +111,7 @@ public class PaymentManualServiceImpl implements PaymentManualService {
         
         PaymentManualRequest saved = repository.save(request);
         log.info("Manual payment request rejected: {}", saved.getId());
+        eventPublisher.publishEvent(new EntitlementChangedEvent(saved.getUserId()));
         
         // Use a simple Map for the single exam title
         Map<Long, String> examTitles = new HashMap<>();
@@ -206,17 +212,17 @@ public class PaymentManualServiceImpl implements PaymentManualService {
     @Override
     @Transactional(readOnly = true)
     public boolean hasUserPendingRequest(String userId, Long examId) {
-        return !repository.findByUserIdAndExamIdAndStatus(
+        return repository.existsByUserIdAndExamIdAndStatus(
             userId, examId, PaymentManualRequest.PaymentStatus.PENDING
-        ).isEmpty();
+        );
     }
     
     @Override
     @Transactional(readOnly = true)
     public boolean hasUserAnyPendingRequest(String userId) {
-        return !repository.findByUserIdAndStatus(
+        return repository.existsByUserIdAndStatus(
             userId, PaymentManualRequest.PaymentStatus.PENDING
-        ).isEmpty();
+        );
     }
     
     @Override
@@ -293,10 +299,9 @@ public class PaymentManualServiceImpl implements PaymentManualService {
     public boolean hasUserApprovedRequest(String userId, Long examId) {
         // If examId is null, check if the user has any approved manual payment request
         if (examId == null) {
-            List<PaymentManualRequest> approvedRequests = repository.findByUserIdAndStatus(
+            boolean hasAnyApproved = repository.existsByUserIdAndStatus(
                 userId, PaymentManualRequest.PaymentStatus.APPROVED
             );
-            boolean hasAnyApproved = !approvedRequests.isEmpty();
             
             if (hasAnyApproved) {
                 log.info("User {} has at least one approved manual payment request", userId);
@@ -306,9 +311,9 @@ public class PaymentManualServiceImpl implements PaymentManualService {
         }
         
         // Check for a specific exam
-        boolean hasSpecificApproved = !repository.findByUserIdAndExamIdAndStatus(
+        boolean hasSpecificApproved = repository.existsByUserIdAndExamIdAndStatus(
             userId, examId, PaymentManualRequest.PaymentStatus.APPROVED
-        ).isEmpty();
+        );
         
         if (hasSpecificApproved) {
             log.info("User {} has an approved manual payment request for exam {}", userId, examId);
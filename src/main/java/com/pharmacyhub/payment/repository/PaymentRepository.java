@@ -2,6 +2,8 @@ package com.pharmacyhub.payment.repository;
 
 import com.pharmacyhub.payment.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +17,12 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByUserIdAndItemTypeAndItemId(String userId, String itemType, Long itemId);
     List<Payment> findByUserIdAndItemTypeAndStatus(String userId, String itemType, Payment.PaymentStatus status);
     Optional<Payment> findByTransactionId(String transactionId);
-}
\ No newline at end of file
+    boolean existsByUserIdAndItemTypeAndStatus(String userId, String itemType, Payment.PaymentStatus status);
+    
+    /**
+     * Find the item ID and status of every payment a user made for a given item type.
+     * Each row is {itemId, status}.
+     */
+    @Query("SELECT p.itemId, p.status FROM Payment p WHERE p.userId = :userId AND p.itemType = :itemType")
+    List<Object[]> findItemIdAndStatusByUserIdAndItemType(@Param("userId") String userId, @Param("itemType") String itemType);
+}
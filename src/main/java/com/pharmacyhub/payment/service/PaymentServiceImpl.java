@@ -10,6 +10,7 @@ import com.pharmacyhub.payment.dto.PaymentGatewayResponse;
 import com.pharmacyhub.payment.dto.PaymentInitResponse;
 import com.pharmacyhub.payment.dto.PaymentResult;
 import com.pharmacyhub.payment.dto.PaymentWebhookResult;
+import com.pharmacyhub.payment.entitlement.EntitlementChangedEvent;
 import java.util.Optional;
 import com.pharmacyhub.payment.entity.Payment;
 import com.pharmacyhub.payment.entity.Payment.PaymentMethod;
@@ -20,6 +21,7 @@ import com.pharmacyhub.payment.repository.PaymentRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +31,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -39,15 +40,18 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final ExamRepository examRepository;
     private final Map<PaymentMethod, PaymentGatewayService> paymentGateways;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
     public PaymentServiceImpl(
             PaymentRepository paymentRepository,
             ExamRepository examRepository,
             @Qualifier("jazzCashPaymentGatewayService") PaymentGatewayService jazzCashGateway,
-            @Qualifier("easypaisaPaymentGatewayService") PaymentGatewayService easyPaisaGateway) {
+            @Qualifier("easypaisaPaymentGatewayService") PaymentGatewayService easyPaisaGateway,
+            ApplicationEventPublisher eventPublisher) {
         this.paymentRepository = paymentRepository;
         this.examRepository = examRepository;
+        this.eventPublisher = eventPublisher;
         
         // Initialize gateway map
         this.paymentGateways = new HashMap<>();
@@ -145,6 +149,9 @@ public class PaymentServiceImpl implements PaymentService {
         // Process the webhook notification
         PaymentWebhookResult webhookResult = gateway.processWebhookNotification(additionalParams);
         
+        // Either outcome changes what the user can access, so drop their cached entitlements on commit
+        eventPublisher.publishEvent(new EntitlementChangedEvent(payment.getUserId()));
+        
         // Update payment status
         if ("COMPLETED".equals(webhookResult.getStatus())) {
             payment.setStatus(PaymentStatus.COMPLETED);
@@ -178,21 +185,12 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     public boolean hasUserPurchasedAnyExam(String userId) {
         // Check if the user has any completed payment for any exam
-        List<Payment> userPayments = paymentRepository.findByUserIdAndItemTypeAndStatus(
+        boolean hasPurchased = paymentRepository.existsByUserIdAndItemTypeAndStatus(
             userId, "EXAM", PaymentStatus.COMPLETED);
         
-        boolean hasPurchased = !userPayments.isEmpty();
-        
         // Log the result for debugging
         if (hasPurchased) {
-            log.info("User {} has purchased at least one premium exam. Number of premium exams purchased: {}", 
-                   userId, userPayments.size());
-            
-            // Log the exam IDs for reference
-            String examIds = userPayments.stream()
-                .map(payment -> String.valueOf(payment.getItemId()))
-                .collect(Collectors.joining(", "));
-            log.info("User {} has purchased these exams: {}", userId, examIds);
+            log.info("User {} has purchased at least one premium exam", userId);
         } else {
             log.info("User {} has not purchased any premium exams yet", userId);
         }
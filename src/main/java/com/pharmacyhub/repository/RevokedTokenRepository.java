@@ -0,0 +1,45 @@
+package com.pharmacyhub.repository;
+
+import com.pharmacyhub.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for revoked access tokens
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * Find revocations that are still in force
+     * 
+     * @param time Current time
+     * @return Revocations expiring after the given time
+     */
+    List<RevokedToken> findByExpiresAtAfter(LocalDateTime time);
+    
+    /**
+     * Find revocations recorded since the given time, by any node
+     * 
+     * @param time Time of the last refresh, less a safety margin
+     * @return Revocations created at or after the given time
+     */
+    @Query("SELECT r FROM RevokedToken r WHERE r.createdAt >= :time")
+    List<RevokedToken> findCreatedSince(@Param("time") LocalDateTime time);
+    
+    /**
+     * Delete revocations whose tokens have all expired
+     * 
+     * @param time Current time to compare against expiry
+     * @return Number of revocations deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :time")
+    int deleteByExpiresAtBefore(@Param("time") LocalDateTime time);
+}
@@ -29,6 +29,14 @@ public interface UserRepository extends JpaRepository<User, Long>
    */
   @Query("SELECT u FROM User u JOIN u.groups g WHERE g.name = :groupName")
   List<User> findByGroupsName(@Param("groupName") String groupName);
+
+  /**
+   * Ids of the users holding a role, directly or through one of their groups.
+   */
+  @Query("SELECT u.id FROM User u JOIN u.roles r WHERE r.id = :roleId " +
+         "UNION " +
+         "SELECT u.id FROM User u JOIN u.groups g JOIN g.roles r WHERE r.id = :roleId")
+  List<Long> findIdsByRoleId(@Param("roleId") Long roleId);
   
   /**
    * Find users with a specific permission (either directly through roles or through groups).
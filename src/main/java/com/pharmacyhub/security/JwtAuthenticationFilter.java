@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -35,6 +36,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
   @Autowired
   private UserDetailsService userDetailsService;
 
+  @Autowired
+  private VerifiedTokenCache verifiedTokenCache;
+
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
+  @Value("${pharmacyhub.security.jwt.stateless-principal:true}")
+  private boolean statelessPrincipal;
+
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
     // Skip authentication for authentication endpoints
@@ -63,21 +73,33 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter
     String username = null;
     
     try {
-      // Get username from token
-      username = jwtHelper.getUsernameFromToken(token);
+      // Verify the signature and expiry once per token; repeat requests reuse the cached claims and principal
+      VerifiedTokenCache.Entry verified = verifiedTokenCache.get(token);
+      if (verified == null) {
+        VerifiedToken parsed = jwtHelper.verify(token);
+        verified = verifiedTokenCache.put(token, parsed, statelessPrincipal ? JwtPrincipal.of(parsed) : null);
+      }
+      VerifiedToken verifiedToken = verified.getToken();
+      username = verifiedToken.getSubject();
       logger.debug("Token is for user: {}", username);
-      
-      // If we have valid token and no current authentication
-      if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+
+      // Reject revoked tokens (held in memory, no database round trip), else authenticate if not already
+      if (tokenRevocationList.isRevoked(verifiedToken)) {
+        logger.debug("Token of user {} has been revoked", username);
+        // Don't return early, let the request continue as unauthenticated
+      } else if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
         try {
-          // Load user details
-          UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+          // The principal is rebuilt from the claims; only tokens of another claims version load the user
+          UserDetails userDetails = verified.getPrincipal();
+          if (userDetails == null) {
+            userDetails = userDetailsService.loadUserByUsername(username);
+          }
           
           // Validate token
-          boolean isTokenValid = jwtHelper.validateToken(token, userDetails);
+          boolean isTokenValid = jwtHelper.validateToken(verifiedToken, userDetails);
           
           if (isTokenValid) {
-            // Create authentication token
+            // Authentication tokens are mutable and carry per-request details, so one is built per request
             UsernamePasswordAuthenticationToken authentication = 
                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
             
@@ -6,8 +6,13 @@ import com.pharmacyhub.security.domain.Permission;
 import com.pharmacyhub.security.domain.Role;
 import com.pharmacyhub.security.service.RBACService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,6 +20,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
+import java.security.Key;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -23,18 +29,69 @@ import java.util.stream.Collectors;
 public class JwtHelper
 {
 
+  /**
+   * Version of the full claim layout written by generateToken. Tokens of another version do not
+   * carry everything JwtPrincipal needs, so the filter loads their user instead; bump it when
+   * the claims the principal is built from change.
+   */
+  public static final int CLAIMS_VERSION = 1;
+
+  /**
+   * Version of the compact claim layout: short keys, no profile fields and no separate authority
+   * list, with permissions as a bitmap over the PermissionCatalog version named in the token
+   */
+  public static final int COMPACT_CLAIMS_VERSION = 2;
+
+  static final String COMPACT_USER_ID = "uid";
+  static final String COMPACT_USER_TYPE = "ut";
+  static final String COMPACT_ROLES = "r";
+  static final String COMPACT_PERMISSIONS = "p";
+  static final String COMPACT_CATALOG_VERSION = "pcv";
+
+  private static final Logger logger = LoggerFactory.getLogger(JwtHelper.class);
+
   @Autowired
   private UserRepository userRepository;
   
   @Autowired
   private RBACService rbacService;
 
+  @Autowired
+  private PermissionCatalog permissionCatalog;
+
+  @Value("${pharmacyhub.security.jwt.compact-claims:false}")
+  private boolean compactClaims;
+
   @Value("${pharmacyhub.security.jwt.token-validity-in-seconds:18000}")
   private long tokenValidityInSeconds;
 
   @Value("${pharmacyhub.security.jwt.secret:pharmacyhub_jwt_secret_key_for_token_generation_and_validation_2025}")
   private String secret;
 
+  // The signing key and parser are immutable and thread-safe, so they are built once
+  private Key signingKey;
+  private JwtParser parser;
+
+  @PostConstruct
+  void init()
+  {
+    signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+    parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+  }
+
+  /**
+   * Verify the token's signature and expiry and parse its claims.
+   * Callers handling a request should verify once and use the returned claims from then on.
+   *
+   * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+   */
+  public VerifiedToken verify(String token)
+  {
+    return new VerifiedToken(parser.parseClaimsJws(token).getBody(), permissionCatalog);
+  }
+
   //retrieve username from jwt token
   public String getUsernameFromToken(String token)
   {
@@ -56,17 +113,13 @@ public class JwtHelper
   //for retrieveing any information from token we will need the secret key
   protected Claims getAllClaimsFromToken(String token)
   {
-    return Jwts.parserBuilder()
-            .setSigningKey(io.jsonwebtoken.security.Keys.hmacShaKeyFor(secret.getBytes()))
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+    return verify(token).getClaims();
   }
 
   //check if the token has expired
-  private Boolean isTokenExpired(String token)
+  private boolean isTokenExpired(VerifiedToken token)
   {
-    final Date expiration = getExpirationDateFromToken(token);
+    final Date expiration = token.getExpiration();
     // Add clock skew tolerance of 5 minutes to allow for minor time differences between systems
     return expiration.before(new Date(System.currentTimeMillis() - (5 * 60 * 1000)));
   }
@@ -90,6 +143,11 @@ public class JwtHelper
   }
   
   private void addRolesAndPermissionsToClaims(Map<String, Object> claims, User user) {
+      if (compactClaims && addCompactClaims(claims, user)) {
+          return;
+      }
+      claims.put("cv", CLAIMS_VERSION);
+
       // Add user ID
       claims.put("userId", user.getId());
       
@@ -133,6 +191,40 @@ public class JwtHelper
       claims.put("authorities", authorities);
   }
 
+  /**
+   * Write the compact claim layout.
+   * Returns false, leaving the claims untouched, if a permission of the user is missing from
+   * the catalog even after reloading it.
+   */
+  private boolean addCompactClaims(Map<String, Object> claims, User user) {
+      List<String> permissionNames = rbacService.getUserEffectivePermissions(user.getId()).stream()
+          .map(Permission::getName)
+          .collect(Collectors.toList());
+
+      PermissionCatalog.Snapshot catalog = permissionCatalog.current();
+      String bitmap = catalog.encode(permissionNames);
+      if (bitmap == null) {
+          catalog = permissionCatalog.reloadNow();
+          bitmap = catalog.encode(permissionNames);
+      }
+      if (bitmap == null) {
+          logger.warn("Permission catalog is missing permissions of user {}, issuing a full token", user.getId());
+          return false;
+      }
+
+      claims.put("cv", COMPACT_CLAIMS_VERSION);
+      claims.put(COMPACT_USER_ID, user.getId());
+      if (user.getUserType() != null) {
+          claims.put(COMPACT_USER_TYPE, user.getUserType().name());
+      }
+      claims.put(COMPACT_ROLES, rbacService.getUserRoles(user.getId()).stream()
+          .map(Role::getName)
+          .collect(Collectors.toList()));
+      claims.put(COMPACT_CATALOG_VERSION, catalog.getVersion());
+      claims.put(COMPACT_PERMISSIONS, bitmap);
+      return true;
+  }
+
   //while creating the token -
   //1. Define  claims of the token, like Issuer, Expiration, Subject, and the ID
   //2. Sign the JWT using the HS512 algorithm and secret key.
@@ -140,19 +232,34 @@ public class JwtHelper
   //   compaction of the JWT to a URL-safe string
   private String doGenerateToken(Map<String, Object> claims, String subject)
   {
-    return Jwts.builder()
+    String token = Jwts.builder()
             .setClaims(claims)
             .setSubject(subject)
+            .setId(UUID.randomUUID().toString())
             .setIssuedAt(new Date(System.currentTimeMillis()))
             .setExpiration(new Date(System.currentTimeMillis() + tokenValidityInSeconds * 1000))
-            .signWith(io.jsonwebtoken.security.Keys.hmacShaKeyFor(secret.getBytes()), io.jsonwebtoken.SignatureAlgorithm.HS512)
+            .signWith(signingKey, SignatureAlgorithm.HS512)
             .compact();
+    // Token size is what every request carries in its Authorization header
+    logger.debug("Issued token version {} for {}: {} bytes", claims.get("cv"), subject, token.length());
+    return token;
   }
 
   //validate token
   public Boolean validateToken(String token, UserDetails userDetails) {
     try {
-      final String username = getUsernameFromToken(token);
+      return validateToken(verify(token), userDetails);
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  /**
+   * Validate already verified claims against the user they were issued for
+   */
+  public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+    try {
+      final String username = token.getSubject();
       
       // Validate username and token expiration
       if (!username.equals(userDetails.getUsername()) || isTokenExpired(token)) {
@@ -183,43 +290,28 @@ public class JwtHelper
   /**
    * Extract user permissions from token
    */
-  @SuppressWarnings("unchecked")
   public List<String> getPermissionsFromToken(String token) {
-      final Claims claims = getAllClaimsFromToken(token);
-      return claims.get("permissions", List.class);
+      return verify(token).getPermissions();
   }
   
   /**
    * Extract user roles from token
    */
-  @SuppressWarnings("unchecked")
   public List<String> getRolesFromToken(String token) {
-      final Claims claims = getAllClaimsFromToken(token);
-      return claims.get("roles", List.class);
+      return verify(token).getRoles();
   }
   
   /**
    * Extract user ID from token
    */
   public Long getUserIdFromToken(String token) {
-      final Claims claims = getAllClaimsFromToken(token);
-      return claims.get("userId", Long.class);
+      return verify(token).getUserId();
   }
   
   /**
    * Get all authorities from token (roles and permissions)
    */
-  @SuppressWarnings("unchecked")
   public List<SimpleGrantedAuthority> getAuthoritiesFromToken(String token) {
-      final Claims claims = getAllClaimsFromToken(token);
-      List<String> authorities = claims.get("authorities", List.class);
-      
-      if (authorities == null) {
-          return Collections.emptyList();
-      }
-      
-      return authorities.stream()
-          .map(SimpleGrantedAuthority::new)
-          .collect(Collectors.toList());
+      return verify(token).getAuthorities();
   }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.pharmacyhub.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+/**
+ * Lightweight principal rebuilt from the claims of a verified token, without loading the user.
+ * It carries what request authorization needs: the user id, the username and the authorities
+ * granted when the token was issued. Code that needs the User entity itself goes through
+ * PHEngine.getLoggedInUser, which loads it on demand.
+ */
+public final class JwtPrincipal implements UserDetails
+{
+
+  private static final long serialVersionUID = 1L;
+
+  private final Long userId;
+  private final String username;
+  private final String userType;
+  private final Collection<GrantedAuthority> authorities;
+
+  JwtPrincipal(Long userId, String username, String userType, Collection<? extends GrantedAuthority> authorities)
+  {
+    this.userId = userId;
+    this.username = username;
+    this.userType = userType;
+    this.authorities = Collections.unmodifiableSet(new LinkedHashSet<>(authorities));
+  }
+
+  /**
+   * Build the principal of a token, or return null if the token does not carry the claims of a
+   * known claims version, or its permissions were written against another permission catalog,
+   * and the user has to be loaded instead
+   */
+  static JwtPrincipal of(VerifiedToken token)
+  {
+    int version = token.getClaimsVersion();
+    if ((version != JwtHelper.CLAIMS_VERSION && version != JwtHelper.COMPACT_CLAIMS_VERSION)
+        || token.getUserId() == null || token.getSubject() == null || !token.hasReadableAuthorities())
+    {
+      return null;
+    }
+    return new JwtPrincipal(token.getUserId(), token.getSubject(), token.getUserType(), token.getAuthorities());
+  }
+
+  public Long getUserId()
+  {
+    return userId;
+  }
+
+  public String getUserType()
+  {
+    return userType;
+  }
+
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities()
+  {
+    return authorities;
+  }
+
+  @Override
+  public String getPassword()
+  {
+    return null;
+  }
+
+  @Override
+  public String getUsername()
+  {
+    return username;
+  }
+
+  // Account status was checked when the token was issued. Disabling or locking the account revokes its
+  // tokens (UserAccessListener), and revoked tokens are rejected by the filter
+  @Override
+  public boolean isAccountNonExpired()
+  {
+    return true;
+  }
+
+  @Override
+  public boolean isAccountNonLocked()
+  {
+    return true;
+  }
+
+  @Override
+  public boolean isCredentialsNonExpired()
+  {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled()
+  {
+    return true;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "JwtPrincipal[" + userId + ", " + username + "]";
+  }
+}
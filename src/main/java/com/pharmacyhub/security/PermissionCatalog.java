@@ -0,0 +1,183 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.security.domain.Permission;
+import com.pharmacyhub.security.infrastructure.PermissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbered list of all permissions, used to put a user's permissions in a token as a bitmap.
+ *
+ * Bit i of a bitmap stands for the i-th permission in id order. The catalog version is a hash of
+ * that list, so every node with the same permissions has the same version, and tokens record the
+ * version their bitmap was written against. A token of another version (a permission was added
+ * or removed since it was issued) is not decoded; the filter loads its user instead.
+ */
+@Component
+public class PermissionCatalog
+{
+
+  private static final Logger logger = LoggerFactory.getLogger(PermissionCatalog.class);
+
+  private final PermissionRepository permissionRepository;
+
+  private volatile Snapshot current;
+
+  public PermissionCatalog(PermissionRepository permissionRepository)
+  {
+    this.permissionRepository = permissionRepository;
+  }
+
+  /**
+   * The current catalog, loaded on first use
+   */
+  public Snapshot current()
+  {
+    Snapshot snapshot = current;
+    if (snapshot == null)
+    {
+      snapshot = reload();
+    }
+    return snapshot;
+  }
+
+  /**
+   * Load the catalog again now, e.g. when a permission is missing from it
+   */
+  public Snapshot reloadNow()
+  {
+    return reload();
+  }
+
+  /**
+   * Pick up permissions created or removed since the last load
+   */
+  @Scheduled(fixedDelayString = "${pharmacyhub.security.jwt.permission-catalog.refresh-interval-ms:300000}")
+  public void refresh()
+  {
+    try
+    {
+      reload();
+    }
+    catch (Exception e)
+    {
+      logger.error("Error refreshing permission catalog", e);
+    }
+  }
+
+  private synchronized Snapshot reload()
+  {
+    List<Permission> permissions = new ArrayList<>(permissionRepository.findAll());
+    permissions.sort(Comparator.comparing(Permission::getId));
+
+    List<String> names = new ArrayList<>(permissions.size());
+    for (Permission permission : permissions)
+    {
+      names.add(permission.getName());
+    }
+
+    Snapshot snapshot = new Snapshot(names);
+    Snapshot previous = current;
+    if (previous == null || !previous.version.equals(snapshot.version))
+    {
+      logger.info("Permission catalog version {} with {} permissions", snapshot.version, names.size());
+    }
+    current = snapshot;
+    return snapshot;
+  }
+
+  /**
+   * One immutable version of the catalog
+   */
+  public static final class Snapshot
+  {
+
+    private final String version;
+    private final List<String> names;
+    private final Map<String, Integer> indexes;
+
+    private Snapshot(List<String> names)
+    {
+      this.names = Collections.unmodifiableList(names);
+      this.indexes = new HashMap<>();
+      for (int i = 0; i < names.size(); i++)
+      {
+        indexes.putIfAbsent(names.get(i), i);
+      }
+      this.version = versionOf(names);
+    }
+
+    public String getVersion()
+    {
+      return version;
+    }
+
+    /**
+     * Encode permission names as a base64url bitmap, or return null if one is not in the catalog
+     */
+    public String encode(Collection<String> permissionNames)
+    {
+      BitSet bits = new BitSet(names.size());
+      for (String name : permissionNames)
+      {
+        Integer index = indexes.get(name);
+        if (index == null)
+        {
+          return null;
+        }
+        bits.set(index);
+      }
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    /**
+     * Expand a bitmap written by encode back into permission names
+     *
+     * @throws IllegalArgumentException if the bitmap is not valid base64url
+     */
+    public List<String> decode(String bitmap)
+    {
+      BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(bitmap));
+      List<String> decoded = new ArrayList<>(bits.cardinality());
+      for (int i = bits.nextSetBit(0); i >= 0 && i < names.size(); i = bits.nextSetBit(i + 1))
+      {
+        decoded.add(names.get(i));
+      }
+      return decoded;
+    }
+
+    private static String versionOf(List<String> names)
+    {
+      try
+      {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (String name : names)
+        {
+          digest.update(name.getBytes(StandardCharsets.UTF_8));
+          digest.update((byte) '\n');
+        }
+        byte[] hash = digest.digest();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 11);
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+        throw new IllegalStateException("SHA-256 not available", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.entity.RevokedToken;
+import com.pharmacyhub.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens, checked by the filter on every request without a database round trip.
+ *
+ * A revocation is either a single token id (jti) or a per-user cutoff that revokes every token
+ * of the user issued before it. Both are kept in memory in hash maps and persisted to
+ * revoked_tokens so they survive restarts and reach other nodes: each node re-reads the rows
+ * created since its last refresh on a fixed interval, with an overlap so rows committed late are
+ * not missed. Revocations made on this node apply immediately; other nodes see them within one
+ * refresh interval. Entries are dropped once the tokens they revoke have expired.
+ */
+@Component
+public class TokenRevocationList
+{
+
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+  private final RevokedTokenRepository revokedTokenRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final long tokenValidityMillis;
+  private final long refreshOverlapMillis;
+
+  // jti -> expiry of the revoked token
+  private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+  // user id -> tokens issued before the cutoff are revoked
+  private final Map<Long, UserCutoff> userCutoffs = new ConcurrentHashMap<>();
+
+  private volatile LocalDateTime lastRefresh;
+
+  public TokenRevocationList(
+      RevokedTokenRepository revokedTokenRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${pharmacyhub.security.jwt.token-validity-in-seconds:18000}") long tokenValidityInSeconds,
+      @Value("${pharmacyhub.security.jwt.revocation.refresh-overlap-ms:60000}") long refreshOverlapMillis)
+  {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    // Also used after another transaction committed, whose resources are still bound to the thread
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.tokenValidityMillis = tokenValidityInSeconds * 1000;
+    this.refreshOverlapMillis = refreshOverlapMillis;
+  }
+
+  @PostConstruct
+  void init()
+  {
+    refresh();
+  }
+
+  /**
+   * Whether a verified token has been revoked
+   */
+  public boolean isRevoked(VerifiedToken token)
+  {
+    String tokenId = token.getId();
+    if (tokenId != null && revokedTokenIds.containsKey(tokenId))
+    {
+      return true;
+    }
+    if (userCutoffs.isEmpty())
+    {
+      return false;
+    }
+    Long userId = token.getUserId();
+    UserCutoff cutoff = userId != null ? userCutoffs.get(userId) : null;
+    Date issuedAt = token.getIssuedAt();
+    return cutoff != null && issuedAt != null && issuedAt.getTime() < cutoff.issuedBeforeMillis;
+  }
+
+  /**
+   * Revoke a single token until it expires.
+   * Tokens issued before token ids were added cannot be revoked one by one and are ignored.
+   */
+  public void revoke(VerifiedToken token)
+  {
+    if (token.getId() == null || token.getExpiration() == null)
+    {
+      logger.debug("Token of {} has no id and cannot be revoked individually", token.getSubject());
+      return;
+    }
+    RevokedToken revoked = revokedTokenRepository.save(RevokedToken.builder()
+        .jti(token.getId())
+        .expiresAt(toLocalDateTime(token.getExpiration().getTime()))
+        .createdAt(LocalDateTime.now())
+        .build());
+    apply(revoked);
+  }
+
+  /**
+   * Revoke every token of a user issued before the given time.
+   * JWT issue times have second precision, so the cutoff is truncated to the second and tokens
+   * issued within that second stay valid.
+   */
+  public void revokeIssuedBefore(Long userId, Date issuedBefore)
+  {
+    long cutoffMillis = issuedBefore.getTime() / 1000 * 1000;
+    RevokedToken revoked = revokedTokenRepository.save(RevokedToken.builder()
+        .userId(userId)
+        .issuedBefore(toLocalDateTime(cutoffMillis))
+        // Every token issued before the cutoff has expired by then
+        .expiresAt(toLocalDateTime(cutoffMillis + tokenValidityMillis))
+        .createdAt(LocalDateTime.now())
+        .build());
+    apply(revoked);
+  }
+
+  /**
+   * Revoke the tokens of a user whose account was disabled or locked, once that change commits
+   */
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onUserAccessRemoved(UserAccessRemovedEvent event)
+  {
+    transactionTemplate.executeWithoutResult(status -> revokeIssuedBefore(event.getUserId(), new Date()));
+    logger.info("Revoked the tokens of disabled or locked user {}", event.getUserId());
+  }
+
+  /**
+   * Pick up revocations recorded by other nodes and drop expired entries.
+   * Until the first load succeeds every refresh attempts a full load.
+   */
+  @Scheduled(fixedDelayString = "${pharmacyhub.security.jwt.revocation.refresh-interval-ms:5000}")
+  public void refresh()
+  {
+    LocalDateTime started = LocalDateTime.now();
+    try
+    {
+      List<RevokedToken> rows = lastRefresh == null
+          ? revokedTokenRepository.findByExpiresAtAfter(started)
+          : revokedTokenRepository.findCreatedSince(lastRefresh.minusNanos(refreshOverlapMillis * 1_000_000));
+      rows.forEach(this::apply);
+      if (lastRefresh == null)
+      {
+        logger.info("Loaded {} token revocations", rows.size());
+      }
+      lastRefresh = started;
+    }
+    catch (Exception e)
+    {
+      logger.error("Error refreshing token revocations", e);
+    }
+
+    long now = System.currentTimeMillis();
+    revokedTokenIds.values().removeIf(expiresAt -> expiresAt < now);
+    userCutoffs.values().removeIf(cutoff -> cutoff.expiresAtMillis < now);
+  }
+
+  /**
+   * Delete revocations whose tokens have all expired
+   */
+  @Scheduled(fixedRateString = "${pharmacyhub.security.token.cleanup-interval:3600000}")
+  public void cleanupExpired()
+  {
+    try
+    {
+      Integer deleted = transactionTemplate.execute(status ->
+          revokedTokenRepository.deleteByExpiresAtBefore(LocalDateTime.now()));
+      if (deleted != null && deleted > 0)
+      {
+        logger.info("Cleaned up {} expired token revocations", deleted);
+      }
+    }
+    catch (Exception e)
+    {
+      logger.error("Error cleaning up expired token revocations", e);
+    }
+  }
+
+  private void apply(RevokedToken revoked)
+  {
+    long expiresAt = toMillis(revoked.getExpiresAt());
+    if (revoked.getJti() != null)
+    {
+      revokedTokenIds.merge(revoked.getJti(), expiresAt, Math::max);
+    }
+    else if (revoked.getUserId() != null && revoked.getIssuedBefore() != null)
+    {
+      userCutoffs.merge(revoked.getUserId(), new UserCutoff(toMillis(revoked.getIssuedBefore()), expiresAt),
+          UserCutoff::latest);
+    }
+  }
+
+  private static long toMillis(LocalDateTime time)
+  {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  private static LocalDateTime toLocalDateTime(long millis)
+  {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+  }
+
+  private static final class UserCutoff
+  {
+
+    private final long issuedBeforeMillis;
+    private final long expiresAtMillis;
+
+    private UserCutoff(long issuedBeforeMillis, long expiresAtMillis)
+    {
+      this.issuedBeforeMillis = issuedBeforeMillis;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+
+    private static UserCutoff latest(UserCutoff a, UserCutoff b)
+    {
+      return a.issuedBeforeMillis >= b.issuedBeforeMillis ? a : b;
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.entity.User;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Entity listener of User that announces updates disabling or locking an account.
+ * Stateless principals are not checked against the account on each request (see JwtPrincipal),
+ * so the account's tokens are revoked instead; see TokenRevocationList.
+ */
+public class UserAccessListener
+{
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  public UserAccessListener(ApplicationEventPublisher eventPublisher)
+  {
+    this.eventPublisher = eventPublisher;
+  }
+
+  @PostUpdate
+  public void afterUpdate(User user)
+  {
+    if (user.lostAccessSinceLoad())
+    {
+      eventPublisher.publishEvent(new UserAccessRemovedEvent(user.getId()));
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.pharmacyhub.security;
+
+/**
+ * Published when a user's account is disabled or locked.
+ * The user's tokens are revoked once the publishing transaction commits.
+ */
+public class UserAccessRemovedEvent
+{
+
+  private final Long userId;
+
+  public UserAccessRemovedEvent(Long userId)
+  {
+    this.userId = userId;
+  }
+
+  public Long getUserId()
+  {
+    return userId;
+  }
+}
@@ -0,0 +1,152 @@
+package com.pharmacyhub.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Claims of a JWT whose signature and expiry were verified once by JwtHelper.verify.
+ * Pass it around instead of the raw token so a request never parses the same token twice.
+ * Reads both the full claim layout and the compact one, whose permission bitmap is expanded
+ * against the PermissionCatalog on first use.
+ */
+public final class VerifiedToken
+{
+
+  private final Claims claims;
+  private final PermissionCatalog permissionCatalog;
+
+  private volatile List<String> decodedPermissions;
+
+  VerifiedToken(Claims claims, PermissionCatalog permissionCatalog)
+  {
+    this.claims = claims;
+    this.permissionCatalog = permissionCatalog;
+  }
+
+  /**
+   * Token id (jti), used to revoke the token; null for tokens issued before ids were added
+   */
+  public String getId()
+  {
+    return claims.getId();
+  }
+
+  public String getSubject()
+  {
+    return claims.getSubject();
+  }
+
+  public Date getExpiration()
+  {
+    return claims.getExpiration();
+  }
+
+  public Date getIssuedAt()
+  {
+    return claims.getIssuedAt();
+  }
+
+  public Long getUserId()
+  {
+    return claims.get(isCompact() ? JwtHelper.COMPACT_USER_ID : "userId", Long.class);
+  }
+
+  public String getUserType()
+  {
+    return claims.get(isCompact() ? JwtHelper.COMPACT_USER_TYPE : "userType", String.class);
+  }
+
+  /**
+   * Version of the claim layout the token was issued with; 0 for tokens issued before versioning
+   */
+  public int getClaimsVersion()
+  {
+    Integer version = claims.get("cv", Integer.class);
+    return version != null ? version : 0;
+  }
+
+  public boolean isCompact()
+  {
+    return getClaimsVersion() == JwtHelper.COMPACT_CLAIMS_VERSION;
+  }
+
+  /**
+   * Whether the token's authorities can be read; false for compact tokens written against
+   * another version of the permission catalog
+   */
+  public boolean hasReadableAuthorities()
+  {
+    return !isCompact() || decodePermissions() != null;
+  }
+
+  public List<String> getRoles()
+  {
+    return getStringList(isCompact() ? JwtHelper.COMPACT_ROLES : "roles");
+  }
+
+  public List<String> getPermissions()
+  {
+    if (isCompact())
+    {
+      List<String> permissions = decodePermissions();
+      return permissions != null ? permissions : Collections.emptyList();
+    }
+    return getStringList("permissions");
+  }
+
+  /**
+   * Roles (as ROLE_ names) and permissions granted by the token
+   */
+  public List<SimpleGrantedAuthority> getAuthorities()
+  {
+    if (isCompact())
+    {
+      // Compact tokens do not repeat roles and permissions as a separate authority list
+      List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+      getRoles().forEach(role -> authorities.add(new SimpleGrantedAuthority("ROLE_" + role)));
+      getPermissions().forEach(permission -> authorities.add(new SimpleGrantedAuthority(permission)));
+      return authorities;
+    }
+    return getStringList("authorities").stream()
+        .map(SimpleGrantedAuthority::new)
+        .collect(Collectors.toList());
+  }
+
+  public Claims getClaims()
+  {
+    return claims;
+  }
+
+  /**
+   * Permission names of a compact token, or null if its bitmap belongs to another catalog version
+   */
+  private List<String> decodePermissions()
+  {
+    List<String> permissions = decodedPermissions;
+    if (permissions == null)
+    {
+      PermissionCatalog.Snapshot catalog = permissionCatalog.current();
+      String bitmap = claims.get(JwtHelper.COMPACT_PERMISSIONS, String.class);
+      if (bitmap == null || !catalog.getVersion().equals(claims.get(JwtHelper.COMPACT_CATALOG_VERSION, String.class)))
+      {
+        return null;
+      }
+      permissions = Collections.unmodifiableList(catalog.decode(bitmap));
+      decodedPermissions = permissions;
+    }
+    return permissions;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<String> getStringList(String name)
+  {
+    List<String> values = claims.get(name, List.class);
+    return values != null ? values : Collections.emptyList();
+  }
+}
@@ -0,0 +1,155 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.config.cache.BoundedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Bounded cache of tokens that already passed signature verification, keyed by the SHA-256 of
+ * the token so raw bearer tokens are never kept in memory. A repeat request with the same token
+ * skips the HMAC check, claim parsing and principal construction. Entries expire with the token.
+ * The cache is split into segments by key hash so concurrent requests rarely share a lock.
+ */
+@Component
+public class VerifiedTokenCache
+{
+
+  private static final int SEGMENTS = 16;
+
+  private final boolean enabled;
+  private final List<BoundedTtlCache<TokenKey, Entry>> segments;
+
+  public VerifiedTokenCache(
+      @Value("${pharmacyhub.security.jwt.verified-token-cache.enabled:true}") boolean enabled,
+      @Value("${pharmacyhub.security.jwt.verified-token-cache.max-size:10000}") int maxSize)
+  {
+    this.enabled = enabled;
+    List<BoundedTtlCache<TokenKey, Entry>> segments = new ArrayList<>(SEGMENTS);
+    int segmentSize = Math.max(1, maxSize / SEGMENTS);
+    for (int i = 0; i < SEGMENTS; i++)
+    {
+      // Entries are always stored with the token's own expiry, so the default ttl is unused
+      segments.add(new BoundedTtlCache<>(segmentSize, 0));
+    }
+    this.segments = List.copyOf(segments);
+  }
+
+  /**
+   * Get the verified claims and principal of a token seen before, or null
+   */
+  public Entry get(String token)
+  {
+    if (!enabled)
+    {
+      return null;
+    }
+    TokenKey key = TokenKey.of(token);
+    return segmentOf(key).get(key);
+  }
+
+  /**
+   * Remember a verified token until it expires.
+   * The principal is only cached when it was built from claims; user entities are not shared across requests.
+   */
+  public Entry put(String token, VerifiedToken verifiedToken, JwtPrincipal principal)
+  {
+    Entry entry = new Entry(verifiedToken, principal);
+    Date expiration = verifiedToken.getExpiration();
+    if (enabled && expiration != null)
+    {
+      TokenKey key = TokenKey.of(token);
+      segmentOf(key).putUntil(key, entry, expiration.getTime());
+    }
+    return entry;
+  }
+
+  public void invalidateAll()
+  {
+    for (BoundedTtlCache<TokenKey, Entry> segment : segments)
+    {
+      segment.invalidateAll();
+    }
+  }
+
+  private BoundedTtlCache<TokenKey, Entry> segmentOf(TokenKey key)
+  {
+    return segments.get((key.hashCode() & 0x7fffffff) % SEGMENTS);
+  }
+
+  /**
+   * A verified token and, when stateless principals are enabled, the principal built from it
+   */
+  public static final class Entry
+  {
+
+    private final VerifiedToken token;
+    private final JwtPrincipal principal;
+
+    private Entry(VerifiedToken token, JwtPrincipal principal)
+    {
+      this.token = token;
+      this.principal = principal;
+    }
+
+    public VerifiedToken getToken()
+    {
+      return token;
+    }
+
+    /**
+     * The principal rebuilt from the claims, or null if the user has to be loaded
+     */
+    public UserDetails getPrincipal()
+    {
+      return principal;
+    }
+  }
+
+  private static final class TokenKey
+  {
+
+    private final byte[] hash;
+    private final int hashCode;
+
+    private TokenKey(byte[] hash)
+    {
+      this.hash = hash;
+      this.hashCode = ByteBuffer.wrap(hash).getInt();
+    }
+
+    private static TokenKey of(String token)
+    {
+      try
+      {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        return new TokenKey(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+        throw new IllegalStateException("SHA-256 not available", e);
+      }
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+      return other instanceof TokenKey && Arrays.equals(hash, ((TokenKey) other).hash);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+  }
+}
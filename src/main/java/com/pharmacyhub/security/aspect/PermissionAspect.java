@@ -30,7 +30,7 @@ public class PermissionAspect extends PHEngine
         RequiresPermission annotation = method.getAnnotation(RequiresPermission.class);
 
         // Get current user's permissions
-        Set<Permission> userPermissions = rbacService.getUserEffectivePermissions(getLoggedInUser().getId());
+        Set<Permission> userPermissions = rbacService.getUserEffectivePermissions(getLoggedInUserId());
 
         // Check if user has required permission
         boolean hasPermission;
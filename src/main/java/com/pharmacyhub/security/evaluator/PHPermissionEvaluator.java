@@ -1,6 +1,7 @@
 package com.pharmacyhub.security.evaluator;
 
 import com.pharmacyhub.entity.User;
+import com.pharmacyhub.security.JwtPrincipal;
 import com.pharmacyhub.security.domain.Permission;
 import com.pharmacyhub.security.domain.ResourceType;
 import com.pharmacyhub.security.service.AuditService;
@@ -47,10 +48,10 @@ public class PHPermissionEvaluator implements PermissionEvaluator {
             return false;
         }
         
-        User user = (User) authentication.getPrincipal();
+        UserDetails user = (UserDetails) authentication.getPrincipal();
         
         // Get the user's effective permissions
-        Set<Permission> effectivePermissions = rbacService.getUserEffectivePermissions(user.getId());
+        Set<Permission> effectivePermissions = rbacService.getUserEffectivePermissions(userIdOf(user));
         
         // Check if the user has the required permission for the target
         boolean hasPermission = effectivePermissions.stream()
@@ -81,10 +82,10 @@ public class PHPermissionEvaluator implements PermissionEvaluator {
             return false;
         }
         
-        User user = (User) authentication.getPrincipal();
+        UserDetails user = (UserDetails) authentication.getPrincipal();
         
         // Get the user's effective permissions
-        Set<Permission> effectivePermissions = rbacService.getUserEffectivePermissions(user.getId());
+        Set<Permission> effectivePermissions = rbacService.getUserEffectivePermissions(userIdOf(user));
         
         // Check if the user has the required permission for the target type
         boolean hasPermission = effectivePermissions.stream()
@@ -109,8 +110,8 @@ public class PHPermissionEvaluator implements PermissionEvaluator {
             return false;
         }
         
-        User user = (User) authentication.getPrincipal();
-        Set<Permission> effectivePermissions = rbacService.getUserEffectivePermissions(user.getId());
+        UserDetails user = (UserDetails) authentication.getPrincipal();
+        Set<Permission> effectivePermissions = rbacService.getUserEffectivePermissions(userIdOf(user));
         
         // For generic permissions, match by name
         boolean hasPermission = effectivePermissions.stream()
@@ -127,6 +128,16 @@ public class PHPermissionEvaluator implements PermissionEvaluator {
         return hasPermission;
     }
     
+    /**
+     * Id of the authenticated user, whether the principal is the user entity or was rebuilt from token claims.
+     */
+    private Long userIdOf(UserDetails principal) {
+        if (principal instanceof JwtPrincipal) {
+            return ((JwtPrincipal) principal).getUserId();
+        }
+        return ((User) principal).getId();
+    }
+    
     /**
      * Checks if a permission matches the target type and permission string.
      */
@@ -3,6 +3,7 @@ package com.pharmacyhub.security.evaluator;
 import com.pharmacyhub.entity.User;
 import com.pharmacyhub.entity.session.LoginSession;
 import com.pharmacyhub.repository.LoginSessionRepository;
+import com.pharmacyhub.security.JwtPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +61,9 @@ public class SessionAuthorizationEvaluator {
         if (userDetails instanceof User) {
             return ((User) userDetails).getId();
         }
+        if (userDetails instanceof JwtPrincipal) {
+            return ((JwtPrincipal) userDetails).getUserId();
+        }
         
         return null;
     }
@@ -3,6 +3,7 @@ package com.pharmacyhub.security.service;
 import com.pharmacyhub.entity.User;
 import com.pharmacyhub.entity.enums.UserType;
 import com.pharmacyhub.security.JwtHelper;
+import com.pharmacyhub.security.VerifiedToken;
 import com.pharmacyhub.security.infrastructure.exception.UnverifiedAccountException;
 import com.pharmacyhub.service.UserService;
 import com.pharmacyhub.security.domain.Role;
@@ -115,6 +116,21 @@ public class AuthenticationService {
         return jwtHelper.generateToken(user);
     }
     
+    /**
+     * Verify a JWT token
+     * 
+     * @param token The JWT token
+     * @return The verified token or null if token is invalid
+     */
+    public VerifiedToken verifyToken(String token) {
+        try {
+            return jwtHelper.verify(token);
+        } catch (Exception e) {
+            logger.error("Error verifying token", e);
+            return null;
+        }
+    }
+    
     /**
      * Extract user ID from a JWT token
      * 
@@ -4,6 +4,7 @@ import com.pharmacyhub.engine.PHEngine;
 import com.pharmacyhub.engine.PHMapper;
 import com.pharmacyhub.entity.User;
 import com.pharmacyhub.repository.UserRepository;
+import com.pharmacyhub.security.TokenRevocationList;
 import com.pharmacyhub.security.domain.AuditLog;
 import com.pharmacyhub.security.domain.Feature;
 import com.pharmacyhub.security.domain.Group;
@@ -27,6 +28,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -47,6 +49,7 @@ public class RBACService extends PHEngine
     private final AuditService auditService;
     private final RBACValidationService validationService;
     private final FeatureService featureService;
+    private final TokenRevocationList tokenRevocationList;
 
     public RBACService(
             UserRepository userRepository,
@@ -58,7 +61,8 @@ public class RBACService extends PHEngine
             PHMapper phMapper,
             AuditService auditService,
             RBACValidationService validationService,
-            FeatureService featureService)
+            FeatureService featureService,
+            TokenRevocationList tokenRevocationList)
     {
         this.userRepository = userRepository;
         this.rolesRepository = rolesRepository;
@@ -70,6 +74,7 @@ public class RBACService extends PHEngine
         this.auditService = auditService;
         this.validationService = validationService;
         this.featureService = featureService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Cacheable(value = "userPermissions", key = "#userId")
@@ -201,6 +206,9 @@ public class RBACService extends PHEngine
         }
         
         Role updatedRole = rolesRepository.save(existingRole);
+        if (roleDTO.getPermissionIds() != null) {
+            userRepository.findIdsByRoleId(roleId).forEach(this::revokeTokens);
+        }
         
         auditService.logSecurityEvent(
             "UPDATE_ROLE",
@@ -264,6 +272,7 @@ public class RBACService extends PHEngine
 
         user.getRoles().add(role);
         userRepository.save(user);
+        revokeTokens(userId);
         
         auditService.logSecurityEvent(
             "ASSIGN_ROLE",
@@ -286,6 +295,7 @@ public class RBACService extends PHEngine
 
         if (user.getRoles().removeIf(r -> r.getId().equals(roleId))) {
             userRepository.save(user);
+            revokeTokens(userId);
             
             auditService.logSecurityEvent(
                 "REMOVE_ROLE",
@@ -312,6 +322,7 @@ public class RBACService extends PHEngine
 
         user.getGroups().add(group);
         userRepository.save(user);
+        revokeTokens(userId);
         
         auditService.logSecurityEvent(
             "ASSIGN_GROUP",
@@ -334,6 +345,7 @@ public class RBACService extends PHEngine
 
         if (user.getGroups().removeIf(g -> g.getId().equals(groupId))) {
             userRepository.save(user);
+            revokeTokens(userId);
             
             auditService.logSecurityEvent(
                 "REMOVE_GROUP",
@@ -360,6 +372,7 @@ public class RBACService extends PHEngine
         
         user.getPermissionOverrides().add(override);
         userRepository.save(user);
+        revokeTokens(userId);
         
         auditService.logSecurityEvent(
             "PERMISSION_OVERRIDE",
@@ -379,6 +392,7 @@ public class RBACService extends PHEngine
 
         if (user.getPermissionOverrides().remove(override)) {
             userRepository.save(user);
+            revokeTokens(userId);
             
             auditService.logSecurityEvent(
                 "REMOVE_PERMISSION_OVERRIDE",
@@ -388,6 +402,14 @@ public class RBACService extends PHEngine
         }
     }
 
+    /**
+     * Tokens carry the user's roles and permissions, so those issued before a change are revoked
+     * and the user signs in again with the new ones.
+     */
+    private void revokeTokens(Long userId) {
+        tokenRevocationList.revokeIssuedBefore(userId, new Date());
+    }
+
     /**
      * Check if a user has a specific permission.
      */
@@ -2,12 +2,14 @@ package com.pharmacyhub.security.service;
 
 import com.pharmacyhub.entity.User;
 import com.pharmacyhub.repository.UserRepository;
+import com.pharmacyhub.security.TokenRevocationList;
 import com.pharmacyhub.security.domain.Role;
 import com.pharmacyhub.security.infrastructure.RolesRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import com.pharmacyhub.constants.RoleEnum;
 
+import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserRoleService {
     private final RolesRepository rolesRepository;
     private final UserRepository userRepository;
+    private final TokenRevocationList tokenRevocationList;
 
     public List<Role> getSystemRoles() {
         return rolesRepository.findBySystemTrue();
@@ -62,9 +65,13 @@ public class UserRoleService {
         if (user.getRoles() == null) {
             user.setRoles(new java.util.HashSet<>());
         }
-        user.getRoles().add(role);
+        if (!user.getRoles().add(role)) {
+            return;
+        }
         
         // Save the user with the new role
         userRepository.save(user);
+        // Tokens already issued carry the previous roles
+        tokenRevocationList.revokeIssuedBefore(userId, new Date());
     }
 }
\ No newline at end of file
@@ -9,6 +9,8 @@ import com.pharmacyhub.dto.response.UserResponseDTO;
 import com.pharmacyhub.dto.session.LoginValidationRequestDTO;
 import com.pharmacyhub.dto.session.LoginValidationResultDTO;
 import com.pharmacyhub.entity.User;
+import com.pharmacyhub.security.TokenRevocationList;
+import com.pharmacyhub.security.VerifiedToken;
 import com.pharmacyhub.security.domain.Permission;
 import com.pharmacyhub.security.domain.Role;
 import com.pharmacyhub.security.infrastructure.exception.UnverifiedAccountException;
@@ -26,6 +28,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -54,6 +57,9 @@ public class AuthService {
     
     @Autowired
     private TokenService tokenService;
+    
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
 
     @Value("${pharmacyhub.security.jwt.token-validity-in-seconds:18000}")
     private long tokenValidityInSeconds;
@@ -271,12 +277,16 @@ public class AuthService {
     public boolean logout(String authHeader, String sessionId) throws Exception {
         // Extract user ID from JWT token
         String token = authHeader.replace("Bearer ", "");
-        Long userId = authenticationService.getUserIdFromToken(token);
+        VerifiedToken verifiedToken = authenticationService.verifyToken(token);
+        Long userId = verifiedToken != null ? verifiedToken.getUserId() : null;
         
         if (userId == null) {
             throw new Exception("Invalid token");
         }
         
+        // The presented token stops working on every node, not just the session
+        tokenRevocationList.revoke(verifiedToken);
+        
         if (sessionId != null && !sessionId.isEmpty()) {
             // Invalidate specific session if session ID is provided
             try {
@@ -291,8 +301,9 @@ public class AuthService {
                 throw new IllegalArgumentException("Invalid session ID format");
             }
         } else {
-            // Default behavior: Invalidate all sessions for the user
+            // Default behavior: Invalidate all sessions and tokens for the user
             sessionValidationService.invalidateAllSessions(userId);
+            tokenRevocationList.revokeIssuedBefore(userId, new Date());
             return true;
         }
     }
@@ -308,7 +319,8 @@ public class AuthService {
     public int forceLogout(String authHeader, String currentSessionId) throws Exception {
         // Extract user ID from JWT token
         String token = authHeader.replace("Bearer ", "");
-        Long userId = authenticationService.getUserIdFromToken(token);
+        VerifiedToken verifiedToken = authenticationService.verifyToken(token);
+        Long userId = verifiedToken != null ? verifiedToken.getUserId() : null;
         
         if (userId == null) {
             throw new Exception("Invalid token");
@@ -324,7 +336,11 @@ public class AuthService {
         }
         
         // Invalidate all sessions except the current one
-        return sessionValidationService.invalidateOtherSessions(userId, sessionUUID);
+        int invalidated = sessionValidationService.invalidateOtherSessions(userId, sessionUUID);
+        
+        // Tokens are not bound to sessions, so revoke those issued before the caller's token
+        tokenRevocationList.revokeIssuedBefore(userId, verifiedToken.getIssuedAt());
+        return invalidated;
     }
     
     /**
@@ -1,5 +1,7 @@
 package com.pharmacyhub.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pharmacyhub.domain.entity.*;
 import com.pharmacyhub.domain.repository.ExamAttemptRepository;
 import com.pharmacyhub.domain.repository.ExamRepository;
@@ -11,14 +13,28 @@ import com.pharmacyhub.dto.ExamResultDTO;
 import com.pharmacyhub.dto.response.ExamAttemptResponseDTO;
 import com.pharmacyhub.dto.response.FlaggedQuestionResponseDTO;
 import com.pharmacyhub.dto.request.AnswerSubmissionDTO;
+import com.pharmacyhub.service.answer.AnswerBuffer;
+import com.pharmacyhub.service.answer.BufferedAnswer;
+import com.pharmacyhub.service.answer.UserAnswerBatchWriter;
+import com.pharmacyhub.service.scoring.AnswerKey;
+import com.pharmacyhub.service.scoring.AnswerKeyCache;
+import com.pharmacyhub.service.scoring.AttemptScoredEvent;
+import com.pharmacyhub.service.scoring.ExamResultSubmittedEvent;
+import com.pharmacyhub.service.scoring.ExamScore;
+import com.pharmacyhub.service.scoring.ExamScoringEngine;
+import com.pharmacyhub.service.versioning.ExamVersionService;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -36,6 +52,14 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
     private final ExamResultRepository examResultRepository;
     private final FlaggedQuestionRepository flaggedQuestionRepository;
     private final QuestionRepository questionRepository;
+    private final AnswerBuffer answerBuffer;
+    private final UserAnswerBatchWriter userAnswerBatchWriter;
+    private final ExamScoringEngine examScoringEngine;
+    private final AnswerKeyCache answerKeyCache;
+    private final ExamVersionService examVersionService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean asyncResultDetails;
     
     public ExamAttemptServiceImpl(
             ExamAttemptRepository examAttemptRepository,
@@ -43,13 +67,29 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
             UserAnswerRepository userAnswerRepository,
             ExamResultRepository examResultRepository,
             FlaggedQuestionRepository flaggedQuestionRepository,
-            QuestionRepository questionRepository) {
+            QuestionRepository questionRepository,
+            AnswerBuffer answerBuffer,
+            UserAnswerBatchWriter userAnswerBatchWriter,
+            ExamScoringEngine examScoringEngine,
+            AnswerKeyCache answerKeyCache,
+            ExamVersionService examVersionService,
+            ObjectMapper objectMapper,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${pharmacyhub.exam.result.async-details:false}") boolean asyncResultDetails) {
         this.examAttemptRepository = examAttemptRepository;
         this.examRepository = examRepository;
         this.userAnswerRepository = userAnswerRepository;
         this.examResultRepository = examResultRepository;
         this.flaggedQuestionRepository = flaggedQuestionRepository;
         this.questionRepository = questionRepository;
+        this.answerBuffer = answerBuffer;
+        this.userAnswerBatchWriter = userAnswerBatchWriter;
+        this.examScoringEngine = examScoringEngine;
+        this.answerKeyCache = answerKeyCache;
+        this.examVersionService = examVersionService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.asyncResultDetails = asyncResultDetails;
     }
     
     @Override
@@ -90,6 +130,8 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
         ExamAttempt attempt = new ExamAttempt();
         attempt.setExam(exam);
         attempt.setUserId(userId);
+        // Pin the attempt to the version students are currently served
+        attempt.setExamVersionId(examVersionService.getLatestVersionId(examId));
         attempt.setStartTime(LocalDateTime.now());
         attempt.setStatus(ExamAttempt.AttemptStatus.IN_PROGRESS);
         
@@ -98,39 +140,10 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void saveAnswer(Long attemptId, Long questionId, String selectedOptionId, Integer timeSpent) {
-        ExamAttempt attempt = examAttemptRepository.findByIdAndNotDeleted(attemptId)
-                .orElseThrow(() -> new EntityNotFoundException("Exam attempt not found with id: " + attemptId));
-        
-        if (attempt.getStatus() != ExamAttempt.AttemptStatus.IN_PROGRESS) {
-            throw new IllegalStateException("Cannot save answer for an exam that is not in progress");
-        }
-        
-        Question question = questionRepository.findById(questionId)
-                .orElseThrow(() -> new EntityNotFoundException("Question not found with id: " + questionId));
-        
-        // Check if an answer for this question already exists
-        Optional<UserAnswer> existingAnswer = userAnswerRepository.findByAttemptIdAndQuestionId(
-                attemptId, questionId);
-        
-        if (existingAnswer.isPresent()) {
-            // Update existing answer
-            UserAnswer answer = existingAnswer.get();
-            answer.setSelectedOptionId(selectedOptionId);
-            answer.setTimeSpent(timeSpent);
-            userAnswerRepository.save(answer);
-        } else {
-            // Save new answer
-            UserAnswer newAnswer = new UserAnswer();
-            newAnswer.setAttempt(attempt);
-            newAnswer.setQuestion(question);
-            newAnswer.setSelectedOptionId(selectedOptionId);
-            newAnswer.setTimeSpent(timeSpent);
-            userAnswerRepository.save(newAnswer);
-            attempt.getAnswers().add(newAnswer);
-        }
-        
-        examAttemptRepository.save(attempt);
+        // Answers are buffered and written in batches; no transaction or connection is needed here
+        answerBuffer.record(attemptId, questionId, selectedOptionId, timeSpent);
     }
     
     @Override
@@ -142,16 +155,16 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
             throw new IllegalStateException("Cannot submit an exam that is not in progress");
         }
         
+        // Write buffered answers before scoring
+        answerBuffer.closeAndFlush(attemptId);
+        
         // Update attempt status
         attempt.setStatus(ExamAttempt.AttemptStatus.COMPLETED);
         attempt.setEndTime(LocalDateTime.now());
         examAttemptRepository.save(attempt);
         
         // Calculate and save result
-        ExamResult result = calculateExamResult(attempt);
-        
-        // Map to DTO
-        return mapToExamResultDTO(result, attempt);
+        return scoreAndSaveResult(attempt);
     }
     
     @Override
@@ -166,35 +179,27 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
             throw new IllegalStateException("Cannot submit an exam that is not in progress");
         }
         
+        // Write buffered answers first so the final answers below take precedence
+        answerBuffer.closeAndFlush(attemptId);
+        
         // Process any final answers if provided
         if (finalAnswers != null && !finalAnswers.isEmpty()) {
             logger.info("Processing {} final answers for attempt ID: {}", finalAnswers.size(), attemptId);
             
+            // Validate against the exam's answer key; the last answer per question wins
+            AnswerKey answerKey = answerKeyCache.get(attempt.getExam().getId(), attempt.getExamVersionId());
+            Map<Long, BufferedAnswer> answersByQuestion = new LinkedHashMap<>();
             for (AnswerSubmissionDTO answer : finalAnswers) {
-                Question question = questionRepository.findById(answer.getQuestionId())
-                        .orElseThrow(() -> new EntityNotFoundException("Question not found with id: " + answer.getQuestionId()));
-                
-                // Check if an answer for this question already exists
-                Optional<UserAnswer> existingAnswer = userAnswerRepository.findByAttemptIdAndQuestionId(
-                        attemptId, answer.getQuestionId());
-                
-                if (existingAnswer.isPresent()) {
-                    // Update existing answer
-                    UserAnswer userAnswer = existingAnswer.get();
-                    userAnswer.setSelectedOptionId(answer.getSelectedOptionId());
-                    userAnswer.setTimeSpent(answer.getTimeSpent());
-                    userAnswerRepository.save(userAnswer);
-                } else {
-                    // Save new answer
-                    UserAnswer newAnswer = new UserAnswer();
-                    newAnswer.setAttempt(attempt);
-                    newAnswer.setQuestion(question);
-                    newAnswer.setSelectedOptionId(answer.getSelectedOptionId());
-                    newAnswer.setTimeSpent(answer.getTimeSpent());
-                    userAnswerRepository.save(newAnswer);
-                    attempt.getAnswers().add(newAnswer);
+                if (answer.getQuestionId() == null || answerKey.indexOf(answer.getQuestionId()) < 0) {
+                    throw new EntityNotFoundException("Question not found with id: " + answer.getQuestionId());
                 }
+                answersByQuestion.put(answer.getQuestionId(), new BufferedAnswer(
+                        attemptId, answer.getQuestionId(), answer.getSelectedOptionId(), answer.getTimeSpent()));
             }
+            
+            // Update existing answers and insert new ones in two JDBC batches
+            int inserted = userAnswerBatchWriter.write(new ArrayList<>(answersByQuestion.values()));
+            logger.debug("Wrote {} final answers for attempt ID: {} ({} new)", answersByQuestion.size(), attemptId, inserted);
         }
         
         // Update attempt status
@@ -203,16 +208,24 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
         examAttemptRepository.save(attempt);
         
         // Calculate and save result
-        ExamResult result = calculateExamResult(attempt);
+        ExamResultDTO result = scoreAndSaveResult(attempt);
         
         logger.info("Successfully submitted exam for attempt ID: {}", attemptId);
         
-        // Map to DTO
-        return mapToExamResultDTO(result, attempt);
+        return result;
     }
     
     @Override
     public ExamResultDTO getExamResult(Long attemptId) {
+        // Results are stored with a rendered snapshot, so this is normally a single-row read
+        Optional<String> snapshot = examResultRepository.findResultSnapshotByAttemptId(attemptId);
+        if (snapshot.isPresent()) {
+            ExamResultDTO resultDTO = readResultSnapshot(snapshot.get(), attemptId);
+            if (resultDTO != null) {
+                return resultDTO;
+            }
+        }
+        
         ExamAttempt attempt = examAttemptRepository.findByIdAndNotDeleted(attemptId)
                 .orElseThrow(() -> new EntityNotFoundException("Exam attempt not found with id: " + attemptId));
         
@@ -223,7 +236,14 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
         ExamResult result = examResultRepository.findByAttemptId(attemptId)
                 .orElseThrow(() -> new EntityNotFoundException("Exam result not found for attempt id: " + attemptId));
         
-        return mapToExamResultDTO(result, attempt);
+        // Result saved without a snapshot; rebuild the breakdown and store it for the next read
+        ExamScore score = scoreAttempt(attempt);
+        ExamResultDTO resultDTO = buildResultDTO(attempt.getExam(), result.getScore(), result.getIsPassed(),
+                result.getTimeSpent(), score.getQuestionResults());
+        result.setResultSnapshot(writeResultSnapshot(resultDTO, attemptId));
+        examResultRepository.save(result);
+        
+        return resultDTO;
     }
     
     @Override
@@ -284,83 +304,82 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
     }
     
     /**
-     * Calculate exam result based on user answers
+     * Score the attempt, save its result and return the result DTO.
+     * In async result mode the per-question details are left out of the response and
+     * built after commit by ExamResultMaterializer; otherwise they are built here and
+     * saved as the result snapshot.
      */
-    private ExamResult calculateExamResult(ExamAttempt attempt) {
+    private ExamResultDTO scoreAndSaveResult(ExamAttempt attempt) {
         Exam exam = attempt.getExam();
-        List<Question> questions = questionRepository.findByExamId(exam.getId());
-        List<UserAnswer> userAnswers = userAnswerRepository.findByAttemptId(attempt.getId());
-        
-        int totalQuestions = questions.size();
-        int correctCount = 0;
-        int incorrectCount = 0; // Added declaration and initialization of incorrectCount
-        int totalTimeSpent = 0;
-        
-        // Map of questionId to Question for quick lookup
-        Map<Long, Question> questionMap = questions.stream()
-                .collect(Collectors.toMap(Question::getId, q -> q));
-        
-        // Map of questionId to UserAnswer for quick lookup
-        Map<Long, UserAnswer> answerMap = userAnswers.stream()
-                .collect(Collectors.toMap(
-                        answer -> answer.getQuestion().getId(),
-                        answer -> answer,
-                        (a1, a2) -> a1 // Keep first in case of duplicate (should not happen)
-                ));
-        
-        // Calculate scores
-        List<ExamResultDTO.QuestionResultDTO> questionResults = new ArrayList<>();
-        
-        for (Question question : questions) {
-            UserAnswer userAnswer = answerMap.get(question.getId());
-            boolean isCorrect = false;
-            String userAnswerId = null;
-            int timeSpent = 0;
-            
-            if (userAnswer != null) {
-                userAnswerId = userAnswer.getSelectedOptionId();
-                timeSpent = userAnswer.getTimeSpent();
-                totalTimeSpent += timeSpent;
-                
-                // Check if answer is correct
-                isCorrect = userAnswerId != null && userAnswerId.equals(question.getCorrectAnswer());
-                if (isCorrect) {
-                    correctCount++;
-                } else if (userAnswerId != null) {
-                    // Count as incorrect answer only if option was selected (not empty)
-                    incorrectCount++;
-                }
-            }
-        }
-        
-        // Calculate unanswered questions
-        int unansweredCount = totalQuestions - correctCount - incorrectCount;
+        List<Object[]> answers = userAnswerRepository.findAnswerValuesByAttemptId(attempt.getId());
+        ExamScore score = asyncResultDetails
+                ? examScoringEngine.scoreTotals(exam, attempt.getExamVersionId(), answers)
+                : examScoringEngine.score(exam, attempt.getExamVersionId(), answers);
         
-        // Calculate score with negative marking
-        // Each correct answer: +1 mark
-        // Each incorrect answer: -0.25 mark
-        // Unanswered questions: 0 marks
-        double rawScore = correctCount * 1.0 - incorrectCount * 0.25;
-        
-        // Convert to percentage
-        double score = (rawScore / totalQuestions) * 100;
-        
-        // Check if passed - minimum passing mark is 40
-        boolean isPassed = score >= Math.max(40, exam.getPassingMarks());
+        ExamResultDTO resultDTO = buildResultDTO(exam, score.getScore(), score.isPassed(),
+                score.getTimeSpent(), score.getQuestionResults());
         
         // Create and save result
         ExamResult result = new ExamResult();
         result.setAttempt(attempt);
-        result.setScore(score);
-        result.setTotalQuestions(totalQuestions);
-        result.setCorrectAnswers(correctCount);
-        result.setIncorrectAnswers(incorrectCount);
-        result.setUnanswered(unansweredCount);
-        result.setTimeSpent(totalTimeSpent);
-        result.setIsPassed(isPassed);
+        result.setScore(score.getScore());
+        result.setTotalQuestions(score.getTotalQuestions());
+        result.setCorrectAnswers(score.getCorrectAnswers());
+        result.setIncorrectAnswers(score.getIncorrectAnswers());
+        result.setUnanswered(score.getUnanswered());
+        result.setTimeSpent(score.getTimeSpent());
+        result.setIsPassed(score.isPassed());
         result.setCompletedAt(LocalDateTime.now());
+        if (asyncResultDetails) {
+            eventPublisher.publishEvent(new ExamResultSubmittedEvent(attempt.getId()));
+        } else {
+            result.setResultSnapshot(writeResultSnapshot(resultDTO, attempt.getId()));
+        }
+        examResultRepository.save(result);
+        eventPublisher.publishEvent(new AttemptScoredEvent(attempt.getId(), exam.getId(), attempt.getExamVersionId(), answers));
         
-        return examResultRepository.save(result);
+        return resultDTO;
+    }
+    
+    /**
+     * Score the attempt's answer values with the cached scorer of its exam version
+     */
+    private ExamScore scoreAttempt(ExamAttempt attempt) {
+        List<Object[]> answers = userAnswerRepository.findAnswerValuesByAttemptId(attempt.getId());
+        return examScoringEngine.score(attempt.getExam(), attempt.getExamVersionId(), answers);
+    }
+    
+    private ExamResultDTO buildResultDTO(Exam exam, Double score, Boolean isPassed, Integer timeSpent,
+                                         List<ExamResultDTO.QuestionResultDTO> questionResults) {
+        return ExamResultDTO.builder()
+                .examId(exam.getId())
+                .examTitle(exam.getTitle())
+                .score(score)
+                .totalMarks(exam.getTotalMarks())
+                .passingMarks(exam.getPassingMarks())
+                .isPassed(isPassed)
+                .timeSpent(timeSpent)
+                .questionResults(questionResults)
+                .build();
+    }
+    
+    private String writeResultSnapshot(ExamResultDTO resultDTO, Long attemptId) {
+        try {
+            return objectMapper.writeValueAsString(resultDTO);
+        } catch (JsonProcessingException e) {
+            // The result is still saved; it is rebuilt from answers when read
+            logger.warn("Could not serialize result snapshot for attempt {}: {}", attemptId, e.getMessage());
+            return null;
+        }
+    }
+    
+    private ExamResultDTO readResultSnapshot(String snapshot, Long attemptId) {
+        try {
+            return objectMapper.readValue(snapshot, ExamResultDTO.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring unreadable result snapshot for attempt {}: {}", attemptId, e.getMessage());
+            return null;
+        }
     }
     
     /**
@@ -391,70 +410,4 @@ public class ExamAttemptServiceImpl implements ExamAttemptService {
         dto.setQuestionText(flaggedQuestion.getQuestion().getQuestionText());
         return dto;
     }
-    
-    /**
-     * Map ExamResult entity to ExamResultDTO
-     */
-    private ExamResultDTO mapToExamResultDTO(ExamResult result, ExamAttempt attempt) {
-        Exam exam = attempt.getExam();
-        List<UserAnswer> userAnswers = userAnswerRepository.findByAttemptId(attempt.getId());
-        List<Question> questions = questionRepository.findByExamId(exam.getId());
-        
-        // Map of questionId to Question for quick lookup
-        Map<Long, Question> questionMap = questions.stream()
-                .collect(Collectors.toMap(Question::getId, q -> q));
-        
-        // Map of questionId to UserAnswer for quick lookup
-        Map<Long, UserAnswer> answerMap = userAnswers.stream()
-                .collect(Collectors.toMap(
-                        answer -> answer.getQuestion().getId(),
-                        answer -> answer,
-                        (a1, a2) -> a1 // Keep first in case of duplicate (should not happen)
-                ));
-        
-        // Create question results
-        List<ExamResultDTO.QuestionResultDTO> questionResults = new ArrayList<>();
-        
-        for (Question question : questions) {
-            UserAnswer userAnswer = answerMap.get(question.getId());
-            boolean isCorrect = false;
-            String userAnswerId = null;
-            int earnedPoints = 0;
-            
-            if (userAnswer != null) {
-                userAnswerId = userAnswer.getSelectedOptionId();
-                
-                // Check if answer is correct
-                isCorrect = userAnswerId != null && userAnswerId.equals(question.getCorrectAnswer());
-                if (isCorrect) {
-                    earnedPoints = question.getMarks();
-                }
-            }
-            
-            ExamResultDTO.QuestionResultDTO questionResult = ExamResultDTO.QuestionResultDTO.builder()
-                    .questionId(question.getId())
-                    .questionText(question.getQuestionText())
-                    .userAnswerId(userAnswerId)
-                    .correctAnswerId(question.getCorrectAnswer())
-                    .isCorrect(isCorrect)
-                    .explanation(question.getExplanation())
-                    .points(question.getMarks())
-                    .earnedPoints(earnedPoints)
-                    .build();
-            
-            questionResults.add(questionResult);
-        }
-        
-        // Build the result DTO
-        return ExamResultDTO.builder()
-                .examId(exam.getId())
-                .examTitle(exam.getTitle())
-                .score(result.getScore())
-                .totalMarks(exam.getTotalMarks())
-                .passingMarks(exam.getPassingMarks())
-                .isPassed(result.getIsPassed())
-                .timeSpent(result.getTimeSpent())
-                .questionResults(questionResults)
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -2,6 +2,8 @@ package com.pharmacyhub.service;
 
 import com.pharmacyhub.domain.entity.Exam;
 import com.pharmacyhub.dto.request.ExamFilterRequestDTO;
+import com.pharmacyhub.dto.request.ExamPageRequestDTO;
+import com.pharmacyhub.dto.response.ExamPageResponseDTO;
 import com.pharmacyhub.dto.response.ExamResponseDTO;
 
 import java.util.List;
@@ -48,6 +50,16 @@ public interface ExamService {
      */
     List<ExamResponseDTO> findPapersByFilter(ExamFilterRequestDTO filters);
     
+    /**
+     * Find one keyset page of exams matching the request's filters, without user purchase state
+     */
+    ExamPageResponseDTO findExamPage(ExamPageRequestDTO request);
+    
+    /**
+     * Count papers matching the filter criteria per type, difficulty, subject and topic
+     */
+    Map<String, Map<String, Integer>> getPaperFacets(ExamFilterRequestDTO filters);
+    
     /**
      * Find a paper by ID
      */
@@ -74,7 +86,7 @@ public interface ExamService {
     void deleteExam(Long id);
     
     /**
-     * Publish an exam
+     * Publish an exam, freezing its current questions as a new version if they changed
      */
     Exam publishExam(Long id);
     
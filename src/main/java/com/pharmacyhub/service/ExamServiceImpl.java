@@ -8,16 +8,26 @@ import com.pharmacyhub.domain.repository.ExamRepository;
 import com.pharmacyhub.domain.repository.ExamResultRepository;
 import com.pharmacyhub.domain.repository.QuestionRepository;
 import com.pharmacyhub.dto.request.ExamFilterRequestDTO;
+import com.pharmacyhub.dto.request.ExamPageRequestDTO;
+import com.pharmacyhub.dto.response.ExamPageResponseDTO;
 import com.pharmacyhub.dto.response.ExamResponseDTO;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import com.pharmacyhub.service.catalog.ExamCatalogService;
+import com.pharmacyhub.service.catalog.ExamPageQuery;
+import com.pharmacyhub.service.dedup.QuestionsAddedEvent;
+import com.pharmacyhub.service.dedup.QuestionsChangedEvent;
+import com.pharmacyhub.service.versioning.ExamVersionService;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,21 +40,38 @@ public class ExamServiceImpl implements ExamService {
     
     private static final Logger logger = LoggerFactory.getLogger(ExamServiceImpl.class);
     
+    private static final Map<String, List<String>> PAPER_TAG_FACETS = Map.of(
+            "type", List.of("MODEL", "PAST", "SUBJECT", "PRACTICE"),
+            "difficulty", List.of("EASY", "MEDIUM", "HARD"));
+    private static final List<String> PAPER_METADATA_FACETS = List.of("subject", "topic");
+    
     private final ExamRepository examRepository;
     private final QuestionRepository questionRepository;
     private final ExamAttemptRepository examAttemptRepository;
     private final ExamResultRepository examResultRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExamCatalogService examCatalogService;
+    private final ExamVersionService examVersionService;
+    private final ExamPageQuery examPageQuery;
     
     @Autowired
     public ExamServiceImpl(
             ExamRepository examRepository, 
             QuestionRepository questionRepository,
             ExamAttemptRepository examAttemptRepository,
-            ExamResultRepository examResultRepository) {
+            ExamResultRepository examResultRepository,
+            ApplicationEventPublisher eventPublisher,
+            ExamCatalogService examCatalogService,
+            ExamVersionService examVersionService,
+            ExamPageQuery examPageQuery) {
         this.examRepository = examRepository;
         this.questionRepository = questionRepository;
         this.examAttemptRepository = examAttemptRepository;
         this.examResultRepository = examResultRepository;
+        this.eventPublisher = eventPublisher;
+        this.examCatalogService = examCatalogService;
+        this.examVersionService = examVersionService;
+        this.examPageQuery = examPageQuery;
     }
     
     @Override
@@ -83,36 +110,60 @@ public class ExamServiceImpl implements ExamService {
     public List<ExamResponseDTO> findPapersByFilter(ExamFilterRequestDTO filters) {
         logger.info("Finding papers with filters: {}", filters);
         
-        List<Exam> exams;
-        
-        if (filters.getType() != null) {
-            // Filter by paper type
-            String paperType = filters.getType().toUpperCase();
-            // Implement custom filtering based on paper type
-            exams = examRepository.findByTagsContainingAndDeletedFalse(paperType);
-        } else {
-            // No specific type, get all published exams
-            exams = findAllPublished();
-        }
+        // Type, difficulty and topic are matched against the catalog's tag index
+        List<ExamResponseDTO> papers = examCatalogService.findPublishedExams(toTagClauses(filters));
         
-        // Apply difficulty filter if specified
-        if (filters.getDifficulty() != null && !filters.getDifficulty().isEmpty()) {
-            exams = exams.stream()
-                    .filter(exam -> hasTag(exam, filters.getDifficulty()))
-                    .collect(Collectors.toList());
-        }
-        
-        // Apply topic/subject filter if specified
-        if (filters.getTopic() != null && !filters.getTopic().isEmpty()) {
-            exams = exams.stream()
-                    .filter(exam -> hasTag(exam, filters.getTopic()))
-                    .collect(Collectors.toList());
+        // Add attempt statistics to the matching papers
+        addExamStatistics(papers);
+        return papers;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public ExamPageResponseDTO findExamPage(ExamPageRequestDTO request) {
+        // Keyset query for the page's ids, then the exams with tags and their question counts
+        ExamPageQuery.Page page = examPageQuery.find(request);
+        
+        List<ExamResponseDTO> items = new ArrayList<>(page.getIds().size());
+        if (!page.getIds().isEmpty()) {
+            Map<Long, Exam> examsById = new HashMap<>();
+            List<Long> publishedIds = new ArrayList<>();
+            List<Long> draftIds = new ArrayList<>();
+            for (Exam exam : examRepository.findByIdsWithTags(page.getIds())) {
+                examsById.put(exam.getId(), exam);
+                if (exam.getStatus() == Exam.ExamStatus.PUBLISHED) {
+                    publishedIds.add(exam.getId());
+                } else {
+                    draftIds.add(exam.getId());
+                }
+            }
+            // Published exams count the questions of the version students are served, drafts their live questions
+            Map<Long, Integer> questionCounts = new HashMap<>(examVersionService.getLatestQuestionCounts(publishedIds));
+            if (!draftIds.isEmpty()) {
+                for (Object[] row : questionRepository.countByExamIds(draftIds)) {
+                    questionCounts.put((Long) row[0], ((Number) row[1]).intValue());
+                }
+            }
+            
+            for (Long id : page.getIds()) {
+                Exam exam = examsById.get(id);
+                // Skip exams deleted between the two queries
+                if (exam != null) {
+                    items.add(examCatalogService.render(exam, questionCounts.getOrDefault(id, 0)));
+                }
+            }
         }
         
-        // Convert to DTOs and return
-        return exams.stream()
-                .map(this::mapToExamResponseDTO)
-                .collect(Collectors.toList());
+        return ExamPageResponseDTO.builder()
+                .items(items)
+                .hasMore(page.hasMore())
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+    
+    @Override
+    public Map<String, Map<String, Integer>> getPaperFacets(ExamFilterRequestDTO filters) {
+        return examCatalogService.getFacets(toTagClauses(filters), PAPER_TAG_FACETS, PAPER_METADATA_FACETS);
     }
     
     @Override
@@ -168,8 +219,10 @@ public class ExamServiceImpl implements ExamService {
                 question.setExam(savedExam);
             }
             questionRepository.saveAll(exam.getQuestions());
+            eventPublisher.publishEvent(new QuestionsAddedEvent(exam.getQuestions()));
         }
         
+        eventPublisher.publishEvent(new ExamCatalogChangedEvent(savedExam.getId()));
         return savedExam;
     }
     
@@ -187,6 +240,10 @@ public class ExamServiceImpl implements ExamService {
             throw new IllegalArgumentException("An exam with this title already exists");
         }
         
+        // Entering the published state freezes the updated content as a new version below
+        boolean publishing = existingExam.getStatus() != Exam.ExamStatus.PUBLISHED
+                && exam.getStatus() == Exam.ExamStatus.PUBLISHED;
+        
         // Update basic properties
         existingExam.setTitle(exam.getTitle());
         existingExam.setDescription(exam.getDescription());
@@ -275,8 +332,14 @@ public class ExamServiceImpl implements ExamService {
             // Save all questions in a single operation
             logger.info("Saving {} questions for exam ID: {}", questionsToSave.size(), id);
             questionRepository.saveAll(questionsToSave);
+            eventPublisher.publishEvent(new QuestionsChangedEvent(id));
+        }
+        
+        if (publishing) {
+            examVersionService.publish(id);
         }
         
+        eventPublisher.publishEvent(new ExamCatalogChangedEvent(id));
         return updatedExam;
     }
     
@@ -295,6 +358,9 @@ public class ExamServiceImpl implements ExamService {
             question.setDeleted(true);
         }
         questionRepository.saveAll(questions);
+        eventPublisher.publishEvent(new QuestionsChangedEvent(id));
+        
+        eventPublisher.publishEvent(new ExamCatalogChangedEvent(id));
     }
     
     @Override
@@ -310,7 +376,12 @@ public class ExamServiceImpl implements ExamService {
         
         // Update status
         exam.setStatus(Exam.ExamStatus.PUBLISHED);
-        return examRepository.save(exam);
+        Exam publishedExam = examRepository.save(exam);
+        
+        // Freeze the current questions; students are served this version until the next publish
+        examVersionService.publish(id);
+        eventPublisher.publishEvent(new ExamCatalogChangedEvent(id));
+        return publishedExam;
     }
     
     @Override
@@ -320,7 +391,9 @@ public class ExamServiceImpl implements ExamService {
         
         // Update status
         exam.setStatus(Exam.ExamStatus.ARCHIVED);
-        return examRepository.save(exam);
+        Exam archivedExam = examRepository.save(exam);
+        eventPublisher.publishEvent(new ExamCatalogChangedEvent(id));
+        return archivedExam;
     }
     
     /**
@@ -338,26 +411,71 @@ public class ExamServiceImpl implements ExamService {
         
         // Get question count
         int questionCount = questionRepository.countByExamIdAndDeletedFalse(exam.getId());
-        dto.setAttemptCount(questionCount);
-        
-        // Get exam statistics
-        Long attemptCount = examAttemptRepository.countByExamIdAndStatusAndDeletedFalse(
-                exam.getId(), ExamAttempt.AttemptStatus.COMPLETED);
-        dto.setAttemptCount(attemptCount != null ? attemptCount.intValue() : 0);
-        
-        // Get success rate
-        Double successRate = examResultRepository.getSuccessRateByExamId(exam.getId());
-        dto.setAverageScore(successRate != null ? successRate : 0.0);
+        dto.setQuestionCount(questionCount);
         
         // Get tags
         List<String> tags = new ArrayList<>();
         if (exam.getTags() != null) {
             tags.addAll(exam.getTags());
         }
+        dto.setTags(tags);
         
+        addExamStatistics(Collections.singletonList(dto));
         return dto;
     }
     
+    /**
+     * Set completed attempt count and success rate (percentage of passed results) on paper
+     * responses, with one grouped query for all of them
+     */
+    private void addExamStatistics(List<ExamResponseDTO> papers) {
+        Map<Long, Object[]> statisticsByExamId = new HashMap<>();
+        if (!papers.isEmpty()) {
+            List<Long> examIds = papers.stream().map(ExamResponseDTO::getId).collect(Collectors.toList());
+            for (Object[] row : examAttemptRepository.getStatisticsByExamIds(
+                    examIds, ExamAttempt.AttemptStatus.COMPLETED)) {
+                statisticsByExamId.put((Long) row[0], row);
+            }
+        }
+        
+        for (ExamResponseDTO paper : papers) {
+            Object[] row = statisticsByExamId.get(paper.getId());
+            long attemptCount = row != null ? ((Number) row[1]).longValue() : 0;
+            long resultCount = row != null ? ((Number) row[2]).longValue() : 0;
+            long passedCount = row != null && row[3] != null ? ((Number) row[3]).longValue() : 0;
+            paper.setAttemptCount((int) attemptCount);
+            paper.setAverageScore(resultCount > 0 ? passedCount * 100.0 / resultCount : 0.0);
+        }
+    }
+    
+    /**
+     * Translate paper filters into tag clauses: every filter must match, and a filter
+     * given as a comma-separated list matches any of its values
+     */
+    private List<List<String>> toTagClauses(ExamFilterRequestDTO filters) {
+        List<List<String>> clauses = new ArrayList<>();
+        if (filters == null) {
+            return clauses;
+        }
+        clauses.add(splitFilterValues(filters.getType()));
+        clauses.add(splitFilterValues(filters.getDifficulty()));
+        clauses.add(splitFilterValues(filters.getTopic()));
+        return clauses;
+    }
+    
+    private List<String> splitFilterValues(String value) {
+        List<String> values = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return values;
+        }
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                values.add(part.trim());
+            }
+        }
+        return values;
+    }
+    
     /**
      * Extract paper type from exam tags
      */
@@ -379,18 +497,6 @@ public class ExamServiceImpl implements ExamService {
         return "PRACTICE"; // Default type
     }
     
-    /**
-     * Check if exam has a specific tag
-     */
-    private boolean hasTag(Exam exam, String tag) {
-        if (exam.getTags() == null) {
-            return false;
-        }
-        
-        return exam.getTags().stream()
-                .anyMatch(t -> t.equalsIgnoreCase(tag));
-    }
-    
     /**
      * Validate exam
      */
@@ -1,21 +1,34 @@
 package com.pharmacyhub.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.pharmacyhub.domain.entity.Exam;
 import com.pharmacyhub.domain.entity.Option;
 import com.pharmacyhub.domain.entity.Question;
 import com.pharmacyhub.dto.request.JsonExamUploadRequestDTO;
+import com.pharmacyhub.dto.request.JsonQuestionRecordDTO;
+import com.pharmacyhub.service.dedup.QuestionFingerprintIndex;
+import com.pharmacyhub.service.dedup.QuestionsAddedEvent;
+import com.pharmacyhub.service.dedup.UploadDuplicateScreen;
+import com.pharmacyhub.service.upload.QuestionBatchWriter;
+import com.pharmacyhub.service.upload.QuestionRecordReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Service for processing JSON data and creating exams
@@ -25,14 +38,31 @@ public class JsonExamUploadService
 {
     private static final Logger logger = LoggerFactory.getLogger(JsonExamUploadService.class);
 
+    // Answer formats, compiled once: "A)" / "A) text", "A text" and "A. text"
+    private static final Pattern LETTER_PAREN_ANSWER = Pattern.compile("^[A-Za-z]\\).*");
+    private static final Pattern LETTER_SPACE_ANSWER = Pattern.compile("^[A-Za-z]\\s.*");
+    private static final Pattern LETTER_DOT_ANSWER = Pattern.compile("^[A-Za-z]\\..*");
+
     private final ExamService examService;
     private final ObjectMapper objectMapper;
+    private final QuestionBatchWriter questionBatchWriter;
+    private final QuestionFingerprintIndex questionFingerprintIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
 
     @Autowired
-    public JsonExamUploadService(ExamService examService, ObjectMapper objectMapper)
+    public JsonExamUploadService(ExamService examService, ObjectMapper objectMapper,
+                                 QuestionBatchWriter questionBatchWriter,
+                                 QuestionFingerprintIndex questionFingerprintIndex,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${pharmacyhub.exam.upload.batch-size:500}") int batchSize)
     {
         this.examService = examService;
         this.objectMapper = objectMapper;
+        this.questionBatchWriter = questionBatchWriter;
+        this.questionFingerprintIndex = questionFingerprintIndex;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
     }
 
     /**
@@ -47,80 +77,228 @@ public class JsonExamUploadService
         try
         {
             // Parse JSON content
-            List<Map<String, Object>> jsonData = objectMapper.readValue(
-                    requestDTO.getJsonContent(),
-                    new TypeReference<List<Map<String, Object>>>()
-                    {
-                    }
-            );
+            List<JsonQuestionRecordDTO> jsonData = readQuestionRecords(requestDTO.getJsonContent());
 
             // Create exam entity
-            Exam exam = new Exam();
-            exam.setTitle(requestDTO.getTitle());
-            exam.setDescription(requestDTO.getDescription());
-            exam.setDuration(requestDTO.getDuration());
-            
-            // Set premium fields
-            exam.setPremium(requestDTO.getIsPremium() != null ? requestDTO.getIsPremium() : false);
-            exam.setPrice(requestDTO.getPrice() != null ? BigDecimal.valueOf(requestDTO.getPrice()) : BigDecimal.ZERO);
-            exam.setCustomPrice(requestDTO.getIsCustomPrice() != null ? requestDTO.getIsCustomPrice() : false);
+            Exam exam = buildExam(requestDTO);
+
+            // Process questions
+            UploadDuplicateScreen duplicateScreen = newDuplicateScreen(requestDTO);
+            List<Question> questions = processQuestions(jsonData, exam, duplicateScreen);
+            logDuplicates(duplicateScreen, exam);
 
             // We'll calculate totalMarks based on questions (default 1 mark per question)
-            int totalMarks = jsonData.size();
-            exam.setTotalMarks(totalMarks);
+            applyMarks(exam, requestDTO, questions.size());
+
+            exam.setQuestions(questions);
+
+            // Create exam
+            return examService.createExam(exam);
+
+        }
+        catch (Exception e)
+        {
+            logger.error("Error processing JSON data: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing JSON data: " + e.getMessage(), e);
+        }
+    }
 
-            // Set passing marks if provided, otherwise use default based on paper type
-            if (requestDTO.getPassingMarks() != null)
+    /**
+     * Create an exam from a streamed JSON array of questions.
+     * Questions are converted one at a time as they are read and inserted in JDBC batches,
+     * so memory use stays flat regardless of the file size.
+     *
+     * @param requestDTO    The exam metadata; jsonContent is not used
+     * @param questionsJson The JSON array of questions
+     * @return The created exam
+     */
+    @Transactional
+    public Exam processJsonStreamAndCreateExam(JsonExamUploadRequestDTO requestDTO, InputStream questionsJson)
+    {
+        try (JsonParser parser = objectMapper.getFactory().createParser(questionsJson))
+        {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
             {
-                exam.setPassingMarks(requestDTO.getPassingMarks());
-                logger.info("Using provided passing marks value of {} for {} paper: {}", 
-                    requestDTO.getPassingMarks(), 
-                    requestDTO.getPaperType(), 
-                    exam.getTitle());
+                throw new IllegalArgumentException("Expected a JSON array of questions");
             }
-            else
+            return streamQuestionsAndCreateExam(requestDTO, parser);
+        }
+        catch (Exception e)
+        {
+            logger.error("Error processing JSON stream: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing JSON data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Create an exam from a streamed JSON paper: an object with the exam fields of
+     * JsonExamUploadRequestDTO followed by a "questions" array
+     *
+     * @param paperJson The JSON paper
+     * @return The created exam
+     */
+    @Transactional
+    public Exam processJsonStreamAndCreateExam(InputStream paperJson)
+    {
+        try (JsonParser parser = objectMapper.getFactory().createParser(paperJson))
+        {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+            {
+                throw new IllegalArgumentException("Expected a JSON object with exam fields and a questions array");
+            }
+            return readPaperAndCreateExam(parser);
+        }
+        catch (Exception e)
+        {
+            logger.error("Error processing JSON stream: {}", e.getMessage(), e);
+            throw new RuntimeException("Error processing JSON data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read one paper object and create its exam.
+     * The parser must be on the paper's START_OBJECT and is left on its END_OBJECT.
+     * Exam fields must come before the questions array, as the exam is created when the array starts.
+     */
+    private Exam readPaperAndCreateExam(JsonParser parser) throws IOException
+    {
+        ObjectNode examFields = objectMapper.createObjectNode();
+        Exam exam = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+
+            if ("questions".equals(fieldName))
             {
-                // For model papers, use 40% as passing mark
-                if ("MODEL".equalsIgnoreCase(requestDTO.getPaperType()))
+                if (exam != null)
                 {
-                    exam.setPassingMarks((int) Math.ceil(totalMarks * 0.4));
-                    logger.info("Setting 40% passing marks ({} of {}) for MODEL paper: {}", 
-                        exam.getPassingMarks(), totalMarks, exam.getTitle());
+                    throw new IllegalArgumentException("Duplicate questions array in JSON data");
                 }
-                else
+                if (parser.currentToken() != JsonToken.START_ARRAY)
                 {
-                    exam.setPassingMarks((int) Math.ceil(totalMarks * 0.6));
-                    logger.info("Setting 60% passing marks ({} of {}) for {} paper: {}", 
-                        exam.getPassingMarks(), totalMarks, requestDTO.getPaperType(), exam.getTitle());
+                    throw new IllegalArgumentException("Questions must be a JSON array");
                 }
+                JsonExamUploadRequestDTO requestDTO = objectMapper.treeToValue(examFields, JsonExamUploadRequestDTO.class);
+                exam = streamQuestionsAndCreateExam(requestDTO, parser);
             }
+            else if (exam != null)
+            {
+                throw new IllegalArgumentException("Exam field '" + fieldName + "' must come before the questions array");
+            }
+            else
+            {
+                examFields.set(fieldName, objectMapper.readTree(parser));
+            }
+        }
 
-            // Set status
-            exam.setStatus(requestDTO.getStatus() != null ? requestDTO.getStatus() : Exam.ExamStatus.DRAFT);
+        if (exam == null)
+        {
+            throw new IllegalArgumentException("Questions array not found in JSON data");
+        }
+        return exam;
+    }
 
-            // Ensure tags list is initialized for both exam and requestDTO
-            if (exam.getTags() == null)
+    /**
+     * Save the exam, then convert and insert the questions of the array the parser is on in batches.
+     * Marks are set once the number of questions is known.
+     */
+    private Exam streamQuestionsAndCreateExam(JsonExamUploadRequestDTO requestDTO, JsonParser parser) throws IOException
+    {
+        Exam exam = buildExam(requestDTO);
+        exam.setTotalMarks(0);
+        exam.setPassingMarks(0);
+        Exam savedExam = examService.createExam(exam);
+
+        UploadDuplicateScreen duplicateScreen = newDuplicateScreen(requestDTO);
+        List<Question> batch = new ArrayList<>(batchSize);
+        int index = 0;
+        int count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY)
+        {
+            if (parser.currentToken() != JsonToken.START_OBJECT)
             {
-                exam.setTags(new ArrayList<>());
+                throw new IllegalArgumentException("Invalid question format in JSON data");
             }
-            if (requestDTO.getTags() == null)
+            JsonQuestionRecordDTO record = QuestionRecordReader.read(parser);
+            Question question = toQuestion(record, index++, savedExam);
+            if (!duplicateScreen.admit(question))
             {
-                requestDTO.setTags(new ArrayList<>());
+                continue;
             }
+            batch.add(question);
+            count++;
 
-            // Process paper type and add as tag
-            if (requestDTO.getPaperType() != null && !requestDTO.getPaperType().isEmpty())
+            if (batch.size() >= batchSize)
             {
-                logger.info("Processing paper type: {}", requestDTO.getPaperType());
+                writeBatch(savedExam, batch);
+                batch.clear();
+            }
+        }
+        writeBatch(savedExam, batch);
+        logDuplicates(duplicateScreen, savedExam);
 
-                // Add paper type as a tag if not already present
-                if (!requestDTO.getTags().contains(requestDTO.getPaperType()))
-                {
-                    requestDTO.getTags().add(requestDTO.getPaperType());
-                    logger.info("Added paper type tag: {}", requestDTO.getPaperType());
-                }
+        applyMarks(savedExam, requestDTO, count);
+        if (savedExam.getPassingMarks() > savedExam.getTotalMarks())
+        {
+            throw new IllegalArgumentException("Passing marks cannot be greater than total marks");
+        }
+
+        logger.info("Streamed {} questions into exam {}: {}", count, savedExam.getId(), savedExam.getTitle());
+        return savedExam;
+    }
+
+    /**
+     * Insert a batch of questions; their fingerprints go into the duplicate index once the upload commits
+     */
+    private void writeBatch(Exam exam, List<Question> batch)
+    {
+        questionBatchWriter.write(exam.getId(), batch);
+        eventPublisher.publishEvent(new QuestionsAddedEvent(batch));
+    }
+
+    /**
+     * Create the exam entity from the request metadata, without questions or marks
+     */
+    private Exam buildExam(JsonExamUploadRequestDTO requestDTO)
+    {
+        Exam exam = new Exam();
+        exam.setTitle(requestDTO.getTitle());
+        exam.setDescription(requestDTO.getDescription());
+        exam.setDuration(requestDTO.getDuration());
+        
+        // Set premium fields
+        exam.setPremium(requestDTO.getIsPremium() != null ? requestDTO.getIsPremium() : false);
+        exam.setPrice(requestDTO.getPrice() != null ? BigDecimal.valueOf(requestDTO.getPrice()) : BigDecimal.ZERO);
+        exam.setCustomPrice(requestDTO.getIsCustomPrice() != null ? requestDTO.getIsCustomPrice() : false);
+
+        // Set status
+        exam.setStatus(requestDTO.getStatus() != null ? requestDTO.getStatus() : Exam.ExamStatus.DRAFT);
+
+        // Ensure tags list is initialized for both exam and requestDTO
+        if (exam.getTags() == null)
+        {
+            exam.setTags(new ArrayList<>());
+        }
+        if (requestDTO.getTags() == null)
+        {
+            requestDTO.setTags(new ArrayList<>());
+        }
 
-                // Add default difficulty if not specified in metadata
+        // Process paper type and add as tag
+        if (requestDTO.getPaperType() != null && !requestDTO.getPaperType().isEmpty())
+        {
+            logger.info("Processing paper type: {}", requestDTO.getPaperType());
+
+            // Add paper type as a tag if not already present
+            if (!requestDTO.getTags().contains(requestDTO.getPaperType()))
+            {
+                requestDTO.getTags().add(requestDTO.getPaperType());
+                logger.info("Added paper type tag: {}", requestDTO.getPaperType());
+            }
+
+            // Add default difficulty if not specified in metadata
 //                if (requestDTO.getMetadata() != null && !requestDTO.getMetadata().containsKey("difficulty"))
 //                {
 //                    if (requestDTO.getDifficulty() != null)
@@ -128,181 +306,212 @@ public class JsonExamUploadService
 //                        requestDTO.getMetadata().put("difficulty", requestDTO.getDifficulty());
 //                    }
 //                }
-            }
+        }
 
-            // Process metadata and add as tags
-            if (requestDTO.getMetadata() != null && !requestDTO.getMetadata().isEmpty())
-            {
-                logger.info("Processing metadata: {}", requestDTO.getMetadata());
+        // Process metadata and add as tags
+        if (requestDTO.getMetadata() != null && !requestDTO.getMetadata().isEmpty())
+        {
+            logger.info("Processing metadata: {}", requestDTO.getMetadata());
 
-                // Special handling for paper-type specific metadata
+            // Special handling for paper-type specific metadata
 //                processSpecificPaperTypeMetadata(requestDTO);
 
-                // Convert metadata entries to tags in format "key:value"
-                for (Map.Entry<String, Object> entry : requestDTO.getMetadata().entrySet())
+            // Convert metadata entries to tags in format "key:value"
+            for (Map.Entry<String, Object> entry : requestDTO.getMetadata().entrySet())
+            {
+                if (entry.getValue() != null && !entry.getValue().toString().isEmpty())
                 {
-                    if (entry.getValue() != null && !entry.getValue().toString().isEmpty())
+                    String tag = entry.getKey() + ":" + entry.getValue().toString();
+                    if (!requestDTO.getTags().contains(tag))
                     {
-                        String tag = entry.getKey() + ":" + entry.getValue().toString();
-                        if (!requestDTO.getTags().contains(tag))
-                        {
-                            requestDTO.getTags().add(tag);
-                            logger.debug("Added metadata tag: {}", tag);
-                        }
+                        requestDTO.getTags().add(tag);
+                        logger.debug("Added metadata tag: {}", tag);
                     }
                 }
             }
-            else
-            {
-                logger.info("No metadata provided or metadata is empty");
-            }
-
-            // Set tags
-            exam.setTags(requestDTO.getTags());
-            logger.info("Final tags set on exam: {}", exam.getTags());
+        }
+        else
+        {
+            logger.info("No metadata provided or metadata is empty");
+        }
 
-            // Process questions
-            List<Question> questions = processQuestions(jsonData, exam);
+        // Set tags
+        exam.setTags(requestDTO.getTags());
+        logger.info("Final tags set on exam: {}", exam.getTags());
 
-            // Process specific fields based on paper type
-            if (requestDTO.getPaperType() != null && !requestDTO.getPaperType().isEmpty() &&
-                    requestDTO.getMetadata() != null)
-            {
-                processPaperTypeSpecificFields(exam, requestDTO.getPaperType(), requestDTO.getMetadata());
-            }
+        // Process specific fields based on paper type
+        if (requestDTO.getPaperType() != null && !requestDTO.getPaperType().isEmpty() &&
+                requestDTO.getMetadata() != null)
+        {
+            processPaperTypeSpecificFields(exam, requestDTO.getPaperType(), requestDTO.getMetadata());
+        }
 
-            exam.setQuestions(questions);
+        return exam;
+    }
 
-            // Create exam
-            return examService.createExam(exam);
+    /**
+     * Set total marks (1 per question) and passing marks, defaulting the passing marks by paper type
+     */
+    private void applyMarks(Exam exam, JsonExamUploadRequestDTO requestDTO, int totalMarks)
+    {
+        exam.setTotalMarks(totalMarks);
 
+        // Set passing marks if provided, otherwise use default based on paper type
+        if (requestDTO.getPassingMarks() != null)
+        {
+            exam.setPassingMarks(requestDTO.getPassingMarks());
+            logger.info("Using provided passing marks value of {} for {} paper: {}", 
+                requestDTO.getPassingMarks(), 
+                requestDTO.getPaperType(), 
+                exam.getTitle());
         }
-        catch (Exception e)
+        else
         {
-            logger.error("Error processing JSON data: {}", e.getMessage(), e);
-            throw new RuntimeException("Error processing JSON data: " + e.getMessage(), e);
+            // For model papers, use 40% as passing mark
+            if ("MODEL".equalsIgnoreCase(requestDTO.getPaperType()))
+            {
+                exam.setPassingMarks((int) Math.ceil(totalMarks * 0.4));
+                logger.info("Setting 40% passing marks ({} of {}) for MODEL paper: {}", 
+                    exam.getPassingMarks(), totalMarks, exam.getTitle());
+            }
+            else
+            {
+                exam.setPassingMarks((int) Math.ceil(totalMarks * 0.6));
+                logger.info("Setting 60% passing marks ({} of {}) for {} paper: {}", 
+                    exam.getPassingMarks(), totalMarks, requestDTO.getPaperType(), exam.getTitle());
+            }
+        }
+    }
+
+    /**
+     * Read a JSON array of question records
+     */
+    private List<JsonQuestionRecordDTO> readQuestionRecords(String jsonContent) throws IOException
+    {
+        List<JsonQuestionRecordDTO> records = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(jsonContent))
+        {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+            {
+                throw new IllegalArgumentException("Expected a JSON array of questions");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY)
+            {
+                if (parser.currentToken() != JsonToken.START_OBJECT)
+                {
+                    throw new IllegalArgumentException("Invalid question format in JSON data");
+                }
+                records.add(QuestionRecordReader.read(parser));
+            }
         }
+        return records;
     }
 
     /**
-     * Process JSON data and convert to Question entities
+     * Convert question records to Question entities
      *
-     * @param jsonData The JSON data
+     * @param jsonData The question records
      * @param exam     The parent exam
      * @return List of Question entities
      */
-    private List<Question> processQuestions(List<Map<String, Object>> jsonData, Exam exam)
+    private List<Question> processQuestions(List<JsonQuestionRecordDTO> jsonData, Exam exam,
+                                            UploadDuplicateScreen duplicateScreen)
     {
-        List<Question> questions = new ArrayList<>();
+        List<Question> questions = new ArrayList<>(jsonData.size());
 
         for (int i = 0; i < jsonData.size(); i++)
         {
-            Map<String, Object> questionData = jsonData.get(i);
-
-            // Create question
-            Question question = new Question();
-            question.setExam(exam);
-
-            // Set question number (use existing or create sequential)
-            int questionNumber = getQuestionNumber(questionData, i);
-            question.setQuestionNumber(questionNumber);
-
-            // Set question text
-            String questionText = getQuestionText(questionData);
-            question.setQuestionText(questionText);
-
-            // Set explanation if available
-            if (questionData.containsKey("explanation"))
+            Question question = toQuestion(jsonData.get(i), i, exam);
+            if (duplicateScreen.admit(question))
             {
-                question.setExplanation(questionData.get("explanation").toString());
+                questions.add(question);
             }
-
-            // Set default marks (1 per question)
-            question.setMarks(1);
-
-            // Process options
-            Object optionsObj = questionData.get("options");
-            List<Option> options = processOptions(optionsObj, question);
-            question.setOptions(options);
-
-            // Set correct answer
-            String correctAnswer = getCorrectAnswer(questionData);
-            question.setCorrectAnswer(correctAnswer);
-
-            questions.add(question);
         }
 
         return questions;
     }
 
-    /**
-     * Get question number from data
-     */
-    private int getQuestionNumber(Map<String, Object> questionData, int defaultIndex)
+    private UploadDuplicateScreen newDuplicateScreen(JsonExamUploadRequestDTO requestDTO)
     {
-        // Check different possible field names
-        if (questionData.containsKey("number"))
-        {
-            return parseIntValue(questionData.get("number"));
-        }
-        else if (questionData.containsKey("question_number"))
-        {
-            return parseIntValue(questionData.get("question_number"));
-        }
-        else if (questionData.containsKey("questionNumber"))
+        return new UploadDuplicateScreen(questionFingerprintIndex, requestDTO.getDuplicateHandling(),
+                Boolean.TRUE.equals(requestDTO.getNearDuplicates()));
+    }
+
+    private void logDuplicates(UploadDuplicateScreen duplicateScreen, Exam exam)
+    {
+        if (duplicateScreen.getFlagged() > 0 || duplicateScreen.getSkipped() > 0)
         {
-            return parseIntValue(questionData.get("questionNumber"));
+            logger.info("Duplicate questions in upload of {}: {} flagged, {} skipped",
+                    exam.getTitle(), duplicateScreen.getFlagged(), duplicateScreen.getSkipped());
         }
-
-        // Default to index + 1
-        return defaultIndex + 1;
     }
 
     /**
-     * Get question text from data
+     * Convert one question record to a Question entity with its options
+     *
+     * @param record The question record
+     * @param index  Position of the record in the file, used when it has no question number
+     * @param exam   The parent exam
      */
-    private String getQuestionText(Map<String, Object> questionData)
+    private Question toQuestion(JsonQuestionRecordDTO record, int index, Exam exam)
     {
-        // Check different possible field names
-        if (questionData.containsKey("question"))
-        {
-            return questionData.get("question").toString();
-        }
-        else if (questionData.containsKey("text"))
-        {
-            return questionData.get("text").toString();
-        }
-        else if (questionData.containsKey("questionText"))
+        // Create question
+        Question question = new Question();
+        question.setExam(exam);
+
+        // Set question number (use existing or create sequential)
+        question.setQuestionNumber(record.getNumber() != null ? record.getNumber() : index + 1);
+
+        // Set question text
+        if (record.getText() == null)
         {
-            return questionData.get("questionText").toString();
+            throw new IllegalArgumentException("Question text not found in JSON data");
         }
+        question.setQuestionText(record.getText());
+
+        // Set explanation if available
+        question.setExplanation(record.getExplanation());
+
+        // Set default marks (1 per question)
+        question.setMarks(1);
+
+        // Set correct answer first, so the options can be marked against it
+        String correctAnswer = getCorrectAnswer(record.getAnswer());
+        question.setCorrectAnswer(correctAnswer);
+
+        // Process options
+        List<Option> options = processOptions(record.getOptions(), question);
+        question.setOptions(options);
+
+        // Fingerprint for duplicate detection
+        question.updateFingerprint();
 
-        throw new IllegalArgumentException("Question text not found in JSON data");
+        return question;
     }
 
     /**
-     * Get correct answer from data
+     * Extract the option label from an answer in one of the supported formats
      */
-    private String getCorrectAnswer(Map<String, Object> questionData)
+    private String getCorrectAnswer(String rawAnswer)
     {
-        if (!questionData.containsKey("answer"))
+        if (rawAnswer == null)
         {
             throw new IllegalArgumentException("Correct answer not found in JSON data");
         }
 
-        String answer = questionData.get("answer").toString().trim();
+        String answer = rawAnswer.trim();
         logger.debug("Original answer format: {}", answer);
 
         // Handle various answer formats
         if (answer.length() > 1)
         {
             // Format: "A)" or "A) Option text"
-            if (answer.matches("^[A-Za-z]\\).*"))
+            if (LETTER_PAREN_ANSWER.matcher(answer).matches())
             {
                 answer = answer.substring(0, 1);
             }
             // Format: "A Option text"
-            else if (answer.matches("^[A-Za-z]\\s.*"))
+            else if (LETTER_SPACE_ANSWER.matcher(answer).matches())
             {
                 answer = answer.substring(0, 1);
             }
@@ -321,7 +530,7 @@ public class JsonExamUploadService
                 }
             }
             // Format: "A. Option text"
-            else if (answer.matches("^[A-Za-z]\\..*"))
+            else if (LETTER_DOT_ANSWER.matcher(answer).matches())
             {
                 answer = answer.substring(0, 1);
             }
@@ -347,142 +556,61 @@ public class JsonExamUploadService
     }
 
     /**
-     * Process options from JSON data
+     * Create the options of a question, labelling positional options A, B, C, ...
      */
-    private List<Option> processOptions(Object optionsObj, Question question)
+    private List<Option> processOptions(List<JsonQuestionRecordDTO.OptionRecord> optionRecords, Question question)
     {
-        List<Option> optionList = new ArrayList<>();
-
-        if (optionsObj == null)
+        if (optionRecords == null)
         {
             throw new IllegalArgumentException("Options not found in JSON data");
         }
 
-        try
-        {
-            // If options is a Map with A, B, C, D keys
-            if (optionsObj instanceof Map<?, ?>)
-            {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> optionsMap = (Map<String, Object>) optionsObj;
-
-                for (Map.Entry<String, Object> entry : optionsMap.entrySet())
-                {
-                    String label = entry.getKey();
-                    String text = entry.getValue().toString();
-
-                    Option option = new Option();
-                    option.setQuestion(question);
-                    option.setLabel(label);
-                    option.setText(text);
-
-                    // Don't set isCorrect here - we'll set it later based on the correctAnswer
-
-                    optionList.add(option);
-                }
-            }
-            // If options is a List
-            else if (optionsObj instanceof List<?>)
-            {
-                @SuppressWarnings("unchecked")
-                List<Object> optionsList = (List<Object>) optionsObj;
-
-                // Generate labels A, B, C, D...
-                for (int i = 0; i < optionsList.size(); i++)
-                {
-                    // Generate standard labels (A, B, C, D...) for options
-                    String label;
-                    if (i < 26)
-                    {
-                        label = String.valueOf((char) ('A' + i));
-                    }
-                    else
-                    {
-                        // For more than 26 options, use AA, AB, etc.
-                        label = String.valueOf((char) ('A' + (i / 26) - 1)) +
-                                String.valueOf((char) ('A' + (i % 26)));
-                    }
-
-                    // Ensure label isn't longer than database can handle
-                    if (label.length() > 10)
-                    {
-                        logger.warn("Option label '{}' is too long, truncating to 10 characters", label);
-                        label = label.substring(0, 10);
-                    }
-                    String text;
-
-                    // Handle different formats (string or object with text property)
-                    if (optionsList.get(i) instanceof String)
-                    {
-                        text = (String) optionsList.get(i);
-                    }
-                    else if (optionsList.get(i) instanceof Map<?, ?>)
-                    {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> optionMap = (Map<String, Object>) optionsList.get(i);
-                        text = optionMap.get("text").toString();
-                    }
-                    else
-                    {
-                        throw new IllegalArgumentException("Invalid option format in JSON data");
-                    }
+        List<Option> optionList = new ArrayList<>(optionRecords.size());
+        String correctAnswer = question.getCorrectAnswer();
 
-                    Option option = new Option();
-                    option.setQuestion(question);
-                    option.setLabel(label);
-                    option.setText(text);
+        for (int i = 0; i < optionRecords.size(); i++)
+        {
+            JsonQuestionRecordDTO.OptionRecord optionRecord = optionRecords.get(i);
+            String label = optionRecord.getLabel() != null ? optionRecord.getLabel() : positionLabel(i);
 
-                    optionList.add(option);
-                }
-            }
-            else
-            {
-                throw new IllegalArgumentException("Invalid options format in JSON data");
-            }
+            Option option = new Option();
+            option.setQuestion(question);
+            option.setLabel(label);
+            option.setText(optionRecord.getText());
 
             // Mark the correct option
-            String correctAnswer = question.getCorrectAnswer();
-            for (Option option : optionList)
-            {
-                if (option.getLabel().equalsIgnoreCase(correctAnswer))
-                {
-                    option.setIsCorrect(true);
-                }
-                else
-                {
-                    option.setIsCorrect(false);
-                }
-            }
-
-            return optionList;
+            option.setIsCorrect(label.equalsIgnoreCase(correctAnswer));
 
+            optionList.add(option);
         }
-        catch (Exception e)
-        {
-            logger.error("Error processing options: {}", e.getMessage(), e);
-            throw new RuntimeException("Error processing options: " + e.getMessage(), e);
-        }
+
+        return optionList;
     }
 
     /**
-     * Parse integer value from object
+     * Generate standard labels (A, B, C, D...) for options given as a list
      */
-    private int parseIntValue(Object value)
+    private String positionLabel(int index)
     {
-        if (value instanceof Integer)
+        String label;
+        if (index < 26)
         {
-            return (Integer) value;
+            label = String.valueOf((char) ('A' + index));
         }
-        else if (value instanceof String)
+        else
         {
-            return Integer.parseInt((String) value);
+            // For more than 26 options, use AA, AB, etc.
+            label = String.valueOf((char) ('A' + (index / 26) - 1)) +
+                    String.valueOf((char) ('A' + (index % 26)));
         }
-        else if (value instanceof Number)
+
+        // Ensure label isn't longer than database can handle
+        if (label.length() > 10)
         {
-            return ((Number) value).intValue();
+            logger.warn("Option label '{}' is too long, truncating to 10 characters", label);
+            label = label.substring(0, 10);
         }
-
-        throw new IllegalArgumentException("Cannot parse integer value: " + value);
+        return label;
     }
 
     /**
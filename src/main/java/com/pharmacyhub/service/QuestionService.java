@@ -26,6 +26,11 @@ public interface QuestionService {
      */
     List<Question> findByExamId(Long examId);
     
+    /**
+     * Get all questions for an exam with their options loaded, for response mapping
+     */
+    List<Question> getQuestionsWithOptionsByExamId(Long examId);
+    
     /**
      * Find questions by topic
      */
@@ -41,6 +46,12 @@ public interface QuestionService {
      */
     List<Question> findRandom(int count, String topic, String difficulty);
     
+    /**
+     * Generate a practice set around a target difficulty from question statistics,
+     * balanced across topics unless a topic is given
+     */
+    List<Question> generatePracticeSet(int count, String topic, String difficulty);
+    
     /**
      * Create a new question
      */
@@ -2,11 +2,20 @@ package com.pharmacyhub.service;
 
 import com.pharmacyhub.domain.entity.Question;
 import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import com.pharmacyhub.service.dedup.QuestionsAddedEvent;
+import com.pharmacyhub.service.dedup.QuestionsChangedEvent;
+import com.pharmacyhub.service.practice.PracticeSetGenerator;
+import com.pharmacyhub.service.sampling.QuestionSampler;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -14,9 +23,19 @@ import java.util.Optional;
 public class QuestionServiceImpl implements QuestionService {
     
     private final QuestionRepository questionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QuestionSampler questionSampler;
+    private final PracticeSetGenerator practiceSetGenerator;
 
-    public QuestionServiceImpl(QuestionRepository questionRepository) {
+    public QuestionServiceImpl(
+            QuestionRepository questionRepository,
+            ApplicationEventPublisher eventPublisher,
+            QuestionSampler questionSampler,
+            PracticeSetGenerator practiceSetGenerator) {
         this.questionRepository = questionRepository;
+        this.eventPublisher = eventPublisher;
+        this.questionSampler = questionSampler;
+        this.practiceSetGenerator = practiceSetGenerator;
     }
 
     @Override
@@ -42,6 +61,12 @@ public class QuestionServiceImpl implements QuestionService {
     public List<Question> findByExamId(Long examId) {
         return questionRepository.findByExamId(examId);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Question> getQuestionsWithOptionsByExamId(Long examId) {
+        return questionRepository.findByExamIdWithOptions(examId);
+    }
     
     @Override
     @Transactional(readOnly = true)
@@ -58,12 +83,54 @@ public class QuestionServiceImpl implements QuestionService {
     @Override
     @Transactional(readOnly = true)
     public List<Question> findRandom(int count, String topic, String difficulty) {
-        return questionRepository.findRandom(count, topic, difficulty);
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        
+        // Draw ids from the in-memory pools, then load only those rows
+        return findInOrder(questionSampler.sampleIds(count, topic, difficulty));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Question> generatePracticeSet(int count, String topic, String difficulty) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        return findInOrder(practiceSetGenerator.generate(count, topic, difficulty));
+    }
+    
+    /**
+     * Load questions with their options by id, in the given order
+     */
+    private List<Question> findInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Long, Question> questionsById = new HashMap<>();
+        for (Question question : questionRepository.findByIdsWithOptions(ids)) {
+            questionsById.put(question.getId(), question);
+        }
+        
+        // Questions deleted since the pools were built are skipped
+        List<Question> questions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Question question = questionsById.get(id);
+            if (question != null) {
+                questions.add(question);
+            }
+        }
+        return questions;
     }
 
     @Override
     public Question createQuestion(Question question) {
-        return questionRepository.save(question);
+        Question savedQuestion = questionRepository.save(question);
+        eventPublisher.publishEvent(new QuestionsAddedEvent(List.of(savedQuestion)));
+        // Question counts are part of the published exam catalog
+        publishCatalogChange(savedQuestion);
+        return savedQuestion;
     }
 
     @Override
@@ -127,8 +194,13 @@ public class QuestionServiceImpl implements QuestionService {
             }
         }
 
-        // 5. Save and return the updated question
-        return questionRepository.save(question);
+        // 5. Save and return the updated question; option edits alone do not trigger the entity's update callback
+        question.updateFingerprint();
+        Question savedQuestion = questionRepository.save(question);
+        publishQuestionsChange(savedQuestion);
+        // Answer keys and the catalog are compiled from question content
+        publishCatalogChange(savedQuestion);
+        return savedQuestion;
     }
 
     @Override
@@ -137,6 +209,8 @@ public class QuestionServiceImpl implements QuestionService {
                 .orElseThrow(() -> new EntityNotFoundException("Question not found with id: " + id));
         question.setDeleted(true);
         questionRepository.save(question);
+        publishQuestionsChange(question);
+        publishCatalogChange(question);
     }
 
     @Override
@@ -150,4 +224,14 @@ public class QuestionServiceImpl implements QuestionService {
     public Long countQuestionsByExamId(Long examId) {
         return questionRepository.countByExamId(examId);
     }
-}
\ No newline at end of file
+
+    private void publishCatalogChange(Question question) {
+        if (question.getExam() != null) {
+            eventPublisher.publishEvent(new ExamCatalogChangedEvent(question.getExam().getId()));
+        }
+    }
+
+    private void publishQuestionsChange(Question question) {
+        eventPublisher.publishEvent(new QuestionsChangedEvent(question.getExam() != null ? question.getExam().getId() : null));
+    }
+}
@@ -0,0 +1,481 @@
+package com.pharmacyhub.service.answer;
+
+import com.pharmacyhub.config.cache.BoundedTtlCache;
+import com.pharmacyhub.domain.entity.ExamAttempt;
+import com.pharmacyhub.domain.repository.ExamAttemptRepository;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import com.pharmacyhub.service.scoring.AnswerKeyCache;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for answers of in-progress exam attempts.
+ *
+ * Answers are kept in memory per attempt (latest answer per question) and written to
+ * user_answers in JDBC batches on a fixed interval, when an attempt collects too many
+ * pending answers, on submission and on shutdown.
+ *
+ * Durability rules:
+ * - buffered answers are only dropped after the transaction that wrote them commits;
+ *   a failed or rolled back write leaves them buffered for the next flush
+ * - an answer overwritten while its flush is running stays buffered and is written again
+ * - submission closes the attempt before writing, so later answers are rejected and the
+ *   interval flush never writes an attempt that is being submitted
+ * - buffered answers are never given up on: once an attempt's writes have failed
+ *   max-flush-failures times in a row, its next answer first writes the buffered ones and
+ *   fails with the write error until that succeeds, as does submission
+ * - a flush locks the attempts it writes and only writes those still in progress; answers
+ *   of an attempt submitted or abandoned elsewhere are discarded and the attempt is closed
+ * - answers buffered since the last flush are lost if the process dies; clients re-send
+ *   their final answers on submit
+ *
+ * With pharmacyhub.exam.answer-buffer.enabled=false every answer is written immediately
+ * and write errors are returned to the caller.
+ */
+@Component
+public class AnswerBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnswerBuffer.class);
+
+    private final ExamAttemptRepository examAttemptRepository;
+    private final QuestionRepository questionRepository;
+    private final UserAnswerBatchWriter batchWriter;
+    private final AnswerKeyCache answerKeyCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int maxPendingPerAttempt;
+    private final int maxFlushFailures;
+    private final long idleEvictionMillis;
+
+    private final Map<Long, AttemptBuffer> attempts = new ConcurrentHashMap<>();
+    private final BoundedTtlCache<Long, Set<Long>> questionIdsByExam;
+
+    public AnswerBuffer(
+            ExamAttemptRepository examAttemptRepository,
+            QuestionRepository questionRepository,
+            UserAnswerBatchWriter batchWriter,
+            AnswerKeyCache answerKeyCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${pharmacyhub.exam.answer-buffer.enabled:true}") boolean enabled,
+            @Value("${pharmacyhub.exam.answer-buffer.max-pending-per-attempt:25}") int maxPendingPerAttempt,
+            @Value("${pharmacyhub.exam.answer-buffer.max-flush-failures:10}") int maxFlushFailures,
+            @Value("${pharmacyhub.exam.answer-buffer.idle-eviction-seconds:1800}") long idleEvictionSeconds) {
+        this.examAttemptRepository = examAttemptRepository;
+        this.questionRepository = questionRepository;
+        this.batchWriter = batchWriter;
+        this.answerKeyCache = answerKeyCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.maxPendingPerAttempt = Math.max(1, maxPendingPerAttempt);
+        this.maxFlushFailures = Math.max(1, maxFlushFailures);
+        this.idleEvictionMillis = idleEvictionSeconds * 1000;
+        this.questionIdsByExam = new BoundedTtlCache<>(1000, idleEvictionMillis);
+    }
+
+    /**
+     * Buffer an answer for an in-progress attempt.
+     * The attempt state and the exam's question ids are loaded once per attempt/exam,
+     * so repeated answers do not touch the database.
+     */
+    public void record(Long attemptId, Long questionId, String selectedOptionId, Integer timeSpent) {
+        if (selectedOptionId != null && selectedOptionId.length() > 1) {
+            throw new IllegalArgumentException("Selected option id must be a single character");
+        }
+
+        while (true) {
+            AttemptBuffer buffer = getOrLoad(attemptId);
+            // Buffers without an exam are placeholders of attempts being submitted and are always closed
+            if (buffer.examId != null && !isQuestionOf(buffer, questionId)) {
+                throw new EntityNotFoundException("Question not found with id: " + questionId);
+            }
+
+            int pendingCount = 0;
+            boolean failing;
+            synchronized (buffer) {
+                if (buffer.detached) {
+                    // Evicted between lookup and lock; start over with a fresh buffer
+                    continue;
+                }
+                if (buffer.closed) {
+                    throw new IllegalStateException("Cannot save answer for an exam that is not in progress");
+                }
+                failing = buffer.failures >= maxFlushFailures;
+                if (!failing) {
+                    buffer.pending.put(questionId, new BufferedAnswer(attemptId, questionId, selectedOptionId, timeSpent));
+                    buffer.lastAccessMillis = System.currentTimeMillis();
+                    pendingCount = buffer.pending.size();
+                }
+            }
+
+            if (failing) {
+                // Accept no more answers until the buffered ones are written; throws the write error
+                flush(List.of(buffer), true);
+                continue;
+            }
+
+            if (!enabled) {
+                // Write-through: surface write errors to the caller
+                flush(List.of(buffer), true);
+            } else if (pendingCount >= maxPendingPerAttempt) {
+                flush(List.of(buffer), false);
+            }
+            return;
+        }
+    }
+
+    /**
+     * Close an attempt for submission and write its buffered answers in the caller's transaction.
+     * Answers saved after this call are rejected. If the transaction rolls back the attempt
+     * is reopened with its answers still buffered.
+     */
+    public void closeAndFlush(Long attemptId) {
+        AttemptBuffer buffer = lockForClose(attemptId);
+        try {
+            List<BufferedAnswer> snapshot;
+            synchronized (buffer) {
+                buffer.closed = true;
+                buffer.lastAccessMillis = System.currentTimeMillis();
+                snapshot = new ArrayList<>(buffer.pending.values());
+            }
+            boolean synchronizedWithTransaction = afterCompletion(() -> acknowledge(buffer, snapshot), () -> reopen(buffer));
+            try {
+                batchWriter.write(snapshot);
+            } catch (RuntimeException e) {
+                if (!synchronizedWithTransaction) {
+                    reopen(buffer);
+                }
+                throw e;
+            }
+            if (!synchronizedWithTransaction) {
+                acknowledge(buffer, snapshot);
+            }
+            logger.debug("Wrote {} buffered answers for submitted attempt {}", snapshot.size(), attemptId);
+        } finally {
+            buffer.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Write all buffered answers of open attempts in one batch
+     */
+    public void flushAll() {
+        List<AttemptBuffer> dirty = new ArrayList<>();
+        for (AttemptBuffer buffer : attempts.values()) {
+            synchronized (buffer) {
+                if (!buffer.closed && !buffer.pending.isEmpty()) {
+                    dirty.add(buffer);
+                }
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        if (!flush(dirty, false) && dirty.size() > 1) {
+            // Retry attempt by attempt so one failing attempt does not hold back the others
+            for (AttemptBuffer buffer : dirty) {
+                flush(List.of(buffer), false);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pharmacyhub.exam.answer-buffer.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        try {
+            flushAll();
+            evictIdle();
+        } catch (Exception e) {
+            logger.error("Error flushing buffered answers", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        logger.info("Flushing buffered answers of {} attempts before shutdown", attempts.size());
+        flushAll();
+    }
+
+    /**
+     * Question ids of unversioned attempts may change when an exam is edited
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamCatalogChanged(ExamCatalogChangedEvent event) {
+        if (event.getExamId() != null) {
+            questionIdsByExam.invalidate(event.getExamId());
+        } else {
+            questionIdsByExam.invalidateAll();
+        }
+    }
+
+    /**
+     * Get the attempt's buffer with its flush lock held; idle eviction skips locked buffers
+     */
+    private AttemptBuffer lockForClose(Long attemptId) {
+        while (true) {
+            AttemptBuffer buffer = attempts.computeIfAbsent(attemptId, id -> new AttemptBuffer(id, null, null));
+            buffer.flushLock.lock();
+            synchronized (buffer) {
+                if (!buffer.detached) {
+                    return buffer;
+                }
+            }
+            buffer.flushLock.unlock();
+        }
+    }
+
+    private AttemptBuffer getOrLoad(Long attemptId) {
+        AttemptBuffer buffer = attempts.get(attemptId);
+        if (buffer != null) {
+            return buffer;
+        }
+
+        ExamAttempt attempt = examAttemptRepository.findByIdAndNotDeleted(attemptId)
+                .orElseThrow(() -> new EntityNotFoundException("Exam attempt not found with id: " + attemptId));
+        if (attempt.getStatus() != ExamAttempt.AttemptStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Cannot save answer for an exam that is not in progress");
+        }
+
+        // A concurrent submission may have registered a closed buffer in the meantime
+        AttemptBuffer loaded = new AttemptBuffer(attemptId, attempt.getExam().getId(), attempt.getExamVersionId());
+        AttemptBuffer existing = attempts.putIfAbsent(attemptId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private boolean isQuestionOf(AttemptBuffer buffer, Long questionId) {
+        if (buffer.examVersionId != null) {
+            // Versioned attempts answer the questions frozen in their version
+            return questionId != null
+                    && answerKeyCache.get(buffer.examId, buffer.examVersionId).indexOf(questionId) >= 0;
+        }
+        return getQuestionIds(buffer.examId).contains(questionId);
+    }
+
+    private Set<Long> getQuestionIds(Long examId) {
+        return questionIdsByExam.get(examId, id -> new HashSet<>(questionRepository.findIdsByExamId(id)));
+    }
+
+    /**
+     * Write the pending answers of the given buffers in a new transaction, skipping attempts
+     * that are no longer in progress
+     *
+     * @param propagateErrors rethrow write errors and rejections instead of only logging them;
+     *                        failed answers are kept for a retry unless every answer is written through
+     * @return whether the write succeeded
+     */
+    private boolean flush(List<AttemptBuffer> buffers, boolean propagateErrors) {
+        List<AttemptBuffer> ordered = new ArrayList<>(buffers);
+        // Consistent lock order between concurrent multi-attempt flushes
+        ordered.sort(Comparator.comparing((AttemptBuffer buffer) -> buffer.attemptId));
+        for (AttemptBuffer buffer : ordered) {
+            buffer.flushLock.lock();
+        }
+        try {
+            Map<AttemptBuffer, List<BufferedAnswer>> snapshots = new HashMap<>();
+            List<BufferedAnswer> answers = new ArrayList<>();
+            for (AttemptBuffer buffer : ordered) {
+                synchronized (buffer) {
+                    if (buffer.closed || buffer.pending.isEmpty()) {
+                        continue;
+                    }
+                    List<BufferedAnswer> snapshot = new ArrayList<>(buffer.pending.values());
+                    snapshots.put(buffer, snapshot);
+                    answers.addAll(snapshot);
+                }
+            }
+            if (answers.isEmpty()) {
+                return true;
+            }
+
+            Set<Long> inProgress;
+            try {
+                inProgress = transactionTemplate.execute(status -> {
+                    Set<Long> locked = batchWriter.lockInProgress(
+                            snapshots.keySet().stream().map(buffer -> buffer.attemptId).toList());
+                    List<BufferedAnswer> writable = new ArrayList<>(answers.size());
+                    for (BufferedAnswer answer : answers) {
+                        if (locked.contains(answer.getAttemptId())) {
+                            writable.add(answer);
+                        }
+                    }
+                    batchWriter.write(writable);
+                    return locked;
+                });
+            } catch (RuntimeException e) {
+                if (propagateErrors) {
+                    if (!enabled) {
+                        snapshots.forEach(this::discard);
+                    }
+                    throw e;
+                }
+                logger.warn("Failed to write {} buffered answers for {} attempts: {}",
+                        answers.size(), snapshots.size(), e.getMessage());
+                if (snapshots.size() == 1) {
+                    snapshots.keySet().forEach(this::recordFailure);
+                }
+                return false;
+            }
+
+            boolean rejected = false;
+            for (Map.Entry<AttemptBuffer, List<BufferedAnswer>> entry : snapshots.entrySet()) {
+                if (inProgress.contains(entry.getKey().attemptId)) {
+                    acknowledge(entry.getKey(), entry.getValue());
+                } else {
+                    reject(entry.getKey());
+                    rejected = true;
+                }
+            }
+            logger.debug("Wrote buffered answers for {} of {} attempts", inProgress.size(), snapshots.size());
+            if (rejected && propagateErrors) {
+                throw new IllegalStateException("Cannot save answer for an exam that is not in progress");
+            }
+            return true;
+        } finally {
+            for (AttemptBuffer buffer : ordered) {
+                buffer.flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Drop written answers unless they were replaced while being written
+     */
+    private void acknowledge(AttemptBuffer buffer, List<BufferedAnswer> written) {
+        synchronized (buffer) {
+            for (BufferedAnswer answer : written) {
+                buffer.pending.remove(answer.getQuestionId(), answer);
+            }
+            buffer.failures = 0;
+        }
+    }
+
+    /**
+     * Drop answers whose write failed in write-through mode; the caller has seen the error
+     */
+    private void discard(AttemptBuffer buffer, List<BufferedAnswer> failed) {
+        synchronized (buffer) {
+            for (BufferedAnswer answer : failed) {
+                buffer.pending.remove(answer.getQuestionId(), answer);
+            }
+        }
+    }
+
+    /**
+     * Close the buffer of an attempt that was submitted or abandoned elsewhere; its answers can no longer be saved
+     */
+    private void reject(AttemptBuffer buffer) {
+        synchronized (buffer) {
+            logger.warn("Discarding {} buffered answers for attempt {}, which is no longer in progress",
+                    buffer.pending.size(), buffer.attemptId);
+            buffer.closed = true;
+            buffer.pending.clear();
+            buffer.failures = 0;
+        }
+    }
+
+    private void recordFailure(AttemptBuffer buffer) {
+        synchronized (buffer) {
+            buffer.failures++;
+            if (buffer.failures == maxFlushFailures) {
+                logger.error("Rejecting answers for attempt {} until its {} buffered answers are written",
+                        buffer.attemptId, buffer.pending.size());
+            }
+        }
+    }
+
+    private void reopen(AttemptBuffer buffer) {
+        synchronized (buffer) {
+            if (buffer.examId == null) {
+                // Closed without ever having been loaded; nothing to keep
+                buffer.detached = true;
+                attempts.remove(buffer.attemptId, buffer);
+            } else {
+                buffer.closed = false;
+            }
+        }
+    }
+
+    /**
+     * Forget buffers that have nothing pending and were not used for a while.
+     * Closed buffers are kept until then so late answers for submitted attempts are rejected.
+     */
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictionMillis;
+        for (AttemptBuffer buffer : attempts.values()) {
+            synchronized (buffer) {
+                if (buffer.pending.isEmpty() && buffer.lastAccessMillis < cutoff && !buffer.flushLock.isLocked()) {
+                    buffer.detached = true;
+                    attempts.remove(buffer.attemptId, buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the callbacks when the current transaction completes
+     *
+     * @return false if there is no transaction, in which case nothing is registered
+     */
+    private static boolean afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Pending answers and state of one attempt; fields are guarded by the instance lock,
+     * writes to the database by flushLock
+     */
+    private static final class AttemptBuffer {
+        private final Long attemptId;
+        private final Long examId;
+        private final Long examVersionId;
+        private final Map<Long, BufferedAnswer> pending = new HashMap<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private boolean closed;
+        private boolean detached;
+        private int failures;
+        private long lastAccessMillis = System.currentTimeMillis();
+
+        private AttemptBuffer(Long attemptId, Long examId, Long examVersionId) {
+            this.attemptId = attemptId;
+            this.examId = examId;
+            this.examVersionId = examVersionId;
+        }
+    }
+}
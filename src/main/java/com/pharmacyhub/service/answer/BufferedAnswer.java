@@ -0,0 +1,35 @@
+package com.pharmacyhub.service.answer;
+
+/**
+ * Immutable answer waiting to be written to user_answers
+ */
+public final class BufferedAnswer {
+
+    private final Long attemptId;
+    private final Long questionId;
+    private final String selectedOptionId;
+    private final int timeSpent;
+
+    public BufferedAnswer(Long attemptId, Long questionId, String selectedOptionId, Integer timeSpent) {
+        this.attemptId = attemptId;
+        this.questionId = questionId;
+        this.selectedOptionId = selectedOptionId;
+        this.timeSpent = timeSpent != null ? timeSpent : 0;
+    }
+
+    public Long getAttemptId() {
+        return attemptId;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public String getSelectedOptionId() {
+        return selectedOptionId;
+    }
+
+    public int getTimeSpent() {
+        return timeSpent;
+    }
+}
@@ -0,0 +1,90 @@
+package com.pharmacyhub.service.answer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes answers to user_answers with JDBC batches.
+ * Runs in the caller's transaction when there is one.
+ */
+@Component
+public class UserAnswerBatchWriter {
+
+    private static final String UPDATE_SQL =
+            "UPDATE user_answers SET selected_option_id = ?, time_spent = ? " +
+            "WHERE attempt_id = ? AND question_id = ? AND deleted = false";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_answers (attempt_id, question_id, selected_option_id, time_spent, deleted) " +
+            "VALUES (?, ?, ?, ?, false)";
+
+    private static final int[] UPDATE_TYPES = {Types.VARCHAR, Types.INTEGER, Types.BIGINT, Types.BIGINT};
+    private static final int[] INSERT_TYPES = {Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.INTEGER};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserAnswerBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lock the given attempts that are still in progress until the current transaction ends.
+     * Waits for a concurrent submission of one of them to complete, so an attempt whose
+     * submission commits first is not returned.
+     *
+     * @return ids of the attempts that are still in progress
+     */
+    public Set<Long> lockInProgress(Collection<Long> attemptIds) {
+        if (attemptIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(attemptIds.size(), "?"));
+        // Locked in id order so concurrent flushes cannot deadlock
+        List<Long> locked = jdbcTemplate.queryForList(
+                "SELECT id FROM exam_attempts WHERE id IN (" + placeholders + ") " +
+                "AND status = 'IN_PROGRESS' AND deleted = false ORDER BY id FOR UPDATE",
+                Long.class, attemptIds.toArray());
+        return new HashSet<>(locked);
+    }
+
+    /**
+     * Upsert answers keyed by attempt and question: existing rows are updated in one batch,
+     * answers that matched no row are inserted in a second batch.
+     * Answers must be unique per attempt and question.
+     *
+     * @return number of inserted rows
+     */
+    public int write(List<BufferedAnswer> answers) {
+        if (answers.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> updateArgs = new ArrayList<>(answers.size());
+        for (BufferedAnswer answer : answers) {
+            updateArgs.add(new Object[] {
+                    answer.getSelectedOptionId(), answer.getTimeSpent(), answer.getAttemptId(), answer.getQuestionId()});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, updateArgs, UPDATE_TYPES);
+
+        List<Object[]> insertArgs = new ArrayList<>();
+        for (int i = 0; i < answers.size(); i++) {
+            if (updated[i] == 0) {
+                BufferedAnswer answer = answers.get(i);
+                insertArgs.add(new Object[] {
+                        answer.getAttemptId(), answer.getQuestionId(), answer.getSelectedOptionId(), answer.getTimeSpent()});
+            }
+        }
+        if (!insertArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, insertArgs, INSERT_TYPES);
+        }
+        return insertArgs.size();
+    }
+}
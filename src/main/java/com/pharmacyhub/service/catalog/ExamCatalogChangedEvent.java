@@ -0,0 +1,18 @@
+package com.pharmacyhub.service.catalog;
+
+/**
+ * Published when an exam change may alter the published exam catalog.
+ * The catalog is rebuilt on its next read once the publishing transaction commits.
+ */
+public class ExamCatalogChangedEvent {
+
+    private final Long examId;
+
+    public ExamCatalogChangedEvent(Long examId) {
+        this.examId = examId;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+}
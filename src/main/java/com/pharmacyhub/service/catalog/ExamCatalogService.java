@@ -0,0 +1,293 @@
+package com.pharmacyhub.service.catalog;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.repository.ExamRepository;
+import com.pharmacyhub.dto.response.ExamResponseDTO;
+import com.pharmacyhub.payment.entitlement.EntitlementSnapshot;
+import com.pharmacyhub.service.versioning.ExamVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory catalog of published exams.
+ * Exams are rendered to response DTOs once and indexed by tag (see TagIndex); list endpoints
+ * and paper filters combine the shared catalog with a per-user entitlement overlay instead of
+ * querying the database.
+ * The catalog is dropped whenever an ExamCatalogChangedEvent commits and rebuilt on the next read.
+ */
+@Service
+public class ExamCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamCatalogService.class);
+
+    private final ExamRepository examRepository;
+    private final ExamVersionService examVersionService;
+
+    // Held while building, so concurrent readers wait for one build instead of each starting one
+    private final Object buildLock = new Object();
+    // Guarded by this; the check and the store of a built catalog must not interleave with invalidate
+    private long version;
+    private volatile Catalog catalog;
+
+    public ExamCatalogService(ExamRepository examRepository, ExamVersionService examVersionService) {
+        this.examRepository = examRepository;
+        this.examVersionService = examVersionService;
+    }
+
+    /**
+     * Get all published exams with purchase state for the given user
+     */
+    public List<ExamResponseDTO> getPublishedExams(EntitlementSnapshot entitlements) {
+        return withEntitlements(getCatalog().exams, entitlements);
+    }
+
+    /**
+     * Get published exams carrying the given tag (case-insensitive) with purchase state for the given user
+     */
+    public List<ExamResponseDTO> getPublishedExamsByTag(String tag, EntitlementSnapshot entitlements) {
+        Catalog current = getCatalog();
+        return withEntitlements(current.select(current.tagIndex.withTag(tag)), entitlements);
+    }
+
+    /**
+     * Find published exams matching all of the given clauses, where an exam matches a clause
+     * when it carries at least one of the clause's tags (AND of ORs). Empty clauses are ignored.
+     * The returned DTOs carry no user-specific purchase state.
+     */
+    public List<ExamResponseDTO> findPublishedExams(List<? extends Collection<String>> clauses) {
+        Catalog current = getCatalog();
+        List<ExamResponseDTO> result = new ArrayList<>();
+        for (ExamResponseDTO base : current.select(current.matching(clauses))) {
+            result.add(copyOf(base));
+        }
+        return result;
+    }
+
+    /**
+     * Count published exams matching the given clauses per facet value.
+     *
+     * @param clauses filter clauses, as for findPublishedExams
+     * @param tagFacets facet name to the fixed tags counted for it, e.g. "difficulty" to EASY/MEDIUM/HARD
+     * @param metadataFacets keys of "key:value" metadata tags counted per value, e.g. "subject"
+     * @return facet name to counts per tag or value
+     */
+    public Map<String, Map<String, Integer>> getFacets(
+            List<? extends Collection<String>> clauses,
+            Map<String, ? extends Collection<String>> tagFacets,
+            Collection<String> metadataFacets) {
+        Catalog current = getCatalog();
+        BitSet selection = current.matching(clauses);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        tagFacets.forEach((name, tags) -> facets.put(name, current.tagIndex.facet(tags, selection)));
+        for (String key : metadataFacets) {
+            facets.put(key, current.tagIndex.facetByKey(key, selection));
+        }
+        return facets;
+    }
+
+    /**
+     * Drop the catalog; it is rebuilt on the next read
+     */
+    public synchronized void invalidate() {
+        version++;
+        catalog = null;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamCatalogChanged(ExamCatalogChangedEvent event) {
+        logger.debug("Exam catalog invalidated by change to exam {}", event.getExamId());
+        invalidate();
+    }
+
+    /**
+     * Render the user-independent part of an exam response
+     */
+    public ExamResponseDTO render(Exam exam, int questionCount) {
+        ExamResponseDTO dto = new ExamResponseDTO();
+        dto.setId(exam.getId());
+        dto.setTitle(exam.getTitle());
+        dto.setDescription(exam.getDescription());
+        dto.setDuration(exam.getDuration());
+        dto.setTotalMarks(exam.getTotalMarks());
+        dto.setPassingMarks(exam.getPassingMarks());
+        dto.setStatus(exam.getStatus());
+        dto.setTags(exam.getTags());
+
+        // Set premium fields
+        dto.setPremium(exam.isPremium());
+        dto.setPrice(exam.getPrice());
+        dto.setCustomPrice(exam.isCustomPrice());
+        dto.setPurchased(false); // Default value, will be updated by applyEntitlements
+
+        // Set difficulty - derive from tags if possible
+        if (exam.getTags() != null) {
+            // Look for a difficulty tag (easy, medium, hard)
+            for (String tag : exam.getTags()) {
+                String lowercaseTag = tag.toLowerCase();
+                if (lowercaseTag.equals("easy") || lowercaseTag.equals("medium") || lowercaseTag.equals("hard")) {
+                    dto.setDifficulty(lowercaseTag.toUpperCase());
+                    break;
+                }
+            }
+        }
+
+        // Set some default values for additional fields
+        dto.setAttemptCount(0); // Replace with actual count when available
+        dto.setAverageScore(0.0); // Replace with actual average when available
+        dto.setQuestionCount(questionCount);
+
+        return dto;
+    }
+
+    /**
+     * Set the user-specific purchase fields on an exam response.
+     * Listing purchase state is based on manual payments only.
+     */
+    public ExamResponseDTO applyEntitlements(ExamResponseDTO dto, EntitlementSnapshot entitlements) {
+        // Handle premium exams with logged-in user
+        if (dto.isPremium() && !entitlements.isAnonymous()) {
+            // Universal access (ANY approved request) or an approved request for THIS exam
+            boolean hasApprovedAnyManualRequest = entitlements.hasAnyApprovedManualRequest();
+            boolean hasPurchased = hasApprovedAnyManualRequest || entitlements.hasApprovedManualRequest(dto.getId());
+
+            dto.setPurchased(hasPurchased);
+            dto.setUniversalAccess(hasApprovedAnyManualRequest);
+
+            // If ANY exam is paid or pending, all exams show that status
+            dto.setPaymentStatus(entitlements.getManualPaymentStatus());
+        } else {
+            // Set default payment status for non-premium exams
+            dto.setPaymentStatus("NOT_REQUIRED");
+        }
+
+        return dto;
+    }
+
+    private List<ExamResponseDTO> withEntitlements(List<ExamResponseDTO> rendered, EntitlementSnapshot entitlements) {
+        List<ExamResponseDTO> result = new ArrayList<>(rendered.size());
+        for (ExamResponseDTO base : rendered) {
+            result.add(applyEntitlements(copyOf(base), entitlements));
+        }
+        return result;
+    }
+
+    private Catalog getCatalog() {
+        Catalog current = catalog;
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            long buildVersion;
+            synchronized (this) {
+                if (catalog != null) {
+                    return catalog;
+                }
+                buildVersion = version;
+            }
+            Catalog built = build();
+            synchronized (this) {
+                // Only publish the catalog if no change committed while it was being built
+                if (version == buildVersion) {
+                    catalog = built;
+                }
+            }
+            return built;
+        }
+    }
+
+    private Catalog build() {
+        long start = System.currentTimeMillis();
+
+        List<Exam> exams = examRepository.findByStatusWithTags(Exam.ExamStatus.PUBLISHED);
+
+        // Students are served the latest version, so count its questions rather than the live draft's
+        Map<Long, Integer> questionCounts = examVersionService.getLatestQuestionCounts(
+                exams.stream().map(Exam::getId).collect(Collectors.toList()));
+
+        List<ExamResponseDTO> rendered = new ArrayList<>(exams.size());
+        List<List<String>> tagsByPosition = new ArrayList<>(exams.size());
+        for (Exam exam : exams) {
+            List<String> tags = exam.getTags() != null
+                    ? Collections.unmodifiableList(new ArrayList<>(exam.getTags()))
+                    : Collections.emptyList();
+
+            ExamResponseDTO dto = render(exam, questionCounts.getOrDefault(exam.getId(), 0));
+            // Shared by every response copy, so it must not be mutable
+            dto.setTags(tags);
+            rendered.add(dto);
+            tagsByPosition.add(tags);
+        }
+        TagIndex tagIndex = new TagIndex(tagsByPosition);
+
+        logger.info("Built published exam catalog: {} exams in {} ms",
+                rendered.size(), System.currentTimeMillis() - start);
+
+        return new Catalog(rendered, tagIndex);
+    }
+
+    private static ExamResponseDTO copyOf(ExamResponseDTO base) {
+        ExamResponseDTO dto = new ExamResponseDTO();
+        dto.setId(base.getId());
+        dto.setTitle(base.getTitle());
+        dto.setDescription(base.getDescription());
+        dto.setDuration(base.getDuration());
+        dto.setTotalMarks(base.getTotalMarks());
+        dto.setPassingMarks(base.getPassingMarks());
+        dto.setStatus(base.getStatus());
+        dto.setQuestionCount(base.getQuestionCount());
+        dto.setAttemptCount(base.getAttemptCount());
+        dto.setAverageScore(base.getAverageScore());
+        dto.setTags(base.getTags());
+        dto.setDifficulty(base.getDifficulty());
+        dto.setPremium(base.isPremium());
+        dto.setPrice(base.getPrice());
+        dto.setCustomPrice(base.isCustomPrice());
+        return dto;
+    }
+
+    /**
+     * Immutable catalog contents; replaced as a whole on rebuild.
+     * Positions in the tag index are indexes into the exam list.
+     */
+    private static final class Catalog {
+        private final List<ExamResponseDTO> exams;
+        private final TagIndex tagIndex;
+
+        private Catalog(List<ExamResponseDTO> exams, TagIndex tagIndex) {
+            this.exams = Collections.unmodifiableList(exams);
+            this.tagIndex = tagIndex;
+        }
+
+        private BitSet matching(List<? extends Collection<String>> clauses) {
+            BitSet result = tagIndex.all();
+            for (Collection<String> clause : clauses) {
+                if (clause == null || clause.isEmpty()) {
+                    continue;
+                }
+                result.and(tagIndex.withAnyTag(clause));
+            }
+            return result;
+        }
+
+        private List<ExamResponseDTO> select(BitSet positions) {
+            List<ExamResponseDTO> selected = new ArrayList<>(positions.cardinality());
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                selected.add(exams.get(i));
+            }
+            return selected;
+        }
+    }
+}
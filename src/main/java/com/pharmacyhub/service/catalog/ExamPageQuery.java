@@ -0,0 +1,184 @@
+package com.pharmacyhub.service.catalog;
+
+import com.pharmacyhub.dto.request.ExamPageRequestDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keyset pagination over non-deleted exams with server-side filters.
+ *
+ * A page is read as "the next limit rows after the cursor's sort key" rather than with an offset,
+ * so each page costs one index range scan however deep it is. The sort keys match the composite
+ * indexes of the exam catalog migration: (status, id), (lower(title), id) and (upper(tag), exam_id).
+ * Cursors are opaque to clients and only valid for the sort they were issued for.
+ */
+@Component
+public class ExamPageQuery {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    public ExamPageQuery(
+            JdbcTemplate jdbcTemplate,
+            @Value("${pharmacyhub.exam.page.default-limit:20}") int defaultLimit,
+            @Value("${pharmacyhub.exam.page.max-limit:100}") int maxLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.defaultLimit = Math.min(Math.max(1, defaultLimit), this.maxLimit);
+    }
+
+    /**
+     * Find the ids of the exams on the requested page, in page order
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort
+     */
+    public Page find(ExamPageRequestDTO request) {
+        ExamPageRequestDTO.Sort sort = request.getSort() != null ? request.getSort() : ExamPageRequestDTO.Sort.NEWEST;
+        int limit = request.getLimit() != null ? Math.min(Math.max(1, request.getLimit()), maxLimit) : defaultLimit;
+        Cursor after = isBlank(request.getCursor()) ? null : Cursor.decode(request.getCursor(), sort);
+
+        StringBuilder sql = new StringBuilder("SELECT e.id, lower(e.title) FROM exams e WHERE e.deleted = false");
+        List<Object> args = new ArrayList<>();
+
+        if (request.getStatus() != null) {
+            sql.append(" AND e.status = ?");
+            args.add(request.getStatus().name());
+        }
+        if (request.getPremium() != null) {
+            sql.append(" AND e.premium = ?");
+            args.add(request.getPremium());
+        }
+        if (!isBlank(request.getTag())) {
+            sql.append(" AND EXISTS (SELECT 1 FROM exam_tags t WHERE t.exam_id = e.id AND upper(t.tag) = ?)");
+            args.add(request.getTag().trim().toUpperCase(Locale.ROOT));
+        }
+        if (!isBlank(request.getTitlePrefix())) {
+            sql.append(" AND lower(e.title) LIKE ? ESCAPE '\\'");
+            args.add(escapeLike(request.getTitlePrefix().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+
+        switch (sort) {
+            case OLDEST:
+                if (after != null) {
+                    sql.append(" AND e.id > ?");
+                    args.add(after.id);
+                }
+                sql.append(" ORDER BY e.id");
+                break;
+            case TITLE:
+                if (after != null) {
+                    sql.append(" AND (lower(e.title), e.id) > (?, ?)");
+                    args.add(after.title);
+                    args.add(after.id);
+                }
+                sql.append(" ORDER BY lower(e.title), e.id");
+                break;
+            default:
+                if (after != null) {
+                    sql.append(" AND e.id < ?");
+                    args.add(after.id);
+                }
+                sql.append(" ORDER BY e.id DESC");
+                break;
+        }
+
+        // One extra row tells whether there is a next page
+        sql.append(" LIMIT ?");
+        args.add(limit + 1);
+
+        List<Cursor> rows = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Cursor(rs.getLong(1), rs.getString(2)), args.toArray());
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Cursor row : rows) {
+            ids.add(row.id);
+        }
+        String nextCursor = hasMore ? rows.get(rows.size() - 1).encode(sort) : null;
+        return new Page(ids, hasMore, nextCursor);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Ids of one page of exams and the cursor of the next page, if any
+     */
+    public static final class Page {
+        private final List<Long> ids;
+        private final boolean hasMore;
+        private final String nextCursor;
+
+        private Page(List<Long> ids, boolean hasMore, String nextCursor) {
+            this.ids = Collections.unmodifiableList(ids);
+            this.hasMore = hasMore;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public boolean hasMore() {
+            return hasMore;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    /**
+     * Sort key of the last row of a page: "sort:id" or, for title order, "sort:id:lowercased title"
+     */
+    private static final class Cursor {
+        private final long id;
+        private final String title;
+
+        private Cursor(long id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+
+        private String encode(ExamPageRequestDTO.Sort sort) {
+            String key = sort.name() + ":" + id + (sort == ExamPageRequestDTO.Sort.TITLE ? ":" + title : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String cursor, ExamPageRequestDTO.Sort sort) {
+            String key;
+            try {
+                key = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            String[] parts = key.split(":", 3);
+            boolean titleSort = sort == ExamPageRequestDTO.Sort.TITLE;
+            if (parts.length != (titleSort ? 3 : 2) || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Page cursor does not match sort " + sort);
+            }
+            try {
+                return new Cursor(Long.parseLong(parts[1]), titleSort ? parts[2] : null);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+        }
+    }
+}
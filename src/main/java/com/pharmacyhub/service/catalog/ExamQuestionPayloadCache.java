@@ -0,0 +1,250 @@
+package com.pharmacyhub.service.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacyhub.config.cache.BoundedTtlCache;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.dto.response.ApiResponse;
+import com.pharmacyhub.dto.response.QuestionResponseDTO;
+import com.pharmacyhub.service.QuestionService;
+import com.pharmacyhub.service.versioning.ExamVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded cache of the serialized question list response of published exams.
+ * Each payload holds the gzip-compressed JSON body and a strong ETag derived from the question
+ * content, so the start of a scheduled exam is served from memory without mapping, serializing
+ * or compressing the paper per student. Concurrent misses for the same version share one build.
+ * Published exams are served from their latest ExamVersion and payloads are cached by version id;
+ * versions never change, so entries are not invalidated.
+ */
+@Component
+public class ExamQuestionPayloadCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamQuestionPayloadCache.class);
+
+    private final QuestionService questionService;
+    private final ExamVersionService examVersionService;
+    private final ObjectMapper objectMapper;
+    private final BoundedTtlCache<Long, Payload> payloads;
+    private final ConcurrentMap<Long, CompletableFuture<Payload>> loading = new ConcurrentHashMap<>();
+
+    public ExamQuestionPayloadCache(
+            QuestionService questionService,
+            ExamVersionService examVersionService,
+            ObjectMapper objectMapper,
+            @Value("${pharmacyhub.exam.question-payload-cache.max-size:200}") int maxSize,
+            @Value("${pharmacyhub.exam.question-payload-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.questionService = questionService;
+        this.examVersionService = examVersionService;
+        this.objectMapper = objectMapper;
+        this.payloads = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Get the question list payload of an exam.
+     * Published exams are served from their latest version; drafts and archived exams are
+     * rendered from the live questions on every call, loaded with their options in a single query.
+     */
+    public Payload get(Exam exam) {
+        Long examId = exam.getId();
+        if (exam.getStatus() != Exam.ExamStatus.PUBLISHED) {
+            return build(examId, questionService.getQuestionsWithOptionsByExamId(examId));
+        }
+
+        Long versionId = examVersionService.getLatestVersionId(examId);
+        Payload cached = payloads.get(versionId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Payload> mine = new CompletableFuture<>();
+        CompletableFuture<Payload> inFlight = loading.putIfAbsent(versionId, mine);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            Payload built = build(examId, examVersionService.getVersion(versionId).getQuestions());
+            payloads.put(versionId, built);
+            mine.complete(built);
+            return built;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(versionId, mine);
+        }
+    }
+
+    /**
+     * Render a question for students; option correctness flags are not included
+     */
+    public QuestionResponseDTO render(Question question) {
+        QuestionResponseDTO dto = new QuestionResponseDTO();
+        dto.setId(question.getId());
+        dto.setQuestionNumber(question.getQuestionNumber());
+        dto.setText(question.getQuestionText()); // Map questionText to text for frontend compatibility
+        dto.setExplanation(question.getExplanation());
+        dto.setPoints(question.getMarks());
+        dto.setTopic(question.getTopic());
+        dto.setDifficulty(question.getDifficulty());
+        dto.setCorrectAnswer(question.getCorrectAnswer().replaceAll("\\([A-D]\\)\\s.*", "$1").replaceAll("[^A-D]", ""));
+
+        // Map options without revealing which is correct - handle potential lazy loading issues
+        List<QuestionResponseDTO.OptionDTO> optionDTOs = new ArrayList<>();
+
+        try {
+            if (question.getOptions() != null) {
+                for (var option : question.getOptions()) {
+                    if (!option.isDeleted()) {
+                        QuestionResponseDTO.OptionDTO optionDTO = new QuestionResponseDTO.OptionDTO();
+                        optionDTO.setId(option.getId());
+                        optionDTO.setLabel(option.getLabel()); // This matches frontend's expected 'label' property
+                        optionDTO.setText(option.getText()); // This matches frontend's expected 'text' property
+                        // Don't include isCorrect flag for security
+                        optionDTOs.add(optionDTO);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // If we get a LazyInitializationException, log it and continue with an empty options list
+            logger.warn("Could not load options for question {}: {}", question.getId(), e.getMessage());
+        }
+
+        dto.setOptions(optionDTOs);
+
+        return dto;
+    }
+
+    private Payload build(Long examId, List<Question> questions) {
+        long start = System.currentTimeMillis();
+
+        List<QuestionResponseDTO> questionDTOs = new ArrayList<>(questions.size());
+        for (Question question : questions) {
+            questionDTOs.add(render(question));
+        }
+
+        try {
+            // The ETag covers the questions only, so a rebuild of unchanged content keeps it
+            String etag = etagOf(examId, objectMapper.writeValueAsBytes(questionDTOs));
+            byte[] json = objectMapper.writeValueAsBytes(ApiResponse.success(questionDTOs));
+            byte[] gzipped = gzip(json);
+
+            logger.debug("Built question payload for exam {}: {} questions, {} bytes ({} gzipped) in {} ms",
+                    examId, questionDTOs.size(), json.length, gzipped.length, System.currentTimeMillis() - start);
+
+            return new Payload(gzipped, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize questions of exam " + examId, e);
+        }
+    }
+
+    private static Payload await(CompletableFuture<Payload> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static String etagOf(Long examId, byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(content);
+            return "\"" + examId + "-" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Serialized question list response of an exam; immutable once built
+     */
+    public static final class Payload {
+        private final byte[] gzipped;
+        private final String etag;
+
+        private Payload(byte[] gzipped, String etag) {
+            this.gzipped = gzipped;
+            this.etag = etag;
+        }
+
+        /**
+         * Strong entity tag of the payload, including the surrounding quotes
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Whether an If-None-Match header value matches this payload
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The gzip-compressed JSON body; callers must not modify it
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        /**
+         * The uncompressed JSON body, for clients that do not accept gzip
+         */
+        public byte[] getJson() {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
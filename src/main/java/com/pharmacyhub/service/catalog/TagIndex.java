@@ -0,0 +1,154 @@
+package com.pharmacyhub.service.catalog;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable inverted index from exam tag to the catalog positions carrying it.
+ * Each tag maps to a bitset over positions, so AND/OR filters are bitset
+ * intersections/unions and facet counts are cardinalities of an intersection.
+ * Tags are matched case-insensitively.
+ */
+public final class TagIndex {
+
+    private static final BitSet EMPTY = new BitSet(0);
+
+    private final int size;
+    private final Map<String, BitSet> positionsByTag;
+    private final Map<String, Map<String, BitSet>> valuesByKey;
+
+    /**
+     * @param tagsByPosition tags of each catalog entry, in catalog order
+     */
+    public TagIndex(List<? extends Collection<String>> tagsByPosition) {
+        this.size = tagsByPosition.size();
+        Map<String, BitSet> byTag = new HashMap<>();
+        Map<String, Map<String, BitSet>> byKey = new HashMap<>();
+
+        for (int position = 0; position < tagsByPosition.size(); position++) {
+            Collection<String> tags = tagsByPosition.get(position);
+            if (tags == null) {
+                continue;
+            }
+            for (String tag : tags) {
+                if (tag == null || tag.isEmpty()) {
+                    continue;
+                }
+                byTag.computeIfAbsent(normalize(tag), key -> new BitSet(size)).set(position);
+
+                // Metadata tags are written as "key:value"; index them per key for facets
+                int separator = tag.indexOf(':');
+                if (separator > 0 && separator < tag.length() - 1) {
+                    byKey.computeIfAbsent(normalize(tag.substring(0, separator)), key -> new HashMap<>())
+                            .computeIfAbsent(tag.substring(separator + 1), value -> new BitSet(size))
+                            .set(position);
+                }
+            }
+        }
+
+        this.positionsByTag = byTag;
+        this.valuesByKey = byKey;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Positions of all entries
+     */
+    public BitSet all() {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        return result;
+    }
+
+    /**
+     * Positions carrying the given tag
+     */
+    public BitSet withTag(String tag) {
+        BitSet positions = positionsByTag.get(normalize(tag));
+        return positions != null ? (BitSet) positions.clone() : new BitSet(size);
+    }
+
+    /**
+     * Positions carrying every one of the given tags; all positions when no tags are given
+     */
+    public BitSet withAllTags(Collection<String> tags) {
+        BitSet result = all();
+        for (String tag : tags) {
+            result.and(positionsByTag.getOrDefault(normalize(tag), EMPTY));
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Positions carrying at least one of the given tags
+     */
+    public BitSet withAnyTag(Collection<String> tags) {
+        BitSet result = new BitSet(size);
+        for (String tag : tags) {
+            result.or(positionsByTag.getOrDefault(normalize(tag), EMPTY));
+        }
+        return result;
+    }
+
+    /**
+     * Number of positions in the selection that carry the given tag
+     */
+    public int count(String tag, BitSet selection) {
+        BitSet positions = positionsByTag.get(normalize(tag));
+        if (positions == null) {
+            return 0;
+        }
+        BitSet intersection = (BitSet) positions.clone();
+        intersection.and(selection);
+        return intersection.cardinality();
+    }
+
+    /**
+     * Counts per tag within the selection for a fixed set of tags, e.g. EASY/MEDIUM/HARD.
+     * Tags with no matches are reported with a count of zero.
+     */
+    public Map<String, Integer> facet(Collection<String> tags, BitSet selection) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String tag : tags) {
+            counts.put(tag, count(tag, selection));
+        }
+        return counts;
+    }
+
+    /**
+     * Counts per value within the selection for "key:value" metadata tags with the given key.
+     * Values with no matches are omitted.
+     */
+    public Map<String, Integer> facetByKey(String key, BitSet selection) {
+        Map<String, BitSet> values = valuesByKey.get(normalize(key));
+        if (values == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, BitSet> entry : values.entrySet()) {
+            BitSet intersection = (BitSet) entry.getValue().clone();
+            intersection.and(selection);
+            int count = intersection.cardinality();
+            if (count > 0) {
+                counts.merge(entry.getKey(), count, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    static String normalize(String tag) {
+        return tag == null ? "" : tag.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,85 @@
+package com.pharmacyhub.service.dedup;
+
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.utils.QuestionFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fingerprints questions saved before fingerprints existed, once at startup.
+ * Each batch is written in its own transaction, apart from any upload. Until the pass
+ * finishes such questions are not found as duplicates; the index is dropped afterwards so
+ * its next build includes them.
+ */
+@Component
+public class QuestionFingerprintBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionFingerprintBackfill.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPDATE_FINGERPRINT_SQL =
+            "UPDATE questions SET content_hash = ?, sim_hash = ? WHERE id = ?";
+    private static final int[] UPDATE_FINGERPRINT_TYPES = {Types.BIGINT, Types.BIGINT, Types.BIGINT};
+
+    private final QuestionRepository questionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final QuestionFingerprintIndex questionFingerprintIndex;
+
+    public QuestionFingerprintBackfill(QuestionRepository questionRepository, JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       QuestionFingerprintIndex questionFingerprintIndex) {
+        this.questionRepository = questionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.questionFingerprintIndex = questionFingerprintIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            long start = System.currentTimeMillis();
+            List<Long> missing = questionRepository.findIdsWithoutFingerprint();
+            if (missing.isEmpty()) {
+                return;
+            }
+            for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+                List<Long> chunk = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+                transactionTemplate.executeWithoutResult(status -> fingerprint(chunk));
+            }
+            questionFingerprintIndex.invalidate();
+            logger.info("Fingerprinted {} questions in {} ms", missing.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error backfilling question fingerprints", e);
+        }
+    }
+
+    private void fingerprint(List<Long> ids) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Question question : questionRepository.findByIdsWithOptions(ids)) {
+            // Written with JDBC rather than through the entity, so no other column is updated
+            List<String> optionTexts = new ArrayList<>();
+            for (Option option : question.getOptions()) {
+                if (!option.isDeleted()) {
+                    optionTexts.add(option.getText());
+                }
+            }
+            QuestionFingerprint fingerprint = QuestionFingerprint.of(question.getQuestionText(), optionTexts);
+            args.add(new Object[] {fingerprint.getContentHash(), fingerprint.getSimHash(), question.getId()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_FINGERPRINT_SQL, args, UPDATE_FINGERPRINT_TYPES);
+    }
+}
@@ -0,0 +1,202 @@
+package com.pharmacyhub.service.dedup;
+
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.utils.QuestionFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index of the question bank's content fingerprints (see QuestionFingerprint).
+ *
+ * Exact duplicates are found with one hash lookup, near duplicates with one lookup per
+ * SimHash band followed by a distance check on the few candidates, so a check does not
+ * depend on the size of the bank and never reads question text. The index is built from
+ * the persisted fingerprints on first use. Committed new questions (QuestionsAddedEvent) are
+ * added to it in place; it is dropped and rebuilt only when questions are edited or deleted
+ * (QuestionsChangedEvent). Questions saved before fingerprints existed are left to
+ * QuestionFingerprintBackfill, which drops the index once they are fingerprinted.
+ */
+@Component
+public class QuestionFingerprintIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionFingerprintIndex.class);
+
+    private static final Snapshot EMPTY = new Snapshot(new HashMap<>(), new long[0], new long[0], new HashMap<>());
+
+    private final QuestionRepository questionRepository;
+
+    // Held while building, so concurrent readers wait for one build instead of each starting one
+    private final Object buildLock = new Object();
+    // Guarded by this; the check and the store of a built index must not interleave with invalidate
+    private long version;
+    private volatile Snapshot snapshot;
+
+    public QuestionFingerprintIndex(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+
+    /**
+     * Find an existing question with the same content, or with nearly the same content when
+     * nearDuplicates is set
+     *
+     * @return the id of the existing question, or null if there is none
+     */
+    public Long findDuplicate(long contentHash, long simHash, boolean nearDuplicates) {
+        Snapshot current = getSnapshot();
+        Long exact = current.idByContentHash.get(contentHash);
+        if (exact != null || !nearDuplicates) {
+            return exact;
+        }
+        for (int band = 0; band < QuestionFingerprint.BANDS; band++) {
+            List<Integer> candidates = current.positionsByBand.get(bandKey(band, simHash));
+            if (candidates == null) {
+                continue;
+            }
+            for (int position : candidates) {
+                if (QuestionFingerprint.distance(simHash, current.simHashes[position]) <= QuestionFingerprint.MAX_NEAR_DISTANCE) {
+                    return current.ids[position];
+                }
+            }
+        }
+        return null;
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        snapshot = null;
+    }
+
+    /**
+     * Add committed new questions to the index, if it is built
+     */
+    public synchronized void add(long[] ids, long[] contentHashes, long[] simHashes) {
+        if (ids.length == 0) {
+            return;
+        }
+        // A build that is running may have read the questions before they committed
+        version++;
+        if (snapshot != null) {
+            snapshot = snapshot.with(ids, contentHashes, simHashes);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onQuestionsAdded(QuestionsAddedEvent event) {
+        add(event.getIds(), event.getContentHashes(), event.getSimHashes());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onQuestionsChanged(QuestionsChangedEvent event) {
+        invalidate();
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            long buildVersion;
+            synchronized (this) {
+                if (snapshot != null) {
+                    return snapshot;
+                }
+                buildVersion = version;
+            }
+            Snapshot built = build();
+            synchronized (this) {
+                // Only keep the index if no question change committed while it was built
+                if (version == buildVersion) {
+                    snapshot = built;
+                }
+            }
+            return built;
+        }
+    }
+
+    private Snapshot build() {
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = questionRepository.findFingerprints();
+        long[] ids = new long[rows.size()];
+        long[] contentHashes = new long[rows.size()];
+        long[] simHashes = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            ids[i] = ((Number) row[0]).longValue();
+            contentHashes[i] = ((Number) row[1]).longValue();
+            simHashes[i] = row[2] != null ? ((Number) row[2]).longValue() : 0L;
+        }
+        Snapshot built = EMPTY.with(ids, contentHashes, simHashes);
+
+        logger.info("Built question fingerprint index: {} questions in {} ms",
+                ids.length, System.currentTimeMillis() - start);
+        return built;
+    }
+
+    private static int bandKey(int band, long simHash) {
+        return (band << 16) | QuestionFingerprint.band(simHash, band);
+    }
+
+    /**
+     * Immutable index contents; additions produce a new snapshot
+     */
+    private static final class Snapshot {
+        private final Map<Long, Long> idByContentHash;
+        private final long[] ids;
+        private final long[] simHashes;
+        private final Map<Integer, List<Integer>> positionsByBand;
+
+        private Snapshot(Map<Long, Long> idByContentHash, long[] ids, long[] simHashes,
+                         Map<Integer, List<Integer>> positionsByBand) {
+            this.idByContentHash = idByContentHash;
+            this.ids = ids;
+            this.simHashes = simHashes;
+            this.positionsByBand = positionsByBand;
+        }
+
+        /**
+         * A copy of this snapshot with the given questions appended. Questions must come in id
+         * order after those already in it, so the earliest question is kept per hash.
+         */
+        private Snapshot with(long[] addedIds, long[] addedContentHashes, long[] addedSimHashes) {
+            int size = ids.length;
+            long[] newIds = Arrays.copyOf(ids, size + addedIds.length);
+            long[] newSimHashes = Arrays.copyOf(simHashes, size + addedIds.length);
+            Map<Long, Long> newIdByContentHash = new HashMap<>(idByContentHash);
+            Map<Integer, List<Integer>> newPositionsByBand = new HashMap<>(positionsByBand);
+            // Band lists shared with this snapshot are copied before their first change
+            Set<Integer> copiedKeys = new HashSet<>();
+            for (int i = 0; i < addedIds.length; i++) {
+                int position = size + i;
+                newIds[position] = addedIds[i];
+                newSimHashes[position] = addedSimHashes[i];
+                newIdByContentHash.putIfAbsent(addedContentHashes[i], addedIds[i]);
+                for (int band = 0; band < QuestionFingerprint.BANDS; band++) {
+                    int key = bandKey(band, addedSimHashes[i]);
+                    List<Integer> positions = newPositionsByBand.get(key);
+                    if (positions == null) {
+                        positions = new ArrayList<>();
+                        newPositionsByBand.put(key, positions);
+                        copiedKeys.add(key);
+                    } else if (copiedKeys.add(key)) {
+                        positions = new ArrayList<>(positions);
+                        newPositionsByBand.put(key, positions);
+                    }
+                    positions.add(position);
+                }
+            }
+            return new Snapshot(newIdByContentHash, newIds, newSimHashes, newPositionsByBand);
+        }
+    }
+}
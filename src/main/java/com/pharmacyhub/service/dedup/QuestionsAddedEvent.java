@@ -0,0 +1,49 @@
+package com.pharmacyhub.service.dedup;
+
+import com.pharmacyhub.domain.entity.Question;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Published when new questions are saved. Their fingerprints are copied when the event is
+ * created and added to the fingerprint index once the publishing transaction commits.
+ */
+public class QuestionsAddedEvent {
+
+    private final long[] ids;
+    private final long[] contentHashes;
+    private final long[] simHashes;
+
+    public QuestionsAddedEvent(Collection<Question> questions) {
+        long[] ids = new long[questions.size()];
+        long[] contentHashes = new long[questions.size()];
+        long[] simHashes = new long[questions.size()];
+        int count = 0;
+        for (Question question : questions) {
+            // Questions without a fingerprint are left to the backfill
+            if (question.getId() == null || question.getContentHash() == null) {
+                continue;
+            }
+            ids[count] = question.getId();
+            contentHashes[count] = question.getContentHash();
+            simHashes[count] = question.getSimHash() != null ? question.getSimHash() : 0L;
+            count++;
+        }
+        this.ids = Arrays.copyOf(ids, count);
+        this.contentHashes = Arrays.copyOf(contentHashes, count);
+        this.simHashes = Arrays.copyOf(simHashes, count);
+    }
+
+    public long[] getIds() {
+        return ids;
+    }
+
+    public long[] getContentHashes() {
+        return contentHashes;
+    }
+
+    public long[] getSimHashes() {
+        return simHashes;
+    }
+}
@@ -0,0 +1,18 @@
+package com.pharmacyhub.service.dedup;
+
+/**
+ * Published when existing questions are edited or deleted.
+ * The fingerprint index is rebuilt on its next read once the publishing transaction commits.
+ */
+public class QuestionsChangedEvent {
+
+    private final Long examId;
+
+    public QuestionsChangedEvent(Long examId) {
+        this.examId = examId;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+}
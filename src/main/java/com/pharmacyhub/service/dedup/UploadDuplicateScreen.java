@@ -0,0 +1,61 @@
+package com.pharmacyhub.service.dedup;
+
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.dto.request.JsonExamUploadRequestDTO.DuplicateHandling;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Screens the questions of one upload against the question bank and against earlier
+ * questions of the same upload. Not thread-safe; create one per upload.
+ */
+public class UploadDuplicateScreen {
+
+    private final QuestionFingerprintIndex index;
+    private final DuplicateHandling handling;
+    private final boolean nearDuplicates;
+    private final Set<Long> uploadedContentHashes = new HashSet<>();
+    private int flagged;
+    private int skipped;
+
+    public UploadDuplicateScreen(QuestionFingerprintIndex index, DuplicateHandling handling, boolean nearDuplicates) {
+        this.index = index;
+        this.handling = handling != null ? handling : DuplicateHandling.FLAG;
+        this.nearDuplicates = nearDuplicates;
+    }
+
+    /**
+     * Check a fingerprinted question. Duplicates are flagged with the existing question's id
+     * (when the duplicate is in the bank) or left out, depending on the duplicate handling.
+     *
+     * @return whether the question should be saved
+     */
+    public boolean admit(Question question) {
+        if (handling == DuplicateHandling.ALLOW) {
+            return true;
+        }
+
+        boolean repeatedInUpload = !uploadedContentHashes.add(question.getContentHash());
+        Long existingId = index.findDuplicate(question.getContentHash(), question.getSimHash(), nearDuplicates);
+        if (existingId == null && !repeatedInUpload) {
+            return true;
+        }
+
+        if (handling == DuplicateHandling.SKIP) {
+            skipped++;
+            return false;
+        }
+        flagged++;
+        question.setDuplicateOf(existingId);
+        return true;
+    }
+
+    public int getFlagged() {
+        return flagged;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+}
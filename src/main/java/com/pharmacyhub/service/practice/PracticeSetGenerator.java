@@ -0,0 +1,149 @@
+package com.pharmacyhub.service.practice;
+
+import com.pharmacyhub.service.sampling.QuestionSampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Assembles practice sets around a target difficulty from rolling question statistics.
+ *
+ * Each question's difficulty is estimated from its correct rate, smoothed towards a prior
+ * taken from its difficulty label (or the overall correct rate when it has none), so new
+ * questions start from their label and drift to their observed rate as answers come in.
+ * Questions are drawn by weighted reservoir sampling in one pass over the candidates,
+ * weighted by how close their estimate is to the target, with one reservoir per topic;
+ * the set is then filled round-robin across topics so no single topic dominates.
+ */
+@Component
+public class PracticeSetGenerator {
+
+    private static final double DEFAULT_CORRECT_RATE = 0.6;
+    private static final double SPREAD = 0.15;
+    private static final double MIN_WEIGHT = 0.01;
+
+    private static final Map<String, Double> TARGET_CORRECT_RATES = Map.of(
+            "easy", 0.8,
+            "medium", 0.6,
+            "hard", 0.4);
+
+    private final QuestionSampler questionSampler;
+    private final QuestionStatistics questionStatistics;
+    private final double priorWeight;
+
+    public PracticeSetGenerator(
+            QuestionSampler questionSampler,
+            QuestionStatistics questionStatistics,
+            @Value("${pharmacyhub.practice.prior-weight:5}") double priorWeight) {
+        this.questionSampler = questionSampler;
+        this.questionStatistics = questionStatistics;
+        this.priorWeight = priorWeight;
+    }
+
+    /**
+     * Pick up to count question ids around the target difficulty, balanced across topics
+     *
+     * @param topic restrict the set to one topic; all topics when null
+     * @param difficulty EASY, MEDIUM or HARD; questions are drawn without a difficulty preference when null
+     */
+    public List<Long> generate(int count, String topic, String difficulty) {
+        Double target = null;
+        if (difficulty != null && !difficulty.isBlank()) {
+            target = TARGET_CORRECT_RATES.get(difficulty.trim().toLowerCase(Locale.ROOT));
+            if (target == null) {
+                throw new IllegalArgumentException("Invalid difficulty level: " + difficulty);
+            }
+        }
+
+        List<long[]> strata = new ArrayList<>();
+        if (topic != null && !topic.isBlank()) {
+            strata.add(questionSampler.getPool(topic, null));
+        } else {
+            strata.addAll(questionSampler.getTopicPools().values());
+        }
+
+        double overallRate = questionStatistics.getOverallCorrectRate(DEFAULT_CORRECT_RATE);
+        long[] easy = questionSampler.getPool(null, "easy");
+        long[] medium = questionSampler.getPool(null, "medium");
+        long[] hard = questionSampler.getPool(null, "hard");
+        Random random = ThreadLocalRandom.current();
+
+        // One pass: each topic keeps its count best-keyed candidates (Efraimidis-Spirakis A-Res)
+        List<List<Candidate>> reservoirs = new ArrayList<>(strata.size());
+        for (long[] pool : strata) {
+            PriorityQueue<Candidate> reservoir = new PriorityQueue<>(Comparator.comparingDouble(c -> c.key));
+            for (long questionId : pool) {
+                double weight = 1.0;
+                if (target != null) {
+                    double prior = Arrays.binarySearch(easy, questionId) >= 0 ? TARGET_CORRECT_RATES.get("easy")
+                            : Arrays.binarySearch(hard, questionId) >= 0 ? TARGET_CORRECT_RATES.get("hard")
+                            : Arrays.binarySearch(medium, questionId) >= 0 ? TARGET_CORRECT_RATES.get("medium")
+                            : overallRate;
+                    double estimate = estimateCorrectRate(questionStatistics.get(questionId), prior);
+                    double distance = (estimate - target) / SPREAD;
+                    weight = Math.max(Math.exp(-0.5 * distance * distance), MIN_WEIGHT);
+                }
+                // log(u) / w orders the same as u^(1/w) without underflowing for small weights
+                double key = Math.log(1.0 - random.nextDouble()) / weight;
+                if (reservoir.size() < count) {
+                    reservoir.add(new Candidate(questionId, key));
+                } else if (key > reservoir.peek().key) {
+                    reservoir.poll();
+                    reservoir.add(new Candidate(questionId, key));
+                }
+            }
+            if (!reservoir.isEmpty()) {
+                List<Candidate> ranked = new ArrayList<>(reservoir);
+                ranked.sort(Comparator.comparingDouble((Candidate c) -> c.key).reversed());
+                reservoirs.add(ranked);
+            }
+        }
+
+        // Round-robin across topics in random order until the set is full
+        Collections.shuffle(reservoirs, random);
+        List<Long> selected = new ArrayList<>(count);
+        for (int round = 0; selected.size() < count; round++) {
+            boolean added = false;
+            for (List<Candidate> ranked : reservoirs) {
+                if (round < ranked.size() && selected.size() < count) {
+                    selected.add(ranked.get(round).questionId);
+                    added = true;
+                }
+            }
+            if (!added) {
+                break;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Observed correct rate smoothed towards the prior; the prior when the question has no answers
+     */
+    private double estimateCorrectRate(QuestionStatistics.Snapshot statistics, double prior) {
+        if (statistics == null) {
+            return prior;
+        }
+        return (statistics.getCorrectCount() + prior * priorWeight) / (statistics.getAnswerCount() + priorWeight);
+    }
+
+    private static final class Candidate {
+        private final long questionId;
+        private final double key;
+
+        private Candidate(long questionId, double key) {
+            this.questionId = questionId;
+            this.key = key;
+        }
+    }
+}
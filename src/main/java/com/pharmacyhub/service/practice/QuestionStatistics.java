@@ -0,0 +1,246 @@
+package com.pharmacyhub.service.practice;
+
+import com.pharmacyhub.domain.entity.ExamAttempt;
+import com.pharmacyhub.domain.repository.ExamAttemptRepository;
+import com.pharmacyhub.domain.repository.UserAnswerRepository;
+import com.pharmacyhub.service.scoring.AnswerKey;
+import com.pharmacyhub.service.scoring.AnswerKeyCache;
+import com.pharmacyhub.service.scoring.AttemptScoredEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling per-question answer statistics: answer count, correct rate and mean time spent.
+ *
+ * The totals are loaded once from user_answers at startup (or on first use) and then kept up
+ * to date from every scored attempt (see AttemptScoredEvent), so reads never aggregate in the
+ * database. Only answered questions of submitted attempts are counted.
+ *
+ * Attempts scored while the totals load are buffered and applied afterwards, unless the load
+ * already counted them. The load reads the totals and the recently completed attempts from the
+ * same snapshot, and an attempt among those is not counted again from its event, even if the
+ * event arrives after the load finished.
+ */
+@Component
+public class QuestionStatistics {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionStatistics.class);
+
+    // An attempt counted by the load whose event arrives after it must have ended within this window
+    private static final Duration EVENT_DELAY_WINDOW = Duration.ofMinutes(10);
+
+    private final UserAnswerRepository userAnswerRepository;
+    private final ExamAttemptRepository examAttemptRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final TransactionTemplate snapshotTransactionTemplate;
+
+    private final Map<Long, Totals> totalsByQuestion = new ConcurrentHashMap<>();
+    private final Totals overall = new Totals();
+    // Held while loading, so concurrent readers wait for one load
+    private final Object loadLock = new Object();
+    // Guarded by this: events that arrived during the load, null when no load is running
+    private List<AttemptScoredEvent> pendingEvents;
+    private volatile boolean loaded;
+    private volatile Set<Long> countedByLoad = Set.of();
+
+    public QuestionStatistics(
+            UserAnswerRepository userAnswerRepository,
+            ExamAttemptRepository examAttemptRepository,
+            AnswerKeyCache answerKeyCache,
+            PlatformTransactionManager transactionManager) {
+        this.userAnswerRepository = userAnswerRepository;
+        this.examAttemptRepository = examAttemptRepository;
+        this.answerKeyCache = answerKeyCache;
+        this.snapshotTransactionTemplate = new TransactionTemplate(transactionManager);
+        // Both queries of the load must see the same committed attempts
+        snapshotTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Load the totals at startup, so the first practice request does not pay for the aggregate
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (Exception e) {
+            logger.error("Error loading answer statistics, loading on first use instead", e);
+        }
+    }
+
+    /**
+     * Current statistics of a question; null if it has never been answered
+     */
+    public Snapshot get(long questionId) {
+        ensureLoaded();
+        Totals totals = totalsByQuestion.get(questionId);
+        return totals != null ? totals.snapshot() : null;
+    }
+
+    /**
+     * Correct rate over all counted answers, or the given default when nothing has been answered yet
+     */
+    public double getOverallCorrectRate(double defaultRate) {
+        ensureLoaded();
+        Snapshot snapshot = overall.snapshot();
+        return snapshot.getAnswerCount() > 0 ? snapshot.getCorrectRate() : defaultRate;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttemptScored(AttemptScoredEvent event) {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    if (pendingEvents != null) {
+                        pendingEvents.add(event);
+                    }
+                    // With no load running the attempt has committed before any later load reads
+                    return;
+                }
+            }
+        }
+        if (!countedByLoad.contains(event.getAttemptId())) {
+            apply(event);
+        }
+    }
+
+    private void apply(AttemptScoredEvent event) {
+        AnswerKey answerKey = answerKeyCache.get(event.getExamId(), event.getExamVersionId());
+        for (Object[] answer : event.getAnswers()) {
+            String selectedOptionId = (String) answer[1];
+            if (selectedOptionId == null) {
+                continue;
+            }
+            long questionId = ((Number) answer[0]).longValue();
+            int position = answerKey.indexOf(questionId);
+            if (position < 0) {
+                continue;
+            }
+            int timeSpent = answer[2] != null ? ((Number) answer[2]).intValue() : 0;
+            add(questionId, 1, answerKey.isCorrect(position, selectedOptionId) ? 1 : 0, timeSpent);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            synchronized (this) {
+                pendingEvents = new ArrayList<>();
+            }
+            List<Object[]> rows = new ArrayList<>();
+            List<Long> recentAttemptIds = new ArrayList<>();
+            try {
+                snapshotTransactionTemplate.executeWithoutResult(status -> {
+                    rows.addAll(userAnswerRepository.aggregateAnswerStatistics(ExamAttempt.AttemptStatus.COMPLETED));
+                    recentAttemptIds.addAll(examAttemptRepository.findIdsByStatusEndedSince(
+                            ExamAttempt.AttemptStatus.COMPLETED, LocalDateTime.now().minus(EVENT_DELAY_WINDOW)));
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingEvents = null;
+                }
+                throw e;
+            }
+            for (Object[] row : rows) {
+                add(((Number) row[0]).longValue(), toLong(row[1]), toLong(row[2]), toLong(row[3]));
+            }
+            countedByLoad = Set.copyOf(recentAttemptIds);
+
+            List<AttemptScoredEvent> events;
+            synchronized (this) {
+                events = pendingEvents;
+                pendingEvents = null;
+                loaded = true;
+            }
+            for (AttemptScoredEvent event : events) {
+                if (!countedByLoad.contains(event.getAttemptId())) {
+                    apply(event);
+                }
+            }
+            logger.info("Loaded answer statistics for {} questions in {} ms, then applied {} attempts scored meanwhile",
+                    rows.size(), System.currentTimeMillis() - start, events.size());
+        }
+    }
+
+    private void add(long questionId, long answers, long correct, long timeSpent) {
+        totalsByQuestion.computeIfAbsent(questionId, id -> new Totals()).add(answers, correct, timeSpent);
+        overall.add(answers, correct, timeSpent);
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Mutable running totals of one question
+     */
+    private static final class Totals {
+        private long answerCount;
+        private long correctCount;
+        private long totalTimeSpent;
+
+        private synchronized void add(long answers, long correct, long timeSpent) {
+            answerCount += answers;
+            correctCount += correct;
+            totalTimeSpent += timeSpent;
+        }
+
+        private synchronized Snapshot snapshot() {
+            return new Snapshot(answerCount, correctCount, totalTimeSpent);
+        }
+    }
+
+    /**
+     * Point-in-time statistics of one question
+     */
+    public static final class Snapshot {
+        private final long answerCount;
+        private final long correctCount;
+        private final long totalTimeSpent;
+
+        Snapshot(long answerCount, long correctCount, long totalTimeSpent) {
+            this.answerCount = answerCount;
+            this.correctCount = correctCount;
+            this.totalTimeSpent = totalTimeSpent;
+        }
+
+        public long getAnswerCount() {
+            return answerCount;
+        }
+
+        public long getCorrectCount() {
+            return correctCount;
+        }
+
+        public double getCorrectRate() {
+            return answerCount > 0 ? (double) correctCount / answerCount : 0.0;
+        }
+
+        public double getMeanTimeSpent() {
+            return answerCount > 0 ? (double) totalTimeSpent / answerCount : 0.0;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.pharmacyhub.service.sampling;
+
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws random question ids from in-memory pools.
+ *
+ * Ids of all non-deleted questions are pooled per topic, per difficulty and per
+ * topic+difficulty (case-insensitive). A draw is a partial Fisher-Yates shuffle that only
+ * tracks the swapped positions, so drawing k ids costs O(k) regardless of the pool size.
+ * Pools are rebuilt on the next draw after question changes commit.
+ */
+@Component
+public class QuestionSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionSampler.class);
+
+    private static final long[] EMPTY = new long[0];
+
+    private final QuestionRepository questionRepository;
+
+    // Held while building, so concurrent readers wait for one build instead of each starting one
+    private final Object buildLock = new Object();
+    // Guarded by this; the check and the store of built pools must not interleave with invalidate
+    private long version;
+    private volatile Pools pools;
+
+    public QuestionSampler(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+
+    /**
+     * Draw up to count distinct question ids matching the optional topic and difficulty
+     */
+    public List<Long> sampleIds(int count, String topic, String difficulty) {
+        return sample(getPool(topic, difficulty), count, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Ids of all questions matching the optional topic and difficulty, sorted; the array must not be modified
+     */
+    public long[] getPool(String topic, String difficulty) {
+        Pools current = getPools();
+        boolean hasTopic = topic != null && !topic.isBlank();
+        boolean hasDifficulty = difficulty != null && !difficulty.isBlank();
+        long[] pool;
+        if (hasTopic && hasDifficulty) {
+            pool = current.byTopicAndDifficulty.get(key(topic) + '\u0000' + key(difficulty));
+        } else if (hasTopic) {
+            pool = current.byTopic.get(key(topic));
+        } else if (hasDifficulty) {
+            pool = current.byDifficulty.get(key(difficulty));
+        } else {
+            pool = current.all;
+        }
+        return pool != null ? pool : EMPTY;
+    }
+
+    /**
+     * Disjoint id pools per topic (lower-cased), covering every question; questions without a
+     * topic are under the empty key. Pools are sorted by id and must not be modified.
+     */
+    public Map<String, long[]> getTopicPools() {
+        return Collections.unmodifiableMap(getPools().byTopic);
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        pools = null;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamCatalogChanged(ExamCatalogChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Partial Fisher-Yates shuffle over a virtual copy of the pool: only the positions that
+     * were swapped are stored, so the pool itself is never copied or modified
+     */
+    static List<Long> sample(long[] pool, int count, Random random) {
+        int n = pool.length;
+        int k = Math.min(Math.max(count, 0), n);
+        List<Long> sampled = new ArrayList<>(k);
+        Map<Integer, Integer> swapped = new HashMap<>(k * 2);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int valueAtJ = swapped.getOrDefault(j, j);
+            int valueAtI = swapped.getOrDefault(i, i);
+            swapped.put(j, valueAtI);
+            sampled.add(pool[valueAtJ]);
+        }
+        return sampled;
+    }
+
+    private Pools getPools() {
+        Pools current = pools;
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            long buildVersion;
+            synchronized (this) {
+                if (pools != null) {
+                    return pools;
+                }
+                buildVersion = version;
+            }
+            Pools built = build();
+            synchronized (this) {
+                // Only keep the pools if no question change committed while they were built
+                if (version == buildVersion) {
+                    pools = built;
+                }
+            }
+            return built;
+        }
+    }
+
+    private Pools build() {
+        long start = System.currentTimeMillis();
+        List<Object[]> rows = questionRepository.findSamplingAttributes();
+
+        Map<String, List<Long>> byTopic = new HashMap<>();
+        Map<String, List<Long>> byDifficulty = new HashMap<>();
+        Map<String, List<Long>> byTopicAndDifficulty = new HashMap<>();
+        long[] all = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            Long id = ((Number) row[0]).longValue();
+            String topic = (String) row[1];
+            String difficulty = (String) row[2];
+            all[i] = id;
+            // Questions without a topic are pooled under the empty key, which getPool never looks up
+            byTopic.computeIfAbsent(topic != null ? key(topic) : "", k -> new ArrayList<>()).add(id);
+            if (difficulty != null) {
+                byDifficulty.computeIfAbsent(key(difficulty), k -> new ArrayList<>()).add(id);
+            }
+            if (topic != null && difficulty != null) {
+                byTopicAndDifficulty.computeIfAbsent(key(topic) + '\u0000' + key(difficulty), k -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Pools built = new Pools(all, toArrays(byTopic), toArrays(byDifficulty), toArrays(byTopicAndDifficulty));
+        logger.info("Built question sampling pools: {} questions, {} topics, {} difficulties in {} ms",
+                all.length, byTopic.size(), byDifficulty.size(), System.currentTimeMillis() - start);
+        return built;
+    }
+
+    private static Map<String, long[]> toArrays(Map<String, List<Long>> lists) {
+        Map<String, long[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, ids) -> arrays.put(key, ids.stream().mapToLong(Long::longValue).toArray()));
+        return arrays;
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Immutable id pools; replaced as a whole on rebuild
+     */
+    private static final class Pools {
+        private final long[] all;
+        private final Map<String, long[]> byTopic;
+        private final Map<String, long[]> byDifficulty;
+        private final Map<String, long[]> byTopicAndDifficulty;
+
+        private Pools(long[] all, Map<String, long[]> byTopic, Map<String, long[]> byDifficulty,
+                      Map<String, long[]> byTopicAndDifficulty) {
+            this.all = all;
+            this.byTopic = byTopic;
+            this.byDifficulty = byDifficulty;
+            this.byTopicAndDifficulty = byTopicAndDifficulty;
+        }
+    }
+}
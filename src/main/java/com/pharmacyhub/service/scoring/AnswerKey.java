@@ -0,0 +1,126 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.domain.entity.Question;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, compiled answer key of one exam.
+ *
+ * Questions are held in exam order in parallel arrays; a sorted id index maps a question id
+ * to its position. Correct options are kept as single bytes so answers are checked without
+ * string comparison, with the original strings kept for keys that are not a single ASCII
+ * character and for rendering results.
+ */
+public final class AnswerKey {
+
+    private static final byte NO_OPTION = 0;
+
+    private final long[] questionIds;
+    private final long[] sortedIds;
+    private final int[] positionOfSorted;
+    private final byte[] correctOptions;
+    private final int[] marks;
+    private final String[] correctAnswers;
+    private final String[] questionTexts;
+    private final String[] explanations;
+    private final String[] topics;
+
+    private AnswerKey(int size) {
+        this.questionIds = new long[size];
+        this.sortedIds = new long[size];
+        this.positionOfSorted = new int[size];
+        this.correctOptions = new byte[size];
+        this.marks = new int[size];
+        this.correctAnswers = new String[size];
+        this.questionTexts = new String[size];
+        this.explanations = new String[size];
+        this.topics = new String[size];
+    }
+
+    /**
+     * Compile the key from the exam's questions in display order
+     */
+    public static AnswerKey compile(List<Question> questions) {
+        int n = questions.size();
+        AnswerKey key = new AnswerKey(n);
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Question question = questions.get(i);
+            key.questionIds[i] = question.getId();
+            key.correctAnswers[i] = question.getCorrectAnswer();
+            key.correctOptions[i] = toOptionByte(question.getCorrectAnswer());
+            key.marks[i] = question.getMarks() != null ? question.getMarks() : 0;
+            key.questionTexts[i] = question.getQuestionText();
+            key.explanations[i] = question.getExplanation();
+            key.topics[i] = question.getTopic();
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (a, b) -> Long.compare(key.questionIds[a], key.questionIds[b]));
+        for (int i = 0; i < n; i++) {
+            key.sortedIds[i] = key.questionIds[order[i]];
+            key.positionOfSorted[i] = order[i];
+        }
+        return key;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    /**
+     * Position of a question in exam order, or -1 if it is not part of the exam
+     */
+    public int indexOf(long questionId) {
+        int sortedIndex = Arrays.binarySearch(sortedIds, questionId);
+        return sortedIndex >= 0 ? positionOfSorted[sortedIndex] : -1;
+    }
+
+    /**
+     * Whether the selected option is the correct answer of the question at the given position
+     */
+    public boolean isCorrect(int position, String selectedOptionId) {
+        if (selectedOptionId == null) {
+            return false;
+        }
+        byte correct = correctOptions[position];
+        if (correct != NO_OPTION) {
+            return selectedOptionId.length() == 1 && selectedOptionId.charAt(0) == correct;
+        }
+        return selectedOptionId.equals(correctAnswers[position]);
+    }
+
+    public long getQuestionId(int position) {
+        return questionIds[position];
+    }
+
+    public int getMarks(int position) {
+        return marks[position];
+    }
+
+    public String getCorrectAnswer(int position) {
+        return correctAnswers[position];
+    }
+
+    public String getQuestionText(int position) {
+        return questionTexts[position];
+    }
+
+    public String getExplanation(int position) {
+        return explanations[position];
+    }
+
+    public String getTopic(int position) {
+        return topics[position];
+    }
+
+    private static byte toOptionByte(String answer) {
+        if (answer == null || answer.length() != 1 || answer.charAt(0) == 0 || answer.charAt(0) > 127) {
+            return NO_OPTION;
+        }
+        return (byte) answer.charAt(0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.config.cache.BoundedTtlCache;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import com.pharmacyhub.service.versioning.ExamVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded cache of compiled answer keys and scorers.
+ * Keys of exam versions are cached by version id and never invalidated, as versions do not change.
+ * Keys of the live questions (unversioned attempts) are cached by exam id and dropped when exam
+ * content changes (question create, update or delete, exam update or delete) once the change commits.
+ * A key or scorer compiled from questions read before such a change is returned to its caller but
+ * not cached (see BoundedTtlCache.get with a loader), so an invalidation cannot be undone by a
+ * compile that was already running.
+ */
+@Component
+public class AnswerKeyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnswerKeyCache.class);
+
+    private final QuestionRepository questionRepository;
+    private final MarkingSchemeResolver markingSchemeResolver;
+    private final BoundedTtlCache<Long, AnswerKey> keys;
+    private final BoundedTtlCache<Long, CompiledScorer> scorers;
+    private final BoundedTtlCache<Long, AnswerKey> versionKeys;
+    private final BoundedTtlCache<Long, CompiledScorer> versionScorers;
+    private final ExamVersionService examVersionService;
+
+    public AnswerKeyCache(
+            QuestionRepository questionRepository,
+            MarkingSchemeResolver markingSchemeResolver,
+            ExamVersionService examVersionService,
+            @Value("${pharmacyhub.exam.answer-key-cache.max-size:500}") int maxSize,
+            @Value("${pharmacyhub.exam.answer-key-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.questionRepository = questionRepository;
+        this.markingSchemeResolver = markingSchemeResolver;
+        this.keys = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.scorers = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.versionKeys = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.versionScorers = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+        this.examVersionService = examVersionService;
+    }
+
+    /**
+     * Get the compiled answer key of an exam, compiling it from the exam's questions on a miss
+     */
+    public AnswerKey get(Long examId) {
+        return keys.get(examId, id -> {
+            AnswerKey key = AnswerKey.compile(questionRepository.findByExamId(id));
+            logger.debug("Compiled answer key for exam {} with {} questions", id, key.size());
+            return key;
+        });
+    }
+
+    /**
+     * Get the answer key of an exam version, or of the exam's live questions when no version is given
+     */
+    public AnswerKey get(Long examId, Long versionId) {
+        if (versionId == null) {
+            return get(examId);
+        }
+        return versionKeys.get(versionId, id -> {
+            AnswerKey key = AnswerKey.compile(examVersionService.getVersion(id).getQuestions());
+            logger.debug("Compiled answer key for exam {} version {} with {} questions", examId, id, key.size());
+            return key;
+        });
+    }
+
+    /**
+     * Get the exam's answer key compiled with its marking scheme
+     */
+    public CompiledScorer getScorer(Exam exam) {
+        return scorers.get(exam.getId(), id -> {
+            MarkingScheme scheme = markingSchemeResolver.resolve(exam);
+            logger.debug("Compiling scorer for exam {} with {}", id, scheme);
+            return new CompiledScorer(get(id), scheme, exam.getPassingMarks());
+        });
+    }
+
+    /**
+     * Get the scorer of an exam version, using the marks and tags frozen with it,
+     * or of the exam's live questions when no version is given
+     */
+    public CompiledScorer getScorer(Exam exam, Long versionId) {
+        if (versionId == null) {
+            return getScorer(exam);
+        }
+        return versionScorers.get(versionId, id -> {
+            Exam frozen = examVersionService.getVersion(id).getExam();
+            MarkingScheme scheme = markingSchemeResolver.resolve(frozen);
+            logger.debug("Compiling scorer for exam {} version {} with {}", exam.getId(), id, scheme);
+            return new CompiledScorer(get(exam.getId(), id), scheme, frozen.getPassingMarks());
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamCatalogChanged(ExamCatalogChangedEvent event) {
+        if (event.getExamId() != null) {
+            keys.invalidate(event.getExamId());
+            scorers.invalidate(event.getExamId());
+        } else {
+            keys.invalidateAll();
+            scorers.invalidateAll();
+        }
+    }
+}
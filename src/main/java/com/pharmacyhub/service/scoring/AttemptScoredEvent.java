@@ -0,0 +1,41 @@
+package com.pharmacyhub.service.scoring;
+
+import java.util.List;
+
+/**
+ * Published when a submitted attempt was scored, with the answer values it was scored from
+ */
+public class AttemptScoredEvent {
+
+    private final Long attemptId;
+    private final Long examId;
+    private final Long examVersionId;
+    private final List<Object[]> answers;
+
+    /**
+     * @param examVersionId the exam version the attempt was scored against, or null for the live questions
+     * @param answers the attempt's answers as {questionId, selectedOptionId, timeSpent} rows
+     */
+    public AttemptScoredEvent(Long attemptId, Long examId, Long examVersionId, List<Object[]> answers) {
+        this.attemptId = attemptId;
+        this.examId = examId;
+        this.examVersionId = examVersionId;
+        this.answers = answers;
+    }
+
+    public Long getAttemptId() {
+        return attemptId;
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public Long getExamVersionId() {
+        return examVersionId;
+    }
+
+    public List<Object[]> getAnswers() {
+        return answers;
+    }
+}
@@ -0,0 +1,165 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.dto.ExamResultDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An exam's answer key combined with its marking scheme.
+ *
+ * The scheme is compiled once into per-question value arrays and section indexes, so
+ * scoring is a single pass over primitive arrays without looking at the scheme again.
+ */
+public final class CompiledScorer {
+
+    private final AnswerKey answerKey;
+    private final MarkingScheme markingScheme;
+    private final double[] correctValues;
+    private final double[] incorrectValues;
+    private final int[] sectionOfQuestion;
+    private final double[] sectionPossible;
+    private final double[] sectionCutoffs;
+    private final double totalPossible;
+    private final double passPercentage;
+
+    /**
+     * @param passingMarks the exam's passing percentage, combined with the scheme's pass floor
+     */
+    public CompiledScorer(AnswerKey answerKey, MarkingScheme markingScheme, Integer passingMarks) {
+        int n = answerKey.size();
+        this.answerKey = answerKey;
+        this.markingScheme = markingScheme;
+        this.correctValues = new double[n];
+        this.incorrectValues = new double[n];
+        this.sectionOfQuestion = new int[n];
+
+        // Only sections with a cutoff are tracked
+        Map<String, Integer> sectionIndexes = new HashMap<>();
+        List<Double> cutoffs = new ArrayList<>();
+        for (Map.Entry<String, Double> cutoff : markingScheme.getSectionCutoffs().entrySet()) {
+            sectionIndexes.put(cutoff.getKey().toLowerCase(Locale.ROOT), cutoffs.size());
+            cutoffs.add(cutoff.getValue());
+        }
+        this.sectionPossible = new double[cutoffs.size()];
+        this.sectionCutoffs = new double[cutoffs.size()];
+        for (int s = 0; s < cutoffs.size(); s++) {
+            sectionCutoffs[s] = cutoffs.get(s);
+        }
+
+        double possible = 0;
+        for (int i = 0; i < n; i++) {
+            double value = markingScheme.isWeighted() ? answerKey.getMarks(i) : 1.0;
+            correctValues[i] = value;
+            incorrectValues[i] = markingScheme.getNegativeMarkingRatio() > 0 ? -value * markingScheme.getNegativeMarkingRatio() : 0;
+            possible += value;
+
+            String topic = answerKey.getTopic(i);
+            Integer section = topic != null ? sectionIndexes.get(topic.toLowerCase(Locale.ROOT)) : null;
+            sectionOfQuestion[i] = section != null ? section : -1;
+            if (section != null) {
+                sectionPossible[section] += value;
+            }
+        }
+        this.totalPossible = possible;
+        this.passPercentage = Math.max(markingScheme.getMinimumPassPercentage(), passingMarks != null ? passingMarks : 0);
+    }
+
+    public AnswerKey getAnswerKey() {
+        return answerKey;
+    }
+
+    public MarkingScheme getMarkingScheme() {
+        return markingScheme;
+    }
+
+    /**
+     * Score with the per-question breakdown
+     *
+     * @param answers the attempt's answers as {questionId, selectedOptionId, timeSpent} rows;
+     *                answers to questions outside the key are ignored
+     */
+    public ExamScore score(List<Object[]> answers) {
+        return score(answers, true);
+    }
+
+    /**
+     * Score totals only; the returned score has no per-question results
+     */
+    public ExamScore scoreTotals(List<Object[]> answers) {
+        return score(answers, false);
+    }
+
+    private ExamScore score(List<Object[]> answers, boolean includeQuestionResults) {
+        int n = answerKey.size();
+
+        String[] selected = new String[n];
+        int[] timeSpent = new int[n];
+        boolean[] answered = new boolean[n];
+        for (Object[] answer : answers) {
+            int position = answerKey.indexOf(((Number) answer[0]).longValue());
+            if (position < 0 || answered[position]) {
+                // Not part of the exam, or a duplicate (should not happen); keep the first answer
+                continue;
+            }
+            answered[position] = true;
+            selected[position] = (String) answer[1];
+            timeSpent[position] = answer[2] != null ? ((Number) answer[2]).intValue() : 0;
+        }
+
+        int correctCount = 0;
+        int incorrectCount = 0;
+        int totalTimeSpent = 0;
+        double rawScore = 0;
+        double[] sectionScores = new double[sectionPossible.length];
+        List<ExamResultDTO.QuestionResultDTO> questionResults = new ArrayList<>(includeQuestionResults ? n : 0);
+        for (int i = 0; i < n; i++) {
+            String userAnswerId = selected[i];
+            boolean isCorrect = answerKey.isCorrect(i, userAnswerId);
+            double value = 0;
+            if (isCorrect) {
+                correctCount++;
+                value = correctValues[i];
+            } else if (userAnswerId != null) {
+                // Count as incorrect answer only if option was selected (not empty)
+                incorrectCount++;
+                value = incorrectValues[i];
+            }
+            rawScore += value;
+            if (sectionOfQuestion[i] >= 0) {
+                sectionScores[sectionOfQuestion[i]] += value;
+            }
+            totalTimeSpent += timeSpent[i];
+
+            if (!includeQuestionResults) {
+                continue;
+            }
+            questionResults.add(ExamResultDTO.QuestionResultDTO.builder()
+                    .questionId(answerKey.getQuestionId(i))
+                    .questionText(answerKey.getQuestionText(i))
+                    .userAnswerId(userAnswerId)
+                    .correctAnswerId(answerKey.getCorrectAnswer(i))
+                    .isCorrect(isCorrect)
+                    .explanation(answerKey.getExplanation(i))
+                    // Values under the marking scheme, so earned points add up to the raw score
+                    .points(correctValues[i])
+                    .earnedPoints(value)
+                    .build());
+        }
+
+        double score = percentage(rawScore, totalPossible);
+        boolean passed = score >= passPercentage;
+        for (int s = 0; s < sectionScores.length && passed; s++) {
+            passed = percentage(sectionScores[s], sectionPossible[s]) >= sectionCutoffs[s];
+        }
+
+        return new ExamScore(score, passed, n, correctCount, incorrectCount, totalTimeSpent, questionResults);
+    }
+
+    private static double percentage(double value, double possible) {
+        return possible > 0 ? (value / possible) * 100 : 0.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.service.ExamAttemptService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Builds and stores the detailed result of submissions made in async result mode,
+ * on the bounded examResultExecutor once the submission has committed.
+ * If a task is dropped or fails, the details are built on the first result read instead.
+ */
+@Component
+public class ExamResultMaterializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamResultMaterializer.class);
+
+    private final ExamAttemptService examAttemptService;
+
+    public ExamResultMaterializer(ExamAttemptService examAttemptService) {
+        this.examAttemptService = examAttemptService;
+    }
+
+    @Async("examResultExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExamResultSubmitted(ExamResultSubmittedEvent event) {
+        try {
+            // Reading a result without a snapshot builds the details and stores the snapshot
+            examAttemptService.getExamResult(event.getAttemptId());
+            logger.debug("Materialized result details for attempt {}", event.getAttemptId());
+        } catch (Exception e) {
+            logger.warn("Could not materialize result details for attempt {}: {}", event.getAttemptId(), e.getMessage());
+        }
+    }
+}
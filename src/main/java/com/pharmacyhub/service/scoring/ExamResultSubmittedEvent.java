@@ -0,0 +1,17 @@
+package com.pharmacyhub.service.scoring;
+
+/**
+ * Published when an exam result was saved without its per-question details
+ */
+public class ExamResultSubmittedEvent {
+
+    private final Long attemptId;
+
+    public ExamResultSubmittedEvent(Long attemptId) {
+        this.attemptId = attemptId;
+    }
+
+    public Long getAttemptId() {
+        return attemptId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.dto.ExamResultDTO;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of scoring one exam attempt: totals plus the per-question breakdown
+ */
+public final class ExamScore {
+
+    private final double score;
+    private final boolean passed;
+    private final int totalQuestions;
+    private final int correctAnswers;
+    private final int incorrectAnswers;
+    private final int unanswered;
+    private final int timeSpent;
+    private final List<ExamResultDTO.QuestionResultDTO> questionResults;
+
+    ExamScore(double score, boolean passed, int totalQuestions, int correctAnswers, int incorrectAnswers,
+              int timeSpent, List<ExamResultDTO.QuestionResultDTO> questionResults) {
+        this.score = score;
+        this.passed = passed;
+        this.totalQuestions = totalQuestions;
+        this.correctAnswers = correctAnswers;
+        this.incorrectAnswers = incorrectAnswers;
+        this.unanswered = totalQuestions - correctAnswers - incorrectAnswers;
+        this.timeSpent = timeSpent;
+        this.questionResults = Collections.unmodifiableList(questionResults);
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    public int getCorrectAnswers() {
+        return correctAnswers;
+    }
+
+    public int getIncorrectAnswers() {
+        return incorrectAnswers;
+    }
+
+    public int getUnanswered() {
+        return unanswered;
+    }
+
+    public int getTimeSpent() {
+        return timeSpent;
+    }
+
+    public List<ExamResultDTO.QuestionResultDTO> getQuestionResults() {
+        return questionResults;
+    }
+}
@@ -0,0 +1,37 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.domain.entity.Exam;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Scores exam attempts with the exam's compiled scorer: its answer key combined with the
+ * marking scheme resolved for the exam (see MarkingSchemeResolver).
+ * Without marking tags the standard scheme applies: +1 per correct answer, -0.25 per
+ * incorrect answer, 0 for unanswered questions, pass at max(40, passing marks).
+ */
+@Component
+public class ExamScoringEngine {
+
+    private final AnswerKeyCache answerKeyCache;
+
+    public ExamScoringEngine(AnswerKeyCache answerKeyCache) {
+        this.answerKeyCache = answerKeyCache;
+    }
+
+    /**
+     * @param versionId the exam version the attempt is pinned to, or null to score against the live questions
+     * @param answers the attempt's answers as {questionId, selectedOptionId, timeSpent} rows
+     */
+    public ExamScore score(Exam exam, Long versionId, List<Object[]> answers) {
+        return answerKeyCache.getScorer(exam, versionId).score(answers);
+    }
+
+    /**
+     * Score totals only, without the per-question breakdown
+     */
+    public ExamScore scoreTotals(Exam exam, Long versionId, List<Object[]> answers) {
+        return answerKeyCache.getScorer(exam, versionId).scoreTotals(answers);
+    }
+}
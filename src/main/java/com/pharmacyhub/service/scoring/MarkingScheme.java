@@ -0,0 +1,66 @@
+package com.pharmacyhub.service.scoring;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rules for turning an attempt's answers into a score and a pass/fail decision.
+ *
+ * - weighted: a question is worth its Question.marks instead of 1
+ * - negativeMarkingRatio: share of a question's value deducted for an incorrect answer
+ * - minimumPassPercentage: pass floor applied on top of the exam's passing marks
+ * - sectionCutoffs: minimum percentage per section (question topic); every section must pass
+ */
+public final class MarkingScheme {
+
+    private static final MarkingScheme STANDARD = new MarkingScheme(false, 0.25, 40, Collections.emptyMap());
+
+    private final boolean weighted;
+    private final double negativeMarkingRatio;
+    private final double minimumPassPercentage;
+    private final Map<String, Double> sectionCutoffs;
+
+    public MarkingScheme(boolean weighted, double negativeMarkingRatio, double minimumPassPercentage,
+                         Map<String, Double> sectionCutoffs) {
+        if (negativeMarkingRatio < 0) {
+            throw new IllegalArgumentException("Negative marking ratio must be positive or zero");
+        }
+        this.weighted = weighted;
+        this.negativeMarkingRatio = negativeMarkingRatio;
+        this.minimumPassPercentage = minimumPassPercentage;
+        this.sectionCutoffs = Collections.unmodifiableMap(new LinkedHashMap<>(sectionCutoffs));
+    }
+
+    /**
+     * +1 per correct answer, -0.25 per incorrect answer and a 40% pass floor
+     */
+    public static MarkingScheme standard() {
+        return STANDARD;
+    }
+
+    public boolean isWeighted() {
+        return weighted;
+    }
+
+    public double getNegativeMarkingRatio() {
+        return negativeMarkingRatio;
+    }
+
+    public double getMinimumPassPercentage() {
+        return minimumPassPercentage;
+    }
+
+    /**
+     * Minimum percentage by section name; section names are matched case-insensitively
+     */
+    public Map<String, Double> getSectionCutoffs() {
+        return sectionCutoffs;
+    }
+
+    @Override
+    public String toString() {
+        return "MarkingScheme{weighted=" + weighted + ", negativeMarkingRatio=" + negativeMarkingRatio
+                + ", minimumPassPercentage=" + minimumPassPercentage + ", sectionCutoffs=" + sectionCutoffs + "}";
+    }
+}
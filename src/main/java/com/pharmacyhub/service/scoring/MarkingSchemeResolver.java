@@ -0,0 +1,11 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.domain.entity.Exam;
+
+/**
+ * Chooses the marking scheme of an exam
+ */
+public interface MarkingSchemeResolver {
+
+    MarkingScheme resolve(Exam exam);
+}
@@ -0,0 +1,79 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.domain.entity.Exam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resolves the marking scheme from "key:value" exam tags, starting from the standard scheme:
+ * - marking:weighted - weight questions by their marks
+ * - negativeMarking:0.33 - deduct a third of a question's value for a wrong answer
+ * - passFloor:50 - minimum passing percentage
+ * - sectionCutoff:Pharmacology=50 - minimum percentage for questions with that topic (repeatable)
+ * Malformed tags are ignored.
+ */
+@Component
+public class TagMarkingSchemeResolver implements MarkingSchemeResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagMarkingSchemeResolver.class);
+
+    @Override
+    public MarkingScheme resolve(Exam exam) {
+        if (exam.getTags() == null || exam.getTags().isEmpty()) {
+            return MarkingScheme.standard();
+        }
+
+        MarkingScheme standard = MarkingScheme.standard();
+        boolean customized = false;
+        boolean weighted = standard.isWeighted();
+        double negativeMarkingRatio = standard.getNegativeMarkingRatio();
+        double minimumPassPercentage = standard.getMinimumPassPercentage();
+        Map<String, Double> sectionCutoffs = new LinkedHashMap<>();
+
+        for (String tag : exam.getTags()) {
+            int separator = tag != null ? tag.indexOf(':') : -1;
+            if (separator <= 0) {
+                continue;
+            }
+            String key = tag.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            String value = tag.substring(separator + 1).trim();
+            try {
+                switch (key) {
+                    case "marking":
+                        weighted = value.equalsIgnoreCase("weighted");
+                        customized = true;
+                        break;
+                    case "negativemarking":
+                        negativeMarkingRatio = Math.max(0, Double.parseDouble(value));
+                        customized = true;
+                        break;
+                    case "passfloor":
+                        minimumPassPercentage = Double.parseDouble(value);
+                        customized = true;
+                        break;
+                    case "sectioncutoff":
+                        int equals = value.lastIndexOf('=');
+                        if (equals > 0) {
+                            sectionCutoffs.put(value.substring(0, equals).trim(),
+                                    Double.parseDouble(value.substring(equals + 1).trim()));
+                            customized = true;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed marking tag '{}' on exam {}", tag, exam.getId());
+            }
+        }
+
+        return customized
+                ? new MarkingScheme(weighted, negativeMarkingRatio, minimumPassPercentage, sectionCutoffs)
+                : standard;
+    }
+}
@@ -0,0 +1,15 @@
+package com.pharmacyhub.service.upload;
+
+/**
+ * Source formats accepted by the bulk paper import
+ */
+public enum BulkImportFormat {
+    /**
+     * One JSON paper per line
+     */
+    NDJSON,
+    /**
+     * ZIP archive with one JSON paper per .json entry
+     */
+    ZIP
+}
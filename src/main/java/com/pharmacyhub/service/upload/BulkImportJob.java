@@ -0,0 +1,114 @@
+package com.pharmacyhub.service.upload;
+
+import com.pharmacyhub.dto.response.BulkImportStatusDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk paper import; updated concurrently by the import workers
+ */
+public class BulkImportJob {
+
+    /**
+     * Keep status responses bounded for imports with many failing papers
+     */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_REPORTED_EXAM_IDS = 1000;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final BulkImportFormat format;
+    private final Instant startedAt = Instant.now();
+    private final AtomicInteger papersRead = new AtomicInteger();
+    private final AtomicInteger papersSucceeded = new AtomicInteger();
+    private final AtomicInteger papersFailed = new AtomicInteger();
+    private final AtomicLong questionsImported = new AtomicLong();
+    private final List<Long> createdExamIds = new ArrayList<>();
+    private final List<BulkImportStatusDTO.PaperErrorDTO> errors = new ArrayList<>();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String failureReason;
+
+    public BulkImportJob(String id, BulkImportFormat format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Count a paper read from the source; returns its zero-based index
+     */
+    int paperRead() {
+        return papersRead.getAndIncrement();
+    }
+
+    synchronized void paperSucceeded(Long examId, int questionCount) {
+        papersSucceeded.incrementAndGet();
+        questionsImported.addAndGet(questionCount);
+        if (createdExamIds.size() < MAX_REPORTED_EXAM_IDS) {
+            createdExamIds.add(examId);
+        }
+    }
+
+    synchronized void paperFailed(int index, String source, String message) {
+        papersFailed.incrementAndGet();
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(BulkImportStatusDTO.PaperErrorDTO.builder()
+                    .index(index)
+                    .source(source)
+                    .message(message)
+                    .build());
+        }
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    /**
+     * The source could not be read to the end; papers already imported stay imported
+     */
+    void failed(String reason) {
+        failureReason = reason;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public synchronized BulkImportStatusDTO toStatusDTO() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long elapsedMillis = Math.max(end.toEpochMilli() - startedAt.toEpochMilli(), 1);
+        int processed = papersSucceeded.get() + papersFailed.get();
+
+        return BulkImportStatusDTO.builder()
+                .jobId(id)
+                .status(status.name())
+                .format(format.name())
+                .startedAt(startedAt.toString())
+                .finishedAt(finishedAt != null ? finishedAt.toString() : null)
+                .papersRead(papersRead.get())
+                .papersSucceeded(papersSucceeded.get())
+                .papersFailed(papersFailed.get())
+                .questionsImported(questionsImported.get())
+                .elapsedMillis(elapsedMillis)
+                .papersPerSecond(processed * 1000.0 / elapsedMillis)
+                .questionsPerSecond(questionsImported.get() * 1000.0 / elapsedMillis)
+                .failureReason(failureReason)
+                .createdExamIds(new ArrayList<>(createdExamIds))
+                .errors(new ArrayList<>(errors))
+                .build();
+    }
+}
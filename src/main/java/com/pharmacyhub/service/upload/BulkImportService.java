@@ -0,0 +1,186 @@
+package com.pharmacyhub.service.upload;
+
+import com.pharmacyhub.config.cache.BoundedTtlCache;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.dto.response.BulkImportStatusDTO;
+import com.pharmacyhub.service.JsonExamUploadService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many papers from one NDJSON stream or ZIP archive.
+ *
+ * The upload is spooled to a temporary file so the request can return right away with a job id.
+ * A coordinator then reads the file one paper at a time and hands each paper to the bounded
+ * bulk import pool; when the pool is saturated the coordinator imports the paper itself, which
+ * keeps the number of papers held in memory bounded. Each paper is imported with the streaming
+ * JSON upload in its own transaction, so a failing paper is reported without affecting the others.
+ * Archive entries are read through a bounded stream; an entry larger than the configured maximum
+ * paper size is reported as a failed paper without being read into memory.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final JsonExamUploadService jsonExamUploadService;
+    private final Executor coordinatorExecutor;
+    private final Executor workerExecutor;
+    private final BoundedTtlCache<String, BulkImportJob> jobs;
+    private final int maxPaperBytes;
+
+    public BulkImportService(
+            JsonExamUploadService jsonExamUploadService,
+            @Qualifier("taskExecutor") Executor coordinatorExecutor,
+            @Qualifier("bulkImportExecutor") Executor workerExecutor,
+            @Value("${pharmacyhub.exam.bulk-import.max-jobs:100}") int maxJobs,
+            @Value("${pharmacyhub.exam.bulk-import.job-ttl-hours:24}") long jobTtlHours,
+            @Value("${pharmacyhub.exam.bulk-import.max-paper-bytes:20971520}") int maxPaperBytes) {
+        if (maxPaperBytes <= 0 || maxPaperBytes == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maximum paper size must be between 1 and " + (Integer.MAX_VALUE - 1) + " bytes");
+        }
+        this.jsonExamUploadService = jsonExamUploadService;
+        this.coordinatorExecutor = coordinatorExecutor;
+        this.workerExecutor = workerExecutor;
+        this.jobs = new BoundedTtlCache<>(maxJobs, jobTtlHours * 60 * 60 * 1000);
+        this.maxPaperBytes = maxPaperBytes;
+    }
+
+    /**
+     * Spool the source and start importing it in the background
+     *
+     * @return the initial status of the job
+     */
+    public BulkImportStatusDTO startImport(InputStream source, BulkImportFormat format) throws IOException {
+        Path spooled = Files.createTempFile("paper-import-", format == BulkImportFormat.ZIP ? ".zip" : ".ndjson");
+        try {
+            Files.copy(source, spooled, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+
+        BulkImportJob job = new BulkImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.getId(), job);
+        logger.info("Starting bulk import job {} from {} bytes of {}", job.getId(), Files.size(spooled), format);
+
+        try {
+            coordinatorExecutor.execute(() -> runImport(job, spooled, format));
+        } catch (RuntimeException e) {
+            jobs.invalidate(job.getId());
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return job.toStatusDTO();
+    }
+
+    /**
+     * Get the progress of a bulk import job
+     */
+    public BulkImportStatusDTO getStatus(String jobId) {
+        BulkImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new EntityNotFoundException("Bulk import job not found with id: " + jobId);
+        }
+        return job.toStatusDTO();
+    }
+
+    private void runImport(BulkImportJob job, Path spooled, BulkImportFormat format) {
+        List<CompletableFuture<Void>> papers = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(spooled)) {
+            if (format == BulkImportFormat.ZIP) {
+                readArchive(job, in, papers);
+            } else {
+                readNdjson(job, in, papers);
+            }
+            CompletableFuture.allOf(papers.toArray(new CompletableFuture<?>[0])).join();
+            job.completed();
+        } catch (Exception e) {
+            // Let submitted papers finish so the reported counts are final
+            CompletableFuture.allOf(papers.toArray(new CompletableFuture<?>[0])).exceptionally(ex -> null).join();
+            logger.error("Bulk import job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.failed(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                logger.warn("Could not delete spooled import file {}: {}", spooled, e.getMessage());
+            }
+        }
+
+        BulkImportStatusDTO status = job.toStatusDTO();
+        logger.info("Bulk import job {} finished: {} papers imported, {} failed, {} questions in {} ms",
+                job.getId(), status.getPapersSucceeded(), status.getPapersFailed(),
+                status.getQuestionsImported(), status.getElapsedMillis());
+    }
+
+    private void readNdjson(BulkImportJob job, InputStream in, List<CompletableFuture<Void>> papers) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                submit(job, "line " + lineNumber, line.getBytes(StandardCharsets.UTF_8), papers);
+            }
+        }
+    }
+
+    private void readArchive(BulkImportJob job, InputStream in, List<CompletableFuture<Void>> papers) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(in, StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || !entry.getName().toLowerCase().endsWith(".json")) {
+                    continue;
+                }
+                // Read at most one byte past the limit; the rest of an oversized entry is skipped
+                byte[] paper = zip.readNBytes(maxPaperBytes + 1);
+                if (paper.length > maxPaperBytes) {
+                    int index = job.paperRead();
+                    logger.warn("Bulk import job {}: entry {} exceeds {} bytes", job.getId(), entry.getName(), maxPaperBytes);
+                    job.paperFailed(index, entry.getName(), "Paper exceeds the maximum size of " + maxPaperBytes + " bytes");
+                    continue;
+                }
+                submit(job, entry.getName(), paper, papers);
+            }
+        }
+    }
+
+    private void submit(BulkImportJob job, String source, byte[] paper, List<CompletableFuture<Void>> papers) {
+        int index = job.paperRead();
+        papers.add(CompletableFuture.runAsync(() -> importPaper(job, index, source, paper), workerExecutor));
+    }
+
+    private void importPaper(BulkImportJob job, int index, String source, byte[] paper) {
+        try {
+            Exam exam = jsonExamUploadService.processJsonStreamAndCreateExam(new ByteArrayInputStream(paper));
+            job.paperSucceeded(exam.getId(), exam.getTotalMarks() != null ? exam.getTotalMarks() : 0);
+        } catch (Exception e) {
+            logger.warn("Bulk import job {}: paper {} ({}) failed: {}", job.getId(), index, source, e.getMessage());
+            job.paperFailed(index, source, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.pharmacyhub.service.upload;
+
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts new questions and their options with JDBC batches.
+ *
+ * Question ids are reserved from the questions id sequence up front in one statement,
+ * so questions and options go out as two plain batches without reading back generated keys.
+ * Runs in the caller's transaction when there is one.
+ */
+@Component
+public class QuestionBatchWriter {
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('questions', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_QUESTION_SQL =
+            "INSERT INTO questions (id, exam_id, question_number, question_text, correct_answer, explanation, " +
+            "marks, question_type, topic, difficulty, content_hash, sim_hash, duplicate_of, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)";
+
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO options (question_id, option_text, option_label, is_correct, deleted) " +
+            "VALUES (?, ?, ?, ?, false)";
+
+    private static final int[] QUESTION_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT};
+    private static final int[] OPTION_TYPES = {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QuestionBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert questions of an already saved exam together with their options.
+     * The questions are not attached to the persistence context; their ids are set on return.
+     */
+    public void write(Long examId, List<Question> questions) {
+        if (questions.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, questions.size());
+
+        List<Object[]> questionArgs = new ArrayList<>(questions.size());
+        List<Object[]> optionArgs = new ArrayList<>(questions.size() * 4);
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            Long id = ids.get(i);
+            question.setId(id);
+            questionArgs.add(new Object[] {
+                    id, examId, question.getQuestionNumber(), question.getQuestionText(), question.getCorrectAnswer(),
+                    question.getExplanation(), question.getMarks(),
+                    question.getType() != null ? question.getType().name() : Question.QuestionType.MCQ.name(),
+                    question.getTopic(), question.getDifficulty(),
+                    question.getContentHash(), question.getSimHash(), question.getDuplicateOf()});
+            for (Option option : question.getOptions()) {
+                optionArgs.add(new Object[] {id, option.getText(), option.getLabel(), option.getIsCorrect()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_QUESTION_SQL, questionArgs, QUESTION_TYPES);
+        if (!optionArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OPTION_SQL, optionArgs, OPTION_TYPES);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.pharmacyhub.service.upload;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.pharmacyhub.dto.request.JsonQuestionRecordDTO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds question records of an uploaded JSON paper straight from parser tokens.
+ *
+ * Every accepted field name is resolved once, in a static table, to the record field it fills
+ * and its precedence among alternative names (e.g. "number" over "question_number" over
+ * "questionNumber"). Reading a record is then one table lookup per field, with unknown fields
+ * skipped, instead of probing each alternative name on a generic map.
+ * Fields with a null value are treated as absent.
+ */
+public final class QuestionRecordReader {
+
+    private enum Slot {
+        NUMBER,
+        TEXT,
+        EXPLANATION,
+        ANSWER,
+        OPTIONS
+    }
+
+    private static final class Binding {
+        private final Slot slot;
+        private final int precedence;
+
+        private Binding(Slot slot, int precedence) {
+            this.slot = slot;
+            this.precedence = precedence;
+        }
+    }
+
+    private static final Map<String, Binding> FIELDS = Map.of(
+            "number", new Binding(Slot.NUMBER, 0),
+            "question_number", new Binding(Slot.NUMBER, 1),
+            "questionNumber", new Binding(Slot.NUMBER, 2),
+            "question", new Binding(Slot.TEXT, 0),
+            "text", new Binding(Slot.TEXT, 1),
+            "questionText", new Binding(Slot.TEXT, 2),
+            "explanation", new Binding(Slot.EXPLANATION, 0),
+            "answer", new Binding(Slot.ANSWER, 0),
+            "options", new Binding(Slot.OPTIONS, 0));
+
+    private QuestionRecordReader() {
+    }
+
+    /**
+     * Read one question record. The parser must be on the record's START_OBJECT and is left on its END_OBJECT.
+     */
+    public static JsonQuestionRecordDTO read(JsonParser parser) throws IOException {
+        JsonQuestionRecordDTO record = new JsonQuestionRecordDTO();
+        int[] bound = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Binding binding = FIELDS.get(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (binding == null || token == JsonToken.VALUE_NULL || binding.precedence > bound[binding.slot.ordinal()]) {
+                parser.skipChildren();
+                continue;
+            }
+            bound[binding.slot.ordinal()] = binding.precedence;
+
+            switch (binding.slot) {
+                case NUMBER:
+                    record.setNumber(readInt(parser));
+                    break;
+                case TEXT:
+                    record.setText(readText(parser));
+                    break;
+                case EXPLANATION:
+                    record.setExplanation(readText(parser));
+                    break;
+                case ANSWER:
+                    record.setAnswer(readText(parser));
+                    break;
+                case OPTIONS:
+                    record.setOptions(readOptions(parser));
+                    break;
+            }
+        }
+        return record;
+    }
+
+    private static Integer readInt(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getIntValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return Integer.parseInt(parser.getText());
+        }
+        throw new IllegalArgumentException("Cannot parse integer value: " + readText(parser));
+    }
+
+    /**
+     * Text of a scalar value, or the JSON of a structured one
+     */
+    private static String readText(JsonParser parser) throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            return parser.readValueAsTree().toString();
+        }
+        return parser.getText();
+    }
+
+    private static List<JsonQuestionRecordDTO.OptionRecord> readOptions(JsonParser parser) throws IOException {
+        List<JsonQuestionRecordDTO.OptionRecord> options = new ArrayList<>();
+
+        // Options keyed by label: {"A": "...", "B": "..."}
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String label = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.VALUE_NULL) {
+                    throw new IllegalArgumentException("Invalid option format in JSON data");
+                }
+                options.add(new JsonQuestionRecordDTO.OptionRecord(label, readText(parser)));
+            }
+            return options;
+        }
+
+        // Options labelled by position: ["...", "..."] or [{"text": "..."}, ...]
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_STRING) {
+                    options.add(new JsonQuestionRecordDTO.OptionRecord(null, parser.getText()));
+                } else if (token == JsonToken.START_OBJECT) {
+                    options.add(new JsonQuestionRecordDTO.OptionRecord(null, readOptionText(parser)));
+                } else {
+                    throw new IllegalArgumentException("Invalid option format in JSON data");
+                }
+            }
+            return options;
+        }
+
+        throw new IllegalArgumentException("Invalid options format in JSON data");
+    }
+
+    private static String readOptionText(JsonParser parser) throws IOException {
+        String text = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("text".equals(field) && token != JsonToken.VALUE_NULL) {
+                text = readText(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (text == null) {
+            throw new IllegalArgumentException("Invalid option format in JSON data");
+        }
+        return text;
+    }
+}
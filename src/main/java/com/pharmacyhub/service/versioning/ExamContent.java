@@ -0,0 +1,126 @@
+package com.pharmacyhub.service.versioning;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The part of an exam frozen into an ExamVersion: what students are served and scored against.
+ * Stored as JSON; title, description, price and status are not versioned.
+ */
+@Data
+@NoArgsConstructor
+public class ExamContent {
+
+    private Integer totalMarks;
+    private Integer passingMarks;
+    private List<String> tags = new ArrayList<>();
+    private List<QuestionContent> questions = new ArrayList<>();
+
+    /**
+     * Capture an exam's current content from its non-deleted questions in display order
+     */
+    public static ExamContent of(Exam exam, List<Question> questions) {
+        ExamContent content = new ExamContent();
+        content.setTotalMarks(exam.getTotalMarks());
+        content.setPassingMarks(exam.getPassingMarks());
+        if (exam.getTags() != null) {
+            content.setTags(new ArrayList<>(exam.getTags()));
+        }
+        for (Question question : questions) {
+            QuestionContent questionContent = new QuestionContent();
+            questionContent.setId(question.getId());
+            questionContent.setQuestionNumber(question.getQuestionNumber());
+            questionContent.setText(question.getQuestionText());
+            questionContent.setCorrectAnswer(question.getCorrectAnswer());
+            questionContent.setExplanation(question.getExplanation());
+            questionContent.setMarks(question.getMarks());
+            questionContent.setTopic(question.getTopic());
+            questionContent.setDifficulty(question.getDifficulty());
+            for (Option option : question.getOptions()) {
+                if (option.isDeleted()) {
+                    continue;
+                }
+                OptionContent optionContent = new OptionContent();
+                optionContent.setId(option.getId());
+                optionContent.setLabel(option.getLabel());
+                optionContent.setText(option.getText());
+                optionContent.setCorrect(option.getIsCorrect());
+                questionContent.getOptions().add(optionContent);
+            }
+            content.getQuestions().add(questionContent);
+        }
+        return content;
+    }
+
+    /**
+     * Materialize the questions as detached entities for mapping and answer key compilation.
+     * They are never persisted.
+     */
+    public List<Question> toQuestions() {
+        List<Question> result = new ArrayList<>(questions.size());
+        for (QuestionContent questionContent : questions) {
+            Question question = new Question();
+            question.setId(questionContent.getId());
+            question.setQuestionNumber(questionContent.getQuestionNumber());
+            question.setQuestionText(questionContent.getText());
+            question.setCorrectAnswer(questionContent.getCorrectAnswer());
+            question.setExplanation(questionContent.getExplanation());
+            question.setMarks(questionContent.getMarks());
+            question.setTopic(questionContent.getTopic());
+            question.setDifficulty(questionContent.getDifficulty());
+            for (OptionContent optionContent : questionContent.getOptions()) {
+                Option option = new Option();
+                option.setId(optionContent.getId());
+                option.setLabel(optionContent.getLabel());
+                option.setText(optionContent.getText());
+                option.setIsCorrect(optionContent.isCorrect());
+                option.setQuestion(question);
+                question.getOptions().add(option);
+            }
+            result.add(question);
+        }
+        return result;
+    }
+
+    /**
+     * A detached exam carrying the frozen marks and tags, for marking scheme resolution
+     */
+    public Exam toExam(Long examId) {
+        Exam exam = new Exam();
+        exam.setId(examId);
+        exam.setTotalMarks(totalMarks);
+        exam.setPassingMarks(passingMarks);
+        exam.setTags(new ArrayList<>(tags));
+        exam.setStatus(Exam.ExamStatus.PUBLISHED);
+        return exam;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class QuestionContent {
+        private Long id;
+        private Integer questionNumber;
+        private String text;
+        private String correctAnswer;
+        private String explanation;
+        private Integer marks;
+        private String topic;
+        private String difficulty;
+        private List<OptionContent> options = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class OptionContent {
+        private Long id;
+        private String label;
+        private String text;
+        private boolean correct;
+    }
+}
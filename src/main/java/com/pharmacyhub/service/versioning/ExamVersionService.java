@@ -0,0 +1,214 @@
+package com.pharmacyhub.service.versioning;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacyhub.config.cache.BoundedTtlCache;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.ExamVersion;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.ExamRepository;
+import com.pharmacyhub.domain.repository.ExamVersionRepository;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable, numbered snapshots of exam content (see ExamVersion).
+ * Publishing freezes the live questions as the exam's latest version, which is what students are
+ * served and what new attempts pin to; later question edits only change the live draft until the
+ * exam is published again. Since a version never changes, its content and anything derived from
+ * it (payloads, answer keys) can be cached by version id without invalidation. Only the small
+ * exam-to-latest-version map is dropped when an exam change commits.
+ */
+@Service
+public class ExamVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamVersionService.class);
+
+    private final ExamRepository examRepository;
+    private final ExamVersionRepository examVersionRepository;
+    private final QuestionRepository questionRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTransactionTemplate;
+    private final BoundedTtlCache<Long, FrozenExam> versions;
+
+    private final Map<Long, Long> latestVersionIds = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ExamVersionService(
+            ExamRepository examRepository,
+            ExamVersionRepository examVersionRepository,
+            QuestionRepository questionRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${pharmacyhub.exam.version-cache.max-size:200}") int maxSize,
+            @Value("${pharmacyhub.exam.version-cache.ttl-seconds:86400}") long ttlSeconds) {
+        this.examRepository = examRepository;
+        this.examVersionRepository = examVersionRepository;
+        this.questionRepository = questionRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTransactionTemplate.setReadOnly(true);
+        this.versions = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * Freeze the exam's live questions as its new latest version.
+     * If they are unchanged since the latest version, that version is kept.
+     * The exam row stays locked until the surrounding transaction ends.
+     */
+    @Transactional
+    public ExamVersion publish(Long examId) {
+        Exam exam = examRepository.findByIdForUpdate(examId)
+                .orElseThrow(() -> new EntityNotFoundException("Exam not found with id: " + examId));
+        return freeze(exam, examVersionRepository.findLatestByExamId(examId).orElse(null));
+    }
+
+    /**
+     * Id of the version served to students for an exam.
+     * Exams published before versioning, or put in the published state without going through
+     * publish, are frozen on first use in a separate transaction.
+     */
+    public Long getLatestVersionId(Long examId) {
+        Long cached = latestVersionIds.get(examId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long readGeneration = generation.get();
+        Long versionId = examVersionRepository.findLatestIdByExamId(examId)
+                .orElseGet(() -> transactionTemplate.execute(status -> freezeIfAbsent(examId)));
+        // Only remember the pointer if no exam change committed while it was read
+        if (generation.get() == readGeneration) {
+            latestVersionIds.put(examId, versionId);
+        }
+        return versionId;
+    }
+
+    /**
+     * Load a version's content.
+     * Only a cache miss opens a (read-only) transaction, so callers need not hold one.
+     */
+    public FrozenExam getVersion(Long versionId) {
+        return versions.get(versionId, id -> readTransactionTemplate.execute(status -> {
+            ExamVersion version = examVersionRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Exam version not found with id: " + id));
+            return new FrozenExam(id, version.getVersionNumber(), version.getExam().getId(), readContent(version));
+        }));
+    }
+
+    /**
+     * Question counts of the latest versions of the given published exams, read without loading
+     * their content. Exams without a version are frozen as in getLatestVersionId.
+     */
+    public Map<Long, Integer> getLatestQuestionCounts(Collection<Long> examIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (examIds.isEmpty()) {
+            return counts;
+        }
+        for (Object[] row : examVersionRepository.findLatestQuestionCountsByExamIds(examIds)) {
+            Integer count = (Integer) row[2];
+            // Versions frozen before the count was stored
+            counts.put((Long) row[0], count != null ? count : getVersion((Long) row[1]).getQuestions().size());
+        }
+        for (Long examId : examIds) {
+            if (!counts.containsKey(examId)) {
+                counts.put(examId, getVersion(getLatestVersionId(examId)).getQuestions().size());
+            }
+        }
+        return counts;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExamCatalogChanged(ExamCatalogChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.getExamId() != null) {
+            latestVersionIds.remove(event.getExamId());
+        } else {
+            latestVersionIds.clear();
+        }
+    }
+
+    private Long freezeIfAbsent(Long examId) {
+        Exam exam = examRepository.findByIdForUpdate(examId)
+                .orElseThrow(() -> new EntityNotFoundException("Exam not found with id: " + examId));
+        // Another request may have frozen the exam while this one waited for the lock
+        return examVersionRepository.findLatestIdByExamId(examId)
+                .orElseGet(() -> freeze(exam, null).getId());
+    }
+
+    private ExamVersion freeze(Exam exam, ExamVersion latest) {
+        List<Question> questions = questionRepository.findByExamIdWithOptions(exam.getId());
+        ExamContent examContent = ExamContent.of(exam, questions);
+        String content = writeContent(examContent, exam.getId());
+        String contentHash = sha256(content);
+
+        if (latest != null && latest.getContentHash().equals(contentHash)) {
+            logger.debug("Exam {} is unchanged since version {}", exam.getId(), latest.getVersionNumber());
+            return latest;
+        }
+
+        ExamVersion version = new ExamVersion();
+        version.setExam(exam);
+        version.setVersionNumber(latest != null ? latest.getVersionNumber() + 1 : 1);
+        version.setContentHash(contentHash);
+        version.setContent(content);
+        version.setQuestionCount(examContent.getQuestions().size());
+        version.setCreatedAt(LocalDateTime.now());
+        ExamVersion saved = examVersionRepository.save(version);
+
+        logger.info("Froze exam {} as version {} with {} questions",
+                exam.getId(), saved.getVersionNumber(), questions.size());
+        return saved;
+    }
+
+    private String writeContent(ExamContent content, Long examId) {
+        try {
+            return objectMapper.writeValueAsString(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize content of exam " + examId, e);
+        }
+    }
+
+    private ExamContent readContent(ExamVersion version) {
+        try {
+            return objectMapper.readValue(version.getContent(), ExamContent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read content of exam version " + version.getId(), e);
+        }
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.pharmacyhub.service.versioning;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Question;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A loaded exam version. Immutable, so it can be cached by version id without invalidation;
+ * the detached questions and exam must not be modified.
+ */
+public final class FrozenExam {
+
+    private final Long versionId;
+    private final int versionNumber;
+    private final Exam exam;
+    private final List<Question> questions;
+
+    FrozenExam(Long versionId, int versionNumber, Long examId, ExamContent content) {
+        this.versionId = versionId;
+        this.versionNumber = versionNumber;
+        this.exam = content.toExam(examId);
+        this.questions = Collections.unmodifiableList(content.toQuestions());
+    }
+
+    public Long getVersionId() {
+        return versionId;
+    }
+
+    public int getVersionNumber() {
+        return versionNumber;
+    }
+
+    /**
+     * The exam with its frozen marks and tags only
+     */
+    public Exam getExam() {
+        return exam;
+    }
+
+    /**
+     * The frozen questions with their options, in display order
+     */
+    public List<Question> getQuestions() {
+        return questions;
+    }
+}
@@ -0,0 +1,141 @@
+package com.pharmacyhub.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Content fingerprint of a question: its text plus option texts.
+ *
+ * The content hash identifies exact duplicates after normalization (case, punctuation,
+ * whitespace and option order are ignored). The 64-bit SimHash over the words identifies
+ * near duplicates: questions whose SimHashes differ in at most MAX_NEAR_DISTANCE bits.
+ * With the SimHash split into BANDS bands of 10-11 bits, two such questions always share at
+ * least one band, so candidates can be found by exact band lookups.
+ */
+public final class QuestionFingerprint {
+
+    public static final int BANDS = 6;
+    public static final int MAX_NEAR_DISTANCE = BANDS - 1;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long contentHash;
+    private final long simHash;
+
+    private QuestionFingerprint(long contentHash, long simHash) {
+        this.contentHash = contentHash;
+        this.simHash = simHash;
+    }
+
+    public static QuestionFingerprint of(String questionText, Collection<String> optionTexts) {
+        String text = normalize(questionText);
+        List<String> options = new ArrayList<>(optionTexts.size());
+        for (String optionText : optionTexts) {
+            options.add(normalize(optionText));
+        }
+        Collections.sort(options);
+
+        StringBuilder content = new StringBuilder(text);
+        for (String option : options) {
+            content.append('\u0001').append(option);
+        }
+
+        return new QuestionFingerprint(hash(content), simHash(content.toString()));
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public long getSimHash() {
+        return simHash;
+    }
+
+    /**
+     * Number of differing SimHash bits
+     */
+    public static int distance(long simHash, long otherSimHash) {
+        return Long.bitCount(simHash ^ otherSimHash);
+    }
+
+    /**
+     * Value of the given band of a SimHash
+     */
+    public static int band(long simHash, int band) {
+        int from = band * 64 / BANDS;
+        int to = (band + 1) * 64 / BANDS;
+        return (int) ((simHash >>> from) & ((1L << (to - from)) - 1));
+    }
+
+    /**
+     * Lower-case, with every run of characters other than letters and digits collapsed to one space
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static long simHash(String content) {
+        int[] weights = new int[64];
+        int start = 0;
+        for (int i = 0; i <= content.length(); i++) {
+            if (i < content.length() && content.charAt(i) != ' ' && content.charAt(i) != '\u0001') {
+                continue;
+            }
+            if (i > start) {
+                addFeature(weights, hash(content.subSequence(start, i)));
+            }
+            start = i + 1;
+        }
+
+        long simHash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                simHash |= 1L << bit;
+            }
+        }
+        return simHash;
+    }
+
+    private static void addFeature(int[] weights, long featureHash) {
+        for (int bit = 0; bit < 64; bit++) {
+            weights[bit] += ((featureHash >>> bit) & 1) != 0 ? 1 : -1;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a with a final avalanche mix, so similar inputs spread over all bits
+     */
+    private static long hash(CharSequence value) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb34fe63b9e53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -47,6 +47,9 @@ public class SecurityUtils {
             if (principal instanceof com.pharmacyhub.entity.User) {
                 return ((com.pharmacyhub.entity.User) principal).getId();
             }
+            if (principal instanceof com.pharmacyhub.security.JwtPrincipal) {
+                return ((com.pharmacyhub.security.JwtPrincipal) principal).getUserId();
+            }
         }
         
         return null;
@@ -0,0 +1,15 @@
+-- Revoked access tokens: single tokens by jti, or every token of a user issued before a cutoff
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id BIGSERIAL PRIMARY KEY,
+    jti VARCHAR(64),
+    user_id BIGINT,
+    issued_before TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Nodes poll for new rows by creation time; cleanup deletes by expiry
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_created_at ON revoked_tokens(created_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens(expires_at);
+
+COMMENT ON TABLE revoked_tokens IS 'Revoked JWT access tokens, kept until the revoked tokens have expired';
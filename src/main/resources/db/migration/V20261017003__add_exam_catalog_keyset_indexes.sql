@@ -0,0 +1,37 @@
+-- Composite indexes for keyset pagination of the exam list (see ExamPageQuery)
+-- The exam tables are created by Hibernate, which runs after Flyway, so each index is guarded by the
+-- existence of its table. On a database created from scratch the tables do not exist yet and the
+-- indexes are skipped; Hibernate then creates the two status indexes declared on the Exam entity,
+-- without their WHERE clause.
+DO $$
+BEGIN
+    IF to_regclass('exams') IS NOT NULL THEN
+        -- Replace the non-partial status indexes Hibernate may have created from the entity
+        IF EXISTS (SELECT 1 FROM pg_indexes WHERE schemaname = current_schema()
+                   AND indexname = 'idx_exams_status_id' AND indexdef NOT LIKE '% WHERE %') THEN
+            DROP INDEX idx_exams_status_id;
+        END IF;
+        IF EXISTS (SELECT 1 FROM pg_indexes WHERE schemaname = current_schema()
+                   AND indexname = 'idx_exams_status_premium_id' AND indexdef NOT LIKE '% WHERE %') THEN
+            DROP INDEX idx_exams_status_premium_id;
+        END IF;
+
+        -- Status filter with newest/oldest order
+        CREATE INDEX IF NOT EXISTS idx_exams_status_id ON exams(status, id) WHERE deleted = false;
+        -- Status and premium filters with newest/oldest order
+        CREATE INDEX IF NOT EXISTS idx_exams_status_premium_id ON exams(status, premium, id) WHERE deleted = false;
+        -- Title order, and the keyset condition (lower(title), id) > (?, ?)
+        CREATE INDEX IF NOT EXISTS idx_exams_title_lower_id ON exams(lower(title), id) WHERE deleted = false;
+        -- Case-insensitive title prefix filter (LIKE 'prefix%')
+        CREATE INDEX IF NOT EXISTS idx_exams_title_lower_pattern ON exams(lower(title) text_pattern_ops) WHERE deleted = false;
+    ELSE
+        RAISE NOTICE 'exams table not found, skipping exam catalog indexes';
+    END IF;
+
+    IF to_regclass('exam_tags') IS NOT NULL THEN
+        -- Case-insensitive tag filter
+        CREATE INDEX IF NOT EXISTS idx_exam_tags_tag_upper_exam ON exam_tags(upper(tag), exam_id);
+    ELSE
+        RAISE NOTICE 'exam_tags table not found, skipping exam tag index';
+    END IF;
+END $$;
@@ -0,0 +1,97 @@
+package com.pharmacyhub.config.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void loadsAndCachesOnMiss() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60_000);
+
+        assertEquals("locked", cache.get("user", key -> "locked"));
+        assertEquals("locked", cache.get("user", key -> "unexpected reload"));
+    }
+
+    @Test
+    void doesNotCacheValueLoadedBeforeAnInvalidation() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60_000);
+
+        // The change commits and evicts while the reader is still loading the old rows
+        String loaded = cache.get("user", key -> {
+            cache.invalidate(key);
+            return "locked";
+        });
+
+        assertEquals("locked", loaded);
+        assertNull(cache.get("user"));
+        assertEquals("unlocked", cache.get("user", key -> "unlocked"));
+    }
+
+    @Test
+    void cachesValueLoadedWhileAnotherKeyWasInvalidated() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60_000);
+
+        cache.get("other", key -> {
+            cache.invalidate("user");
+            return "unlocked";
+        });
+
+        assertEquals("unlocked", cache.get("other"));
+    }
+
+    @Test
+    void treatsLoadsOlderThanADroppedStampAsInvalidated() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, 60_000);
+        long generation = cache.generation();
+
+        // The stamp of "user" is pushed out by invalidations of more keys than the cache holds
+        cache.invalidate("user");
+        cache.invalidate("a");
+        cache.invalidate("b");
+
+        assertFalse(cache.putIfNotInvalidatedSince("user", "locked", generation));
+        assertTrue(cache.putIfNotInvalidatedSince("user", "unlocked", cache.generation()));
+    }
+
+    @Test
+    void rejectsPutAfterInvalidateAll() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60_000);
+        long generation = cache.generation();
+
+        cache.invalidateAll();
+
+        assertFalse(cache.putIfNotInvalidatedSince("user", "locked", generation));
+        assertNull(cache.get("user"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntryBeyondMaxSize() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        cache.put("c", "3");
+
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+    }
+
+    @Test
+    void purgeDropsOnlyExpiredEntries() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60_000);
+        cache.putUntil("expired", "1", System.currentTimeMillis() - 1);
+        cache.put("live", "2");
+
+        assertEquals(1, cache.purgeExpired());
+        assertEquals(1, cache.size());
+        assertEquals("2", cache.get("live"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.pharmacyhub.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.service.ExamService;
+import com.pharmacyhub.service.QuestionService;
+import com.pharmacyhub.service.catalog.ExamQuestionPayloadCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Conditional and compressed responses of the exam question list
+ */
+class ExamControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final ExamQuestionPayloadCache payloadCache = new ExamQuestionPayloadCache(
+            (QuestionService) Proxy.newProxyInstance(
+                    QuestionService.class.getClassLoader(),
+                    new Class<?>[] {QuestionService.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("getQuestionsWithOptionsByExamId")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return List.of(question());
+                    }),
+            null, objectMapper, 10, 3600);
+
+    private final ExamController controller = new ExamController(
+            (ExamService) Proxy.newProxyInstance(
+                    ExamService.class.getClassLoader(),
+                    new Class<?>[] {ExamService.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("findById")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return Optional.of(exam());
+                    }),
+            null, null, null, null, null, null, null, payloadCache, null);
+
+    @Test
+    void servesGzipToClientsThatAcceptIt() throws IOException {
+        ResponseEntity<byte[]> response = controller.getExamQuestions(7L, null, null, "deflate, gzip;q=0.8, br", null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), response.getHeaders().getVary());
+        assertEquals(payloadCache.get(exam()).getEtag(), response.getHeaders().getETag());
+        assertEquals(questions(payloadCache.get(exam()).getJson()), questions(gunzip(response.getBody())));
+    }
+
+    @Test
+    void servesIdentityToClientsThatDoNotAcceptGzip() throws IOException {
+        JsonNode questions = questions(payloadCache.get(exam()).getJson());
+        for (String acceptEncoding : new String[] {null, "identity", "gzip;q=0", "br, GZIP ; q=0.0"}) {
+            ResponseEntity<byte[]> response = controller.getExamQuestions(7L, null, null, acceptEncoding, null);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), response.getHeaders().getVary());
+            assertEquals(questions, questions(response.getBody()));
+        }
+    }
+
+    @Test
+    void answersAMatchingConditionalRequestWithNotModified() {
+        String etag = controller.getExamQuestions(7L, null, null, "gzip", null).getHeaders().getETag();
+
+        for (String ifNoneMatch : new String[] {etag, "W/" + etag, "\"7-stale\", " + etag, "*"}) {
+            ResponseEntity<byte[]> response = controller.getExamQuestions(7L, null, ifNoneMatch, "gzip", null);
+
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+            assertEquals(etag, response.getHeaders().getETag());
+            assertNull(response.getBody());
+        }
+
+        ResponseEntity<byte[]> stale = controller.getExamQuestions(7L, null, "\"7-stale\"", "gzip", null);
+        assertEquals(HttpStatus.OK, stale.getStatusCode());
+        assertTrue(stale.getBody().length > 0);
+    }
+
+    // The question list of a response body; the envelope's timestamp differs per build
+    private JsonNode questions(byte[] body) throws IOException {
+        return objectMapper.readTree(body).get("data");
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Exam exam() {
+        Exam exam = new Exam();
+        exam.setId(7L);
+        exam.setTitle("Pharmacology I");
+        exam.setStatus(Exam.ExamStatus.DRAFT);
+        exam.setPremium(false);
+        return exam;
+    }
+
+    private static Question question() {
+        Question question = new Question();
+        question.setId(71L);
+        question.setQuestionNumber(1);
+        question.setQuestionText("Dose of paracetamol?");
+        question.setCorrectAnswer("A");
+        Option option = new Option();
+        option.setId(710L);
+        option.setLabel("A");
+        option.setText("500 mg");
+        option.setIsCorrect(true);
+        option.setQuestion(question);
+        question.getOptions().add(option);
+        return question;
+    }
+}
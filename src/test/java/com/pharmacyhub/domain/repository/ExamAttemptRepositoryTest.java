@@ -0,0 +1,97 @@
+package com.pharmacyhub.domain.repository;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.ExamAttempt;
+import com.pharmacyhub.domain.entity.ExamResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Grouped attempt statistics used by the paper listings
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class ExamAttemptRepositoryTest {
+
+    @Autowired
+    private ExamAttemptRepository examAttemptRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void countsAttemptsAndResultsPerExam() {
+        Exam first = exam("Pharmacology I");
+        Exam second = exam("Pharmacology II");
+        Exam unattempted = exam("Pharmacology III");
+
+        result(attempt(first, ExamAttempt.AttemptStatus.COMPLETED, false), true, false);
+        result(attempt(first, ExamAttempt.AttemptStatus.COMPLETED, false), false, false);
+        result(attempt(first, ExamAttempt.AttemptStatus.COMPLETED, false), true, true);
+        attempt(first, ExamAttempt.AttemptStatus.COMPLETED, true);
+        attempt(first, ExamAttempt.AttemptStatus.IN_PROGRESS, false);
+        result(attempt(second, ExamAttempt.AttemptStatus.COMPLETED, false), true, false);
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : examAttemptRepository.getStatisticsByExamIds(
+                List.of(first.getId(), second.getId(), unattempted.getId()), ExamAttempt.AttemptStatus.COMPLETED)) {
+            rows.put((Long) row[0], row);
+        }
+
+        // Deleted attempts and in-progress attempts are not counted, deleted results are ignored
+        assertEquals(3L, ((Number) rows.get(first.getId())[1]).longValue());
+        assertEquals(2L, ((Number) rows.get(first.getId())[2]).longValue());
+        assertEquals(1L, ((Number) rows.get(first.getId())[3]).longValue());
+        assertEquals(1L, ((Number) rows.get(second.getId())[1]).longValue());
+        assertEquals(1L, ((Number) rows.get(second.getId())[3]).longValue());
+        assertFalse(rows.containsKey(unattempted.getId()));
+    }
+
+    private Exam exam(String title) {
+        Exam exam = new Exam();
+        exam.setTitle(title);
+        exam.setDuration(60);
+        exam.setTotalMarks(100);
+        exam.setPassingMarks(50);
+        exam.setStatus(Exam.ExamStatus.PUBLISHED);
+        return entityManager.persist(exam);
+    }
+
+    private ExamAttempt attempt(Exam exam, ExamAttempt.AttemptStatus status, boolean deleted) {
+        ExamAttempt attempt = new ExamAttempt();
+        attempt.setExam(exam);
+        attempt.setUserId("student@example.com");
+        attempt.setStartTime(LocalDateTime.now());
+        attempt.setStatus(status);
+        attempt.setDeleted(deleted);
+        return entityManager.persist(attempt);
+    }
+
+    private void result(ExamAttempt attempt, boolean passed, boolean deleted) {
+        ExamResult result = new ExamResult();
+        result.setAttempt(attempt);
+        result.setScore(passed ? 80.0 : 20.0);
+        result.setTotalQuestions(10);
+        result.setCorrectAnswers(passed ? 8 : 2);
+        result.setIncorrectAnswers(passed ? 2 : 8);
+        result.setUnanswered(0);
+        result.setTimeSpent(600);
+        result.setIsPassed(passed);
+        result.setCompletedAt(LocalDateTime.now());
+        result.setDeleted(deleted);
+        entityManager.persist(result);
+    }
+}
@@ -0,0 +1,107 @@
+package com.pharmacyhub.payment.entitlement;
+
+import com.pharmacyhub.payment.entity.Payment;
+import com.pharmacyhub.payment.manual.entity.PaymentManualRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query count of resolving entitlements for a full exam listing page
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EntitlementServiceImpl.class)
+class EntitlementServiceImplTest {
+
+    private static final String USER_ID = "student@example.com";
+    private static final int CATALOG_SIZE = 200;
+
+    @Autowired
+    private EntitlementService entitlementService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // A pending manual request for every exam, plus rejected and failed payments that grant nothing
+        for (long examId = 1; examId <= CATALOG_SIZE; examId++) {
+            entityManager.persist(manualRequest(examId, PaymentManualRequest.PaymentStatus.PENDING));
+        }
+        entityManager.persist(manualRequest(1L, PaymentManualRequest.PaymentStatus.REJECTED));
+        entityManager.persist(onlinePayment(2L, Payment.PaymentStatus.FAILED));
+        entityManager.flush();
+        entityManager.clear();
+        // The service bean and its cache outlive a single test
+        entitlementService.evict(USER_ID);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void resolvesEveryExamOfTheCatalogWithOneQueryPerPaymentTable() {
+        EntitlementSnapshot snapshot = entitlementService.getSnapshot(USER_ID);
+
+        for (long examId = 1; examId <= CATALOG_SIZE; examId++) {
+            assertTrue(snapshot.hasPendingManualRequest(examId));
+            assertFalse(snapshot.hasApprovedManualRequest(examId));
+            assertFalse(snapshot.hasPurchasedExam(examId));
+            assertFalse(snapshot.hasAccess(examId));
+        }
+        assertEquals("PENDING", snapshot.getManualPaymentStatus());
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void servesRepeatLookupsFromTheCache() {
+        entitlementService.getSnapshot(USER_ID);
+        statistics.clear();
+
+        EntitlementSnapshot snapshot = entitlementService.getSnapshot(USER_ID);
+
+        assertTrue(snapshot.hasAnyPendingManualRequest());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private static PaymentManualRequest manualRequest(Long examId, PaymentManualRequest.PaymentStatus status) {
+        PaymentManualRequest request = new PaymentManualRequest();
+        request.setUserId(USER_ID);
+        request.setExamId(examId);
+        request.setSenderNumber("03001234567");
+        request.setTransactionId("TX-" + examId + "-" + status);
+        request.setStatus(status);
+        return request;
+    }
+
+    private static Payment onlinePayment(Long examId, Payment.PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setUserId(USER_ID);
+        payment.setAmount(new BigDecimal("2000"));
+        payment.setStatus(status);
+        payment.setMethod(Payment.PaymentMethod.JAZZCASH);
+        payment.setItemType("EXAM");
+        payment.setItemId(examId);
+        return payment;
+    }
+}
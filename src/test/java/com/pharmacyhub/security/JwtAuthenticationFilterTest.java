@@ -0,0 +1,202 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.constants.RoleEnum;
+import com.pharmacyhub.entity.RevokedToken;
+import com.pharmacyhub.entity.User;
+import com.pharmacyhub.repository.RevokedTokenRepository;
+import com.pharmacyhub.security.domain.Permission;
+import com.pharmacyhub.security.domain.Role;
+import com.pharmacyhub.security.infrastructure.PermissionRepository;
+import com.pharmacyhub.security.service.RBACService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtAuthenticationFilterTest
+{
+
+  private static final String SECRET = "pharmacyhub_jwt_secret_key_for_token_generation_and_validation_2025";
+
+  private final List<String> loadedUsers = new ArrayList<>();
+  private final List<Authentication> authentications = new ArrayList<>();
+
+  private JwtHelper jwtHelper;
+  private TokenRevocationList tokenRevocationList;
+  private JwtAuthenticationFilter filter;
+
+  @BeforeEach
+  void createFilter() throws ReflectiveOperationException
+  {
+    SecurityContextHolder.clearContext();
+    PermissionCatalog permissionCatalog = new PermissionCatalog(fake(PermissionRepository.class, Map.of(
+        "findAll", List.of(Permission.builder().id(1L).name("VIEW_EXAM").build()))));
+    RBACService rbacService = new RBACService(null, null, null, null, null, null, null, null, null, null, null)
+    {
+      @Override
+      public Set<Role> getUserRoles(Long userId)
+      {
+        return Set.of(Role.builder().id(10L).name(RoleEnum.STUDENT).build());
+      }
+
+      @Override
+      public Set<Permission> getUserEffectivePermissions(Long userId)
+      {
+        return Set.of(Permission.builder().id(1L).name("VIEW_EXAM").build());
+      }
+    };
+    jwtHelper = new JwtHelper();
+    set(jwtHelper, "secret", SECRET);
+    set(jwtHelper, "tokenValidityInSeconds", 18000L);
+    set(jwtHelper, "rbacService", rbacService);
+    set(jwtHelper, "permissionCatalog", permissionCatalog);
+    jwtHelper.init();
+
+    RevokedTokenRepository revokedTokenRepository = (RevokedTokenRepository) Proxy.newProxyInstance(
+        RevokedTokenRepository.class.getClassLoader(),
+        new Class<?>[] {RevokedTokenRepository.class},
+        (proxy, method, args) -> {
+          if (!method.getName().equals("save"))
+          {
+            throw new UnsupportedOperationException(method.getName());
+          }
+          return (RevokedToken) args[0];
+        });
+    tokenRevocationList = new TokenRevocationList(revokedTokenRepository, null, 18000, 60000);
+
+    UserDetailsService userDetailsService = username -> {
+      loadedUsers.add(username);
+      return user();
+    };
+    filter = new JwtAuthenticationFilter();
+    set(filter, "jwtHelper", jwtHelper);
+    set(filter, "userDetailsService", userDetailsService);
+    set(filter, "verifiedTokenCache", new VerifiedTokenCache(true, 100));
+    set(filter, "tokenRevocationList", tokenRevocationList);
+    set(filter, "statelessPrincipal", true);
+  }
+
+  @Test
+  void authenticatesFromTheTokenClaimsWithoutLoadingTheUser() throws Exception
+  {
+    String token = jwtHelper.generateToken(user());
+
+    doFilter(token);
+    doFilter(token);
+
+    assertEquals(List.of(), loadedUsers);
+    assertEquals(2, authentications.size());
+    JwtPrincipal principal = (JwtPrincipal) authentications.get(0).getPrincipal();
+    assertEquals(42L, principal.getUserId());
+    assertEquals("student@example.com", principal.getUsername());
+    assertEquals(Set.of("ROLE_STUDENT", "VIEW_EXAM"), authentications.get(0).getAuthorities().stream()
+        .map(Object::toString)
+        .collect(Collectors.toSet()));
+  }
+
+  @Test
+  void leavesTheRequestUnauthenticatedOnceTheTokenIsRevoked() throws Exception
+  {
+    String token = jwtHelper.generateToken(user());
+    doFilter(token);
+
+    // The verified token and principal are cached by now; revocation must still apply
+    tokenRevocationList.revoke(jwtHelper.verify(token));
+    doFilter(token);
+
+    assertEquals(1, authentications.size());
+  }
+
+  @Test
+  void loadsTheUserWhenTheTokenHasAnUnknownClaimsVersion() throws Exception
+  {
+    String token = Jwts.builder()
+        .setClaims(Map.of("cv", 99, "userId", 42L))
+        .setSubject("student@example.com")
+        .setIssuedAt(new Date())
+        .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+        .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+        .compact();
+
+    doFilter(token);
+
+    assertEquals(List.of("student@example.com"), loadedUsers);
+    assertTrue(authentications.get(0).getPrincipal() instanceof User);
+  }
+
+  private void doFilter(String token) throws Exception
+  {
+    SecurityContextHolder.clearContext();
+    HttpServletRequest request = fake(HttpServletRequest.class, Map.of(
+        "getRequestURI", "/api/exams/1/questions",
+        "getHeader", "Bearer " + token));
+    FilterChain chain = (servletRequest, servletResponse) -> {
+      Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+      if (authentication != null)
+      {
+        authentications.add(authentication);
+      }
+    };
+    filter.doFilter(request, fake(HttpServletResponse.class, Map.of()), chain);
+    SecurityContextHolder.clearContext();
+  }
+
+  private static User user()
+  {
+    User user = new User();
+    user.setId(42L);
+    user.setEmailAddress("student@example.com");
+    user.setEnabled(true);
+    user.setAccountNonLocked(true);
+    return user;
+  }
+
+  /**
+   * A fake answering the named methods with fixed values and every other method with a default
+   */
+  private static <T> T fake(Class<T> type, Map<String, Object> answers)
+  {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+        (proxy, method, args) -> {
+          if (answers.containsKey(method.getName()))
+          {
+            return answers.get(method.getName());
+          }
+          Class<?> returnType = method.getReturnType();
+          if (returnType == boolean.class)
+          {
+            return false;
+          }
+          if (returnType == int.class)
+          {
+            return 0;
+          }
+          return null;
+        }));
+  }
+
+  private static void set(Object target, String name, Object value) throws ReflectiveOperationException
+  {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+}
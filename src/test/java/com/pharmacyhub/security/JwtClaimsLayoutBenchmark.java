@@ -0,0 +1,167 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.constants.RoleEnum;
+import com.pharmacyhub.entity.User;
+import com.pharmacyhub.entity.enums.UserType;
+import com.pharmacyhub.security.domain.Permission;
+import com.pharmacyhub.security.domain.Role;
+import com.pharmacyhub.security.infrastructure.PermissionRepository;
+import com.pharmacyhub.security.service.RBACService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify-and-read-permissions time of a full-layout token against a compact one for the same
+ * user, who holds 40 of a 120-permission catalog. Both go through JwtHelper.verify and
+ * VerifiedToken.getPermissions, so the compact side includes expanding the bitmap.
+ * The Authorization header size of each layout is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtClaimsLayoutBenchmark
+{
+
+  private static final String[] RESOURCES = {"EXAM", "QUESTION", "RESULT", "USER", "ROLE", "GROUP", "PHARMACY",
+      "INVENTORY", "SALE", "REPORT", "PAYMENT", "PROFILE"};
+  private static final String[] OPERATIONS = {"VIEW", "CREATE", "UPDATE", "DELETE", "EXPORT", "APPROVE", "ASSIGN",
+      "MANAGE", "IMPORT", "PUBLISH"};
+
+  private JwtHelper fullHelper;
+  private JwtHelper compactHelper;
+  private String fullToken;
+  private String compactToken;
+
+  @Setup
+  public void issueTokens() throws ReflectiveOperationException
+  {
+    List<Permission> catalog = new ArrayList<>();
+    for (String resource : RESOURCES)
+    {
+      for (String operation : OPERATIONS)
+      {
+        catalog.add(Permission.builder().id((long) catalog.size() + 1).name(operation + "_" + resource).build());
+      }
+    }
+    Set<Permission> granted = new HashSet<>();
+    for (int i = 0; i < catalog.size(); i += 3)
+    {
+      granted.add(catalog.get(i));
+    }
+    Set<Role> roles = Set.of(
+        Role.builder().id(1L).name(RoleEnum.USER).build(),
+        Role.builder().id(2L).name(RoleEnum.STUDENT).build());
+
+    PermissionRepository permissionRepository = (PermissionRepository) Proxy.newProxyInstance(
+        PermissionRepository.class.getClassLoader(),
+        new Class<?>[] {PermissionRepository.class},
+        (proxy, method, args) -> {
+          if (!method.getName().equals("findAll") || args != null)
+          {
+            throw new UnsupportedOperationException(method.getName());
+          }
+          return catalog;
+        });
+    PermissionCatalog permissionCatalog = new PermissionCatalog(permissionRepository);
+    RBACService rbacService = new RBACService(null, null, null, null, null, null, null, null, null, null, null)
+    {
+      @Override
+      public Set<Role> getUserRoles(Long userId)
+      {
+        return roles;
+      }
+
+      @Override
+      public Set<Permission> getUserEffectivePermissions(Long userId)
+      {
+        return granted;
+      }
+    };
+
+    User user = new User();
+    user.setId(42L);
+    user.setEmailAddress("student@example.com");
+    user.setFirstName("Ayesha");
+    user.setLastName("Khan");
+    user.setContactNumber("+923001234567");
+    user.setUserType(UserType.USER);
+    user.setVerified(true);
+    user.setRegistered(true);
+
+    fullHelper = helper(false, rbacService, permissionCatalog);
+    compactHelper = helper(true, rbacService, permissionCatalog);
+    fullToken = fullHelper.generateToken(user);
+    compactToken = compactHelper.generateToken(user);
+    if (!new HashSet<>(verifyFull()).equals(new HashSet<>(verifyCompact())))
+    {
+      throw new IllegalStateException("Layouts grant different permissions");
+    }
+    System.out.printf("Authorization header bytes: full %d, compact %d%n",
+        headerBytes(fullToken), headerBytes(compactToken));
+  }
+
+  @Benchmark
+  public List<String> verifyFull()
+  {
+    return fullHelper.verify(fullToken).getPermissions();
+  }
+
+  @Benchmark
+  public List<String> verifyCompact()
+  {
+    return compactHelper.verify(compactToken).getPermissions();
+  }
+
+  private static JwtHelper helper(boolean compactClaims, RBACService rbacService, PermissionCatalog permissionCatalog)
+      throws ReflectiveOperationException
+  {
+    JwtHelper helper = new JwtHelper();
+    set(helper, "secret", "pharmacyhub_jwt_secret_key_for_token_generation_and_validation_2025");
+    set(helper, "tokenValidityInSeconds", 18000L);
+    set(helper, "compactClaims", compactClaims);
+    set(helper, "rbacService", rbacService);
+    set(helper, "permissionCatalog", permissionCatalog);
+    helper.init();
+    return helper;
+  }
+
+  private static void set(JwtHelper helper, String name, Object value) throws ReflectiveOperationException
+  {
+    Field field = JwtHelper.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(helper, value);
+  }
+
+  private static int headerBytes(String token)
+  {
+    return ("Bearer " + token).getBytes(StandardCharsets.US_ASCII).length;
+  }
+
+  public static void main(String[] args) throws RunnerException
+  {
+    new Runner(new OptionsBuilder().include(JwtClaimsLayoutBenchmark.class.getSimpleName()).build()).run();
+  }
+}
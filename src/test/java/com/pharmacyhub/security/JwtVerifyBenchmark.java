@@ -0,0 +1,115 @@
+package com.pharmacyhub.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verifications per second with the key and parser built per call, as JwtHelper did before,
+ * against the key and parser JwtHelper now builds once. previousFilterPath is what one request
+ * cost before: the filter read the username, then validateToken read it again and the expiry,
+ * each a full parse with a new parser; a request now verifies once (cachedParser).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtVerifyBenchmark
+{
+
+  private static final String SECRET = "pharmacyhub_jwt_secret_key_for_token_generation_and_validation_2025";
+
+  private JwtHelper jwtHelper;
+  private String token;
+
+  @Setup
+  public void issueToken() throws ReflectiveOperationException
+  {
+    jwtHelper = new JwtHelper();
+    Field secret = JwtHelper.class.getDeclaredField("secret");
+    secret.setAccessible(true);
+    secret.set(jwtHelper, SECRET);
+    jwtHelper.init();
+
+    // A full-layout token of a user with a typical role and permission set
+    List<String> permissions = new ArrayList<>();
+    for (int i = 0; i < 30; i++)
+    {
+      permissions.add("PERMISSION_" + i);
+    }
+    Map<String, Object> claims = new HashMap<>();
+    claims.put("cv", JwtHelper.CLAIMS_VERSION);
+    claims.put("userId", 42L);
+    claims.put("userType", "STUDENT");
+    claims.put("emailAddress", "student@example.com");
+    claims.put("roles", List.of("USER", "STUDENT"));
+    claims.put("permissions", permissions);
+    token = Jwts.builder()
+        .setClaims(claims)
+        .setSubject("student@example.com")
+        .setId(UUID.randomUUID().toString())
+        .setIssuedAt(new Date())
+        .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+        .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS512)
+        .compact();
+  }
+
+  @Benchmark
+  public String perCallParser()
+  {
+    return parseWithNewParser(token).getSubject();
+  }
+
+  @Benchmark
+  public String cachedParser()
+  {
+    return jwtHelper.verify(token).getSubject();
+  }
+
+  @Benchmark
+  public boolean previousFilterPath()
+  {
+    String username = parseWithNewParser(token).getSubject();
+    return username.equals(parseWithNewParser(token).getSubject())
+        && !parseWithNewParser(token).getExpiration().before(new Date());
+  }
+
+  private static Claims parseWithNewParser(String token)
+  {
+    return Jwts.parserBuilder()
+        .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+        .build()
+        .parseClaimsJws(token)
+        .getBody();
+  }
+
+  public static void main(String[] args) throws RunnerException
+  {
+    new Runner(new OptionsBuilder().include(JwtVerifyBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,97 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.security.domain.Permission;
+import com.pharmacyhub.security.infrastructure.PermissionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermissionCatalogTest
+{
+
+  private final List<Permission> permissions = new ArrayList<>();
+  private final PermissionCatalog catalog = new PermissionCatalog((PermissionRepository) Proxy.newProxyInstance(
+      PermissionRepository.class.getClassLoader(),
+      new Class<?>[] {PermissionRepository.class},
+      (proxy, method, args) -> {
+        if (!method.getName().equals("findAll") || args != null)
+        {
+          throw new UnsupportedOperationException(method.getName());
+        }
+        return new ArrayList<>(permissions);
+      }));
+
+  @Test
+  void decodesWhatItEncodes()
+  {
+    addPermissions(70);
+    PermissionCatalog.Snapshot snapshot = catalog.current();
+
+    List<String> names = List.of("PERMISSION_0", "PERMISSION_9", "PERMISSION_64", "PERMISSION_69");
+    assertEquals(names, snapshot.decode(snapshot.encode(names)));
+    assertEquals(List.of(), snapshot.decode(snapshot.encode(List.of())));
+  }
+
+  @Test
+  void numbersPermissionsInIdOrder()
+  {
+    permissions.add(Permission.builder().id(2L).name("VIEW_EXAM").build());
+    permissions.add(Permission.builder().id(1L).name("MANAGE_EXAM").build());
+    PermissionCatalog.Snapshot snapshot = catalog.current();
+
+    // Bit 0 is the permission with the lowest id
+    assertEquals("AQ", snapshot.encode(List.of("MANAGE_EXAM")));
+    assertEquals("Ag", snapshot.encode(List.of("VIEW_EXAM")));
+  }
+
+  @Test
+  void encodeReturnsNullForAnUnknownPermission()
+  {
+    addPermissions(3);
+
+    assertNull(catalog.current().encode(List.of("PERMISSION_1", "PERMISSION_UNKNOWN")));
+  }
+
+  @Test
+  void versionFollowsThePermissionList()
+  {
+    addPermissions(3);
+    PermissionCatalog.Snapshot first = catalog.current();
+    assertEquals(11, first.getVersion().length());
+    assertEquals(first.getVersion(), catalog.reloadNow().getVersion());
+
+    permissions.add(Permission.builder().id(100L).name("PERMISSION_NEW").build());
+    PermissionCatalog.Snapshot second = catalog.reloadNow();
+    assertNotEquals(first.getVersion(), second.getVersion());
+    assertSame(second, catalog.current());
+  }
+
+  @Test
+  void decodeIgnoresBitsBeyondTheCatalog()
+  {
+    addPermissions(2);
+    PermissionCatalog.Snapshot snapshot = catalog.current();
+
+    // Bits 0 and 9, of which only bit 0 is a permission here
+    assertEquals(List.of("PERMISSION_0"), snapshot.decode("AQI"));
+    assertTrue(snapshot.decode("AA").isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> snapshot.decode("not base64!"));
+  }
+
+  private void addPermissions(int count)
+  {
+    for (int i = 0; i < count; i++)
+    {
+      permissions.add(Permission.builder().id((long) i + 1).name("PERMISSION_" + i).build());
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.entity.RevokedToken;
+import com.pharmacyhub.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationListTest
+{
+
+  private static final long HOUR = 3_600_000;
+
+  // The revoked_tokens table shared by every node
+  private final List<RevokedToken> rows = new CopyOnWriteArrayList<>();
+
+  private TokenRevocationList revocationList;
+
+  @BeforeEach
+  void createList()
+  {
+    revocationList = newNode();
+    revocationList.init();
+  }
+
+  @Test
+  void revokesOnlyTokensIssuedBeforeTheCutoffSecond()
+  {
+    long second = System.currentTimeMillis() / 1000 * 1000;
+    VerifiedToken earlier = token(7L, second - 1000);
+    VerifiedToken sameSecond = token(7L, second);
+    VerifiedToken otherUser = token(8L, second - 1000);
+
+    // As forceLogout does with the caller's own issue time, here 700 ms into the second
+    revocationList.revokeIssuedBefore(7L, new Date(second + 700));
+
+    assertTrue(revocationList.isRevoked(earlier));
+    assertFalse(revocationList.isRevoked(sameSecond));
+    assertFalse(revocationList.isRevoked(otherUser));
+  }
+
+  @Test
+  void revokesEarlierTokensOfADisabledUser()
+  {
+    VerifiedToken earlier = token(7L, System.currentTimeMillis() - 60_000);
+
+    revocationList.onUserAccessRemoved(new UserAccessRemovedEvent(7L));
+
+    assertTrue(revocationList.isRevoked(earlier));
+    assertEquals(1, rows.size());
+  }
+
+  @Test
+  void revokesASingleTokenById()
+  {
+    long now = System.currentTimeMillis();
+    VerifiedToken revoked = token(7L, now);
+    VerifiedToken other = token(7L, now);
+
+    revocationList.revoke(revoked);
+
+    assertTrue(revocationList.isRevoked(revoked));
+    assertFalse(revocationList.isRevoked(other));
+  }
+
+  @Test
+  void refreshPicksUpRevocationsOfAnotherNode()
+  {
+    TokenRevocationList otherNode = newNode();
+    otherNode.init();
+    VerifiedToken revoked = token(7L, System.currentTimeMillis() - 60_000);
+    VerifiedToken signedOut = token(8L, System.currentTimeMillis());
+
+    otherNode.revokeIssuedBefore(7L, new Date());
+    otherNode.revoke(signedOut);
+    // Committed late: created before this node's last refresh, but inside the overlap window
+    rows.add(RevokedToken.builder()
+        .userId(9L)
+        .issuedBefore(LocalDateTime.now())
+        .expiresAt(LocalDateTime.now().plusHours(1))
+        .createdAt(LocalDateTime.now().minusSeconds(30))
+        .build());
+    assertFalse(revocationList.isRevoked(revoked));
+
+    revocationList.refresh();
+
+    assertTrue(revocationList.isRevoked(revoked));
+    assertTrue(revocationList.isRevoked(signedOut));
+    assertTrue(revocationList.isRevoked(token(9L, System.currentTimeMillis() - 60_000)));
+  }
+
+  @Test
+  void loadsRevocationsStillInForceOnStartup()
+  {
+    revocationList.revokeIssuedBefore(7L, new Date());
+
+    TokenRevocationList restarted = newNode();
+    restarted.init();
+
+    assertTrue(restarted.isRevoked(token(7L, System.currentTimeMillis() - 60_000)));
+  }
+
+  @Test
+  void cleanupDeletesOnlyExpiredRevocations()
+  {
+    rows.add(RevokedToken.builder()
+        .jti("expired")
+        .expiresAt(LocalDateTime.now().minusMinutes(1))
+        .createdAt(LocalDateTime.now().minusHours(6))
+        .build());
+    revocationList.revokeIssuedBefore(7L, new Date());
+
+    revocationList.cleanupExpired();
+
+    assertEquals(List.of(7L), rows.stream().map(RevokedToken::getUserId).collect(Collectors.toList()));
+  }
+
+  private TokenRevocationList newNode()
+  {
+    RevokedTokenRepository repository = (RevokedTokenRepository) Proxy.newProxyInstance(
+        RevokedTokenRepository.class.getClassLoader(),
+        new Class<?>[] {RevokedTokenRepository.class},
+        (proxy, method, args) -> {
+          switch (method.getName())
+          {
+            case "save":
+              rows.add((RevokedToken) args[0]);
+              return args[0];
+            case "findByExpiresAtAfter":
+              return select(row -> row.getExpiresAt().isAfter((LocalDateTime) args[0]));
+            case "findCreatedSince":
+              return select(row -> !row.getCreatedAt().isBefore((LocalDateTime) args[0]));
+            case "deleteByExpiresAtBefore":
+              List<RevokedToken> expired = select(row -> row.getExpiresAt().isBefore((LocalDateTime) args[0]));
+              rows.removeAll(expired);
+              return expired.size();
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    PlatformTransactionManager transactionManager = new PlatformTransactionManager()
+    {
+      @Override
+      public TransactionStatus getTransaction(TransactionDefinition definition)
+      {
+        return new SimpleTransactionStatus();
+      }
+
+      @Override
+      public void commit(TransactionStatus status)
+      {
+      }
+
+      @Override
+      public void rollback(TransactionStatus status)
+      {
+      }
+    };
+    return new TokenRevocationList(repository, transactionManager, HOUR / 1000, 60_000);
+  }
+
+  private List<RevokedToken> select(Predicate<RevokedToken> filter)
+  {
+    return rows.stream().filter(filter).collect(Collectors.toCollection(ArrayList::new));
+  }
+
+  private static VerifiedToken token(Long userId, long issuedAtMillis)
+  {
+    Claims claims = Jwts.claims();
+    claims.setId(UUID.randomUUID().toString());
+    claims.setSubject("user" + userId + "@example.com");
+    // JWT times have second precision
+    claims.setIssuedAt(new Date(issuedAtMillis));
+    claims.setExpiration(new Date(issuedAtMillis + HOUR));
+    claims.put("cv", JwtHelper.CLAIMS_VERSION);
+    claims.put("userId", userId);
+    return new VerifiedToken(claims, null);
+  }
+}
@@ -0,0 +1,79 @@
+package com.pharmacyhub.security;
+
+import com.pharmacyhub.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserAccessListenerTest
+{
+
+  private final List<Object> events = new ArrayList<>();
+  private final UserAccessListener listener = new UserAccessListener(events::add);
+
+  @Test
+  void announcesAnUpdateThatDisablesTheAccount() throws ReflectiveOperationException
+  {
+    User user = loadedUser();
+
+    user.setEnabled(false);
+    update(user);
+    // A later update of the already disabled account is not announced again
+    update(user);
+
+    assertEquals(1, events.size());
+    assertEquals(7L, ((UserAccessRemovedEvent) events.get(0)).getUserId());
+  }
+
+  @Test
+  void announcesAnUpdateThatLocksTheAccount() throws ReflectiveOperationException
+  {
+    User user = loadedUser();
+
+    user.setAccountNonLocked(false);
+    update(user);
+
+    assertEquals(1, events.size());
+  }
+
+  @Test
+  void ignoresUpdatesThatKeepAccess() throws ReflectiveOperationException
+  {
+    User user = loadedUser();
+
+    user.setFirstName("Ayesha");
+    update(user);
+
+    assertEquals(List.of(), events);
+  }
+
+  private static User loadedUser() throws ReflectiveOperationException
+  {
+    User user = new User();
+    user.setId(7L);
+    user.setEnabled(true);
+    user.setAccountNonLocked(true);
+    rememberAccess(user);
+    return user;
+  }
+
+  /**
+   * Run the update callbacks in the order Hibernate does: entity listeners, then the entity's own
+   */
+  private void update(User user) throws ReflectiveOperationException
+  {
+    listener.afterUpdate(user);
+    rememberAccess(user);
+  }
+
+  private static void rememberAccess(User user) throws ReflectiveOperationException
+  {
+    Method rememberAccess = User.class.getDeclaredMethod("rememberAccess");
+    rememberAccess.setAccessible(true);
+    rememberAccess.invoke(user);
+  }
+}
@@ -0,0 +1,134 @@
+package com.pharmacyhub.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedTokenCacheTest
+{
+
+  private static final long HOUR = 3_600_000;
+
+  @Test
+  void keepsATokenUntilItExpires() throws InterruptedException
+  {
+    VerifiedTokenCache cache = new VerifiedTokenCache(true, 10_000);
+    // JWT times have second precision
+    long expiresAt = (System.currentTimeMillis() / 1000 + 2) * 1000;
+    VerifiedToken shortLived = token(7L, expiresAt);
+    VerifiedToken longLived = token(8L, System.currentTimeMillis() + HOUR);
+    cache.put("header.short.signature", shortLived, null);
+    cache.put("header.long.signature", longLived, null);
+
+    assertSame(shortLived, cache.get("header.short.signature").getToken());
+
+    Thread.sleep(expiresAt - System.currentTimeMillis() + 50);
+
+    assertNull(cache.get("header.short.signature"));
+    assertSame(longLived, cache.get("header.long.signature").getToken());
+  }
+
+  @Test
+  void doesNotCacheATokenWithoutExpiry()
+  {
+    VerifiedTokenCache cache = new VerifiedTokenCache(true, 10_000);
+
+    VerifiedTokenCache.Entry entry = cache.put("header.payload.signature", token(7L, null), null);
+
+    assertNotNull(entry.getToken());
+    assertNull(cache.get("header.payload.signature"));
+  }
+
+  @Test
+  void returnsEachTokenItsOwnEntryAcrossSegments()
+  {
+    VerifiedTokenCache cache = new VerifiedTokenCache(true, 10_000);
+    List<String> tokens = new ArrayList<>();
+    List<VerifiedToken> verified = new ArrayList<>();
+    for (long userId = 0; userId < 500; userId++)
+    {
+      // Tokens differing in one character of the signature
+      tokens.add("header.payload.signature" + userId);
+      verified.add(token(userId, System.currentTimeMillis() + HOUR));
+      cache.put(tokens.get((int) userId), verified.get((int) userId), principal(userId));
+    }
+
+    for (int i = 0; i < tokens.size(); i++)
+    {
+      // Looked up with an equal string, as each request carries its own copy of the token
+      VerifiedTokenCache.Entry entry = cache.get(new String(tokens.get(i).toCharArray()));
+      assertSame(verified.get(i), entry.getToken());
+      assertEquals("user" + i + "@example.com", entry.getPrincipal().getUsername());
+    }
+    assertNull(cache.get("header.payload.signature"));
+  }
+
+  @Test
+  void boundsEachSegmentWithoutServingAnotherTokensEntry()
+  {
+    // 16 segments of 2 entries
+    VerifiedTokenCache cache = new VerifiedTokenCache(true, 32);
+    List<VerifiedToken> verified = new ArrayList<>();
+    for (long userId = 0; userId < 500; userId++)
+    {
+      verified.add(token(userId, System.currentTimeMillis() + HOUR));
+      cache.put("header.payload.signature" + userId, verified.get((int) userId), null);
+    }
+
+    int cached = 0;
+    for (int i = 0; i < verified.size(); i++)
+    {
+      VerifiedTokenCache.Entry entry = cache.get("header.payload.signature" + i);
+      if (entry != null)
+      {
+        assertSame(verified.get(i), entry.getToken());
+        cached++;
+      }
+    }
+    assertTrue(cached > 0 && cached <= 32, cached + " tokens cached");
+
+    cache.invalidateAll();
+    assertNull(cache.get("header.payload.signature499"));
+  }
+
+  @Test
+  void verifiesEveryRequestWhenDisabled()
+  {
+    VerifiedTokenCache cache = new VerifiedTokenCache(false, 10_000);
+    VerifiedToken verified = token(7L, System.currentTimeMillis() + HOUR);
+
+    VerifiedTokenCache.Entry entry = cache.put("header.payload.signature", verified, principal(7L));
+
+    assertSame(verified, entry.getToken());
+    assertEquals("user7@example.com", entry.getPrincipal().getUsername());
+    assertNull(cache.get("header.payload.signature"));
+  }
+
+  private static JwtPrincipal principal(Long userId)
+  {
+    return new JwtPrincipal(userId, "user" + userId + "@example.com", "STUDENT", List.of());
+  }
+
+  private static VerifiedToken token(Long userId, Long expiresAtMillis)
+  {
+    Claims claims = Jwts.claims();
+    claims.setSubject("user" + userId + "@example.com");
+    if (expiresAtMillis != null)
+    {
+      claims.setExpiration(new Date(expiresAtMillis));
+    }
+    claims.put("cv", JwtHelper.CLAIMS_VERSION);
+    claims.put("userId", userId);
+    return new VerifiedToken(claims, null);
+  }
+}
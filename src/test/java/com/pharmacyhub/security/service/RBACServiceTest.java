@@ -0,0 +1,137 @@
+package com.pharmacyhub.security.service;
+
+import com.pharmacyhub.constants.RoleEnum;
+import com.pharmacyhub.entity.User;
+import com.pharmacyhub.repository.UserRepository;
+import com.pharmacyhub.security.TokenRevocationList;
+import com.pharmacyhub.security.domain.Group;
+import com.pharmacyhub.security.domain.Permission;
+import com.pharmacyhub.security.domain.Role;
+import com.pharmacyhub.security.dto.RoleDTO;
+import com.pharmacyhub.security.infrastructure.GroupRepository;
+import com.pharmacyhub.security.infrastructure.PermissionRepository;
+import com.pharmacyhub.security.infrastructure.RolesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RBACServiceTest {
+
+    private final Map<Long, User> users = new HashMap<>();
+    private final Map<Long, Role> roles = new HashMap<>();
+    private final Map<Long, Group> groups = new HashMap<>();
+    private final List<Long> revokedUserIds = new ArrayList<>();
+
+    private RBACService rbacService;
+
+    @BeforeEach
+    void createService() {
+        Role student = Role.builder().id(10L).name(RoleEnum.STUDENT).build();
+        roles.put(10L, student);
+        groups.put(20L, Group.builder().id(20L).name("Batch 2026").build());
+        users.put(1L, user(1L));
+        users.put(2L, user(2L));
+        users.get(1L).getRoles().add(student);
+
+        UserRepository userRepository = fake(UserRepository.class, (method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(users.get((Long) args[0]));
+            case "save" -> args[0];
+            case "findIdsByRoleId" -> users.values().stream()
+                    .filter(user -> user.getRoles().stream().anyMatch(role -> role.getId().equals(args[0])))
+                    .map(User::getId)
+                    .toList();
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        RolesRepository rolesRepository = fake(RolesRepository.class, (method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(roles.get((Long) args[0]));
+            case "save" -> args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        GroupRepository groupRepository = fake(GroupRepository.class, (method, args) -> switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(groups.get((Long) args[0]));
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        PermissionRepository permissionRepository = fake(PermissionRepository.class, (method, args) -> {
+            if (!method.getName().equals("findById")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return Optional.of(Permission.builder().id((Long) args[0]).name("VIEW_EXAM").build());
+        });
+        AuditService auditService = new AuditService(null, null) {
+            @Override
+            public void logSecurityEvent(String action, String details, String outcome) {
+            }
+        };
+        TokenRevocationList tokenRevocationList = new TokenRevocationList(null, null, 18000, 60000) {
+            @Override
+            public void revokeIssuedBefore(Long userId, Date issuedBefore) {
+                revokedUserIds.add(userId);
+            }
+        };
+
+        rbacService = new RBACService(userRepository, rolesRepository, permissionRepository, groupRepository,
+                null, null, null, auditService, null, null, tokenRevocationList);
+    }
+
+    @Test
+    void revokesTokensWhenARoleIsAssignedOrRemoved() {
+        rbacService.assignRoleToUser(2L, 10L);
+        rbacService.assignRoleToUser(2L, 10L);
+        rbacService.removeRoleFromUser(1L, 10L);
+        rbacService.removeRoleFromUser(1L, 10L);
+
+        // Repeating a change that has already been made revokes nothing
+        assertEquals(List.of(2L, 1L), revokedUserIds);
+    }
+
+    @Test
+    void revokesTokensWhenAGroupIsAssignedOrRemoved() {
+        rbacService.assignGroupToUser(2L, 20L);
+        rbacService.assignGroupToUser(2L, 20L);
+        rbacService.removeGroupFromUser(2L, 20L);
+
+        assertEquals(List.of(2L, 2L), revokedUserIds);
+    }
+
+    @Test
+    void revokesTokensWhenAPermissionOverrideIsAddedOrRemoved() {
+        rbacService.addPermissionOverride(2L, "EXPORT_RESULTS", false);
+        rbacService.addPermissionOverride(2L, "EXPORT_RESULTS", false);
+        rbacService.removePermissionOverride(2L, "-EXPORT_RESULTS");
+        rbacService.removePermissionOverride(2L, "-EXPORT_RESULTS");
+
+        assertEquals(List.of(2L, 2L), revokedUserIds);
+    }
+
+    @Test
+    void revokesTokensOfRoleHoldersWhenTheRolePermissionsChange() {
+        rbacService.updateRole(10L, RoleDTO.builder().description("Students").permissionIds(null).build());
+        assertEquals(List.of(), revokedUserIds);
+
+        rbacService.updateRole(10L, RoleDTO.builder().permissionIds(List.of(5L)).build());
+        assertEquals(List.of(1L), revokedUserIds);
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmailAddress("user" + id + "@example.com");
+        return user;
+    }
+
+    private static <T> T fake(Class<T> type, BiFunction<Method, Object[], Object> handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> handler.apply(method, args)));
+    }
+}
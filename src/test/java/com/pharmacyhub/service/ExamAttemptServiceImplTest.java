@@ -0,0 +1,158 @@
+package com.pharmacyhub.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.ExamAttempt;
+import com.pharmacyhub.domain.entity.ExamResult;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.ExamAttemptRepository;
+import com.pharmacyhub.domain.repository.ExamResultRepository;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.domain.repository.UserAnswerRepository;
+import com.pharmacyhub.dto.ExamResultDTO;
+import com.pharmacyhub.service.scoring.AnswerKeyCache;
+import com.pharmacyhub.service.scoring.ExamScoringEngine;
+import com.pharmacyhub.service.scoring.MarkingScheme;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reading results through their stored snapshot
+ */
+class ExamAttemptServiceImplTest {
+
+    private static final Long ATTEMPT_ID = 1L;
+
+    private final ExamResult result = result();
+    private final AtomicInteger answerLoads = new AtomicInteger();
+    private final AtomicInteger saves = new AtomicInteger();
+
+    private final ExamAttemptServiceImpl examAttemptService = new ExamAttemptServiceImpl(
+            repository(ExamAttemptRepository.class, "findByIdAndNotDeleted", args -> Optional.of(result.getAttempt())),
+            null,
+            repository(UserAnswerRepository.class, "findAnswerValuesByAttemptId", args -> {
+                answerLoads.incrementAndGet();
+                List<Object[]> answers = new ArrayList<>();
+                answers.add(new Object[] {71L, "A", 30});
+                answers.add(new Object[] {72L, "C", 45});
+                return answers;
+            }),
+            (ExamResultRepository) Proxy.newProxyInstance(
+                    ExamResultRepository.class.getClassLoader(),
+                    new Class<?>[] {ExamResultRepository.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "findResultSnapshotByAttemptId":
+                                return Optional.ofNullable(result.getResultSnapshot());
+                            case "findByAttemptId":
+                                return Optional.of(result);
+                            case "save":
+                                saves.incrementAndGet();
+                                return args[0];
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }),
+            null,
+            null,
+            null,
+            null,
+            new ExamScoringEngine(new AnswerKeyCache(
+                    repository(QuestionRepository.class, "findByExamId",
+                            args -> List.of(question(71L, "Dose of paracetamol?", "A"),
+                                    question(72L, "Class of amoxicillin?", "B"),
+                                    question(73L, "Antidote of heparin?", "D"))),
+                    exam -> MarkingScheme.standard(),
+                    null,
+                    10,
+                    3600)),
+            null,
+            null,
+            new ObjectMapper(),
+            null,
+            false);
+
+    @Test
+    void storesTheRebuiltResultAndReadsItBackUnchanged() {
+        ExamResultDTO rebuilt = examAttemptService.getExamResult(ATTEMPT_ID);
+
+        assertNotNull(result.getResultSnapshot());
+        assertEquals(1, saves.get());
+        assertEquals(3, rebuilt.getQuestionResults().size());
+        assertEquals("Dose of paracetamol?", rebuilt.getQuestionResults().get(0).getQuestionText());
+        assertEquals(Boolean.TRUE, rebuilt.getQuestionResults().get(0).getIsCorrect());
+        assertEquals(Boolean.FALSE, rebuilt.getQuestionResults().get(1).getIsCorrect());
+
+        ExamResultDTO read = examAttemptService.getExamResult(ATTEMPT_ID);
+
+        assertEquals(rebuilt, read);
+        assertEquals(1, answerLoads.get());
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    void rebuildsAndReplacesAnUnreadableSnapshot() {
+        result.setResultSnapshot("{\"examId\": 7, \"questionResults\": [");
+
+        ExamResultDTO rebuilt = examAttemptService.getExamResult(ATTEMPT_ID);
+
+        assertEquals(1, answerLoads.get());
+        assertEquals(1, saves.get());
+        assertEquals(7L, rebuilt.getExamId());
+        assertEquals(80.0, rebuilt.getScore());
+        assertTrue(rebuilt.getIsPassed());
+        assertEquals(rebuilt, examAttemptService.getExamResult(ATTEMPT_ID));
+        assertEquals(1, answerLoads.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, String methodName, Function<Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals(methodName)) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return answer.apply(args);
+                });
+    }
+
+    private static ExamResult result() {
+        Exam exam = new Exam();
+        exam.setId(7L);
+        exam.setTitle("Pharmacology I");
+        exam.setTotalMarks(3);
+        exam.setPassingMarks(1);
+        ExamAttempt attempt = new ExamAttempt();
+        attempt.setId(ATTEMPT_ID);
+        attempt.setExam(exam);
+        attempt.setStatus(ExamAttempt.AttemptStatus.COMPLETED);
+        ExamResult result = new ExamResult();
+        result.setAttempt(attempt);
+        // Totals are read from the saved result; only the breakdown is rebuilt
+        result.setScore(80.0);
+        result.setIsPassed(true);
+        result.setTimeSpent(75);
+        return result;
+    }
+
+    private static Question question(Long id, String text, String correctAnswer) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionText(text);
+        question.setCorrectAnswer(correctAnswer);
+        question.setExplanation("Explanation " + id);
+        return question;
+    }
+}
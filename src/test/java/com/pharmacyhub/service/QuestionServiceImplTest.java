@@ -0,0 +1,106 @@
+package com.pharmacyhub.service;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query count of loading an exam's questions with their options
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class QuestionServiceImplTest {
+
+    private static final int QUESTION_COUNT = 150;
+    private static final String[] LABELS = {"A", "B", "C", "D"};
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QuestionService questionService;
+    private Long examId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        questionService = new QuestionServiceImpl(questionRepository, event -> { }, null, null);
+
+        Exam exam = new Exam();
+        exam.setTitle("Pharmacology Paper");
+        exam.setDuration(60);
+        exam.setTotalMarks(QUESTION_COUNT);
+        exam.setPassingMarks(QUESTION_COUNT / 2);
+        exam.setStatus(Exam.ExamStatus.PUBLISHED);
+        examId = entityManager.persist(exam).getId();
+
+        // Persisted in reverse order, so the result order comes from the query
+        for (int number = QUESTION_COUNT; number >= 1; number--) {
+            entityManager.persist(question(exam, number, false));
+        }
+        entityManager.persist(question(exam, QUESTION_COUNT + 1, true));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void loadsQuestionsAndOptionsWithOneStatement() {
+        List<Question> questions = questionService.getQuestionsWithOptionsByExamId(examId);
+
+        assertEquals(QUESTION_COUNT, questions.size());
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            assertEquals(i + 1, question.getQuestionNumber());
+            assertTrue(Hibernate.isInitialized(question.getOptions()));
+            assertEquals(LABELS.length, question.getOptions().size());
+            for (int j = 0; j < LABELS.length; j++) {
+                assertEquals(LABELS[j], question.getOptions().get(j).getLabel());
+            }
+        }
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static Question question(Exam exam, int number, boolean deleted) {
+        Question question = new Question();
+        question.setExam(exam);
+        question.setQuestionNumber(number);
+        question.setQuestionText("Which receptor does drug " + number + " act on?");
+        question.setCorrectAnswer("A");
+        question.setMarks(1);
+        question.setDeleted(deleted);
+        for (String label : LABELS) {
+            Option option = new Option();
+            option.setQuestion(question);
+            option.setLabel(label);
+            option.setText("Receptor " + label);
+            option.setIsCorrect(label.equals("A"));
+            question.getOptions().add(option);
+        }
+        return question;
+    }
+}
@@ -0,0 +1,243 @@
+package com.pharmacyhub.service.answer;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.ExamAttempt;
+import com.pharmacyhub.domain.repository.ExamAttemptRepository;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerBufferTest {
+
+    private static final Long ATTEMPT_ID = 1L;
+
+    private final Map<Long, ExamAttempt.AttemptStatus> statuses = new ConcurrentHashMap<>(
+            Map.of(ATTEMPT_ID, ExamAttempt.AttemptStatus.IN_PROGRESS));
+    // One entry per batch written to user_answers
+    private final List<List<BufferedAnswer>> batches = new CopyOnWriteArrayList<>();
+    private volatile boolean failWrites;
+
+    private final UserAnswerBatchWriter batchWriter = new UserAnswerBatchWriter(null) {
+        @Override
+        public Set<Long> lockInProgress(Collection<Long> attemptIds) {
+            return attemptIds.stream()
+                    .filter(id -> statuses.get(id) == ExamAttempt.AttemptStatus.IN_PROGRESS)
+                    .collect(Collectors.toSet());
+        }
+
+        @Override
+        public int write(List<BufferedAnswer> answers) {
+            if (failWrites) {
+                throw new TransientDataAccessResourceException("Database unavailable");
+            }
+            if (!answers.isEmpty()) {
+                batches.add(List.copyOf(answers));
+            }
+            return answers.size();
+        }
+    };
+
+    @Test
+    void writesTheLatestAnswerPerQuestionOnFlush() {
+        AnswerBuffer buffer = buffer(25, 10);
+        buffer.record(ATTEMPT_ID, 1L, "A", 5);
+        buffer.record(ATTEMPT_ID, 1L, "B", 7);
+        buffer.record(ATTEMPT_ID, 2L, "C", 3);
+        assertEquals(0, batches.size());
+
+        buffer.flushAll();
+        buffer.flushAll();
+
+        assertEquals(1, batches.size());
+        assertEquals(Map.of(1L, "B", 2L, "C"), selected(batches.get(0)));
+    }
+
+    @Test
+    void writesAnAttemptThatCollectsTooManyAnswers() {
+        AnswerBuffer buffer = buffer(3, 10);
+        buffer.record(ATTEMPT_ID, 1L, "A", 5);
+        buffer.record(ATTEMPT_ID, 2L, "A", 5);
+        assertEquals(0, batches.size());
+
+        buffer.record(ATTEMPT_ID, 3L, "A", 5);
+
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+    }
+
+    @Test
+    void keepsAnswersThroughFailedWritesAndRejectsNewOnesUntilTheyAreWritten() {
+        AnswerBuffer buffer = buffer(25, 2);
+        buffer.record(ATTEMPT_ID, 1L, "A", 5);
+        failWrites = true;
+        buffer.flushAll();
+        buffer.record(ATTEMPT_ID, 2L, "B", 5);
+        buffer.flushAll();
+
+        assertThrows(TransientDataAccessResourceException.class, () -> buffer.record(ATTEMPT_ID, 3L, "C", 5));
+        assertEquals(0, batches.size());
+
+        failWrites = false;
+        buffer.record(ATTEMPT_ID, 3L, "C", 5);
+        buffer.flushAll();
+
+        assertEquals(2, batches.size());
+        assertEquals(Map.of(1L, "A", 2L, "B"), selected(batches.get(0)));
+        assertEquals(Map.of(3L, "C"), selected(batches.get(1)));
+    }
+
+    @Test
+    void closesTheAttemptOnSubmitAndRejectsLaterAnswers() {
+        AnswerBuffer buffer = buffer(25, 10);
+        buffer.record(ATTEMPT_ID, 1L, "A", 5);
+
+        buffer.closeAndFlush(ATTEMPT_ID);
+
+        assertEquals(Map.of(1L, "A"), selected(batches.get(0)));
+        assertThrows(IllegalStateException.class, () -> buffer.record(ATTEMPT_ID, 2L, "B", 5));
+        buffer.flushAll();
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void reopensTheAttemptWithItsAnswersWhenTheSubmissionRollsBack() {
+        AnswerBuffer buffer = buffer(25, 10);
+        buffer.record(ATTEMPT_ID, 1L, "A", 5);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            buffer.closeAndFlush(ATTEMPT_ID);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        buffer.record(ATTEMPT_ID, 2L, "B", 5);
+        buffer.flushAll();
+
+        assertEquals(2, batches.size());
+        assertEquals(Map.of(1L, "A", 2L, "B"), selected(batches.get(1)));
+    }
+
+    @Test
+    void discardsAnswersOfAnAttemptSubmittedElsewhere() {
+        AnswerBuffer buffer = buffer(25, 10);
+        buffer.record(ATTEMPT_ID, 1L, "A", 5);
+        statuses.put(ATTEMPT_ID, ExamAttempt.AttemptStatus.COMPLETED);
+
+        buffer.flushAll();
+
+        assertEquals(0, batches.size());
+        assertThrows(IllegalStateException.class, () -> buffer.record(ATTEMPT_ID, 2L, "B", 5));
+    }
+
+    @Test
+    void writesEveryAnswerAcceptedBeforeAConcurrentSubmission() throws InterruptedException {
+        AnswerBuffer buffer = buffer(10_000, 10);
+        Set<Long> accepted = ConcurrentHashMap.newKeySet();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long firstQuestionId = 1 + t * 250L;
+            Thread thread = new Thread(() -> {
+                for (long questionId = firstQuestionId; questionId < firstQuestionId + 250; questionId++) {
+                    try {
+                        buffer.record(ATTEMPT_ID, questionId, "A", 1);
+                        accepted.add(questionId);
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        while (accepted.size() < 100) {
+            Thread.onSpinWait();
+        }
+        buffer.closeAndFlush(ATTEMPT_ID);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        buffer.flushAll();
+
+        Set<Long> written = new HashSet<>();
+        batches.forEach(batch -> batch.forEach(answer -> written.add(answer.getQuestionId())));
+        assertEquals(accepted, written);
+        assertEquals(1000, accepted.size() + rejected.get());
+    }
+
+    private AnswerBuffer buffer(int maxPendingPerAttempt, int maxFlushFailures) {
+        ExamAttemptRepository examAttemptRepository = (ExamAttemptRepository) Proxy.newProxyInstance(
+                ExamAttemptRepository.class.getClassLoader(),
+                new Class<?>[] {ExamAttemptRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findByIdAndNotDeleted")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Exam exam = new Exam();
+                    exam.setId(7L);
+                    ExamAttempt attempt = new ExamAttempt();
+                    attempt.setId((Long) args[0]);
+                    attempt.setExam(exam);
+                    attempt.setStatus(statuses.get((Long) args[0]));
+                    return Optional.of(attempt);
+                });
+        QuestionRepository questionRepository = (QuestionRepository) Proxy.newProxyInstance(
+                QuestionRepository.class.getClassLoader(),
+                new Class<?>[] {QuestionRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findIdsByExamId")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return LongStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+                });
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        return new AnswerBuffer(examAttemptRepository, questionRepository, batchWriter, null, transactionManager,
+                true, maxPendingPerAttempt, maxFlushFailures, 1800);
+    }
+
+    private static Map<Long, String> selected(List<BufferedAnswer> batch) {
+        assertTrue(batch.stream().map(BufferedAnswer::getQuestionId).distinct().count() == batch.size());
+        return batch.stream().collect(Collectors.toMap(BufferedAnswer::getQuestionId, BufferedAnswer::getSelectedOptionId));
+    }
+}
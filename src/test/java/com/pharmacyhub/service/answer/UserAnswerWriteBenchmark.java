@@ -0,0 +1,112 @@
+package com.pharmacyhub.service.answer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of writing the final answers of one submission, per answer (the previous
+ * findById / findByAttemptIdAndQuestionId / save loop, as the statements it issued) against
+ * UserAnswerBatchWriter. Half of the answers already exist, as after autosave.
+ *
+ * Runs on in-memory H2 by default, where a round trip costs no network time, so the gap is a
+ * lower bound; pass -Dbenchmark.jdbc.url (and .user, .password) to run against PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserAnswerWriteBenchmark {
+
+    private static final long ATTEMPT_ID = 1L;
+
+    @Param({"100", "250"})
+    public int answerCount;
+
+    private JdbcTemplate jdbcTemplate;
+    private UserAnswerBatchWriter batchWriter;
+    private List<BufferedAnswer> answers;
+
+    @Setup(Level.Trial)
+    public void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:answers;DB_CLOSE_DELAY=-1"),
+                System.getProperty("benchmark.jdbc.user", "sa"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS benchmark_questions");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS user_answers");
+        jdbcTemplate.execute("CREATE TABLE benchmark_questions (id BIGINT PRIMARY KEY, deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE user_answers (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "attempt_id BIGINT NOT NULL, question_id BIGINT NOT NULL, selected_option_id VARCHAR(1), " +
+                "time_spent INTEGER, deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_benchmark_user_answers ON user_answers (attempt_id, question_id)");
+
+        batchWriter = new UserAnswerBatchWriter(jdbcTemplate);
+        answers = new ArrayList<>(answerCount);
+        for (long questionId = 1; questionId <= answerCount; questionId++) {
+            jdbcTemplate.update("INSERT INTO benchmark_questions (id, deleted) VALUES (?, false)", questionId);
+            answers.add(new BufferedAnswer(ATTEMPT_ID, questionId, "B", 30));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetAnswers() {
+        jdbcTemplate.update("DELETE FROM user_answers");
+        List<Object[]> autosaved = new ArrayList<>();
+        for (int i = 0; i < answers.size(); i += 2) {
+            autosaved.add(new Object[] {ATTEMPT_ID, answers.get(i).getQuestionId(), "A", 10});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_answers (attempt_id, question_id, selected_option_id, time_spent, deleted) " +
+                "VALUES (?, ?, ?, ?, false)", autosaved);
+    }
+
+    @Benchmark
+    public int perAnswer() {
+        int written = 0;
+        for (BufferedAnswer answer : answers) {
+            jdbcTemplate.queryForList("SELECT id FROM benchmark_questions WHERE id = ?", Long.class, answer.getQuestionId());
+            List<Long> existing = jdbcTemplate.queryForList(
+                    "SELECT id FROM user_answers WHERE attempt_id = ? AND question_id = ? AND deleted = false",
+                    Long.class, answer.getAttemptId(), answer.getQuestionId());
+            if (existing.isEmpty()) {
+                written += jdbcTemplate.update("INSERT INTO user_answers (attempt_id, question_id, selected_option_id, " +
+                        "time_spent, deleted) VALUES (?, ?, ?, ?, false)",
+                        answer.getAttemptId(), answer.getQuestionId(), answer.getSelectedOptionId(), answer.getTimeSpent());
+            } else {
+                written += jdbcTemplate.update("UPDATE user_answers SET selected_option_id = ?, time_spent = ? WHERE id = ?",
+                        answer.getSelectedOptionId(), answer.getTimeSpent(), existing.get(0));
+            }
+        }
+        return written;
+    }
+
+    @Benchmark
+    public int batched() {
+        return batchWriter.write(answers);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserAnswerWriteBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package com.pharmacyhub.service.catalog;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.dto.request.ExamPageRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset pages of the exam list, run against the SQL ExamPageQuery generates
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ExamPageQuery.class)
+class ExamPageQueryTest {
+
+    @Autowired
+    private ExamPageQuery examPageQuery;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void pagesThroughNewestAndOldestFirstWithoutGapsOrRepeats() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(exam("Exam " + i, Exam.ExamStatus.PUBLISHED, false).getId());
+        }
+        exam("Deleted", Exam.ExamStatus.PUBLISHED, false).setDeleted(true);
+        entityManager.flush();
+
+        ExamPageQuery.Page first = examPageQuery.find(request().limit(2).build());
+        assertEquals(List.of(ids.get(4), ids.get(3)), first.getIds());
+        assertTrue(first.hasMore());
+        ExamPageQuery.Page second = examPageQuery.find(request().limit(2).cursor(first.getNextCursor()).build());
+        assertEquals(List.of(ids.get(2), ids.get(1)), second.getIds());
+        ExamPageQuery.Page last = examPageQuery.find(request().limit(2).cursor(second.getNextCursor()).build());
+        assertEquals(List.of(ids.get(0)), last.getIds());
+        assertFalse(last.hasMore());
+        assertNull(last.getNextCursor());
+
+        assertEquals(ids, allIds(request().sort(ExamPageRequestDTO.Sort.OLDEST).limit(2)));
+    }
+
+    @Test
+    void breaksTitleTiesByIdAcrossPages() {
+        Long pharmacologyUpper = exam("Pharmacology", Exam.ExamStatus.PUBLISHED, false).getId();
+        Long anatomy = exam("Anatomy", Exam.ExamStatus.PUBLISHED, false).getId();
+        Long pharmacologyLower = exam("pharmacology", Exam.ExamStatus.PUBLISHED, false).getId();
+        Long pharmacologyAgain = exam("PHARMACOLOGY", Exam.ExamStatus.PUBLISHED, false).getId();
+        // A colon in the title must survive the cursor
+        Long law = exam("Pharmacy: Law", Exam.ExamStatus.PUBLISHED, false).getId();
+        entityManager.flush();
+
+        assertEquals(List.of(anatomy, pharmacologyUpper, pharmacologyLower, pharmacologyAgain, law),
+                allIds(request().sort(ExamPageRequestDTO.Sort.TITLE).limit(1)));
+        assertEquals(List.of(anatomy, pharmacologyUpper, pharmacologyLower, pharmacologyAgain, law),
+                allIds(request().sort(ExamPageRequestDTO.Sort.TITLE).limit(2)));
+    }
+
+    @Test
+    void combinesFilters() {
+        Long match = exam("Pharm_1 Cardiology", Exam.ExamStatus.PUBLISHED, true, "Cardio").getId();
+        exam("Pharm_1 Renal", Exam.ExamStatus.PUBLISHED, true, "Renal");
+        exam("Pharm_1 Draft", Exam.ExamStatus.DRAFT, true, "cardio");
+        exam("Pharm_1 Free", Exam.ExamStatus.PUBLISHED, false, "CARDIO");
+        // The underscore is matched literally, not as a LIKE wildcard
+        exam("PharmX1 Cardiology", Exam.ExamStatus.PUBLISHED, true, "cardio");
+        entityManager.flush();
+
+        ExamPageQuery.Page page = examPageQuery.find(request()
+                .status(Exam.ExamStatus.PUBLISHED)
+                .premium(true)
+                .tag(" cardio ")
+                .titlePrefix("pharm_1")
+                .build());
+
+        assertEquals(List.of(match), page.getIds());
+        assertEquals(4, examPageQuery.find(request().titlePrefix("PHARM_").build()).getIds().size());
+        assertEquals(3, examPageQuery.find(request().tag("Cardio").premium(true).build()).getIds().size());
+    }
+
+    @Test
+    void rejectsMalformedCursorsAndCursorsOfAnotherSort() {
+        exam("Pharmacology", Exam.ExamStatus.PUBLISHED, false);
+        exam("Anatomy", Exam.ExamStatus.PUBLISHED, false);
+        entityManager.flush();
+        String newestCursor = examPageQuery.find(request().limit(1).build()).getNextCursor();
+        String titleCursor = examPageQuery.find(request().sort(ExamPageRequestDTO.Sort.TITLE).limit(1).build())
+                .getNextCursor();
+
+        assertEquals("TITLE:", decode(titleCursor).substring(0, 6));
+        assertThrows(IllegalArgumentException.class,
+                () -> examPageQuery.find(request().sort(ExamPageRequestDTO.Sort.TITLE).cursor(newestCursor).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> examPageQuery.find(request().sort(ExamPageRequestDTO.Sort.OLDEST).cursor(titleCursor).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> examPageQuery.find(request().cursor("not a cursor!").build()));
+        assertThrows(IllegalArgumentException.class, () -> examPageQuery.find(request().cursor(
+                Base64.getUrlEncoder().encodeToString("NEWEST:abc".getBytes(StandardCharsets.UTF_8))).build()));
+    }
+
+    private List<Long> allIds(ExamPageRequestDTO.ExamPageRequestDTOBuilder request) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            ExamPageQuery.Page page = examPageQuery.find(request.cursor(cursor).build());
+            ids.addAll(page.getIds());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static ExamPageRequestDTO.ExamPageRequestDTOBuilder request() {
+        return ExamPageRequestDTO.builder();
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    private Exam exam(String title, Exam.ExamStatus status, boolean premium, String... tags) {
+        Exam exam = new Exam();
+        exam.setTitle(title);
+        exam.setDuration(60);
+        exam.setTotalMarks(100);
+        exam.setPassingMarks(50);
+        exam.setStatus(status);
+        exam.setPremium(premium);
+        exam.setTags(new ArrayList<>(List.of(tags)));
+        return entityManager.persist(exam);
+    }
+}
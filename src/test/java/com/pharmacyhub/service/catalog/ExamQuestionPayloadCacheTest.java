@@ -0,0 +1,197 @@
+package com.pharmacyhub.service.catalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.service.QuestionService;
+import com.pharmacyhub.service.versioning.ExamContent;
+import com.pharmacyhub.service.versioning.ExamVersionService;
+import com.pharmacyhub.service.versioning.FrozenExam;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExamQuestionPayloadCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicInteger versionLoads = new AtomicInteger();
+    private final AtomicInteger liveLoads = new AtomicInteger();
+    private volatile Long latestVersionId = 100L;
+    private volatile Runnable whileLoading = () -> { };
+
+    private final ExamVersionService examVersionService = new ExamVersionService(null, null, null, null, null, 10, 3600) {
+        @Override
+        public Long getLatestVersionId(Long examId) {
+            return latestVersionId;
+        }
+
+        @Override
+        public FrozenExam getVersion(Long versionId) {
+            versionLoads.incrementAndGet();
+            whileLoading.run();
+            return frozen(versionId, exam(Exam.ExamStatus.PUBLISHED), List.of(question(1L, "Dose of paracetamol?")));
+        }
+    };
+
+    private final ExamQuestionPayloadCache cache = new ExamQuestionPayloadCache(
+            (QuestionService) Proxy.newProxyInstance(
+                    QuestionService.class.getClassLoader(),
+                    new Class<?>[] {QuestionService.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("getQuestionsWithOptionsByExamId")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        liveLoads.incrementAndGet();
+                        return List.of(question(1L, "Draft: dose of paracetamol?"));
+                    }),
+            examVersionService, objectMapper, 10, 3600);
+
+    @Test
+    void buildsOncePerVersionForConcurrentMisses() throws InterruptedException {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        whileLoading = () -> {
+            building.countDown();
+            await(release);
+        };
+        List<ExamQuestionPayloadCache.Payload> payloads = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> payloads.add(cache.get(exam(Exam.ExamStatus.PUBLISHED))));
+            threads.add(thread);
+            thread.start();
+        }
+
+        assertTrue(building.await(5, TimeUnit.SECONDS));
+        // Give the other requests time to join the running build
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(8, payloads.size());
+        assertTrue(payloads.stream().allMatch(payload -> payload == payloads.get(0)));
+        assertEquals(1, versionLoads.get());
+    }
+
+    @Test
+    void doesNotCacheAFailedBuild() {
+        whileLoading = () -> {
+            throw new IllegalStateException("Database unavailable");
+        };
+        assertThrows(IllegalStateException.class, () -> cache.get(exam(Exam.ExamStatus.PUBLISHED)));
+
+        whileLoading = () -> { };
+        ExamQuestionPayloadCache.Payload payload = cache.get(exam(Exam.ExamStatus.PUBLISHED));
+
+        assertSame(payload, cache.get(exam(Exam.ExamStatus.PUBLISHED)));
+        assertEquals(2, versionLoads.get());
+    }
+
+    @Test
+    void neverCachesUnpublishedExams() throws Exception {
+        ExamQuestionPayloadCache.Payload first = cache.get(exam(Exam.ExamStatus.DRAFT));
+        ExamQuestionPayloadCache.Payload second = cache.get(exam(Exam.ExamStatus.ARCHIVED));
+
+        assertNotSame(first, second);
+        assertEquals(2, liveLoads.get());
+        assertEquals(0, versionLoads.get());
+        assertEquals("Draft: dose of paracetamol?", objectMapper.readTree(first.getJson()).at("/data/0/text").asText());
+    }
+
+    @Test
+    void keepsTheEtagOfUnchangedContentAcrossVersions() throws Exception {
+        ExamQuestionPayloadCache.Payload first = cache.get(exam(Exam.ExamStatus.PUBLISHED));
+        latestVersionId = 101L;
+        ExamQuestionPayloadCache.Payload republished = cache.get(exam(Exam.ExamStatus.PUBLISHED));
+
+        assertNotSame(first, republished);
+        assertEquals(first.getEtag(), republished.getEtag());
+        assertTrue(first.getEtag().startsWith("\"7-") && first.getEtag().endsWith("\""));
+        JsonNode question = objectMapper.readTree(first.getJson()).at("/data/0");
+        assertEquals("Dose of paracetamol?", question.get("text").asText());
+        // Students are never told which option is correct
+        assertFalse(question.at("/options/0").has("isCorrect") || question.at("/options/0").has("correct"));
+    }
+
+    @Test
+    void matchesStrongWeakListedAndWildcardEntityTags() {
+        ExamQuestionPayloadCache.Payload payload = cache.get(exam(Exam.ExamStatus.PUBLISHED));
+        String etag = payload.getEtag();
+
+        assertTrue(payload.matches(etag));
+        assertTrue(payload.matches("W/" + etag));
+        assertTrue(payload.matches("*"));
+        assertTrue(payload.matches("\"7-stale\", " + etag));
+        assertFalse(payload.matches("\"7-stale\""));
+        assertFalse(payload.matches(etag.replace("\"", "")));
+        assertFalse(payload.matches(null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Exam exam(Exam.ExamStatus status) {
+        Exam exam = new Exam();
+        exam.setId(7L);
+        exam.setTitle("Pharmacology I");
+        exam.setStatus(status);
+        return exam;
+    }
+
+    private static Question question(Long id, String text) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionNumber(1);
+        question.setQuestionText(text);
+        question.setCorrectAnswer("A");
+        question.setMarks(1);
+        for (String label : List.of("A", "B")) {
+            Option option = new Option();
+            option.setId(id * 10 + label.charAt(0) - 'A');
+            option.setLabel(label);
+            option.setText("Option " + label);
+            option.setIsCorrect(label.equals("A"));
+            option.setQuestion(question);
+            question.getOptions().add(option);
+        }
+        return question;
+    }
+
+    /**
+     * A loaded version as ExamVersionService builds it from the version's stored content
+     */
+    static FrozenExam frozen(Long versionId, Exam exam, List<Question> questions) {
+        try {
+            Constructor<FrozenExam> constructor = FrozenExam.class.getDeclaredConstructor(
+                    Long.class, int.class, Long.class, ExamContent.class);
+            constructor.setAccessible(true);
+            return constructor.newInstance(versionId, 1, exam.getId(), ExamContent.of(exam, questions));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.pharmacyhub.service.dedup;
+
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class QuestionFingerprintIndexTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Object[]> rows = new ArrayList<>();
+    private Runnable duringLoad = () -> { };
+
+    private final QuestionFingerprintIndex index = new QuestionFingerprintIndex((QuestionRepository) Proxy.newProxyInstance(
+            QuestionRepository.class.getClassLoader(),
+            new Class<?>[] {QuestionRepository.class},
+            (proxy, method, args) -> {
+                if (!method.getName().equals("findFingerprints")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                loads.incrementAndGet();
+                List<Object[]> snapshot = new ArrayList<>(rows);
+                duringLoad.run();
+                return snapshot;
+            }));
+
+    @Test
+    void findsExactAndNearDuplicates() {
+        rows.add(new Object[] {1L, 100L, 0b1111L});
+        rows.add(new Object[] {2L, 100L, 0b1111L});
+
+        // The earliest question is reported for a repeated hash
+        assertEquals(1L, index.findDuplicate(100L, 0L, false));
+        assertNull(index.findDuplicate(200L, 0b1111L, false));
+        assertEquals(1L, index.findDuplicate(200L, 0b0111L, true));
+        assertNull(index.findDuplicate(200L, ~0b1111L, true));
+    }
+
+    @Test
+    void addsCommittedQuestionsWithoutRebuilding() {
+        rows.add(new Object[] {1L, 100L, 0L});
+        assertNull(index.findDuplicate(200L, -1L, true));
+
+        index.onQuestionsAdded(new QuestionsAddedEvent(List.of(question(2L, 200L, -1L), question(3L, 100L, 5L))));
+
+        assertEquals(2L, index.findDuplicate(200L, 0L, false));
+        assertEquals(2L, index.findDuplicate(300L, -2L, true));
+        assertEquals(1L, index.findDuplicate(100L, 0L, false));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void rebuildsAfterQuestionsChange() {
+        rows.add(new Object[] {1L, 100L, 0L});
+        assertEquals(1L, index.findDuplicate(100L, 0L, false));
+
+        rows.clear();
+        index.onQuestionsChanged(new QuestionsChangedEvent(1L));
+
+        assertNull(index.findDuplicate(100L, 0L, false));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void doesNotKeepIndexBuiltBeforeAnAddition() {
+        rows.add(new Object[] {1L, 100L, 0L});
+        // An upload commits while the index is being built from rows read before it
+        duringLoad = () -> {
+            rows.add(new Object[] {2L, 200L, 0L});
+            index.onQuestionsAdded(new QuestionsAddedEvent(List.of(question(2L, 200L, 0L))));
+        };
+
+        assertNull(index.findDuplicate(200L, 0L, false));
+
+        duringLoad = () -> { };
+        assertEquals(2L, index.findDuplicate(200L, 0L, false));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void skipsQuestionsWithoutFingerprint() {
+        Question unsaved = question(null, 100L, 0L);
+        Question unfingerprinted = question(4L, null, null);
+
+        assertEquals(0, new QuestionsAddedEvent(List.of(unsaved, unfingerprinted)).getIds().length);
+    }
+
+    private static Question question(Long id, Long contentHash, Long simHash) {
+        Question question = new Question();
+        question.setId(id);
+        question.setContentHash(contentHash);
+        question.setSimHash(simHash);
+        return question;
+    }
+}
@@ -0,0 +1,115 @@
+package com.pharmacyhub.service.practice;
+
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.sampling.QuestionSampler;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PracticeSetGeneratorTest {
+
+    // Rows of the sampling attributes: question id, topic, difficulty
+    private final List<Object[]> rows = new ArrayList<>();
+    private final Map<Long, long[]> answersById = new HashMap<>();
+
+    private final PracticeSetGenerator generator = new PracticeSetGenerator(
+            new QuestionSampler((QuestionRepository) Proxy.newProxyInstance(
+                    QuestionRepository.class.getClassLoader(),
+                    new Class<?>[] {QuestionRepository.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("findSamplingAttributes")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return rows;
+                    })),
+            new QuestionStatistics(null, null, null, null) {
+                @Override
+                public Snapshot get(long questionId) {
+                    long[] answers = answersById.get(questionId);
+                    return answers != null ? new Snapshot(answers[0], answers[1], 0) : null;
+                }
+
+                @Override
+                public double getOverallCorrectRate(double defaultRate) {
+                    return defaultRate;
+                }
+            },
+            5);
+
+    @Test
+    void spreadsTheSetEvenlyAcrossTopics() {
+        addQuestions(1, 10, "Pharmacology", "MEDIUM");
+        addQuestions(11, 10, "Pharmaceutics", "MEDIUM");
+        addQuestions(21, 10, "Pharmacognosy", "MEDIUM");
+
+        List<Long> selected = generator.generate(6, null, "medium");
+
+        assertEquals(6, selected.size());
+        assertEquals(6, new HashSet<>(selected).size());
+        assertEquals(2, selected.stream().filter(id -> id <= 10).count());
+        assertEquals(2, selected.stream().filter(id -> id > 10 && id <= 20).count());
+        assertEquals(2, selected.stream().filter(id -> id > 20).count());
+    }
+
+    @Test
+    void restrictsTheSetToTheRequestedTopic() {
+        addQuestions(1, 10, "Pharmacology", "EASY");
+        addQuestions(11, 10, "Pharmaceutics", "EASY");
+
+        List<Long> selected = generator.generate(5, " pharmaceutics ", null);
+
+        assertEquals(5, selected.size());
+        assertTrue(selected.stream().allMatch(id -> id > 10));
+    }
+
+    @Test
+    void returnsEveryCandidateWhenThereAreFewerThanRequested() {
+        addQuestions(1, 3, "Pharmacology", "EASY");
+        addQuestions(4, 1, "Pharmaceutics", null);
+
+        List<Long> selected = generator.generate(10, null, "hard");
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L), new HashSet<>(selected));
+    }
+
+    @Test
+    void prefersQuestionsWhoseObservedRateMatchesTheTarget() {
+        // All labelled easy, but half are answered correctly only 40% of the time
+        addQuestions(1, 50, "Pharmacology", "EASY");
+        addQuestions(51, 50, "Pharmacology", "EASY");
+        for (long id = 1; id <= 50; id++) {
+            answersById.put(id, new long[] {100, 80});
+            answersById.put(id + 50, new long[] {100, 40});
+        }
+
+        int hard = 0;
+        for (int run = 0; run < 20; run++) {
+            hard += (int) generator.generate(10, null, "HARD").stream().filter(id -> id > 50).count();
+        }
+
+        assertTrue(hard >= 180, "Only " + hard + " of 200 picks were hard");
+    }
+
+    @Test
+    void rejectsAnUnknownDifficulty() {
+        addQuestions(1, 3, "Pharmacology", "EASY");
+
+        assertThrows(IllegalArgumentException.class, () -> generator.generate(3, null, "extreme"));
+    }
+
+    private void addQuestions(long firstId, int count, String topic, String difficulty) {
+        for (long id = firstId; id < firstId + count; id++) {
+            rows.add(new Object[] {id, topic, difficulty});
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.pharmacyhub.service.practice;
+
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.ExamAttemptRepository;
+import com.pharmacyhub.domain.repository.UserAnswerRepository;
+import com.pharmacyhub.service.scoring.AnswerKey;
+import com.pharmacyhub.service.scoring.AnswerKeyCache;
+import com.pharmacyhub.service.scoring.AttemptScoredEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuestionStatisticsTest {
+
+    private static final AnswerKey ANSWER_KEY = AnswerKey.compile(List.of(question(1L), question(2L)));
+
+    private final AtomicInteger loads = new AtomicInteger();
+    // Rows of the aggregate over user_answers: question id, answers, correct answers, time spent
+    private final List<Object[]> rows = new ArrayList<>();
+    // Attempts the load sees as recently completed
+    private final List<Long> recentAttemptIds = new ArrayList<>();
+    private Runnable duringLoad = () -> { };
+    private boolean failLoad;
+
+    private final QuestionStatistics statistics = new QuestionStatistics(
+            (UserAnswerRepository) Proxy.newProxyInstance(
+                    UserAnswerRepository.class.getClassLoader(),
+                    new Class<?>[] {UserAnswerRepository.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("aggregateAnswerStatistics")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        loads.incrementAndGet();
+                        if (failLoad) {
+                            throw new IllegalStateException("Database unavailable");
+                        }
+                        List<Object[]> snapshot = new ArrayList<>(rows);
+                        duringLoad.run();
+                        return snapshot;
+                    }),
+            (ExamAttemptRepository) Proxy.newProxyInstance(
+                    ExamAttemptRepository.class.getClassLoader(),
+                    new Class<?>[] {ExamAttemptRepository.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("findIdsByStatusEndedSince")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        return new ArrayList<>(recentAttemptIds);
+                    }),
+            new AnswerKeyCache(null, null, null, 10, 60) {
+                @Override
+                public AnswerKey get(Long examId, Long versionId) {
+                    return ANSWER_KEY;
+                }
+            },
+            new PlatformTransactionManager() {
+                @Override
+                public TransactionStatus getTransaction(TransactionDefinition definition) {
+                    return new SimpleTransactionStatus();
+                }
+
+                @Override
+                public void commit(TransactionStatus status) {
+                }
+
+                @Override
+                public void rollback(TransactionStatus status) {
+                }
+            });
+
+    @Test
+    void loadsTotalsOnceThenAppliesScoredAttempts() {
+        rows.add(new Object[] {1L, 4L, 3L, 40L});
+        statistics.warmUp();
+
+        // Question 2 was skipped, and question 99 is not part of the exam
+        statistics.onAttemptScored(event(100L, new Object[] {1L, "B", 20}, new Object[] {2L, null, 5},
+                new Object[] {99L, "A", 5}));
+
+        QuestionStatistics.Snapshot snapshot = statistics.get(1L);
+        assertEquals(5, snapshot.getAnswerCount());
+        assertEquals(3, snapshot.getCorrectCount());
+        assertEquals(12.0, snapshot.getMeanTimeSpent());
+        assertNull(statistics.get(2L));
+        assertEquals(0.6, statistics.getOverallCorrectRate(0.5));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void countsAttemptsScoredWhileTheTotalsLoad() {
+        rows.add(new Object[] {1L, 4L, 3L, 40L});
+        // Committed after the load's snapshot, so its answers are not in the aggregate
+        duringLoad = () -> statistics.onAttemptScored(event(101L, new Object[] {1L, "A", 10}));
+
+        assertEquals(5, statistics.get(1L).getAnswerCount());
+        assertEquals(4, statistics.get(1L).getCorrectCount());
+    }
+
+    @Test
+    void doesNotCountAnAttemptTheLoadAlreadyCounted() {
+        // Attempt 102 committed before the load's snapshot, but its event is delivered during and after the load
+        rows.add(new Object[] {1L, 5L, 4L, 50L});
+        recentAttemptIds.add(102L);
+        duringLoad = () -> statistics.onAttemptScored(event(102L, new Object[] {1L, "A", 10}));
+
+        assertEquals(5, statistics.get(1L).getAnswerCount());
+        statistics.onAttemptScored(event(102L, new Object[] {1L, "A", 10}));
+        statistics.onAttemptScored(event(103L, new Object[] {1L, "A", 10}));
+
+        assertEquals(6, statistics.get(1L).getAnswerCount());
+    }
+
+    @Test
+    void leavesEventsBeforeTheFirstLoadToTheLoad() {
+        // Scored and committed before anything was loaded: the load's aggregate includes it
+        statistics.onAttemptScored(event(104L, new Object[] {1L, "A", 10}));
+        rows.add(new Object[] {1L, 1L, 1L, 10L});
+
+        assertEquals(1, statistics.get(1L).getAnswerCount());
+    }
+
+    @Test
+    void loadsOnFirstUseWhenTheStartupLoadFails() {
+        failLoad = true;
+        statistics.warmUp();
+        statistics.onAttemptScored(event(105L, new Object[] {1L, "A", 10}));
+        assertThrows(IllegalStateException.class, () -> statistics.get(1L));
+
+        failLoad = false;
+        rows.add(new Object[] {1L, 1L, 1L, 10L});
+
+        assertEquals(1, statistics.get(1L).getAnswerCount());
+        assertEquals(3, loads.get());
+    }
+
+    private static AttemptScoredEvent event(Long attemptId, Object[]... answers) {
+        return new AttemptScoredEvent(attemptId, 7L, 70L, List.of(answers));
+    }
+
+    private static Question question(Long id) {
+        Question question = new Question();
+        question.setId(id);
+        question.setCorrectAnswer("A");
+        return question;
+    }
+}
@@ -0,0 +1,74 @@
+package com.pharmacyhub.service.sampling;
+
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuestionSamplerTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<Object[]> rows = new ArrayList<>();
+    private Runnable duringLoad = () -> { };
+
+    private final QuestionSampler sampler = new QuestionSampler((QuestionRepository) Proxy.newProxyInstance(
+            QuestionRepository.class.getClassLoader(),
+            new Class<?>[] {QuestionRepository.class},
+            (proxy, method, args) -> {
+                if (!method.getName().equals("findSamplingAttributes")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                loads.incrementAndGet();
+                List<Object[]> snapshot = new ArrayList<>(rows);
+                duringLoad.run();
+                return snapshot;
+            }));
+
+    @Test
+    void keepsBuiltPoolsUntilInvalidated() {
+        rows.add(new Object[] {1L, "Pharmacology", "EASY"});
+
+        sampler.getPool(null, null);
+        sampler.getPool("pharmacology", null);
+        assertEquals(1, loads.get());
+
+        sampler.invalidate();
+        sampler.getPool(null, null);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void doesNotKeepPoolsBuiltBeforeAnInvalidation() {
+        rows.add(new Object[] {1L, "Pharmacology", "EASY"});
+        // A question is added and its change commits while the pools are being built
+        duringLoad = () -> {
+            rows.add(new Object[] {2L, "Pharmacology", "HARD"});
+            sampler.invalidate();
+        };
+
+        assertArrayEquals(new long[] {1L}, sampler.getPool(null, null));
+
+        duringLoad = () -> { };
+        assertArrayEquals(new long[] {1L, 2L}, sampler.getPool(null, null));
+        assertArrayEquals(new long[] {2L}, sampler.getPool("PHARMACOLOGY", "hard"));
+    }
+
+    @Test
+    void samplesDistinctIdsFromPool() {
+        long[] pool = {10L, 20L, 30L, 40L, 50L};
+
+        List<Long> sampled = QuestionSampler.sample(pool, 3, new Random(42));
+
+        assertEquals(3, sampled.size());
+        assertEquals(3, new HashSet<>(sampled).size());
+        assertEquals(5, QuestionSampler.sample(pool, 10, new Random(42)).size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AnswerKeyCacheTest {
+
+    private static final long EXAM_ID = 7L;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private String correctAnswer = "A";
+    private Runnable duringLoad = () -> { };
+
+    private final AnswerKeyCache cache = new AnswerKeyCache(
+            (QuestionRepository) Proxy.newProxyInstance(
+                    QuestionRepository.class.getClassLoader(),
+                    new Class<?>[] {QuestionRepository.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("findByExamId")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        loads.incrementAndGet();
+                        List<Question> questions = List.of(question(1L, correctAnswer));
+                        duringLoad.run();
+                        return questions;
+                    }),
+            exam -> MarkingScheme.standard(),
+            null,
+            10,
+            3600);
+
+    @Test
+    void compilesEachExamOnce() {
+        AnswerKey key = cache.get(EXAM_ID);
+
+        assertSame(key, cache.get(EXAM_ID));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void doesNotCacheKeyCompiledBeforeAnExamChange() {
+        // The answer is corrected and the change commits while the old questions are being compiled
+        duringLoad = () -> {
+            correctAnswer = "B";
+            cache.onExamCatalogChanged(new ExamCatalogChangedEvent(EXAM_ID));
+        };
+        AnswerKey stale = cache.get(EXAM_ID);
+        duringLoad = () -> { };
+
+        AnswerKey current = cache.get(EXAM_ID);
+
+        assertEquals("A", stale.getCorrectAnswer(0));
+        assertEquals("B", current.getCorrectAnswer(0));
+        assertSame(current, cache.get(EXAM_ID));
+    }
+
+    @Test
+    void doesNotCacheScorerCompiledBeforeAnExamChange() {
+        Exam exam = new Exam();
+        exam.setId(EXAM_ID);
+        exam.setPassingMarks(1);
+        duringLoad = () -> cache.onExamCatalogChanged(new ExamCatalogChangedEvent(null));
+        CompiledScorer stale = cache.getScorer(exam);
+        duringLoad = () -> { };
+
+        CompiledScorer current = cache.getScorer(exam);
+
+        assertNotSame(stale, current);
+        assertSame(current, cache.getScorer(exam));
+    }
+
+    private static Question question(Long id, String correctAnswer) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionText("Question " + id);
+        question.setCorrectAnswer(correctAnswer);
+        return question;
+    }
+}
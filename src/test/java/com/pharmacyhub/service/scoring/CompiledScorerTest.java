@@ -0,0 +1,119 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.dto.ExamResultDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledScorerTest {
+
+    private static final double DELTA = 1e-9;
+
+    // Four questions: 1 and 2 on pharmacology worth 1 and 3 marks, 3 and 4 on chemistry worth 2 marks
+    private final AnswerKey answerKey = AnswerKey.compile(List.of(
+            question(1L, "A", 1, "Pharmacology"),
+            question(2L, "B", 3, "Pharmacology"),
+            question(3L, "C", 2, "Chemistry"),
+            question(4L, "D", 2, "Chemistry")));
+
+    // Correct, incorrect, correct, unanswered
+    private final List<Object[]> answers = List.of(
+            answer(1L, "A", 30),
+            answer(2L, "C", 40),
+            answer(3L, "C", 50));
+
+    @Test
+    void scoresStandardScheme() {
+        ExamScore score = new CompiledScorer(answerKey, MarkingScheme.standard(), 0).score(answers);
+
+        // (2 - 0.25) / 4 questions
+        assertEquals(43.75, score.getScore(), DELTA);
+        assertTrue(score.isPassed());
+        assertEquals(2, score.getCorrectAnswers());
+        assertEquals(1, score.getIncorrectAnswers());
+        assertEquals(1, score.getUnanswered());
+        assertEquals(120, score.getTimeSpent());
+    }
+
+    @Test
+    void appliesExamPassingMarksAboveSchemeFloor() {
+        ExamScore score = new CompiledScorer(answerKey, MarkingScheme.standard(), 50).score(answers);
+
+        assertFalse(score.isPassed());
+    }
+
+    @Test
+    void breakdownAddsUpToWeightedScore() {
+        MarkingScheme scheme = new MarkingScheme(true, 0.5, 0, Collections.emptyMap());
+        ExamScore score = new CompiledScorer(answerKey, scheme, 0).score(answers);
+
+        double possible = 0;
+        double earned = 0;
+        List<Double> earnedByQuestion = new ArrayList<>();
+        for (ExamResultDTO.QuestionResultDTO result : score.getQuestionResults()) {
+            possible += result.getPoints();
+            earned += result.getEarnedPoints();
+            earnedByQuestion.add(result.getEarnedPoints());
+        }
+
+        assertEquals(List.of(1.0, -1.5, 2.0, 0.0), earnedByQuestion);
+        assertEquals(8.0, possible, DELTA);
+        assertEquals(earned / possible * 100, score.getScore(), DELTA);
+    }
+
+    @Test
+    void reportsNoPenaltyWithoutNegativeMarking() {
+        MarkingScheme scheme = new MarkingScheme(false, 0, 0, Collections.emptyMap());
+        ExamScore score = new CompiledScorer(answerKey, scheme, 0).score(answers);
+
+        assertEquals(0.0, score.getQuestionResults().get(1).getEarnedPoints());
+        assertEquals(50.0, score.getScore(), DELTA);
+    }
+
+    @Test
+    void failsWhenASectionIsBelowItsCutoff() {
+        // Chemistry: 2 of 4 marks is 50%, pharmacology: (1 - 3) of 4 marks is below zero
+        MarkingScheme chemistryCutoff = new MarkingScheme(true, 1.0, 0, Map.of("chemistry", 50.0));
+        MarkingScheme pharmacologyCutoff = new MarkingScheme(true, 1.0, 0, Map.of("PHARMACOLOGY", 10.0));
+
+        assertTrue(new CompiledScorer(answerKey, chemistryCutoff, 0).scoreTotals(answers).isPassed());
+        assertFalse(new CompiledScorer(answerKey, pharmacologyCutoff, 0).scoreTotals(answers).isPassed());
+    }
+
+    @Test
+    void ignoresAnswersOutsideTheKeyAndDuplicates() {
+        List<Object[]> withNoise = List.of(
+                answer(1L, "A", 10),
+                answer(1L, "B", 10),
+                answer(99L, "A", 10));
+
+        ExamScore score = new CompiledScorer(answerKey, MarkingScheme.standard(), 0).scoreTotals(withNoise);
+
+        assertEquals(1, score.getCorrectAnswers());
+        assertEquals(0, score.getIncorrectAnswers());
+        assertEquals(10, score.getTimeSpent());
+        assertTrue(score.getQuestionResults().isEmpty());
+    }
+
+    private static Question question(Long id, String correctAnswer, int marks, String topic) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionText("Question " + id);
+        question.setCorrectAnswer(correctAnswer);
+        question.setMarks(marks);
+        question.setTopic(topic);
+        return question;
+    }
+
+    private static Object[] answer(Long questionId, String selectedOptionId, int timeSpent) {
+        return new Object[] {questionId, selectedOptionId, timeSpent};
+    }
+}
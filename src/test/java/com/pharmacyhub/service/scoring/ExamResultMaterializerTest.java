@@ -0,0 +1,239 @@
+package com.pharmacyhub.service.scoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.ExamAttempt;
+import com.pharmacyhub.domain.entity.ExamResult;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.ExamAttemptRepository;
+import com.pharmacyhub.domain.repository.ExamResultRepository;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.domain.repository.UserAnswerRepository;
+import com.pharmacyhub.dto.ExamResultDTO;
+import com.pharmacyhub.service.ExamAttemptService;
+import com.pharmacyhub.service.ExamAttemptServiceImpl;
+import com.pharmacyhub.service.answer.AnswerBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Submissions in async result mode, with the listener and executor wiring of the application
+ */
+class ExamResultMaterializerTest {
+
+    private static final Long ATTEMPT_ID = 1L;
+
+    private final ExamAttempt attempt = attempt();
+    // The exam_results row of the attempt
+    private final AtomicReference<ExamResult> saved = new AtomicReference<>();
+    // Tasks accepted by examResultExecutor, and how many were queued while the submission was open
+    private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+    private final List<Integer> tasksWhenSaved = new ArrayList<>();
+    private volatile boolean saturated;
+    private volatile boolean failSave;
+
+    private AnnotationConfigApplicationContext context;
+    private ExamAttemptService examAttemptService;
+
+    @BeforeEach
+    void createContext() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(AsyncResultConfig.class);
+        context.registerBean(PlatformTransactionManager.class, SynchronizingTransactionManager::new);
+        context.registerBean("examResultExecutor", Executor.class, () -> task -> {
+            // A saturated executor drops the task, as the application's rejection handler does
+            if (!saturated) {
+                tasks.add(task);
+            }
+        });
+        context.registerBean(ExamAttemptService.class, this::examAttemptServiceImpl);
+        context.registerBean(ExamResultMaterializer.class,
+                () -> new ExamResultMaterializer(context.getBean(ExamAttemptService.class)));
+        context.refresh();
+        examAttemptService = context.getBean(ExamAttemptService.class);
+    }
+
+    @AfterEach
+    void closeContext() {
+        context.close();
+    }
+
+    @Test
+    void materializesTheDetailsOnlyAfterTheSubmissionCommits() {
+        ExamResultDTO submitted = examAttemptService.submitExamAttempt(ATTEMPT_ID);
+
+        assertTrue(submitted.getQuestionResults().isEmpty());
+        assertEquals(List.of(0), tasksWhenSaved);
+        assertEquals(1, tasks.size());
+        assertNull(saved.get().getResultSnapshot());
+
+        tasks.get(0).run();
+
+        assertNotNull(saved.get().getResultSnapshot());
+        ExamResultDTO result = examAttemptService.getExamResult(ATTEMPT_ID);
+        assertEquals(3, result.getQuestionResults().size());
+        assertEquals(Boolean.TRUE, result.getQuestionResults().get(0).getIsCorrect());
+    }
+
+    @Test
+    void doesNotMaterializeASubmissionThatRollsBack() {
+        failSave = true;
+
+        assertThrows(IllegalStateException.class, () -> examAttemptService.submitExamAttempt(ATTEMPT_ID));
+
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void buildsTheDetailsOnFirstReadWhenTheTaskWasDropped() {
+        saturated = true;
+        examAttemptService.submitExamAttempt(ATTEMPT_ID);
+        assertTrue(tasks.isEmpty());
+        assertNull(saved.get().getResultSnapshot());
+
+        ExamResultDTO result = examAttemptService.getExamResult(ATTEMPT_ID);
+
+        assertEquals(3, result.getQuestionResults().size());
+        assertEquals(Boolean.FALSE, result.getQuestionResults().get(1).getIsCorrect());
+        assertNotNull(saved.get().getResultSnapshot());
+    }
+
+    private ExamAttemptServiceImpl examAttemptServiceImpl() {
+        ExamAttemptRepository examAttemptRepository = repository(ExamAttemptRepository.class, (name, args) -> {
+            switch (name) {
+                case "findByIdAndNotDeleted":
+                    return Optional.of(attempt);
+                case "save":
+                    return args[0];
+                default:
+                    throw new UnsupportedOperationException(name);
+            }
+        });
+        UserAnswerRepository userAnswerRepository = repository(UserAnswerRepository.class, (name, args) -> {
+            if (!name.equals("findAnswerValuesByAttemptId")) {
+                throw new UnsupportedOperationException(name);
+            }
+            List<Object[]> answers = new ArrayList<>();
+            answers.add(new Object[] {71L, "A", 30});
+            answers.add(new Object[] {72L, "C", 45});
+            return answers;
+        });
+        ExamResultRepository examResultRepository = repository(ExamResultRepository.class, (name, args) -> {
+            switch (name) {
+                case "findResultSnapshotByAttemptId":
+                    return Optional.ofNullable(saved.get()).map(ExamResult::getResultSnapshot);
+                case "findByAttemptId":
+                    return Optional.ofNullable(saved.get());
+                case "save":
+                    tasksWhenSaved.add(tasks.size());
+                    if (failSave) {
+                        throw new IllegalStateException("Database unavailable");
+                    }
+                    saved.set((ExamResult) args[0]);
+                    return args[0];
+                default:
+                    throw new UnsupportedOperationException(name);
+            }
+        });
+        QuestionRepository questionRepository = repository(QuestionRepository.class, (name, args) -> {
+            if (!name.equals("findByExamId")) {
+                throw new UnsupportedOperationException(name);
+            }
+            return List.of(question(71L, "A"), question(72L, "B"), question(73L, "D"));
+        });
+        AnswerBuffer answerBuffer = new AnswerBuffer(null, null, null, null, null, false, 1, 1, 1) {
+            @Override
+            public void closeAndFlush(Long attemptId) {
+            }
+        };
+        return new ExamAttemptServiceImpl(examAttemptRepository, null, userAnswerRepository, examResultRepository,
+                null, null, answerBuffer, null,
+                new ExamScoringEngine(new AnswerKeyCache(questionRepository, exam -> MarkingScheme.standard(), null, 10, 3600)),
+                null, null, new ObjectMapper(), context, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, RepositoryMethod answer) {
+        return (T) Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] {type},
+                (proxy, method, args) -> answer.invoke(method.getName(), args));
+    }
+
+    private static ExamAttempt attempt() {
+        Exam exam = new Exam();
+        exam.setId(7L);
+        exam.setTitle("Pharmacology I");
+        exam.setTotalMarks(3);
+        exam.setPassingMarks(1);
+        ExamAttempt attempt = new ExamAttempt();
+        attempt.setId(ATTEMPT_ID);
+        attempt.setExam(exam);
+        attempt.setStatus(ExamAttempt.AttemptStatus.IN_PROGRESS);
+        return attempt;
+    }
+
+    private static Question question(Long id, String correctAnswer) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionText("Question " + id);
+        question.setCorrectAnswer(correctAnswer);
+        return question;
+    }
+
+    private interface RepositoryMethod {
+        Object invoke(String name, Object[] args);
+    }
+
+    @Configuration
+    @EnableAsync
+    @EnableTransactionManagement
+    static class AsyncResultConfig {
+    }
+
+    /**
+     * Runs transaction synchronizations, so after-commit listeners fire as they do on a real database
+     */
+    static class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.pharmacyhub.service.scoring;
+
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.dto.ExamResultDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring throughput of CompiledScorer against the fixed +1/-0.25/40% rules it replaced,
+ * copied below as fixedRules. The compiled scorer should not be slower with the standard
+ * scheme, and a weighted scheme with section cutoffs should cost about the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ScoringBenchmark {
+
+    private static final String[] OPTIONS = {"A", "B", "C", "D"};
+
+    @Param({"100", "250"})
+    public int questionCount;
+
+    private AnswerKey answerKey;
+    private CompiledScorer standardScorer;
+    private CompiledScorer weightedScorer;
+    private List<Object[]> answers;
+
+    @Setup
+    public void compile() {
+        Random random = new Random(42);
+        List<Question> questions = new ArrayList<>(questionCount);
+        answers = new ArrayList<>(questionCount);
+        for (long id = 1; id <= questionCount; id++) {
+            Question question = new Question();
+            question.setId(id);
+            question.setQuestionText("Question " + id);
+            question.setCorrectAnswer(OPTIONS[random.nextInt(OPTIONS.length)]);
+            question.setMarks(1 + random.nextInt(3));
+            question.setTopic(id % 2 == 0 ? "Pharmacology" : "Chemistry");
+            questions.add(question);
+            // About one in ten questions is left unanswered
+            if (random.nextInt(10) > 0) {
+                answers.add(new Object[] {id, OPTIONS[random.nextInt(OPTIONS.length)], 30});
+            }
+        }
+        Collections.shuffle(answers, random);
+
+        answerKey = AnswerKey.compile(questions);
+        standardScorer = new CompiledScorer(answerKey, MarkingScheme.standard(), 50);
+        weightedScorer = new CompiledScorer(answerKey,
+                new MarkingScheme(true, 0.5, 40, Map.of("pharmacology", 40.0, "chemistry", 40.0)), 50);
+    }
+
+    @Benchmark
+    public ExamScore fixedRules() {
+        return fixedRules(answerKey, 50, answers);
+    }
+
+    @Benchmark
+    public ExamScore standardScheme() {
+        return standardScorer.score(answers);
+    }
+
+    @Benchmark
+    public ExamScore weightedSchemeWithCutoffs() {
+        return weightedScorer.score(answers);
+    }
+
+    /**
+     * ExamScoringEngine.score as it was before marking schemes
+     */
+    private static ExamScore fixedRules(AnswerKey answerKey, int passingMarks, List<Object[]> answers) {
+        int n = answerKey.size();
+
+        String[] selected = new String[n];
+        int[] timeSpent = new int[n];
+        boolean[] answered = new boolean[n];
+        for (Object[] answer : answers) {
+            int position = answerKey.indexOf(((Number) answer[0]).longValue());
+            if (position < 0 || answered[position]) {
+                continue;
+            }
+            answered[position] = true;
+            selected[position] = (String) answer[1];
+            timeSpent[position] = answer[2] != null ? ((Number) answer[2]).intValue() : 0;
+        }
+
+        int correctCount = 0;
+        int incorrectCount = 0;
+        int totalTimeSpent = 0;
+        List<ExamResultDTO.QuestionResultDTO> questionResults = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String userAnswerId = selected[i];
+            boolean isCorrect = answerKey.isCorrect(i, userAnswerId);
+            if (isCorrect) {
+                correctCount++;
+            } else if (userAnswerId != null) {
+                incorrectCount++;
+            }
+            totalTimeSpent += timeSpent[i];
+
+            questionResults.add(ExamResultDTO.QuestionResultDTO.builder()
+                    .questionId(answerKey.getQuestionId(i))
+                    .questionText(answerKey.getQuestionText(i))
+                    .userAnswerId(userAnswerId)
+                    .correctAnswerId(answerKey.getCorrectAnswer(i))
+                    .isCorrect(isCorrect)
+                    .explanation(answerKey.getExplanation(i))
+                    .points((double) answerKey.getMarks(i))
+                    .earnedPoints(isCorrect ? (double) answerKey.getMarks(i) : 0.0)
+                    .build());
+        }
+
+        double rawScore = correctCount - incorrectCount * 0.25;
+        double score = n > 0 ? (rawScore / n) * 100 : 0.0;
+        boolean passed = score >= Math.max(40, passingMarks);
+
+        return new ExamScore(score, passed, n, correctCount, incorrectCount, totalTimeSpent, questionResults);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ScoringBenchmark.class.getSimpleName()).build()).run();
+    }
+}
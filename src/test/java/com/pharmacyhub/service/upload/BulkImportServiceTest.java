@@ -0,0 +1,90 @@
+package com.pharmacyhub.service.upload;
+
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.dto.response.BulkImportStatusDTO;
+import com.pharmacyhub.service.JsonExamUploadService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkImportServiceTest {
+
+    private static final int MAX_PAPER_BYTES = 64;
+
+    private final List<String> imported = new ArrayList<>();
+
+    // Runs papers on the calling thread and records them instead of creating exams
+    private final BulkImportService service = new BulkImportService(
+            new JsonExamUploadService(null, null, null, null, null, 500) {
+                @Override
+                public Exam processJsonStreamAndCreateExam(InputStream paperJson) {
+                    try {
+                        imported.add(new String(paperJson.readAllBytes(), StandardCharsets.UTF_8));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    Exam exam = new Exam();
+                    exam.setId((long) imported.size());
+                    exam.setTotalMarks(1);
+                    return exam;
+                }
+            },
+            Runnable::run,
+            Runnable::run,
+            10,
+            1,
+            MAX_PAPER_BYTES);
+
+    @Test
+    void rejectsArchiveEntriesAboveTheLimit() throws IOException {
+        String small = "{\"title\":\"Small\"}";
+        String large = "{\"title\":\"" + "x".repeat(MAX_PAPER_BYTES) + "\"}";
+        byte[] archive = zip("small.json", small, "large.json", large, "after.json", small);
+
+        BulkImportStatusDTO started = service.startImport(new ByteArrayInputStream(archive), BulkImportFormat.ZIP);
+        BulkImportStatusDTO status = service.getStatus(started.getJobId());
+
+        assertEquals("COMPLETED", status.getStatus());
+        assertEquals(3, status.getPapersRead());
+        assertEquals(2, status.getPapersSucceeded());
+        assertEquals(1, status.getPapersFailed());
+        assertEquals(List.of(small, small), imported);
+        assertEquals("large.json", status.getErrors().get(0).getSource());
+        assertTrue(status.getErrors().get(0).getMessage().contains(String.valueOf(MAX_PAPER_BYTES)));
+    }
+
+    @Test
+    void acceptsEntryOfExactlyTheLimit() throws IOException {
+        String paper = "{\"t\":\"" + "x".repeat(MAX_PAPER_BYTES - 8) + "\"}";
+        assertEquals(MAX_PAPER_BYTES, paper.length());
+
+        BulkImportStatusDTO started = service.startImport(
+                new ByteArrayInputStream(zip("paper.json", paper)), BulkImportFormat.ZIP);
+
+        assertEquals(1, service.getStatus(started.getJobId()).getPapersSucceeded());
+        assertEquals(List.of(paper), imported);
+    }
+
+    private static byte[] zip(String... namesAndContents) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
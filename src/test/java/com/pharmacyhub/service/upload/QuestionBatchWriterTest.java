@@ -0,0 +1,175 @@
+package com.pharmacyhub.service.upload;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.service.ExamService;
+import com.pharmacyhub.service.JsonExamUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Batched question inserts on H2.
+ * H2 has no serial columns, so the questions id sequence PostgreSQL resolves through
+ * pg_get_serial_sequence is created here and the function is defined to name it.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class QuestionBatchWriterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    // Sizes of the batches handed to the writer
+    private final List<Integer> batches = new ArrayList<>();
+
+    private QuestionBatchWriter questionBatchWriter;
+
+    @BeforeEach
+    void defineSerialSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS questions_id_seq START WITH 1000");
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS pg_get_serial_sequence FOR \""
+                + SerialSequences.class.getName() + ".name\"");
+        SerialSequences.lookups.clear();
+        questionBatchWriter = new QuestionBatchWriter(jdbcTemplate) {
+            @Override
+            public void write(Long examId, List<Question> questions) {
+                batches.add(questions.size());
+                super.write(examId, questions);
+            }
+        };
+    }
+
+    @Test
+    void reservesIdsFromTheSerialSequenceAndInsertsOptionsUnderThem() {
+        Exam exam = exam();
+        List<Question> questions = List.of(
+                question(1, "Dose of paracetamol?", "A", "B"),
+                question(2, "Class of amoxicillin?", "A", "B", "C"),
+                question(3, "Antidote of heparin?"));
+
+        questionBatchWriter.write(exam.getId(), questions);
+
+        assertEquals(Set.of("questions.id"), new HashSet<>(SerialSequences.lookups));
+        Long firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM questions WHERE exam_id = ?", Long.class, exam.getId());
+        assertEquals(List.of(firstId, firstId + 1, firstId + 2),
+                questions.stream().map(Question::getId).collect(Collectors.toList()));
+        assertEquals(List.of("Dose of paracetamol?", "Class of amoxicillin?", "Antidote of heparin?"),
+                jdbcTemplate.queryForList("SELECT question_text FROM questions WHERE exam_id = ? ORDER BY id",
+                        String.class, exam.getId()));
+        assertEquals(List.of(2, 3, 0), questions.stream()
+                .map(question -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM options WHERE question_id = ?",
+                        Integer.class, question.getId()))
+                .collect(Collectors.toList()));
+        assertEquals("A", jdbcTemplate.queryForObject(
+                "SELECT option_label FROM options WHERE question_id = ? AND is_correct = true", String.class,
+                questions.get(1).getId()));
+    }
+
+    @Test
+    void streamsAPaperInBatchesOfTheConfiguredSize() {
+        StringBuilder paper = new StringBuilder("{\"title\":\"Pharmacology I\",\"duration\":60,"
+                + "\"duplicateHandling\":\"ALLOW\",\"questions\":[");
+        for (int i = 1; i <= 5; i++) {
+            paper.append(i > 1 ? "," : "")
+                    .append("{\"number\":").append(i)
+                    .append(",\"question\":\"Question ").append(i).append("\",\"answer\":\"B\"")
+                    .append(",\"options\":{\"A\":\"First\",\"B\":\"Second\",\"C\":\"Third\",\"D\":\"Fourth\"}}");
+        }
+        paper.append("]}");
+        JsonExamUploadService uploadService = new JsonExamUploadService(examService(), new ObjectMapper(),
+                questionBatchWriter, null, event -> { }, 2);
+
+        Exam exam = uploadService.processJsonStreamAndCreateExam(
+                new ByteArrayInputStream(paper.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of(2, 2, 1), batches);
+        assertEquals(5, exam.getTotalMarks());
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, question_number FROM questions WHERE exam_id = ? ORDER BY id", exam.getId());
+        assertEquals(5, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            // Ids reserved by consecutive batches follow on from each other
+            assertEquals(((Number) rows.get(0).get("ID")).longValue() + i, ((Number) rows.get(i).get("ID")).longValue());
+            assertEquals(i + 1, ((Number) rows.get(i).get("QUESTION_NUMBER")).intValue());
+        }
+        assertEquals(20, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM options o JOIN questions q ON q.id = o.question_id WHERE q.exam_id = ?",
+                Integer.class, exam.getId()));
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM options o JOIN questions q ON q.id = o.question_id "
+                        + "WHERE q.exam_id = ? AND o.is_correct = true AND o.option_label = 'B'",
+                Integer.class, exam.getId()));
+    }
+
+    private ExamService examService() {
+        return (ExamService) Proxy.newProxyInstance(
+                ExamService.class.getClassLoader(),
+                new Class<?>[] {ExamService.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("createExam")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return entityManager.persistAndFlush((Exam) args[0]);
+                });
+    }
+
+    private Exam exam() {
+        Exam exam = new Exam();
+        exam.setTitle("Pharmacology I");
+        exam.setDuration(60);
+        exam.setTotalMarks(3);
+        exam.setPassingMarks(2);
+        return entityManager.persistAndFlush(exam);
+    }
+
+    private static Question question(int number, String text, String... labels) {
+        Question question = new Question();
+        question.setQuestionNumber(number);
+        question.setQuestionText(text);
+        question.setCorrectAnswer("A");
+        for (String label : labels) {
+            Option option = new Option();
+            option.setLabel(label);
+            option.setText("Option " + label);
+            option.setIsCorrect(label.equals("A"));
+            option.setQuestion(question);
+            question.getOptions().add(option);
+        }
+        return question;
+    }
+
+    /**
+     * pg_get_serial_sequence on H2; public so that H2 can call it
+     */
+    public static class SerialSequences {
+
+        static final List<String> lookups = new ArrayList<>();
+
+        public static String name(String table, String column) {
+            lookups.add(table + "." + column);
+            return table + "_" + column + "_seq";
+        }
+    }
+}
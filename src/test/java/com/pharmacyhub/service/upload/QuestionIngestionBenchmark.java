@@ -0,0 +1,210 @@
+package com.pharmacyhub.service.upload;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.service.ExamService;
+import com.pharmacyhub.service.JsonExamUploadService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to turn a 5,000-question JSON paper into Question entities.
+ *
+ * typedRecords runs the streaming upload (QuestionRecordReader, precompiled answer patterns)
+ * with persistence stubbed out. genericMaps is the previous approach, kept here as a baseline:
+ * records bound to maps, alternative field names probed with containsKey/get and answers
+ * matched with String.matches. Both fingerprint every question, as the upload does.
+ * The fixture mixes the accepted field names, answer formats and option layouts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class QuestionIngestionBenchmark {
+
+    private static final int QUESTION_COUNT = 5_000;
+
+    private static final TypeReference<List<Map<String, Object>>> QUESTION_RECORDS =
+            new TypeReference<List<Map<String, Object>>>() {
+            };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] paper;
+    private byte[] questionsArray;
+    private JsonExamUploadService uploadService;
+
+    @Setup
+    public void createFixture() {
+        StringBuilder questions = new StringBuilder("[");
+        String[] answers = {"A", "b) Second", "C Third", "(D) Fourth", "Option A: First", "B. Second", "Answer: C"};
+        for (int i = 1; i <= QUESTION_COUNT; i++) {
+            if (i > 1) {
+                questions.append(',');
+            }
+            String numberField = i % 3 == 0 ? "number" : i % 3 == 1 ? "question_number" : "questionNumber";
+            String textField = i % 2 == 0 ? "question" : "questionText";
+            questions.append("{\"").append(numberField).append("\":").append(i)
+                    .append(",\"").append(textField).append("\":\"Which drug class does compound ").append(i)
+                    .append(" belong to in the pharmacology syllabus?\"")
+                    .append(",\"answer\":\"").append(answers[i % answers.length]).append('"')
+                    .append(",\"explanation\":\"Explanation for question ").append(i).append("\",\"options\":");
+            if (i % 2 == 0) {
+                questions.append("{\"A\":\"First ").append(i).append("\",\"B\":\"Second\",\"C\":\"Third\",\"D\":\"Fourth\"}");
+            } else {
+                questions.append("[\"First ").append(i).append("\",{\"text\":\"Second\"},\"Third\",\"Fourth\"]");
+            }
+            questions.append('}');
+        }
+        questions.append(']');
+
+        questionsArray = questions.toString().getBytes(StandardCharsets.UTF_8);
+        paper = ("{\"title\":\"Fixture\",\"duration\":60,\"duplicateHandling\":\"ALLOW\",\"questions\":"
+                + questions + "}").getBytes(StandardCharsets.UTF_8);
+
+        ExamService examService = (ExamService) Proxy.newProxyInstance(
+                ExamService.class.getClassLoader(),
+                new Class<?>[] {ExamService.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("createExam")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Exam exam = (Exam) args[0];
+                    exam.setId(1L);
+                    return exam;
+                });
+        QuestionBatchWriter discardingWriter = new QuestionBatchWriter(null) {
+            @Override
+            public void write(Long examId, List<Question> batch) {
+            }
+        };
+        uploadService = new JsonExamUploadService(examService, objectMapper, discardingWriter, null, event -> { }, 500);
+    }
+
+    @Benchmark
+    public Exam typedRecords() {
+        return uploadService.processJsonStreamAndCreateExam(new ByteArrayInputStream(paper));
+    }
+
+    @Benchmark
+    public List<Question> genericMaps() throws IOException {
+        List<Map<String, Object>> records = objectMapper.readValue(questionsArray, QUESTION_RECORDS);
+        List<Question> questions = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            questions.add(toQuestion(records.get(i), i));
+        }
+        return questions;
+    }
+
+    private static Question toQuestion(Map<String, Object> data, int index) {
+        Question question = new Question();
+        if (data.containsKey("number")) {
+            question.setQuestionNumber(parseInt(data.get("number")));
+        } else if (data.containsKey("question_number")) {
+            question.setQuestionNumber(parseInt(data.get("question_number")));
+        } else if (data.containsKey("questionNumber")) {
+            question.setQuestionNumber(parseInt(data.get("questionNumber")));
+        } else {
+            question.setQuestionNumber(index + 1);
+        }
+        if (data.containsKey("question")) {
+            question.setQuestionText(data.get("question").toString());
+        } else if (data.containsKey("text")) {
+            question.setQuestionText(data.get("text").toString());
+        } else if (data.containsKey("questionText")) {
+            question.setQuestionText(data.get("questionText").toString());
+        }
+        if (data.containsKey("explanation")) {
+            question.setExplanation(data.get("explanation").toString());
+        }
+        question.setMarks(1);
+        question.setCorrectAnswer(correctAnswer(data.get("answer").toString().trim()));
+        question.setOptions(options(data.get("options"), question));
+        question.updateFingerprint();
+        return question;
+    }
+
+    private static String correctAnswer(String answer) {
+        if (answer.length() > 1) {
+            if (answer.matches("^[A-Za-z]\\).*")) {
+                answer = answer.substring(0, 1);
+            } else if (answer.matches("^[A-Za-z]\\s.*")) {
+                answer = answer.substring(0, 1);
+            } else if (answer.startsWith("(") && answer.length() >= 3) {
+                answer = answer.substring(1, 2);
+            } else if (answer.contains("Option ") && answer.length() >= 8) {
+                int optionIndex = answer.indexOf("Option ") + 7;
+                if (optionIndex < answer.length()) {
+                    answer = String.valueOf(answer.charAt(optionIndex));
+                }
+            } else if (answer.matches("^[A-Za-z]\\..*")) {
+                answer = answer.substring(0, 1);
+            } else if ((answer.startsWith("Answer ") || answer.startsWith("Answer: ")) && answer.length() >= 8) {
+                answer = answer.substring(answer.lastIndexOf(" ") + 1);
+            } else if (Character.isLetter(answer.charAt(0))) {
+                answer = String.valueOf(answer.charAt(0));
+            }
+        }
+        return answer.toUpperCase();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Option> options(Object options, Question question) {
+        List<Option> result = new ArrayList<>();
+        if (options instanceof Map<?, ?>) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) options).entrySet()) {
+                result.add(option(question, entry.getKey(), entry.getValue().toString()));
+            }
+        } else {
+            List<Object> list = (List<Object>) options;
+            for (int i = 0; i < list.size(); i++) {
+                Object value = list.get(i);
+                String text = value instanceof String ? (String) value : ((Map<String, Object>) value).get("text").toString();
+                result.add(option(question, String.valueOf((char) ('A' + i)), text));
+            }
+        }
+        return result;
+    }
+
+    private static Option option(Question question, String label, String text) {
+        Option option = new Option();
+        option.setQuestion(question);
+        option.setLabel(label);
+        option.setText(text);
+        option.setIsCorrect(label.equalsIgnoreCase(question.getCorrectAnswer()));
+        return option;
+    }
+
+    private static int parseInt(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(QuestionIngestionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package com.pharmacyhub.service.upload;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.pharmacyhub.dto.request.JsonQuestionRecordDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuestionRecordReaderTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    void bindsPreferredFieldNamesRegardlessOfOrder() throws IOException {
+        JsonQuestionRecordDTO record = read("{\"questionNumber\": 9, \"questionText\": \"Low\", "
+                + "\"number\": \"3\", \"question\": \"High\", \"question_number\": 5, \"text\": \"Middle\", "
+                + "\"answer\": \"B\", \"explanation\": \"Because\", \"options\": {\"A\": \"One\", \"B\": \"Two\"}}");
+
+        assertEquals(3, record.getNumber());
+        assertEquals("High", record.getText());
+        assertEquals("B", record.getAnswer());
+        assertEquals("Because", record.getExplanation());
+        assertEquals(2, record.getOptions().size());
+        assertEquals("B", record.getOptions().get(1).getLabel());
+        assertEquals("Two", record.getOptions().get(1).getText());
+    }
+
+    @Test
+    void treatsNullValuesAsAbsentAndSkipsUnknownFields() throws IOException {
+        JsonQuestionRecordDTO record = read("{\"number\": null, \"question_number\": 4, \"question\": null, "
+                + "\"text\": \"Text\", \"tags\": [\"a\", {\"nested\": true}], \"options\": [\"One\"]}");
+
+        assertEquals(4, record.getNumber());
+        assertEquals("Text", record.getText());
+        assertNull(record.getAnswer());
+        assertNull(record.getExplanation());
+    }
+
+    @Test
+    void readsPositionalOptionsAsStringsOrObjects() throws IOException {
+        JsonQuestionRecordDTO record = read("{\"options\": [\"One\", {\"id\": 2, \"text\": \"Two\"}]}");
+
+        assertEquals(2, record.getOptions().size());
+        assertNull(record.getOptions().get(0).getLabel());
+        assertEquals("One", record.getOptions().get(0).getText());
+        assertEquals("Two", record.getOptions().get(1).getText());
+    }
+
+    @Test
+    void leavesParserOnTheRecordsEndObject() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser("[{\"question\": \"First\"}, {\"question\": \"Second\"}]")) {
+            parser.nextToken();
+            parser.nextToken();
+            assertEquals("First", QuestionRecordReader.read(parser).getText());
+            assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+            parser.nextToken();
+            assertEquals("Second", QuestionRecordReader.read(parser).getText());
+        }
+    }
+
+    @Test
+    void rejectsMalformedOptions() {
+        assertThrows(IllegalArgumentException.class, () -> read("{\"options\": \"A, B\"}"));
+        assertThrows(IllegalArgumentException.class, () -> read("{\"options\": [1, 2]}"));
+        assertThrows(IllegalArgumentException.class, () -> read("{\"options\": [{\"label\": \"A\"}]}"));
+        assertThrows(IllegalArgumentException.class, () -> read("{\"options\": {\"A\": null}}"));
+    }
+
+    @Test
+    void rejectsNonNumericQuestionNumber() {
+        assertThrows(IllegalArgumentException.class, () -> read("{\"number\": \"three\"}"));
+        assertThrows(IllegalArgumentException.class, () -> read("{\"number\": true}"));
+    }
+
+    private JsonQuestionRecordDTO read(String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            parser.nextToken();
+            return QuestionRecordReader.read(parser);
+        }
+    }
+}
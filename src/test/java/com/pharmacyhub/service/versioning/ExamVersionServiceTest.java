@@ -0,0 +1,253 @@
+package com.pharmacyhub.service.versioning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pharmacyhub.domain.entity.Exam;
+import com.pharmacyhub.domain.entity.ExamVersion;
+import com.pharmacyhub.domain.entity.Option;
+import com.pharmacyhub.domain.entity.Question;
+import com.pharmacyhub.domain.repository.ExamRepository;
+import com.pharmacyhub.domain.repository.ExamVersionRepository;
+import com.pharmacyhub.domain.repository.QuestionRepository;
+import com.pharmacyhub.service.catalog.ExamCatalogChangedEvent;
+import com.pharmacyhub.service.catalog.ExamQuestionPayloadCache;
+import com.pharmacyhub.service.scoring.AnswerKey;
+import com.pharmacyhub.service.scoring.AnswerKeyCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExamVersionServiceTest {
+
+    private final Map<Long, Exam> exams = new HashMap<>();
+    private final Map<Long, List<Question>> liveQuestions = new HashMap<>();
+    // The exam_versions table
+    private final List<ExamVersion> versions = new ArrayList<>();
+    private final List<String> queries = new ArrayList<>();
+    private final List<Integer> propagations = new ArrayList<>();
+    private Runnable whileLocked = () -> { };
+
+    private ExamVersionService examVersionService;
+    private QuestionRepository questionRepository;
+
+    @BeforeEach
+    void createService() {
+        exams.put(7L, exam(7L));
+        exams.put(8L, exam(8L));
+        liveQuestions.put(7L, new ArrayList<>(List.of(question(71L, "Dose of paracetamol?", "A"),
+                question(72L, "Class of amoxicillin?", "B"))));
+        liveQuestions.put(8L, new ArrayList<>(List.of(question(81L, "Antidote of heparin?", "C"))));
+
+        ExamRepository examRepository = (ExamRepository) Proxy.newProxyInstance(
+                ExamRepository.class.getClassLoader(),
+                new Class<?>[] {ExamRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findByIdForUpdate")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    queries.add("lock " + args[0]);
+                    whileLocked.run();
+                    return Optional.ofNullable(exams.get((Long) args[0]));
+                });
+        ExamVersionRepository examVersionRepository = (ExamVersionRepository) Proxy.newProxyInstance(
+                ExamVersionRepository.class.getClassLoader(),
+                new Class<?>[] {ExamVersionRepository.class},
+                (proxy, method, args) -> {
+                    queries.add(method.getName());
+                    switch (method.getName()) {
+                        case "findLatestByExamId":
+                            return latest((Long) args[0]);
+                        case "findLatestIdByExamId":
+                            return latest((Long) args[0]).map(ExamVersion::getId);
+                        case "findById":
+                            return versions.stream().filter(v -> v.getId().equals(args[0])).findFirst();
+                        case "save":
+                            return save((ExamVersion) args[0]);
+                        case "findLatestQuestionCountsByExamIds":
+                            List<Object[]> rows = new ArrayList<>();
+                            for (Long examId : (Collection<Long>) args[0]) {
+                                latest(examId).ifPresent(v -> rows.add(new Object[] {examId, v.getId(), v.getQuestionCount()}));
+                            }
+                            return rows;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        questionRepository = (QuestionRepository) Proxy.newProxyInstance(
+                QuestionRepository.class.getClassLoader(),
+                new Class<?>[] {QuestionRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findByExamIdWithOptions") && !method.getName().equals("findByExamId")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return liveQuestions.get((Long) args[0]);
+                });
+        PlatformTransactionManager transactionManager = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                propagations.add(definition.getPropagationBehavior());
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+        examVersionService = new ExamVersionService(examRepository, examVersionRepository, questionRepository,
+                new ObjectMapper(), transactionManager, 10, 3600);
+    }
+
+    @Test
+    void pinsPublishedContentUntilTheExamIsPublishedAgain() {
+        ExamVersion first = examVersionService.publish(7L);
+        Question edited = liveQuestions.get(7L).get(0);
+        edited.setQuestionText("Maximum daily dose of paracetamol?");
+
+        assertEquals(first.getId(), examVersionService.getLatestVersionId(7L));
+        assertEquals("Dose of paracetamol?", examVersionService.getVersion(first.getId()).getQuestions().get(0).getQuestionText());
+
+        ExamVersion second = examVersionService.publish(7L);
+        assertEquals(2, second.getVersionNumber());
+        assertSame(second, examVersionService.publish(7L));
+        assertEquals("Dose of paracetamol?", examVersionService.getVersion(first.getId()).getQuestions().get(0).getQuestionText());
+        assertEquals("Maximum daily dose of paracetamol?",
+                examVersionService.getVersion(second.getId()).getQuestions().get(0).getQuestionText());
+    }
+
+    @Test
+    void freezesAnExamWithoutAVersionOnFirstUseInItsOwnLockedTransaction() {
+        Long versionId = examVersionService.getLatestVersionId(7L);
+
+        assertEquals(1, versions.size());
+        assertEquals(versionId, versions.get(0).getId());
+        assertEquals(List.of(TransactionDefinition.PROPAGATION_REQUIRES_NEW), propagations);
+        assertEquals(List.of("findLatestIdByExamId", "lock 7", "findLatestIdByExamId", "save"), queries);
+
+        // The pointer is cached until an exam change commits, and the exam is not frozen again
+        queries.clear();
+        assertEquals(versionId, examVersionService.getLatestVersionId(7L));
+        assertEquals(List.of(), queries);
+        examVersionService.onExamCatalogChanged(new ExamCatalogChangedEvent(7L));
+        assertEquals(versionId, examVersionService.getLatestVersionId(7L));
+        assertEquals(List.of("findLatestIdByExamId"), queries);
+    }
+
+    @Test
+    void keepsTheVersionFrozenByAnotherRequestWhileWaitingForTheLock() {
+        whileLocked = () -> {
+            ExamVersion concurrent = new ExamVersion();
+            concurrent.setExam(exams.get(7L));
+            concurrent.setVersionNumber(1);
+            concurrent.setContentHash("frozen-by-another-request");
+            concurrent.setContent("{}");
+            save(concurrent);
+        };
+
+        Long versionId = examVersionService.getLatestVersionId(7L);
+
+        assertEquals(1, versions.size());
+        assertEquals("frozen-by-another-request", versions.get(0).getContentHash());
+        assertEquals(versions.get(0).getId(), versionId);
+    }
+
+    @Test
+    void countsTheQuestionsOfTheLatestVersionRatherThanTheDraft() {
+        examVersionService.publish(7L);
+        liveQuestions.get(7L).add(question(73L, "Draft question", "D"));
+
+        assertEquals(Map.of(7L, 2, 8L, 1), examVersionService.getLatestQuestionCounts(List.of(7L, 8L)));
+        // Exam 8 had no version and was frozen
+        assertEquals(2, versions.size());
+
+        // Versions frozen before the count was stored are counted from their content
+        versions.forEach(version -> version.setQuestionCount(null));
+        assertEquals(Map.of(7L, 2, 8L, 1), examVersionService.getLatestQuestionCounts(List.of(7L, 8L)));
+    }
+
+    @Test
+    void servesAnswerKeysAndPayloadsByVersionId() {
+        Long firstId = examVersionService.publish(7L).getId();
+        AnswerKeyCache answerKeyCache = new AnswerKeyCache(questionRepository, null, examVersionService, 10, 3600);
+        ExamQuestionPayloadCache payloadCache = new ExamQuestionPayloadCache(
+                null, examVersionService, new ObjectMapper().registerModule(new JavaTimeModule()), 10, 3600);
+
+        AnswerKey key = answerKeyCache.get(7L, firstId);
+        ExamQuestionPayloadCache.Payload payload = payloadCache.get(exams.get(7L));
+        // An unpublished edit changes the live key but neither the version's key nor the served payload
+        liveQuestions.get(7L).get(0).setCorrectAnswer("D");
+        assertSame(key, answerKeyCache.get(7L, firstId));
+        assertTrue(key.isCorrect(key.indexOf(71L), "A"));
+        AnswerKey liveKey = answerKeyCache.get(7L);
+        assertTrue(liveKey.isCorrect(liveKey.indexOf(71L), "D"));
+        assertSame(payload, payloadCache.get(exams.get(7L)));
+        assertEquals(1, queries.stream().filter("findById"::equals).count());
+
+        Long secondId = examVersionService.publish(7L).getId();
+        examVersionService.onExamCatalogChanged(new ExamCatalogChangedEvent(7L));
+        assertNotEquals(firstId, secondId);
+        AnswerKey secondKey = answerKeyCache.get(7L, secondId);
+        assertTrue(secondKey.isCorrect(secondKey.indexOf(71L), "D"));
+        assertNotEquals(payload.getEtag(), payloadCache.get(exams.get(7L)).getEtag());
+    }
+
+    private Optional<ExamVersion> latest(Long examId) {
+        return versions.stream()
+                .filter(version -> version.getExam().getId().equals(examId))
+                .max(Comparator.comparing(ExamVersion::getVersionNumber));
+    }
+
+    private ExamVersion save(ExamVersion version) {
+        version.setId(100L + versions.size());
+        versions.add(version);
+        return version;
+    }
+
+    private static Exam exam(Long id) {
+        Exam exam = new Exam();
+        exam.setId(id);
+        exam.setTitle("Exam " + id);
+        exam.setStatus(Exam.ExamStatus.PUBLISHED);
+        exam.setTotalMarks(2);
+        exam.setPassingMarks(1);
+        return exam;
+    }
+
+    private static Question question(Long id, String text, String correctAnswer) {
+        Question question = new Question();
+        question.setId(id);
+        question.setQuestionText(text);
+        question.setCorrectAnswer(correctAnswer);
+        question.setOptions(List.of("A", "B", "C", "D").stream().map(label -> {
+            Option option = new Option();
+            option.setId(id * 10 + label.charAt(0) - 'A');
+            option.setLabel(label);
+            option.setText("Option " + label);
+            option.setIsCorrect(label.equals(correctAnswer));
+            option.setQuestion(question);
+            return option;
+        }).collect(Collectors.toCollection(ArrayList::new)));
+        return question;
+    }
+}
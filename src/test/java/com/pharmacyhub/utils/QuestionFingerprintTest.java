@@ -0,0 +1,77 @@
+package com.pharmacyhub.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionFingerprintTest {
+
+    private static final String TEXT = "Which enzyme is inhibited by aspirin in the synthesis of prostaglandins "
+            + "from arachidonic acid in platelets and the vascular endothelium?";
+    private static final List<String> OPTIONS = List.of("Cyclooxygenase", "Lipoxygenase", "Phospholipase A2", "Thromboxane synthase");
+
+    @Test
+    void normalizesCasePunctuationAndWhitespace() {
+        assertEquals("what is the dose of drug x", QuestionFingerprint.normalize("  What is the DOSE of drug-X?! "));
+        assertEquals("", QuestionFingerprint.normalize(null));
+        assertEquals("", QuestionFingerprint.normalize("?!"));
+    }
+
+    @Test
+    void ignoresFormattingAndOptionOrder() {
+        QuestionFingerprint fingerprint = QuestionFingerprint.of(TEXT, OPTIONS);
+        QuestionFingerprint reformatted = QuestionFingerprint.of("  " + TEXT.toUpperCase().replace(" ", "   "),
+                List.of("thromboxane synthase.", "PHOSPHOLIPASE A2", "Lipoxygenase", "cyclooxygenase"));
+
+        assertEquals(fingerprint.getContentHash(), reformatted.getContentHash());
+        assertEquals(fingerprint.getSimHash(), reformatted.getSimHash());
+    }
+
+    @Test
+    void distinguishesQuestionsAndOptions() {
+        QuestionFingerprint fingerprint = QuestionFingerprint.of(TEXT, OPTIONS);
+
+        assertNotEquals(fingerprint.getContentHash(),
+                QuestionFingerprint.of(TEXT.replace("aspirin", "ibuprofen"), OPTIONS).getContentHash());
+        assertNotEquals(fingerprint.getContentHash(),
+                QuestionFingerprint.of(TEXT, List.of("Cyclooxygenase", "Lipoxygenase", "Phospholipase C", "Thromboxane synthase"))
+                        .getContentHash());
+        // Option boundaries are part of the content
+        assertNotEquals(QuestionFingerprint.of("Pick one", List.of("a b", "c")).getContentHash(),
+                QuestionFingerprint.of("Pick one", List.of("a", "b c")).getContentHash());
+    }
+
+    @Test
+    void keepsNearDuplicatesWithinMaxDistance() {
+        long simHash = QuestionFingerprint.of(TEXT, OPTIONS).getSimHash();
+        long oneWordChanged = QuestionFingerprint.of(TEXT.replace("platelets", "thrombocytes"), OPTIONS).getSimHash();
+        long unrelated = QuestionFingerprint.of("Which organ primarily metabolizes ethanol and by which pathway?",
+                List.of("Liver", "Kidney", "Lung", "Stomach")).getSimHash();
+
+        assertTrue(QuestionFingerprint.distance(simHash, oneWordChanged) <= QuestionFingerprint.MAX_NEAR_DISTANCE);
+        assertTrue(QuestionFingerprint.distance(simHash, unrelated) > QuestionFingerprint.MAX_NEAR_DISTANCE);
+    }
+
+    @Test
+    void nearDuplicatesShareABand() {
+        long simHash = 0x0123456789abcdefL;
+        int bandsBits = 0;
+        for (int band = 0; band < QuestionFingerprint.BANDS; band++) {
+            bandsBits += Integer.bitCount(QuestionFingerprint.band(-1L, band));
+        }
+        assertEquals(64, bandsBits);
+
+        // Flipping one bit in each of all but one band leaves that band unchanged
+        long near = simHash;
+        for (int band = 0; band < QuestionFingerprint.BANDS - 1; band++) {
+            near ^= 1L << (band * 64 / QuestionFingerprint.BANDS);
+        }
+        assertEquals(QuestionFingerprint.MAX_NEAR_DISTANCE, QuestionFingerprint.distance(simHash, near));
+        int last = QuestionFingerprint.BANDS - 1;
+        assertEquals(QuestionFingerprint.band(simHash, last), QuestionFingerprint.band(near, last));
+    }
+}